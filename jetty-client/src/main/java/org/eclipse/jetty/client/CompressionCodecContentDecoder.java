@@ -0,0 +1,110 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.client;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import org.eclipse.jetty.io.ByteBufferPool;
+import org.eclipse.jetty.io.RuntimeIOException;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.component.Destroyable;
+import org.eclipse.jetty.util.compression.CompressionCodec;
+
+/**
+ * <p>{@link ContentDecoder} for the content-coding of a {@link CompressionCodec}.</p>
+ */
+public class CompressionCodecContentDecoder implements ContentDecoder, Destroyable
+{
+    public static final int DEFAULT_BUFFER_SIZE = 8192;
+
+    private final CompressionCodec.Decoder decoder;
+    private final ByteBufferPool byteBufferPool;
+    private final int bufferSize;
+
+    public CompressionCodecContentDecoder(CompressionCodec codec, ByteBufferPool byteBufferPool, int bufferSize)
+    {
+        this.decoder = codec.newDecoder();
+        this.byteBufferPool = byteBufferPool;
+        this.bufferSize = bufferSize;
+    }
+
+    @Override
+    public ByteBuffer decode(ByteBuffer buffer)
+    {
+        ByteBuffer decoded = acquire();
+        try
+        {
+            int pos = BufferUtil.flipToFill(decoded);
+            int length = decoder.decode(buffer, decoded);
+            BufferUtil.flipToFlush(decoded, pos);
+            if (length > 0)
+                return decoded;
+            release(decoded);
+            return BufferUtil.EMPTY_BUFFER;
+        }
+        catch (IOException x)
+        {
+            release(decoded);
+            throw new RuntimeIOException(x);
+        }
+    }
+
+    private ByteBuffer acquire()
+    {
+        return byteBufferPool == null ? BufferUtil.allocate(bufferSize) : byteBufferPool.acquire(bufferSize, false);
+    }
+
+    @Override
+    public void release(ByteBuffer decoded)
+    {
+        if (byteBufferPool != null && decoded != BufferUtil.EMPTY_BUFFER)
+            byteBufferPool.release(decoded);
+    }
+
+    @Override
+    public void destroy()
+    {
+        decoder.end();
+    }
+
+    /**
+     * Specialized {@link ContentDecoder.Factory} for the content-coding of a {@link CompressionCodec}.
+     */
+    public static class Factory extends ContentDecoder.Factory
+    {
+        private final CompressionCodec codec;
+        private final ByteBufferPool byteBufferPool;
+        private final int bufferSize;
+
+        public Factory(CompressionCodec codec, ByteBufferPool byteBufferPool)
+        {
+            this(codec, byteBufferPool, DEFAULT_BUFFER_SIZE);
+        }
+
+        public Factory(CompressionCodec codec, ByteBufferPool byteBufferPool, int bufferSize)
+        {
+            super(codec.getEncoding());
+            this.codec = codec;
+            this.byteBufferPool = byteBufferPool;
+            this.bufferSize = bufferSize;
+        }
+
+        @Override
+        public ContentDecoder newContentDecoder()
+        {
+            return new CompressionCodecContentDecoder(codec, byteBufferPool, bufferSize);
+        }
+    }
+}
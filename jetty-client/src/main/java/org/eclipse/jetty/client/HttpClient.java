@@ -70,6 +70,7 @@ import org.eclipse.jetty.util.annotation.ManagedAttribute;
 import org.eclipse.jetty.util.annotation.ManagedObject;
 import org.eclipse.jetty.util.component.ContainerLifeCycle;
 import org.eclipse.jetty.util.component.DumpableCollection;
+import org.eclipse.jetty.util.compression.CompressionCodec;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
@@ -222,6 +223,11 @@ public class HttpClient extends ContainerLifeCycle
         handlers.put(new ProxyAuthenticationProtocolHandler(this));
         handlers.put(new UpgradeProtocolHandler());
 
+        for (CompressionCodec codec : CompressionCodec.getCodecs())
+        {
+            decoderFactories.add(new CompressionCodecContentDecoder.Factory(codec, byteBufferPool));
+        }
+        // Gzip is always supported, even if its codec could not be discovered.
         decoderFactories.add(new GZIPContentDecoder.Factory(byteBufferPool));
 
         cookieManager = newCookieManager();
@@ -17,12 +17,16 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.Random;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.DeflaterOutputStream;
 import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
 import javax.servlet.ServletOutputStream;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -36,14 +40,17 @@ import org.eclipse.jetty.io.ByteBufferPool;
 import org.eclipse.jetty.io.MappedByteBufferPool;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.util.IO;
+import org.eclipse.jetty.util.compression.CompressionCodec;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ArgumentsSource;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.lessThan;
 import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 public class HttpClientGZIPTest extends AbstractHttpClientServerTest
@@ -74,6 +81,49 @@ public class HttpClientGZIPTest extends AbstractHttpClientServerTest
         assertArrayEquals(data, response.getContent());
     }
 
+    @ParameterizedTest
+    @ArgumentsSource(ScenarioProvider.class)
+    public void testGZIPDecodedByCompressionCodec(Scenario scenario) throws Exception
+    {
+        start(scenario, new EmptyServerHandler());
+
+        assertTrue(client.getContentDecoderFactories().stream()
+            .anyMatch(factory -> factory instanceof CompressionCodecContentDecoder.Factory && "gzip".equals(factory.getEncoding())));
+    }
+
+    @ParameterizedTest
+    @ArgumentsSource(ScenarioProvider.class)
+    public void testCompressionCodecContentEncoding(Scenario scenario) throws Exception
+    {
+        byte[] data = new byte[128 * 1024];
+        new Random().nextBytes(data);
+        // Compressible content larger than the decoder buffer.
+        Arrays.fill(data, 0, data.length / 2, (byte)'x');
+        start(scenario, new EmptyServerHandler()
+        {
+            @Override
+            protected void service(String target, Request jettyRequest, HttpServletRequest request, HttpServletResponse response) throws IOException
+            {
+                assertThat(request.getHeader("Accept-Encoding"), containsString("x-test"));
+                response.setHeader("Content-Encoding", "x-test");
+                DeflaterOutputStream deflaterOutput = new DeflaterOutputStream(response.getOutputStream());
+                deflaterOutput.write(data);
+                deflaterOutput.finish();
+            }
+        });
+
+        CompressionCodec codec = new InflaterCompressionCodec("x-test");
+        client.getContentDecoderFactories().add(new CompressionCodecContentDecoder.Factory(codec, client.getByteBufferPool()));
+
+        ContentResponse response = client.newRequest("localhost", connector.getLocalPort())
+            .scheme(scenario.getScheme())
+            .timeout(5, TimeUnit.SECONDS)
+            .send();
+
+        assertEquals(200, response.getStatus());
+        assertArrayEquals(data, response.getContent());
+    }
+
     @ParameterizedTest
     @ArgumentsSource(ScenarioProvider.class)
     public void testGZIPContentOneByteAtATime(Scenario scenario) throws Exception
@@ -317,4 +367,73 @@ public class HttpClientGZIPTest extends AbstractHttpClientServerTest
             throw new InterruptedIOException();
         }
     }
+
+    /**
+     * A codec that decodes the zlib format of RFC 1950 with an {@link Inflater}.
+     */
+    private static class InflaterCompressionCodec implements CompressionCodec
+    {
+        private final String encoding;
+
+        private InflaterCompressionCodec(String encoding)
+        {
+            this.encoding = encoding;
+        }
+
+        @Override
+        public String getEncoding()
+        {
+            return encoding;
+        }
+
+        @Override
+        public Encoder newEncoder(int compressionLevel)
+        {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Decoder newDecoder()
+        {
+            Inflater inflater = new Inflater();
+            return new Decoder()
+            {
+                @Override
+                public int decode(ByteBuffer input, ByteBuffer output) throws IOException
+                {
+                    try
+                    {
+                        // The Inflater advances the position of the slice as it consumes it.
+                        ByteBuffer slice = input.slice();
+                        inflater.setInput(slice);
+                        int decoded = inflater.inflate(output);
+                        input.position(input.position() + slice.position());
+                        return decoded;
+                    }
+                    catch (DataFormatException x)
+                    {
+                        throw new IOException(x);
+                    }
+                }
+
+                @Override
+                public boolean finished()
+                {
+                    return inflater.finished();
+                }
+
+                @Override
+                public void reset()
+                {
+                    inflater.reset();
+                }
+
+                @Override
+                public void end()
+                {
+                    inflater.end();
+                }
+            };
+        }
+    }
 }
@@ -118,6 +118,7 @@ public enum HttpHeader
 
     X_POWERED_BY("X-Powered-By"),
     HTTP2_SETTINGS("HTTP2-Settings"),
+    PRIORITY("Priority"),
 
     STRICT_TRANSPORT_SECURITY("Strict-Transport-Security"),
 
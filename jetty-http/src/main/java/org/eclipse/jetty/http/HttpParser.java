@@ -17,10 +17,13 @@ import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.jetty.http.HttpTokens.EndOfContent;
 import org.eclipse.jetty.util.BufferUtil;
@@ -74,6 +77,12 @@ import static org.eclipse.jetty.http.HttpCompliance.Violation.WHITESPACE_AFTER_F
  * For headers who's value is not known statically (eg. Host, COOKIE) then a
  * per parser dynamic Trie of {@link HttpFields} from previous parsed messages
  * is used to help the parsing of subsequent messages.
+ * Other headers, including headers unknown to {@link HttpHeader}, are learnt
+ * by the per parser Trie when the same value is received again for the same
+ * name, so that header lines repeated on a persistent connection resolve to
+ * the same {@link HttpField} instance without allocation.
+ * An optional {@link #setSharedFieldCache(Index) shared cache} of fields
+ * may also be configured, typically for values that are common to many connections.
  * </p>
  * <p>
  * The parser can work in varying compliance modes:
@@ -223,7 +232,9 @@ public class HttpParser
     private final HttpCompliance _complianceMode;
     private final Utf8StringBuilder _uri = new Utf8StringBuilder(INITIAL_URI_LENGTH);
     private final FieldCache _fieldCache = new FieldCache();
+    private Index<HttpField> _sharedFieldCache;
     private HttpField _field;
+    private boolean _fieldCached;
     private HttpHeader _header;
     private String _headerString;
     private String _valueString;
@@ -325,6 +336,60 @@ public class HttpParser
         _fieldCache.setCaseSensitive(headerCacheCaseSensitive);
     }
 
+    /**
+     * @return the cache of fields shared with other parsers, or null
+     */
+    public Index<HttpField> getSharedFieldCache()
+    {
+        return _sharedFieldCache;
+    }
+
+    /**
+     * <p>Sets a cache of fields that is looked up after the per parser field cache
+     * and before the static {@link #CACHE}.</p>
+     * <p>The cache is only read by the parser, and may be shared by many parsers,
+     * so it should be an immutable {@link Index}, keyed by the {@link HttpField#toString()}
+     * of its fields, for example built with {@link Index.Builder#with(Object)}.</p>
+     *
+     * @param sharedFieldCache the cache of fields shared with other parsers, or null
+     */
+    public void setSharedFieldCache(Index<HttpField> sharedFieldCache)
+    {
+        _sharedFieldCache = sharedFieldCache;
+    }
+
+    /**
+     * @return the number of header lines resolved to a cached field, without allocation
+     * @see #setHeaderCacheStatistics(LongAdder, LongAdder)
+     */
+    public long getHeaderCacheHits()
+    {
+        return _fieldCache.getHits();
+    }
+
+    /**
+     * @return the number of header lines that could not be resolved to a cached field
+     * @see #setHeaderCacheStatistics(LongAdder, LongAdder)
+     */
+    public long getHeaderCacheMisses()
+    {
+        return _fieldCache.getMisses();
+    }
+
+    /**
+     * <p>Sets the counters of the header lines resolved and not resolved to a cached field.</p>
+     * <p>The counters may be shared by many parsers, typically those of the connections
+     * created by the same connection factory, in which case the header cache statistics
+     * of this parser are those of all the parsers sharing the counters.</p>
+     *
+     * @param hits the counter of the header lines resolved to a cached field
+     * @param misses the counter of the header lines not resolved to a cached field
+     */
+    public void setHeaderCacheStatistics(LongAdder hits, LongAdder misses)
+    {
+        _fieldCache.setStatistics(Objects.requireNonNull(hits), Objects.requireNonNull(misses));
+    }
+
     protected void checkViolation(Violation violation) throws BadMessageException
     {
         if (violation.isAllowedBy(_complianceMode))
@@ -552,6 +617,104 @@ public class HttpParser
         return false;
     }
 
+    /**
+     * <p>Returns how many of the given number of bytes can be consumed in bulk
+     * without exceeding the max header bytes, and counts them as header bytes.
+     * The byte that exceeds the max header bytes, if any, is left to be consumed
+     * by {@link #next(ByteBuffer)} so that the failure is reported as usual.</p>
+     */
+    private int countHeaderBytes(int count)
+    {
+        if (_maxHeaderBytes > 0)
+        {
+            count = Math.max(0, Math.min(count, _maxHeaderBytes - _headerBytes));
+            _headerBytes += count;
+        }
+        return count;
+    }
+
+    /**
+     * <p>Fast path that appends to the URI the bytes following the current one,
+     * until a space, a control character or the end of the buffer.</p>
+     */
+    private void appendURIChars(ByteBuffer buffer)
+    {
+        int position = buffer.position();
+        int count = countHeaderBytes(HttpTokens.countFieldVchars(buffer, position, buffer.limit()));
+        if (count == 0)
+            return;
+        if (buffer.hasArray())
+        {
+            _uri.append(buffer.array(), buffer.arrayOffset() + position, count);
+        }
+        else
+        {
+            for (int i = 0; i < count; i++)
+            {
+                _uri.append(buffer.get(position + i));
+            }
+        }
+        buffer.position(position + count);
+    }
+
+    /**
+     * <p>Fast path that appends to the field value the bytes following the current one,
+     * until a space, a control character (including CR and LF) or the end of the buffer.</p>
+     */
+    private void appendFieldVchars(ByteBuffer buffer)
+    {
+        int position = buffer.position();
+        int count = countHeaderBytes(HttpTokens.countFieldVchars(buffer, position, buffer.limit()));
+        if (count == 0)
+            return;
+        for (int i = 0; i < count; i++)
+        {
+            _string.append((char)(buffer.get(position + i) & 0xFF));
+        }
+        buffer.position(position + count);
+    }
+
+    /**
+     * <p>Fast path that appends to the field name the token bytes following the current one.</p>
+     */
+    private void appendTokenChars(ByteBuffer buffer)
+    {
+        int position = buffer.position();
+        int limit = buffer.limit();
+        int index = position;
+        while (index < limit)
+        {
+            switch (HttpTokens.getToken(buffer.get(index)).getType())
+            {
+                case ALPHA:
+                case DIGIT:
+                case TCHAR:
+                    ++index;
+                    continue;
+                default:
+                    break;
+            }
+            break;
+        }
+        int count = countHeaderBytes(index - position);
+        for (int i = 0; i < count; i++)
+        {
+            _string.append((char)buffer.get(position + i));
+        }
+        buffer.position(position + count);
+    }
+
+    private static boolean matches(ByteBuffer buffer, int index, String value)
+    {
+        int length = value.length();
+        for (int i = 0; i < length; i++)
+        {
+            if ((buffer.get(index + i) & 0xFF) != value.charAt(i))
+                return false;
+        }
+        return true;
+    }
+
     private void setString(String s)
     {
         _string.setLength(0);
@@ -794,6 +957,7 @@ public class HttpParser
                         case COLON:
                         case OTEXT:
                             _uri.append(t.getByte());
+                            appendURIChars(buffer);
                             break;
 
                         default:
@@ -1076,6 +1240,12 @@ public class HttpParser
                         break;
 
                     default:
+                        // Learn the other fields if their value is repeated.
+                        if (_field == null && _fieldCache.learnable(_header.asString(), _valueString))
+                        {
+                            _field = new LearntHttpField(_header, caseInsensitiveHeader(_headerString, _header.asString()), _valueString);
+                            addToFieldCache = true;
+                        }
                         break;
                 }
 
@@ -1088,6 +1258,13 @@ public class HttpParser
                     _fieldCache.add(_field);
                 }
             }
+            else if (_field == null && _fieldCache.learnable(_headerString, _valueString))
+            {
+                // Learn the unknown fields if their value is repeated.
+                _field = new LearntHttpField(null, _headerString, _valueString);
+                _fieldCache.add(_field);
+            }
+            _fieldCache.record(_fieldCached);
             if (LOG.isDebugEnabled())
                 LOG.debug("parsedHeader({}) header={}, headerString=[{}], valueString=[{}]", _field, _header, _headerString, _valueString);
             _handler.parsedHeader(_field != null ? _field : new HttpField(_header, _headerString, _valueString));
@@ -1096,6 +1273,7 @@ public class HttpParser
         _headerString = _valueString = null;
         _header = null;
         _field = null;
+        _fieldCached = false;
     }
 
     private void parsedTrailer()
@@ -1107,6 +1285,7 @@ public class HttpParser
         _headerString = _valueString = null;
         _header = null;
         _field = null;
+        _fieldCached = false;
     }
 
     private long convertContentLength(String valueString)
@@ -1267,11 +1446,14 @@ public class HttpParser
                             {
                                 // Try a look ahead for the known header name and value.
                                 HttpField cachedField = _fieldCache.getBest(buffer, -1, buffer.remaining());
+                                if (cachedField == null && _sharedFieldCache != null)
+                                    cachedField = _sharedFieldCache.getBest(buffer, -1, buffer.remaining());
                                 if (cachedField == null)
                                     cachedField = CACHE.getBest(buffer, -1, buffer.remaining());
 
                                 if (cachedField != null)
                                 {
+                                    HttpField field = cachedField;
                                     String n = cachedField.getName();
                                     String v = cachedField.getValue();
 
@@ -1287,12 +1469,13 @@ public class HttpParser
                                         }
                                     }
 
-                                    if (v != null && isHeaderCacheCaseSensitive())
+                                    // Learnt fields may have any value, so their value case is always checked.
+                                    if (v != null && (isHeaderCacheCaseSensitive() || cachedField instanceof LearntHttpField))
                                     {
-                                        String ev = BufferUtil.toString(buffer, buffer.position() + n.length() + 1, v.length(), StandardCharsets.ISO_8859_1);
-                                        if (!v.equals(ev))
+                                        int index = buffer.position() + n.length() + 1;
+                                        if (!matches(buffer, index, v))
                                         {
-                                            v = ev;
+                                            v = BufferUtil.toString(buffer, index, v.length(), StandardCharsets.ISO_8859_1);
                                             cachedField = new HttpField(cachedField.getHeader(), n, v);
                                         }
                                     }
@@ -1316,6 +1499,7 @@ public class HttpParser
                                     if (peek == HttpTokens.CARRIAGE_RETURN || peek == HttpTokens.LINE_FEED)
                                     {
                                         _field = cachedField;
+                                        _fieldCached = cachedField == field;
                                         _valueString = v;
                                         setState(FieldState.IN_VALUE);
 
@@ -1391,6 +1575,7 @@ public class HttpParser
                         case DIGIT:
                         case TCHAR:
                             _string.append(t.getChar());
+                            appendTokenChars(buffer);
                             _length = _string.length();
                             break;
 
@@ -1447,6 +1632,7 @@ public class HttpParser
                         case COLON:
                         case OTEXT: // TODO review? should this be a utf8 string?
                             _string.append(t.getChar());
+                            appendFieldVchars(buffer);
                             _length = _string.length();
                             setState(FieldState.IN_VALUE);
                             break;
@@ -1480,6 +1666,7 @@ public class HttpParser
                         case COLON:
                         case OTEXT: // TODO review? should this be a utf8 string?
                             _string.append(t.getChar());
+                            appendFieldVchars(buffer);
                             _length = _string.length();
                             break;
 
@@ -2031,12 +2218,29 @@ public class HttpParser
         }
     }
 
+    /**
+     * <p>A field learnt by the {@link FieldCache} because its value was repeated.</p>
+     */
+    private static class LearntHttpField extends HttpField
+    {
+        private LearntHttpField(HttpHeader header, String name, String value)
+        {
+            super(header, name, value);
+        }
+    }
+
     private static class FieldCache
     {
+        // The max number of field names whose last value is remembered to detect repeated values.
+        private static final int MAX_CANDIDATES = 64;
+
         private int _size = 1024;
         private Index.Mutable<HttpField> _cache;
         private List<HttpField> _cacheableFields;
+        private Map<String, String> _candidates;
         private boolean _caseSensitive;
+        private LongAdder _hits = new LongAdder();
+        private LongAdder _misses = new LongAdder();
 
         public int getCapacity()
         {
@@ -2098,6 +2302,64 @@ public class HttpParser
             return isEnabled() && header != null && valueString.length() <= _size;
         }
 
+        /**
+         * <p>Returns whether a field should be learnt, because the same
+         * value was received for the same field name the last time.</p>
+         *
+         * @param name the field name
+         * @param value the field value
+         * @return whether the field should be added to this cache
+         */
+        public boolean learnable(String name, String value)
+        {
+            if (!isEnabled() || name == null || value == null || value.isEmpty() || value.length() > _size)
+                return false;
+
+            // Only values that can be indexed by the cache.
+            for (int i = 0; i < value.length(); i++)
+            {
+                char c = value.charAt(i);
+                if (c < 0x20 || c > 0x7E)
+                    return false;
+            }
+
+            if (_candidates == null)
+                _candidates = new HashMap<>();
+            String last = _candidates.get(name);
+            if (value.equals(last))
+            {
+                _candidates.remove(name);
+                return true;
+            }
+            if (last != null || _candidates.size() < MAX_CANDIDATES)
+                _candidates.put(name, value);
+            return false;
+        }
+
+        public void record(boolean hit)
+        {
+            if (hit)
+                _hits.increment();
+            else
+                _misses.increment();
+        }
+
+        public void setStatistics(LongAdder hits, LongAdder misses)
+        {
+            _hits = hits;
+            _misses = misses;
+        }
+
+        public long getHits()
+        {
+            return _hits.sum();
+        }
+
+        public long getMisses()
+        {
+            return _misses.sum();
+        }
+
         private void prepare()
         {
             if (_cache == null && _cacheableFields != null)
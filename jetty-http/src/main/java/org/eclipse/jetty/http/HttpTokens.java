@@ -13,6 +13,8 @@
 
 package org.eclipse.jetty.http;
 
+import java.nio.ByteBuffer;
+
 import org.eclipse.jetty.util.TypeUtil;
 
 /**
@@ -26,6 +28,9 @@ public class HttpTokens
     static final byte CARRIAGE_RETURN = 0x0D;
     static final byte SPACE = 0x20;
     static final byte[] CRLF = {CARRIAGE_RETURN, LINE_FEED};
+    private static final byte DEL = 0x7F;
+    private static final long ONES = 0x0101010101010101L;
+    private static final long HIGHS = 0x8080808080808080L;
 
     public enum EndOfContent
     {
@@ -232,6 +237,56 @@ public class HttpTokens
         }
     }
 
+    /**
+     * <p>Counts the consecutive bytes that are either {@code VCHAR} (including {@code COLON})
+     * or {@code obs-text}, starting from the given index of the buffer, that is the bytes
+     * that are neither control characters, nor {@code SPACE}, nor {@code DEL}.</p>
+     * <p>The bytes are scanned a word (8 bytes) at a time while possible.</p>
+     *
+     * @param buffer the buffer to scan
+     * @param index the absolute index of the first byte to scan
+     * @param limit the absolute index after the last byte to scan
+     * @return the number of consecutive field-vchar bytes
+     */
+    static int countFieldVchars(ByteBuffer buffer, int index, int limit)
+    {
+        int i = index;
+        while (limit - i >= Long.BYTES)
+        {
+            if (hasNonFieldVchar(buffer.getLong(i)))
+                break;
+            i += Long.BYTES;
+        }
+        while (i < limit)
+        {
+            byte b = buffer.get(i);
+            // Bytes of obs-text are negative.
+            if ((b >= 0 && b <= SPACE) || b == DEL)
+                break;
+            ++i;
+        }
+        return i - index;
+    }
+
+    /**
+     * <p>Returns whether any of the 8 bytes of the given word is a control
+     * character, {@code SPACE} or {@code DEL}.</p>
+     * <p>The {@code obs-text} bytes have the high bit set, so they are
+     * neither detected as lower than {@code 0x21}, nor as {@code DEL}.</p>
+     *
+     * @param word the 8 bytes to test
+     * @return whether the word contains a byte that is not a field-vchar
+     */
+    static boolean hasNonFieldVchar(long word)
+    {
+        // Bytes lower than 0x21.
+        long low = (word - ONES * (SPACE + 1)) & ~word & HIGHS;
+        // Bytes equal to DEL, as zero bytes once xor-ed.
+        long del = word ^ (ONES * DEL);
+        del = (del - ONES) & ~del & HIGHS;
+        return (low | del) != 0;
+    }
+
     /**
      * This is used when decoding to not decode illegal characters based on RFC9110.
      * CR, LF, or NUL are replaced with ' ', all other control and multibyte characters
@@ -57,6 +57,14 @@ public class PrecompressedHttpContent implements HttpContent
         return _content.getResource();
     }
 
+    /**
+     * @return the content of the precompressed resource
+     */
+    public HttpContent getPrecompressedContent()
+    {
+        return _precompressedContent;
+    }
+
     @Override
     public HttpField getETag()
     {
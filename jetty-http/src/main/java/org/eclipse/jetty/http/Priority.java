@@ -0,0 +1,178 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http;
+
+import org.eclipse.jetty.util.StringUtil;
+
+/**
+ * <p>The priority of a response, as defined by the
+ * <a href="https://www.rfc-editor.org/rfc/rfc9218">RFC 9218</a> extensible priority scheme.</p>
+ * <p>A priority has an urgency, from {@link #URGENCY_HIGHEST} to {@link #URGENCY_LOWEST},
+ * and an incremental flag that indicates whether the response can be processed
+ * incrementally by the client, and therefore can be interleaved with other
+ * responses of the same urgency.</p>
+ * <p>A priority is carried by the {@code priority} request header and by the
+ * {@code PRIORITY_UPDATE} frames of HTTP/2 and HTTP/3, using the syntax of a
+ * structured field dictionary, for example {@code u=1, i}.</p>
+ */
+public class Priority
+{
+    public static final int URGENCY_HIGHEST = 0;
+    public static final int URGENCY_DEFAULT = 3;
+    public static final int URGENCY_LOWEST = 7;
+    public static final Priority DEFAULT = new Priority(URGENCY_DEFAULT, false);
+
+    private final int _urgency;
+    private final boolean _incremental;
+
+    public Priority(int urgency, boolean incremental)
+    {
+        if (urgency < URGENCY_HIGHEST || urgency > URGENCY_LOWEST)
+            throw new IllegalArgumentException("Invalid urgency: " + urgency);
+        _urgency = urgency;
+        _incremental = incremental;
+    }
+
+    /**
+     * @return the urgency, from {@link #URGENCY_HIGHEST} to {@link #URGENCY_LOWEST}
+     */
+    public int getUrgency()
+    {
+        return _urgency;
+    }
+
+    /**
+     * @return whether the response can be processed incrementally
+     */
+    public boolean isIncremental()
+    {
+        return _incremental;
+    }
+
+    /**
+     * @return whether this priority has the default urgency and is not incremental
+     */
+    public boolean isDefault()
+    {
+        return _urgency == URGENCY_DEFAULT && !_incremental;
+    }
+
+    /**
+     * <p>Returns the priority carried by the {@code priority} header of the given fields.</p>
+     *
+     * @param fields the fields to inspect, may be null
+     * @return the priority carried by the fields, or {@link #DEFAULT}
+     */
+    public static Priority from(HttpFields fields)
+    {
+        if (fields == null)
+            return DEFAULT;
+        return from(fields.get(HttpHeader.PRIORITY));
+    }
+
+    /**
+     * <p>Parses the given priority field value.</p>
+     * <p>As required by the specification, parameters with unknown names or
+     * invalid values are ignored, and the default values are used instead.</p>
+     *
+     * @param value the priority field value to parse, may be null
+     * @return the parsed priority, or {@link #DEFAULT}
+     */
+    public static Priority from(String value)
+    {
+        if (StringUtil.isBlank(value))
+            return DEFAULT;
+
+        int urgency = URGENCY_DEFAULT;
+        boolean incremental = false;
+        for (String member : StringUtil.csvSplit(value))
+        {
+            // Parameters of dictionary members are ignored.
+            int semicolon = member.indexOf(';');
+            if (semicolon >= 0)
+                member = member.substring(0, semicolon);
+            int equals = member.indexOf('=');
+            String key = (equals < 0 ? member : member.substring(0, equals)).trim();
+            String item = equals < 0 ? null : member.substring(equals + 1).trim();
+            switch (key)
+            {
+                case "u":
+                {
+                    if (item != null)
+                    {
+                        try
+                        {
+                            int u = Integer.parseInt(item);
+                            if (u >= URGENCY_HIGHEST && u <= URGENCY_LOWEST)
+                                urgency = u;
+                        }
+                        catch (NumberFormatException x)
+                        {
+                            // Ignore invalid urgency.
+                        }
+                    }
+                    break;
+                }
+                case "i":
+                {
+                    if (item == null || "?1".equals(item))
+                        incremental = true;
+                    else if ("?0".equals(item))
+                        incremental = false;
+                    break;
+                }
+                default:
+                {
+                    break;
+                }
+            }
+        }
+        if (urgency == URGENCY_DEFAULT && !incremental)
+            return DEFAULT;
+        return new Priority(urgency, incremental);
+    }
+
+    /**
+     * @return the priority field value of this priority, for example {@code u=1, i}
+     */
+    public String asString()
+    {
+        if (_urgency == URGENCY_DEFAULT)
+            return _incremental ? "i" : "";
+        return _incremental ? "u=" + _urgency + ", i" : "u=" + _urgency;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+        if (this == obj)
+            return true;
+        if (!(obj instanceof Priority))
+            return false;
+        Priority that = (Priority)obj;
+        return _urgency == that._urgency && _incremental == that._incremental;
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return 31 * _urgency + (_incremental ? 1 : 0);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x{u=%d,i=%b}", getClass().getSimpleName(), hashCode(), _urgency, _incremental);
+    }
+}
@@ -24,6 +24,7 @@ import org.eclipse.jetty.http.HttpParser.State;
 import org.eclipse.jetty.logging.StacklessLogging;
 import org.eclipse.jetty.toolchain.test.Net;
 import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.Index;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.BeforeEach;
@@ -40,7 +41,9 @@ import static org.eclipse.jetty.http.HttpCompliance.Violation.TRANSFER_ENCODING_
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.either;
 import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.startsWith;
@@ -2292,6 +2295,182 @@ public class HttpParserTest
         assertSame(field, _fields.get(0));
     }
 
+    @Test
+    public void testFieldValueBytes()
+    {
+        String prefix = "0123456789abcdefghij";
+        String suffix = "klmnopqrstuvwxyz0123";
+        for (int b = 0; b < 256; ++b)
+        {
+            if (b == HttpTokens.CARRIAGE_RETURN || b == HttpTokens.LINE_FEED)
+                continue;
+
+            byte[] request = ("GET /" + prefix + " HTTP/1.1\r\n" +
+                "Host: localhost\r\n" +
+                "Name: " + prefix + (char)b + suffix + "\r\n" +
+                "\r\n").getBytes(StandardCharsets.ISO_8859_1);
+
+            for (boolean direct : new boolean[]{false, true})
+            {
+                ByteBuffer buffer = direct ? ByteBuffer.allocateDirect(request.length) : ByteBuffer.allocate(request.length);
+                buffer.put(request).flip();
+
+                _bad = null;
+                HttpParser.RequestHandler handler = new Handler();
+                HttpParser parser = new HttpParser(handler);
+                parseAll(parser, buffer);
+
+                HttpTokens.Type type = HttpTokens.getToken((byte)b).getType();
+                if (type == HttpTokens.Type.CNTL)
+                {
+                    assertNotNull(_bad, "byte " + b);
+                }
+                else
+                {
+                    assertNull(_bad, "byte " + b);
+                    assertEquals("Name", _hdr[1]);
+                    assertEquals(prefix + (char)b + suffix, _val[1]);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testLongFieldValueOneByteAtATime()
+    {
+        String value = "Mozilla/5.0 (X11; Linux x86_64; rv:109.0) Gecko/20100101 Firefox/115.0";
+        ByteBuffer buffer = BufferUtil.toBuffer(
+            "GET /some/long/path/to/a/resource?with=query&and=more HTTP/1.1\r\n" +
+                "Host: localhost\r\n" +
+                "X-Agent: " + value + "\r\n" +
+                "\r\n");
+
+        HttpParser.RequestHandler handler = new Handler();
+        HttpParser parser = new HttpParser(handler);
+        while (buffer.hasRemaining())
+        {
+            parser.parseNext(ByteBuffer.wrap(new byte[]{buffer.get()}));
+        }
+
+        assertTrue(_messageCompleted);
+        assertEquals("/some/long/path/to/a/resource?with=query&and=more", _uriOrStatus);
+        assertEquals("X-Agent", _hdr[1]);
+        assertEquals(value, _val[1]);
+    }
+
+    @Test
+    public void testLongFieldValueMaxHeaderBytes()
+    {
+        String uri = "/0123456789012345678901234567890123456789";
+        String value = "0123456789012345678901234567890123456789";
+        String request = "GET " + uri + " HTTP/1.1\r\n" +
+            "Host: localhost\r\n" +
+            "X-Value: " + value + "\r\n" +
+            "\r\n";
+        int minHeaderBytes = -1;
+        for (int maxHeaderBytes = 1; maxHeaderBytes <= request.length(); ++maxHeaderBytes)
+        {
+            _bad = null;
+            HttpParser parser = new HttpParser((HttpParser.RequestHandler)new Handler(), maxHeaderBytes);
+            parseAll(parser, BufferUtil.toBuffer(request));
+            if (minHeaderBytes < 0)
+            {
+                if (_bad == null)
+                    minHeaderBytes = maxHeaderBytes;
+                else
+                    assertThat(_bad, either(is("414")).or(is("431")));
+            }
+            else
+            {
+                assertNull(_bad, "maxHeaderBytes=" + maxHeaderBytes);
+                assertEquals(value, _val[1]);
+            }
+        }
+        // The bytes of the URI and of the field value scanned in bulk are counted.
+        assertThat(minHeaderBytes, greaterThan(uri.length() + value.length()));
+    }
+
+    @Test
+    @SuppressWarnings("ReferenceEquality")
+    public void testLearntField()
+    {
+        ByteBuffer buffer = BufferUtil.toBuffer(
+            "GET / HTTP/1.1\r\n" +
+                "Host: localhost\r\n" +
+                "X-Trace: 0123456789abcdef\r\n" +
+                "Referer: http://localhost/index.html\r\n" +
+                "\r\n");
+
+        HttpParser.RequestHandler handler = new Handler();
+        HttpParser parser = new HttpParser(handler);
+
+        // The first value is remembered, the repeated value is learnt.
+        parseAll(parser, buffer);
+        assertNull(parser.getFieldCache().get("X-Trace: 0123456789abcdef"));
+        buffer.position(0);
+        parseAll(parser, buffer);
+        assertEquals("0123456789abcdef", parser.getFieldCache().get("X-Trace: 0123456789abcdef").getValue());
+        assertEquals("http://localhost/index.html", parser.getFieldCache().get("Referer: http://localhost/index.html").getValue());
+        HttpField trace = _fields.get(1);
+        HttpField referer = _fields.get(2);
+        long hits = parser.getHeaderCacheHits();
+        long misses = parser.getHeaderCacheMisses();
+
+        // Learnt fields are reused.
+        buffer.position(0);
+        parseAll(parser, buffer);
+        assertSame(trace, _fields.get(1));
+        assertSame(referer, _fields.get(2));
+        assertEquals(misses, parser.getHeaderCacheMisses());
+        assertEquals(hits + 3, parser.getHeaderCacheHits());
+    }
+
+    @Test
+    public void testLearntFieldCaseSensitiveValue()
+    {
+        HttpParser.RequestHandler handler = new Handler();
+        HttpParser parser = new HttpParser(handler);
+        for (int i = 0; i < 3; ++i)
+        {
+            parseAll(parser, BufferUtil.toBuffer(
+                "GET / HTTP/1.1\r\n" +
+                    "Host: localhost\r\n" +
+                    "X-Token: abc\r\n" +
+                    "\r\n"));
+        }
+        assertEquals("abc", _fields.get(1).getValue());
+
+        parseAll(parser, BufferUtil.toBuffer(
+            "GET / HTTP/1.1\r\n" +
+                "Host: localhost\r\n" +
+                "X-Token: ABC\r\n" +
+                "\r\n"));
+        assertEquals("X-Token", _fields.get(1).getName());
+        assertEquals("ABC", _fields.get(1).getValue());
+    }
+
+    @Test
+    @SuppressWarnings("ReferenceEquality")
+    public void testSharedFieldCache()
+    {
+        HttpField userAgent = new HttpField(HttpHeader.USER_AGENT, "Jetty/10 (shared)");
+        Index<HttpField> shared = new Index.Builder<HttpField>()
+            .caseSensitive(false)
+            .with(userAgent)
+            .build();
+
+        HttpParser.RequestHandler handler = new Handler();
+        HttpParser parser = new HttpParser(handler);
+        parser.setSharedFieldCache(shared);
+        parseAll(parser, BufferUtil.toBuffer(
+            "GET / HTTP/1.1\r\n" +
+                "Host: localhost\r\n" +
+                "User-Agent: Jetty/10 (shared)\r\n" +
+                "\r\n"));
+        assertSame(userAgent, _fields.get(1));
+        assertEquals(1, parser.getHeaderCacheHits());
+    }
+
     @Test
     public void testParseRequest()
     {
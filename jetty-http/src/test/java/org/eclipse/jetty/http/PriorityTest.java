@@ -0,0 +1,89 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http;
+
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class PriorityTest
+{
+    public static Stream<Arguments> values()
+    {
+        return Stream.of(
+            Arguments.of(null, 3, false),
+            Arguments.of("", 3, false),
+            Arguments.of("u=0", 0, false),
+            Arguments.of("u=7", 7, false),
+            Arguments.of("i", 3, true),
+            Arguments.of("i=?1", 3, true),
+            Arguments.of("i=?0", 3, false),
+            Arguments.of("u=1, i", 1, true),
+            Arguments.of("i,u=5", 5, true),
+            Arguments.of("u=2;foo=bar, i", 2, true),
+            Arguments.of("u=8", 3, false),
+            Arguments.of("u=-1", 3, false),
+            Arguments.of("u=x", 3, false),
+            Arguments.of("i=1", 3, false),
+            Arguments.of("foo, u=6", 6, false),
+            Arguments.of("u=1, u=4", 4, false)
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("values")
+    public void testFrom(String value, int urgency, boolean incremental)
+    {
+        Priority priority = Priority.from(value);
+        assertEquals(urgency, priority.getUrgency());
+        assertEquals(incremental, priority.isIncremental());
+    }
+
+    @Test
+    public void testFromFields()
+    {
+        assertSame(Priority.DEFAULT, Priority.from((HttpFields)null));
+        assertSame(Priority.DEFAULT, Priority.from(HttpFields.EMPTY));
+        HttpFields fields = HttpFields.build().put(HttpHeader.PRIORITY, "u=0");
+        assertEquals(new Priority(0, false), Priority.from(fields));
+    }
+
+    @Test
+    public void testAsString()
+    {
+        assertEquals("", Priority.DEFAULT.asString());
+        assertEquals("i", new Priority(3, true).asString());
+        assertEquals("u=1", new Priority(1, false).asString());
+        assertEquals("u=1, i", new Priority(1, true).asString());
+        for (int u = Priority.URGENCY_HIGHEST; u <= Priority.URGENCY_LOWEST; ++u)
+        {
+            Priority priority = new Priority(u, u % 2 == 0);
+            assertEquals(priority, Priority.from(priority.asString()));
+        }
+    }
+
+    @Test
+    public void testInvalidUrgency()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new Priority(-1, false));
+        assertThrows(IllegalArgumentException.class, () -> new Priority(8, false));
+    }
+}
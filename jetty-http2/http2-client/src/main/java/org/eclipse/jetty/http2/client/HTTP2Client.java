@@ -16,6 +16,7 @@ package org.eclipse.jetty.http2.client;
 import java.net.SocketAddress;
 import java.nio.channels.SocketChannel;
 import java.time.Duration;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
@@ -28,11 +29,13 @@ import org.eclipse.jetty.http2.FlowControlStrategy;
 import org.eclipse.jetty.http2.api.Session;
 import org.eclipse.jetty.http2.frames.Frame;
 import org.eclipse.jetty.http2.frames.SettingsFrame;
+import org.eclipse.jetty.http2.hpack.HpackEncoder;
 import org.eclipse.jetty.io.ByteBufferPool;
 import org.eclipse.jetty.io.ClientConnectionFactory;
 import org.eclipse.jetty.io.ClientConnector;
 import org.eclipse.jetty.io.ssl.SslClientConnectionFactory;
 import org.eclipse.jetty.util.Promise;
+import org.eclipse.jetty.util.StringUtil;
 import org.eclipse.jetty.util.annotation.ManagedAttribute;
 import org.eclipse.jetty.util.annotation.ManagedObject;
 import org.eclipse.jetty.util.component.ContainerLifeCycle;
@@ -109,7 +112,9 @@ public class HTTP2Client extends ContainerLifeCycle
     private int maxFrameLength = Frame.DEFAULT_MAX_LENGTH;
     private int maxConcurrentPushedStreams = 32;
     private int maxSettingsKeys = SettingsFrame.DEFAULT_MAX_KEYS;
+    private final Map<String, HpackEncoder.Indexing> hpackIndexing = new ConcurrentHashMap<>();
     private int maxDynamicTableSize = 4096;
+    private int huffmanCacheSize = HpackEncoder.DEFAULT_HUFFMAN_CACHE_SIZE;
     private int maxHeaderBlockFragment = 0;
     private FlowControlStrategy.Factory flowControlStrategyFactory = () -> new BufferingFlowControlStrategy(0.5F);
     private long streamIdleTimeout;
@@ -326,6 +331,44 @@ public class HTTP2Client extends ContainerLifeCycle
         this.maxDynamicTableSize = maxDynamicTableSize;
     }
 
+    @ManagedAttribute("The number of HPACK Huffman encoded values cached per connection")
+    public int getHuffmanCacheSize()
+    {
+        return huffmanCacheSize;
+    }
+
+    /**
+     * @param huffmanCacheSize the number of Huffman encoded values cached per connection, or 0 to disable the cache
+     * @see HpackEncoder#setHuffmanCacheSize(int)
+     */
+    public void setHuffmanCacheSize(int huffmanCacheSize)
+    {
+        this.huffmanCacheSize = huffmanCacheSize;
+    }
+
+    /**
+     * @return how the fields are encoded when they are not in the HPACK tables, by lower case field name
+     */
+    public Map<String, HpackEncoder.Indexing> getHpackIndexing()
+    {
+        return Collections.unmodifiableMap(hpackIndexing);
+    }
+
+    /**
+     * @param name the field name
+     * @param indexing how the fields with the given name are encoded when they are not in the HPACK tables,
+     * or null to use the default encoding strategy
+     * @see HpackEncoder#setIndexing(String, HpackEncoder.Indexing)
+     */
+    public void setHpackIndexing(String name, HpackEncoder.Indexing indexing)
+    {
+        String lowerCaseName = StringUtil.asciiToLowerCase(name);
+        if (indexing == null)
+            hpackIndexing.remove(lowerCaseName);
+        else
+            hpackIndexing.put(lowerCaseName, indexing);
+    }
+
     @ManagedAttribute("The max size of header block fragments")
     public int getMaxHeaderBlockFragment()
     {
@@ -22,6 +22,7 @@ import org.eclipse.jetty.http2.IStream;
 import org.eclipse.jetty.http2.api.Session;
 import org.eclipse.jetty.http2.api.Stream;
 import org.eclipse.jetty.http2.frames.HeadersFrame;
+import org.eclipse.jetty.http2.frames.PriorityUpdateFrame;
 import org.eclipse.jetty.http2.frames.PushPromiseFrame;
 import org.eclipse.jetty.http2.generator.Generator;
 import org.eclipse.jetty.io.EndPoint;
@@ -87,6 +88,15 @@ public class HTTP2ClientSession extends HTTP2Session
         }
     }
 
+    @Override
+    public void onPriorityUpdate(PriorityUpdateFrame frame)
+    {
+        if (LOG.isDebugEnabled())
+            LOG.debug("Received {} on {}", frame, this);
+        // RFC 9218, section 7.1: PRIORITY_UPDATE frames are only sent by clients.
+        onConnectionFailure(ErrorCode.PROTOCOL_ERROR.code, "unexpected_priority_update_frame");
+    }
+
     @Override
     public void onPushPromise(PushPromiseFrame frame)
     {
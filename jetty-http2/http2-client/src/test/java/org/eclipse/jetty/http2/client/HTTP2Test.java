@@ -46,6 +46,7 @@ import org.eclipse.jetty.http2.frames.GoAwayFrame;
 import org.eclipse.jetty.http2.frames.HeadersFrame;
 import org.eclipse.jetty.http2.frames.ResetFrame;
 import org.eclipse.jetty.http2.frames.SettingsFrame;
+import org.eclipse.jetty.http2.hpack.HpackEncoder;
 import org.eclipse.jetty.http2.hpack.HpackException;
 import org.eclipse.jetty.http2.parser.RateControl;
 import org.eclipse.jetty.http2.parser.ServerParser;
@@ -104,6 +105,48 @@ public class HTTP2Test extends AbstractTest
         assertTrue(latch.await(5, TimeUnit.SECONDS));
     }
 
+    @Test
+    public void testHpackConfiguration() throws Exception
+    {
+        String headerName = "X-Token";
+        start(new ServerSessionListener.Adapter()
+        {
+            @Override
+            public Stream.Listener onNewStream(Stream stream, HeadersFrame frame)
+            {
+                HttpFields fields = HttpFields.build()
+                    .put(headerName, frame.getMetaData().getFields().get(headerName));
+                MetaData.Response response = new MetaData.Response(HttpVersion.HTTP_2, HttpStatus.OK_200, fields);
+                stream.headers(new HeadersFrame(stream.getId(), response, null, true), Callback.NOOP);
+                return null;
+            }
+        }, factory ->
+        {
+            factory.setHuffmanCacheSize(0);
+            factory.setHpackIndexing(headerName, HpackEncoder.Indexing.NEVER_INDEXED);
+        });
+        client.setHuffmanCacheSize(0);
+        client.setHpackIndexing(headerName, HpackEncoder.Indexing.NEVER_INDEXED);
+        assertEquals(HpackEncoder.Indexing.NEVER_INDEXED, client.getHpackIndexing().get("x-token"));
+
+        Session session = newClient(new Session.Listener.Adapter());
+        for (int i = 0; i < 2; i++)
+        {
+            String token = "token" + i;
+            MetaData.Request metaData = newRequest("GET", HttpFields.build().put(headerName, token));
+            CompletableFuture<String> completable = new CompletableFuture<>();
+            session.newStream(new HeadersFrame(metaData, null, true), new Promise.Adapter<>(), new Stream.Listener.Adapter()
+            {
+                @Override
+                public void onHeaders(Stream stream, HeadersFrame frame)
+                {
+                    completable.complete(frame.getMetaData().getFields().get(headerName));
+                }
+            });
+            assertEquals(token, completable.get(5, TimeUnit.SECONDS));
+        }
+    }
+
     @Test
     public void testRequestNoContentResponseEmptyContent() throws Exception
     {
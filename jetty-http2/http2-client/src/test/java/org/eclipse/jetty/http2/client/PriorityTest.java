@@ -15,20 +15,31 @@ package org.eclipse.jetty.http2.client;
 
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpVersion;
 import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http.Priority;
+import org.eclipse.jetty.http2.ErrorCode;
+import org.eclipse.jetty.http2.HTTP2Session;
+import org.eclipse.jetty.http2.IStream;
 import org.eclipse.jetty.http2.api.Session;
 import org.eclipse.jetty.http2.api.Stream;
 import org.eclipse.jetty.http2.api.server.ServerSessionListener;
+import org.eclipse.jetty.http2.frames.GoAwayFrame;
 import org.eclipse.jetty.http2.frames.HeadersFrame;
 import org.eclipse.jetty.http2.frames.PriorityFrame;
+import org.eclipse.jetty.http2.frames.PriorityUpdateFrame;
 import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.FutureCallback;
 import org.eclipse.jetty.util.FuturePromise;
 import org.eclipse.jetty.util.Promise;
 import org.junit.jupiter.api.Test;
 
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -179,4 +190,70 @@ public class PriorityTest extends AbstractTest
 
         assertTrue(latch.await(5, TimeUnit.SECONDS));
     }
+
+    @Test
+    public void testPriorityHeaderThenPriorityUpdate() throws Exception
+    {
+        AtomicReference<IStream> serverStreamRef = new AtomicReference<>();
+        CountDownLatch requestLatch = new CountDownLatch(1);
+        start(new ServerSessionListener.Adapter()
+        {
+            @Override
+            public Stream.Listener onNewStream(Stream stream, HeadersFrame frame)
+            {
+                serverStreamRef.set((IStream)stream);
+                requestLatch.countDown();
+                return null;
+            }
+        });
+
+        Session session = newClient(new Session.Listener.Adapter());
+        HttpFields fields = HttpFields.build().put(HttpHeader.PRIORITY, "u=1, i");
+        MetaData metaData = newRequest("GET", "/one", fields);
+        FuturePromise<Stream> promise = new FuturePromise<>();
+        session.newStream(new HeadersFrame(metaData, null, false), promise, new Stream.Listener.Adapter());
+        Stream stream = promise.get(5, TimeUnit.SECONDS);
+
+        assertTrue(requestLatch.await(5, TimeUnit.SECONDS));
+        IStream serverStream = serverStreamRef.get();
+        assertEquals(new Priority(1, true), serverStream.getPriority());
+
+        Priority update = new Priority(Priority.URGENCY_LOWEST, false);
+        FutureCallback callback = new FutureCallback();
+        ((HTTP2Session)session).priorityUpdate(new PriorityUpdateFrame(stream.getId(), update), callback);
+        callback.get(5, TimeUnit.SECONDS);
+
+        await().atMost(5, TimeUnit.SECONDS).until(serverStream::getPriority, is(update));
+    }
+
+    @Test
+    public void testPriorityUpdateFromServer() throws Exception
+    {
+        AtomicReference<HTTP2Session> serverSessionRef = new AtomicReference<>();
+        CountDownLatch serverCloseLatch = new CountDownLatch(1);
+        start(new ServerSessionListener.Adapter()
+        {
+            @Override
+            public void onAccept(Session session)
+            {
+                serverSessionRef.set((HTTP2Session)session);
+            }
+
+            @Override
+            public void onClose(Session session, GoAwayFrame frame)
+            {
+                assertEquals(ErrorCode.PROTOCOL_ERROR.code, frame.getError());
+                serverCloseLatch.countDown();
+            }
+        });
+
+        Session session = newClient(new Session.Listener.Adapter());
+        await().atMost(5, TimeUnit.SECONDS).until(() -> serverSessionRef.get() != null);
+
+        // Only clients can send PRIORITY_UPDATE frames.
+        serverSessionRef.get().priorityUpdate(new PriorityUpdateFrame(1, new Priority(1, true)), Callback.NOOP);
+
+        assertTrue(serverCloseLatch.await(5, TimeUnit.SECONDS));
+        await().atMost(5, TimeUnit.SECONDS).until(session::isClosed);
+    }
 }
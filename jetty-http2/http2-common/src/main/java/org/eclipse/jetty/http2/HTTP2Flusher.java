@@ -18,13 +18,18 @@ import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Deque;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.eclipse.jetty.http.Priority;
 import org.eclipse.jetty.http2.frames.Frame;
 import org.eclipse.jetty.http2.frames.FrameType;
 import org.eclipse.jetty.http2.frames.WindowUpdateFrame;
@@ -34,25 +39,41 @@ import org.eclipse.jetty.io.EofException;
 import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.IteratingCallback;
 import org.eclipse.jetty.util.component.Dumpable;
-import org.eclipse.jetty.util.thread.AutoLock;
 import org.eclipse.jetty.util.thread.Invocable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * <p>Serializes the generation and the writing of the frames of a {@link HTTP2Session}.</p>
+ * <p>Frames are queued by many threads (typically one per stream) in lock-free
+ * multi-producer queues, and are consumed by the single thread that iterates this
+ * flusher, which generates the frames of all the pending streams and gathers their
+ * bytes into a single {@code EndPoint.write()}.</p>
+ * <p>When the remote streams have RFC 9218 {@link Priority priorities} other than
+ * the default, the pending frames are scheduled by urgency: the frames of less
+ * urgent streams are only generated when the more urgent streams have no more
+ * frames to write, or are stalled by flow control. For the same urgency,
+ * non-incremental streams are written one at a time in stream id order, while
+ * incremental streams are interleaved, round-robin.</p>
+ */
 public class HTTP2Flusher extends IteratingCallback implements Dumpable
 {
     private static final Logger LOG = LoggerFactory.getLogger(HTTP2Flusher.class);
     private static final ByteBuffer[] EMPTY_BYTE_BUFFERS = new ByteBuffer[0];
 
-    private final AutoLock lock = new AutoLock();
-    private final Queue<WindowEntry> windows = new ArrayDeque<>();
-    private final Deque<Entry> entries = new ArrayDeque<>();
+    private final Queue<WindowEntry> windows = new ConcurrentLinkedQueue<>();
+    private final Queue<Entry> priorityEntries = new ConcurrentLinkedQueue<>();
+    private final Queue<Entry> entries = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<Throwable> terminated = new AtomicReference<>();
     private final Queue<Entry> pendingEntries = new ArrayDeque<>();
     private final Collection<Entry> processedEntries = new ArrayList<>();
+    private final Map<IStream, Priority> priorities = new HashMap<>();
+    private final List<Entry> prioritizedEntries = new ArrayList<>();
+    private final Comparator<Entry> rankComparator = Comparator.comparingLong(this::rank);
+    private final int[] lastIncrementalStreamIds = new int[Priority.URGENCY_LOWEST + 1];
     private final HTTP2Session session;
     private final ByteBufferPool.Lease lease;
     private InvocationType invocationType = InvocationType.NON_BLOCKING;
-    private Throwable terminated;
     private Entry stalledEntry;
 
     public HTTP2Flusher(HTTP2Session session)
@@ -69,89 +90,86 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
 
     public void window(IStream stream, WindowUpdateFrame frame)
     {
-        Throwable closed;
-        try (AutoLock l = lock.lock())
+        if (terminated.get() != null)
+            return;
+        WindowEntry entry = new WindowEntry(stream, frame);
+        windows.offer(entry);
+        // As in offer(), the flusher may have been terminated concurrently,
+        // and the entry is discarded unless it was already taken.
+        if (terminated.get() != null)
         {
-            closed = terminated;
-            if (closed == null)
-                windows.offer(new WindowEntry(stream, frame));
+            windows.remove(entry);
+            return;
         }
         // Flush stalled data.
-        if (closed == null)
-            iterate();
+        iterate();
     }
 
+    /**
+     * <p>Queues the given entry to be processed before the entries queued with {@link #append(Entry)}.</p>
+     *
+     * @param entry the entry to queue
+     * @return whether the entry has been queued, or false if it has been failed because this flusher is terminated
+     */
     public boolean prepend(Entry entry)
     {
-        Throwable closed;
-        try (AutoLock l = lock.lock())
-        {
-            closed = terminated;
-            if (closed == null)
-            {
-                entries.offerFirst(entry);
-                if (LOG.isDebugEnabled())
-                    LOG.debug("Prepended {}, entries={}", entry, entries.size());
-            }
-        }
-        if (closed == null)
-            return true;
-        closed(entry, closed);
-        return false;
+        boolean queued = offer(priorityEntries, entry);
+        if (queued && LOG.isDebugEnabled())
+            LOG.debug("Prepended {}, entries={}", entry, priorityEntries.size());
+        return queued;
     }
 
+    /**
+     * <p>Queues the given entry to be processed.</p>
+     *
+     * @param entry the entry to queue
+     * @return whether the entry has been queued, or false if it has been failed because this flusher is terminated
+     */
     public boolean append(Entry entry)
     {
-        Throwable closed;
-        try (AutoLock l = lock.lock())
-        {
-            closed = terminated;
-            if (closed == null)
-            {
-                entries.offer(entry);
-                if (LOG.isDebugEnabled())
-                    LOG.debug("Appended {}, entries={}", entry, entries.size());
-            }
-        }
-        if (closed == null)
-            return true;
-        closed(entry, closed);
-        return false;
+        boolean queued = offer(entries, entry);
+        if (queued && LOG.isDebugEnabled())
+            LOG.debug("Appended {}, entries={}", entry, entries.size());
+        return queued;
     }
 
     public boolean append(List<Entry> list)
     {
-        Throwable closed;
-        try (AutoLock l = lock.lock())
+        boolean queued = true;
+        for (Entry entry : list)
         {
-            closed = terminated;
-            if (closed == null)
-            {
-                list.forEach(entries::offer);
-                if (LOG.isDebugEnabled())
-                    LOG.debug("Appended {}, entries={}", list, entries.size());
-            }
+            queued &= offer(entries, entry);
         }
+        if (queued && LOG.isDebugEnabled())
+            LOG.debug("Appended {}, entries={}", list, entries.size());
+        return queued;
+    }
+
+    private boolean offer(Queue<Entry> queue, Entry entry)
+    {
+        Throwable closed = terminated.get();
         if (closed == null)
-            return true;
-        list.forEach(entry -> closed(entry, closed));
+        {
+            queue.offer(entry);
+            // The flusher may have been terminated concurrently, after the check
+            // above but before the failure of the queued entries, so the entry
+            // is failed here, unless it was already taken and failed.
+            closed = terminated.get();
+            if (closed == null || !queue.remove(entry))
+                return true;
+        }
+        closed(entry, closed);
         return false;
     }
 
     private int getWindowQueueSize()
     {
-        try (AutoLock l = lock.lock())
-        {
-            return windows.size();
-        }
+        return windows.size();
     }
 
     public int getFrameQueueSize()
     {
-        try (AutoLock l = lock.lock())
-        {
-            return entries.size();
-        }
+        return priorityEntries.size() + entries.size();
     }
 
     @Override
@@ -160,22 +178,24 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
         if (LOG.isDebugEnabled())
             LOG.debug("Flushing {}", session);
 
-        try (AutoLock l = lock.lock())
-        {
-            if (terminated != null)
-                throw terminated;
+        Throwable closed = terminated.get();
+        if (closed != null)
+            throw closed;
 
-            WindowEntry windowEntry;
-            while ((windowEntry = windows.poll()) != null)
-            {
-                windowEntry.perform();
-            }
+        WindowEntry windowEntry;
+        while ((windowEntry = windows.poll()) != null)
+        {
+            windowEntry.perform();
+        }
 
-            Entry entry;
-            while ((entry = entries.poll()) != null)
-            {
-                pendingEntries.offer(entry);
-            }
+        Entry queued;
+        while ((queued = priorityEntries.poll()) != null)
+        {
+            pendingEntries.offer(queued);
+        }
+        while ((queued = entries.poll()) != null)
+        {
+            pendingEntries.offer(queued);
         }
 
         if (pendingEntries.isEmpty())
@@ -185,6 +205,8 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
             return Action.IDLE;
         }
 
+        boolean prioritized = prioritize();
+
         while (true)
         {
             boolean progress = false;
@@ -192,6 +214,11 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
             if (pendingEntries.isEmpty())
                 break;
 
+            // The urgency of the streams written in this pass,
+            // and the non-incremental stream being written, if any.
+            int passUrgency = Integer.MAX_VALUE;
+            IStream sequentialStream = null;
+
             Iterator<Entry> pending = pendingEntries.iterator();
             while (pending.hasNext())
             {
@@ -210,6 +237,20 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
                     continue;
                 }
 
+                Priority priority = prioritized ? entry.priority : null;
+                if (priority != null)
+                {
+                    int urgency = priority.getUrgency();
+                    if (urgency > passUrgency || (urgency == passUrgency && sequentialStream != null && sequentialStream != entry.stream))
+                    {
+                        // The pending entries are sorted by rank, so all
+                        // the entries after this one are deferred too.
+                        if (LOG.isDebugEnabled())
+                            LOG.debug("Deferred {} by {}", entry, priority);
+                        break;
+                    }
+                }
+
                 try
                 {
                     if (entry.generate(lease))
@@ -219,6 +260,15 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
 
                         progress = true;
 
+                        if (priority != null)
+                        {
+                            passUrgency = priority.getUrgency();
+                            if (priority.isIncremental())
+                                lastIncrementalStreamIds[passUrgency] = entry.stream.getId();
+                            else if (sequentialStream == null)
+                                sequentialStream = entry.stream;
+                        }
+
                         // We use ArrayList contains() + add() instead of HashSet add()
                         // because that is faster for collections of size up to 250 entries.
                         if (!processedEntries.contains(entry))
@@ -293,6 +343,78 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
         return Action.SCHEDULED;
     }
 
+    /**
+     * <p>Snapshots the priorities of the streams of the pending entries and,
+     * if any of them is not the default priority, sorts the pending entries.</p>
+     * <p>Entries that are not associated to a stream, or that are associated to a
+     * local stream (whose HEADERS frames must be sent in stream id order), are not
+     * prioritized and are processed first, in FIFO order.
+     * The other entries are sorted by urgency; for the same urgency, non-incremental
+     * streams come first in stream id order, followed by incremental streams starting
+     * from the one after the last incremental stream that has been written.
+     * The sort is stable, so that the entries of the same stream keep their order.</p>
+     *
+     * @return whether the pending entries have been prioritized
+     */
+    private boolean prioritize()
+    {
+        if (pendingEntries.size() < 2)
+            return false;
+
+        boolean prioritized = false;
+        try
+        {
+            for (Entry entry : pendingEntries)
+            {
+                IStream stream = entry.stream;
+                if (stream == null || stream.isLocal())
+                {
+                    entry.priority = null;
+                }
+                else
+                {
+                    // All the entries of the same stream must have the same
+                    // priority, even if it is concurrently updated.
+                    Priority priority = priorities.computeIfAbsent(stream, IStream::getPriority);
+                    entry.priority = priority;
+                    prioritized |= !priority.isDefault();
+                }
+            }
+        }
+        finally
+        {
+            priorities.clear();
+        }
+
+        if (prioritized)
+        {
+            prioritizedEntries.addAll(pendingEntries);
+            prioritizedEntries.sort(rankComparator);
+            pendingEntries.clear();
+            pendingEntries.addAll(prioritizedEntries);
+            prioritizedEntries.clear();
+            if (LOG.isDebugEnabled())
+                LOG.debug("Prioritized {}", pendingEntries);
+        }
+        return prioritized;
+    }
+
+    private long rank(Entry entry)
+    {
+        Priority priority = entry.priority;
+        if (priority == null)
+            return Long.MIN_VALUE;
+        int urgency = priority.getUrgency();
+        long streamId = entry.stream.getId();
+        long order = streamId;
+        if (priority.isIncremental())
+        {
+            // Round-robin, starting after the last incremental stream written.
+            order += streamId > lastIncrementalStreamIds[urgency] ? 1L << 32 : 1L << 33;
+        }
+        return ((long)urgency << 34) + order;
+    }
+
     void onFlushed(long bytes) throws IOException
     {
         // A single EndPoint write may be flushed multiple times (for example with SSL).
@@ -350,20 +472,25 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
     {
         lease.recycle();
 
-        Throwable closed;
-        Set<Entry> allEntries;
-        try (AutoLock l = lock.lock())
+        Throwable closed = terminated.getAndSet(x);
+        if (LOG.isDebugEnabled())
+            LOG.debug(String.format("%s, entries processed/pending/queued=%d/%d/%d",
+                closed != null ? "Closing" : "Failing",
+                processedEntries.size(),
+                pendingEntries.size(),
+                getFrameQueueSize()), x);
+
+        // Entries queued concurrently after this point fail themselves.
+        windows.clear();
+        Set<Entry> allEntries = new HashSet<>();
+        Entry queued;
+        while ((queued = priorityEntries.poll()) != null)
         {
-            closed = terminated;
-            terminated = x;
-            if (LOG.isDebugEnabled())
-                LOG.debug(String.format("%s, entries processed/pending/queued=%d/%d/%d",
-                    closed != null ? "Closing" : "Failing",
-                    processedEntries.size(),
-                    pendingEntries.size(),
-                    entries.size()), x);
-            allEntries = new HashSet<>(entries);
-            entries.clear();
+            allEntries.add(queued);
+        }
+        while ((queued = entries.poll()) != null)
+        {
+            allEntries.add(queued);
         }
 
         allEntries.addAll(processedEntries);
@@ -380,14 +507,9 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
 
     void terminate(Throwable cause)
     {
-        Throwable closed;
-        try (AutoLock l = lock.lock())
-        {
-            closed = terminated;
-            terminated = cause;
-            if (LOG.isDebugEnabled())
-                LOG.debug("{} {}", closed != null ? "Terminated" : "Terminating", this);
-        }
+        Throwable closed = terminated.getAndSet(cause);
+        if (LOG.isDebugEnabled())
+            LOG.debug("{} {}", closed != null ? "Terminated" : "Terminating", this);
         if (closed == null)
             iterate();
     }
@@ -424,6 +546,8 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
     {
         protected final Frame frame;
         protected final IStream stream;
+        // The priority snapshot used to schedule this entry, only accessed by the flusher.
+        private Priority priority;
 
         protected Entry(Frame frame, IStream stream, Callback callback)
         {
@@ -468,6 +592,7 @@ public class HTTP2Flusher extends IteratingCallback implements Dumpable
             {
                 // Frames of this type should not be dropped.
                 case PRIORITY:
+                case PRIORITY_UPDATE:
                 case SETTINGS:
                 case PING:
                 case GO_AWAY:
@@ -48,6 +48,7 @@ import org.eclipse.jetty.http2.frames.HeadersFrame;
 import org.eclipse.jetty.http2.frames.PingFrame;
 import org.eclipse.jetty.http2.frames.PrefaceFrame;
 import org.eclipse.jetty.http2.frames.PriorityFrame;
+import org.eclipse.jetty.http2.frames.PriorityUpdateFrame;
 import org.eclipse.jetty.http2.frames.PushPromiseFrame;
 import org.eclipse.jetty.http2.frames.ResetFrame;
 import org.eclipse.jetty.http2.frames.SettingsFrame;
@@ -307,6 +308,19 @@ public abstract class HTTP2Session extends ContainerLifeCycle implements ISessio
             LOG.debug("Received {} on {}", frame, this);
     }
 
+    @Override
+    public void onPriorityUpdate(PriorityUpdateFrame frame)
+    {
+        if (LOG.isDebugEnabled())
+            LOG.debug("Received {} on {}", frame, this);
+
+        // The new priority is used the next time the pending frames are scheduled.
+        // Updates for streams that are not open (yet) are ignored, as allowed by RFC 9218.
+        IStream stream = getStream(frame.getPrioritizedStreamId());
+        if (stream != null)
+            stream.setPriority(frame.getPriority());
+    }
+
     @Override
     public void onReset(ResetFrame frame)
     {
@@ -642,6 +656,18 @@ public abstract class HTTP2Session extends ContainerLifeCycle implements ISessio
         }, listener);
     }
 
+    /**
+     * <p>Sends the given {@code PRIORITY_UPDATE} frame, to ask the remote peer
+     * to update the RFC 9218 priority of a stream.</p>
+     *
+     * @param frame the {@code PRIORITY_UPDATE} frame to send
+     * @param callback the callback invoked when the frame has been sent
+     */
+    public void priorityUpdate(PriorityUpdateFrame frame, Callback callback)
+    {
+        control(null, callback, frame);
+    }
+
     @Override
     public void settings(SettingsFrame frame, Callback callback)
     {
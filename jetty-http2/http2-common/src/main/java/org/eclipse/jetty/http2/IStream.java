@@ -19,6 +19,7 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
+import org.eclipse.jetty.http.Priority;
 import org.eclipse.jetty.http2.api.Stream;
 import org.eclipse.jetty.http2.frames.DataFrame;
 import org.eclipse.jetty.http2.frames.Frame;
@@ -147,6 +148,24 @@ public interface IStream extends Stream, Attachable, Closeable
      */
     int dataSize();
 
+    /**
+     * @return the RFC 9218 priority of this stream, used to schedule the frames of this stream
+     */
+    default Priority getPriority()
+    {
+        return Priority.DEFAULT;
+    }
+
+    /**
+     * <p>Updates the priority of this stream, for example when
+     * a {@code PRIORITY_UPDATE} frame is received.</p>
+     *
+     * @param priority the new priority of this stream
+     */
+    default void setPriority(Priority priority)
+    {
+    }
+
     /**
      * <p>An ordered list of frames belonging to the same stream.</p>
      */
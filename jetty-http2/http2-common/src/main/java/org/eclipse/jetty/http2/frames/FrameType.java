@@ -13,6 +13,7 @@
 
 package org.eclipse.jetty.http2.frames;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -31,7 +32,14 @@ public enum FrameType
     // Synthetic frames only needed by the implementation.
     PREFACE(10),
     DISCONNECT(11),
-    FAILURE(12);
+    FAILURE(12),
+    // RFC 9218 extensible priorities.
+    PRIORITY_UPDATE(16);
+
+    /**
+     * The maximum frame type value, used to size the arrays indexed by frame type.
+     */
+    public static final int MAX_TYPE = Collections.max(Types.types.keySet());
 
     public static FrameType from(int type)
     {
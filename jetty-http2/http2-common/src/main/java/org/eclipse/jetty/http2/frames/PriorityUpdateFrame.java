@@ -0,0 +1,53 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http2.frames;
+
+import org.eclipse.jetty.http.Priority;
+
+/**
+ * <p>The {@code PRIORITY_UPDATE} frame defined by RFC 9218, that updates
+ * the {@link Priority} of a stream.</p>
+ * <p>This frame is always sent on stream {@code 0}, and carries the id
+ * of the stream to prioritize.</p>
+ */
+public class PriorityUpdateFrame extends Frame
+{
+    public static final int PRIORITIZED_STREAM_ID_LENGTH = 4;
+
+    private final int prioritizedStreamId;
+    private final Priority priority;
+
+    public PriorityUpdateFrame(int prioritizedStreamId, Priority priority)
+    {
+        super(FrameType.PRIORITY_UPDATE);
+        this.prioritizedStreamId = prioritizedStreamId;
+        this.priority = priority;
+    }
+
+    public int getPrioritizedStreamId()
+    {
+        return prioritizedStreamId;
+    }
+
+    public Priority getPriority()
+    {
+        return priority;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s#%d{%s}", super.toString(), prioritizedStreamId, priority.asString());
+    }
+}
@@ -45,7 +45,7 @@ public class Generator
         headerGenerator = new HeaderGenerator(useDirectByteBuffers);
         hpackEncoder = new HpackEncoder(maxDynamicTableSize);
 
-        this.generators = new FrameGenerator[FrameType.values().length];
+        this.generators = new FrameGenerator[FrameType.MAX_TYPE + 1];
         this.generators[FrameType.HEADERS.getType()] = new HeadersGenerator(headerGenerator, hpackEncoder, maxHeaderBlockFragment);
         this.generators[FrameType.PRIORITY.getType()] = new PriorityGenerator(headerGenerator);
         this.generators[FrameType.RST_STREAM.getType()] = new ResetGenerator(headerGenerator);
@@ -57,6 +57,7 @@ public class Generator
         this.generators[FrameType.CONTINUATION.getType()] = null; // Never generated explicitly.
         this.generators[FrameType.PREFACE.getType()] = new PrefaceGenerator();
         this.generators[FrameType.DISCONNECT.getType()] = new NoOpGenerator();
+        this.generators[FrameType.PRIORITY_UPDATE.getType()] = new PriorityUpdateGenerator(headerGenerator);
 
         this.dataGenerator = new DataGenerator(headerGenerator);
     }
@@ -71,6 +72,25 @@ public class Generator
         hpackEncoder.setValidateEncoding(validateEncoding);
     }
 
+    /**
+     * @param name the field name
+     * @param indexing how the fields with the given name are encoded when they are not in the HPACK tables
+     * @see HpackEncoder#setIndexing(String, HpackEncoder.Indexing)
+     */
+    public void setIndexing(String name, HpackEncoder.Indexing indexing)
+    {
+        hpackEncoder.setIndexing(name, indexing);
+    }
+
+    /**
+     * @param huffmanCacheSize the number of Huffman encoded values cached, or 0 to disable the cache
+     * @see HpackEncoder#setHuffmanCacheSize(int)
+     */
+    public void setHuffmanCacheSize(int huffmanCacheSize)
+    {
+        hpackEncoder.setHuffmanCacheSize(huffmanCacheSize);
+    }
+
     public void setHeaderTableSize(int headerTableSize)
     {
         hpackEncoder.setRemoteMaxDynamicTableSize(headerTableSize);
@@ -0,0 +1,145 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http2.parser;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.jetty.http.Priority;
+import org.eclipse.jetty.http2.ErrorCode;
+import org.eclipse.jetty.http2.frames.PriorityUpdateFrame;
+
+public class PriorityUpdateBodyParser extends BodyParser
+{
+    private State state = State.PREPARE;
+    private int cursor;
+    private int prioritizedStreamId;
+    private byte[] value;
+
+    public PriorityUpdateBodyParser(HeaderParser headerParser, Parser.Listener listener)
+    {
+        super(headerParser, listener);
+    }
+
+    private void reset()
+    {
+        state = State.PREPARE;
+        cursor = 0;
+        prioritizedStreamId = 0;
+        value = null;
+    }
+
+    @Override
+    protected void emptyBody(ByteBuffer buffer)
+    {
+        connectionFailure(buffer, ErrorCode.FRAME_SIZE_ERROR.code, "invalid_priority_update_frame");
+    }
+
+    @Override
+    public boolean parse(ByteBuffer buffer)
+    {
+        while (buffer.hasRemaining())
+        {
+            switch (state)
+            {
+                case PREPARE:
+                {
+                    // SPEC: PRIORITY_UPDATE frames are always sent on stream 0.
+                    if (getStreamId() != 0)
+                        return connectionFailure(buffer, ErrorCode.PROTOCOL_ERROR.code, "invalid_priority_update_frame");
+                    int length = getBodyLength();
+                    if (length < PriorityUpdateFrame.PRIORITIZED_STREAM_ID_LENGTH)
+                        return connectionFailure(buffer, ErrorCode.FRAME_SIZE_ERROR.code, "invalid_priority_update_frame");
+                    value = new byte[length - PriorityUpdateFrame.PRIORITIZED_STREAM_ID_LENGTH];
+                    state = State.PRIORITIZED_STREAM_ID;
+                    break;
+                }
+                case PRIORITIZED_STREAM_ID:
+                {
+                    if (buffer.remaining() >= 4)
+                    {
+                        prioritizedStreamId = buffer.getInt();
+                        prioritizedStreamId &= 0x7F_FF_FF_FF;
+                        if (!onPrioritizedStreamId(buffer))
+                            return false;
+                        if (value.length == 0)
+                            return onPriorityUpdate();
+                    }
+                    else
+                    {
+                        state = State.PRIORITIZED_STREAM_ID_BYTES;
+                        cursor = 4;
+                    }
+                    break;
+                }
+                case PRIORITIZED_STREAM_ID_BYTES:
+                {
+                    int currByte = buffer.get() & 0xFF;
+                    --cursor;
+                    prioritizedStreamId += currByte << (8 * cursor);
+                    if (cursor == 0)
+                    {
+                        prioritizedStreamId &= 0x7F_FF_FF_FF;
+                        if (!onPrioritizedStreamId(buffer))
+                            return false;
+                        if (value.length == 0)
+                            return onPriorityUpdate();
+                    }
+                    break;
+                }
+                case VALUE:
+                {
+                    int length = Math.min(buffer.remaining(), value.length - cursor);
+                    buffer.get(value, cursor, length);
+                    cursor += length;
+                    if (cursor == value.length)
+                        return onPriorityUpdate();
+                    break;
+                }
+                default:
+                {
+                    throw new IllegalStateException();
+                }
+            }
+        }
+        return false;
+    }
+
+    private boolean onPrioritizedStreamId(ByteBuffer buffer)
+    {
+        // SPEC: the prioritized stream cannot be stream 0.
+        if (prioritizedStreamId == 0)
+        {
+            connectionFailure(buffer, ErrorCode.PROTOCOL_ERROR.code, "invalid_priority_update_frame");
+            return false;
+        }
+        state = State.VALUE;
+        cursor = 0;
+        return true;
+    }
+
+    private boolean onPriorityUpdate()
+    {
+        Priority priority = Priority.from(new String(value, StandardCharsets.US_ASCII));
+        PriorityUpdateFrame frame = new PriorityUpdateFrame(prioritizedStreamId, priority);
+        reset();
+        notifyPriorityUpdate(frame);
+        return true;
+    }
+
+    private enum State
+    {
+        PREPARE, PRIORITIZED_STREAM_ID, PRIORITIZED_STREAM_ID_BYTES, VALUE
+    }
+}
@@ -0,0 +1,278 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http2;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.eclipse.jetty.http.Priority;
+import org.eclipse.jetty.http2.api.Session;
+import org.eclipse.jetty.http2.frames.DataFrame;
+import org.eclipse.jetty.http2.frames.Frame;
+import org.eclipse.jetty.http2.frames.FrameType;
+import org.eclipse.jetty.http2.frames.HeadersFrame;
+import org.eclipse.jetty.http2.frames.PingFrame;
+import org.eclipse.jetty.http2.frames.PushPromiseFrame;
+import org.eclipse.jetty.http2.frames.WindowUpdateFrame;
+import org.eclipse.jetty.http2.generator.Generator;
+import org.eclipse.jetty.io.ByteArrayEndPoint;
+import org.eclipse.jetty.io.ByteBufferPool;
+import org.eclipse.jetty.io.MappedByteBufferPool;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
+import org.eclipse.jetty.util.thread.Scheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HTTP2FlusherTest
+{
+    private static final int FRAMES_PER_STREAM = 3;
+
+    private Scheduler scheduler;
+    private ByteArrayEndPoint endPoint;
+    private HTTP2Session session;
+
+    @BeforeEach
+    public void prepare() throws Exception
+    {
+        scheduler = new ScheduledExecutorScheduler();
+        scheduler.start();
+        endPoint = new ByteArrayEndPoint(new byte[0], 1024);
+        endPoint.setGrowOutput(true);
+        session = newSession(endPoint);
+        session.start();
+    }
+
+    @AfterEach
+    public void dispose() throws Exception
+    {
+        session.stop();
+        scheduler.stop();
+    }
+
+    @Test
+    public void testMoreUrgentStreamWrittenFirst()
+    {
+        IStream lessUrgent = newRemoteStream(1, new Priority(Priority.URGENCY_LOWEST, false));
+        IStream moreUrgent = newRemoteStream(3, new Priority(Priority.URGENCY_HIGHEST, false));
+
+        List<Integer> streamIds = writeDataConcurrently(lessUrgent, moreUrgent);
+
+        assertEquals(List.of(3, 3, 3, 1, 1, 1), streamIds);
+    }
+
+    @Test
+    public void testIncrementalStreamsWithSameUrgencyInterleaved()
+    {
+        IStream stream1 = newRemoteStream(1, new Priority(1, true));
+        IStream stream3 = newRemoteStream(3, new Priority(1, true));
+
+        List<Integer> streamIds = writeDataConcurrently(stream1, stream3);
+
+        assertEquals(List.of(1, 3, 1, 3, 1, 3), streamIds);
+    }
+
+    @Test
+    public void testNonIncrementalStreamWrittenToCompletion()
+    {
+        IStream stream1 = newRemoteStream(1, new Priority(1, false));
+        IStream stream3 = newRemoteStream(3, new Priority(1, false));
+
+        // Queue the stream with the larger id first, it must
+        // still wait for the stream with the smaller id.
+        List<Integer> streamIds = writeDataConcurrently(stream3, stream1);
+
+        assertEquals(List.of(1, 1, 1, 3, 3, 3), streamIds);
+    }
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testConcurrentAppendWhileTerminatedOrFailed(boolean terminate) throws Exception
+    {
+        // The entries appended concurrently with the termination are
+        // few, so many flushers are terminated to exercise the race.
+        for (int round = 0; round < 100; ++round)
+        {
+            ByteArrayEndPoint endPoint = new ByteArrayEndPoint();
+            HTTP2Flusher flusher = new HTTP2Flusher(newSession(endPoint));
+            int threads = 4;
+            int entriesPerThread = 1000;
+            int entries = threads * entriesPerThread;
+            AtomicIntegerArray completions = new AtomicIntegerArray(entries);
+            CountDownLatch completeLatch = new CountDownLatch(entries);
+            CountDownLatch startLatch = new CountDownLatch(1);
+
+            List<Thread> appenders = new ArrayList<>();
+            for (int t = 0; t < threads; ++t)
+            {
+                int first = t * entriesPerThread;
+                Thread appender = new Thread(() ->
+                {
+                    try
+                    {
+                        startLatch.await();
+                        for (int i = first; i < first + entriesPerThread; ++i)
+                        {
+                            int index = i;
+                            Runnable complete = () ->
+                            {
+                                completions.incrementAndGet(index);
+                                completeLatch.countDown();
+                            };
+                            if (flusher.append(new EmptyEntry(Callback.from(complete, x -> complete.run()))))
+                                flusher.iterate();
+                        }
+                    }
+                    catch (InterruptedException x)
+                    {
+                        throw new RuntimeException(x);
+                    }
+                });
+                appender.start();
+                appenders.add(appender);
+            }
+
+            startLatch.countDown();
+            // Terminate or fail the flusher while the appenders are running.
+            while (completeLatch.getCount() > entries * 3L / 4)
+            {
+                Thread.onSpinWait();
+            }
+            if (terminate)
+            {
+                flusher.terminate(new ClosedChannelException());
+            }
+            else
+            {
+                // The next write fails, failing the flusher.
+                endPoint.close();
+                flusher.iterate();
+            }
+
+            for (Thread appender : appenders)
+            {
+                appender.join();
+            }
+
+            assertTrue(completeLatch.await(5, TimeUnit.SECONDS), "round " + round);
+            for (int i = 0; i < entries; ++i)
+            {
+                assertEquals(1, completions.get(i), "round " + round + " entry " + i);
+            }
+            assertEquals(0, flusher.getFrameQueueSize());
+        }
+    }
+
+    private HTTP2Session newSession(ByteArrayEndPoint endPoint)
+    {
+        // A server session, so that streams with odd ids are remote streams.
+        return new HTTP2Session(scheduler, endPoint, new Generator(new MappedByteBufferPool()), new Session.Listener.Adapter(), new SimpleFlowControlStrategy(), 2)
+        {
+            @Override
+            public void onHeaders(HeadersFrame frame)
+            {
+            }
+
+            @Override
+            public void onPushPromise(PushPromiseFrame frame)
+            {
+            }
+        };
+    }
+
+    private IStream newRemoteStream(int streamId, Priority priority)
+    {
+        IStream stream = session.createRemoteStream(streamId, null);
+        stream.setPriority(priority);
+        return stream;
+    }
+
+    /**
+     * <p>Queues, for each stream in order, a DATA frame that requires several
+     * frames to be written, while the session flow control window is exhausted,
+     * so that all the DATA frames are pending at the same time; then opens
+     * the session window and returns the stream ids of the DATA frames written.</p>
+     */
+    private List<Integer> writeDataConcurrently(IStream... streams)
+    {
+        session.updateSendWindow(-session.updateSendWindow(0));
+
+        int maxFrameSize = Frame.DEFAULT_MAX_LENGTH;
+        for (IStream stream : streams)
+        {
+            ByteBuffer data = ByteBuffer.allocate(FRAMES_PER_STREAM * maxFrameSize);
+            session.data(stream, Callback.NOOP, new DataFrame(stream.getId(), data, false));
+        }
+        assertEquals(0, endPoint.takeOutput().remaining());
+
+        session.onWindowUpdate(new WindowUpdateFrame(0, streams.length * FRAMES_PER_STREAM * maxFrameSize));
+
+        return dataStreamIds(endPoint.takeOutput());
+    }
+
+    private static List<Integer> dataStreamIds(ByteBuffer output)
+    {
+        List<Integer> streamIds = new ArrayList<>();
+        while (output.hasRemaining())
+        {
+            int length = (output.getShort() & 0xFF_FF) << 8 | (output.get() & 0xFF);
+            int type = output.get() & 0xFF;
+            output.get();
+            int streamId = output.getInt() & 0x7F_FF_FF_FF;
+            if (type == FrameType.DATA.getType())
+                streamIds.add(streamId);
+            output.position(output.position() + length);
+        }
+        return streamIds;
+    }
+
+    private static class EmptyEntry extends HTTP2Flusher.Entry
+    {
+        private EmptyEntry(Callback callback)
+        {
+            super(new PingFrame(false), null, callback);
+        }
+
+        @Override
+        public int getFrameBytesGenerated()
+        {
+            return 0;
+        }
+
+        @Override
+        protected boolean generate(ByteBufferPool.Lease lease)
+        {
+            lease.append(BufferUtil.EMPTY_BUFFER, false);
+            return true;
+        }
+
+        @Override
+        public long onFlushed(long bytes)
+        {
+            return bytes;
+        }
+    }
+}
@@ -186,14 +186,16 @@ public class HpackContext
     private int _maxDynamicTableSizeInBytes;
     private int _dynamicTableSizeInBytes;
     private final DynamicTable _dynamicTable;
-    private final Map<HttpField, Entry> _fieldMap = new HashMap<>();
-    private final Map<String, Entry> _nameMap = new HashMap<>();
+    private final EntryIndex _fieldIndex;
+    private final EntryIndex _nameIndex;
 
     HpackContext(int maxDynamicTableSize)
     {
         _maxDynamicTableSizeInBytes = maxDynamicTableSize;
         int guesstimateEntries = 10 + maxDynamicTableSize / (32 + 10 + 10);
         _dynamicTable = new DynamicTable(guesstimateEntries);
+        _fieldIndex = new EntryIndex(false, guesstimateEntries);
+        _nameIndex = new EntryIndex(true, guesstimateEntries);
         if (LOG.isDebugEnabled())
             LOG.debug(String.format("HdrTbl[%x] created max=%d", hashCode(), maxDynamicTableSize));
     }
@@ -208,7 +210,7 @@ public class HpackContext
 
     public Entry get(HttpField field)
     {
-        Entry entry = _fieldMap.get(field);
+        Entry entry = _fieldIndex.get(field, field.hashCode());
         if (entry == null)
             entry = __staticFieldMap.get(field);
         return entry;
@@ -219,7 +221,8 @@ public class HpackContext
         Entry entry = __staticNameMap.get(name);
         if (entry != null)
             return entry;
-        return _nameMap.get(StringUtil.asciiToLowerCase(name));
+        String lowerCaseName = StringUtil.asciiToLowerCase(name);
+        return _nameIndex.get(lowerCaseName, lowerCaseName.hashCode());
     }
 
     public Entry get(int index)
@@ -256,8 +259,10 @@ public class HpackContext
         }
         _dynamicTableSizeInBytes += size;
         _dynamicTable.add(entry);
-        _fieldMap.put(field, entry);
-        _nameMap.put(field.getLowerCaseName(), entry);
+        entry._fieldHash = field.hashCode();
+        entry._lowerCaseName = field.getLowerCaseName();
+        _fieldIndex.put(entry);
+        _nameIndex.put(entry);
 
         if (LOG.isDebugEnabled())
             LOG.debug(String.format("HdrTbl[%x] added %s", hashCode(), entry));
@@ -378,10 +383,8 @@ public class HpackContext
                     LOG.debug(String.format("HdrTbl[%x] evict %s", HpackContext.this.hashCode(), entry));
                 _dynamicTableSizeInBytes -= entry.getSize();
                 entry._slot = -1;
-                _fieldMap.remove(entry.getHttpField());
-                String lc = entry.getHttpField().getLowerCaseName();
-                if (entry == _nameMap.get(lc))
-                    _nameMap.remove(lc);
+                _fieldIndex.remove(entry);
+                _nameIndex.remove(entry);
             }
             if (LOG.isDebugEnabled())
                 LOG.debug(String.format("HdrTbl[%x] entries=%d, size=%d, max=%d", HpackContext.this.hashCode(), _dynamicTable.size(), _dynamicTableSizeInBytes, _maxDynamicTableSizeInBytes));
@@ -393,8 +396,8 @@ public class HpackContext
                 LOG.debug(String.format("HdrTbl[%x] evictAll", HpackContext.this.hashCode()));
             if (size() > 0)
             {
-                _fieldMap.clear();
-                _nameMap.clear();
+                _fieldIndex.clear();
+                _nameIndex.clear();
                 _offset = 0;
                 _size = 0;
                 _dynamicTableSizeInBytes = 0;
@@ -403,10 +406,145 @@ public class HpackContext
         }
     }
 
+    /**
+     * <p>An open addressing index of the dynamic table entries, either by field or by lower case name.</p>
+     * <p>The hashes of the entries are kept in a primitive array that is probed linearly,
+     * so that most probes do not dereference the entries. When a key is indexed more
+     * than once, the index refers to the most recently added entry.</p>
+     */
+    private static class EntryIndex
+    {
+        private final boolean _byName;
+        private int[] _hashes;
+        private Entry[] _entries;
+        private int _size;
+
+        private EntryIndex(boolean byName, int capacity)
+        {
+            _byName = byName;
+            int length = Integer.highestOneBit(Math.max(8, capacity * 2) - 1) << 1;
+            _hashes = new int[length];
+            _entries = new Entry[length];
+        }
+
+        private static int spread(int hash)
+        {
+            return hash ^ (hash >>> 16);
+        }
+
+        private int hash(Entry entry)
+        {
+            return _byName ? entry._lowerCaseName.hashCode() : entry._fieldHash;
+        }
+
+        private boolean matches(Entry entry, Object key)
+        {
+            return _byName ? entry._lowerCaseName.equals(key) : entry._field.equals(key);
+        }
+
+        Entry get(Object key, int hash)
+        {
+            int mask = _entries.length - 1;
+            for (int i = spread(hash) & mask; ; i = (i + 1) & mask)
+            {
+                Entry entry = _entries[i];
+                if (entry == null)
+                    return null;
+                if (_hashes[i] == hash && matches(entry, key))
+                    return entry;
+            }
+        }
+
+        void put(Entry entry)
+        {
+            if (2 * (_size + 1) > _entries.length)
+                grow();
+            int hash = hash(entry);
+            Object key = _byName ? entry._lowerCaseName : entry._field;
+            int mask = _entries.length - 1;
+            for (int i = spread(hash) & mask; ; i = (i + 1) & mask)
+            {
+                Entry existing = _entries[i];
+                if (existing == null)
+                {
+                    _hashes[i] = hash;
+                    _entries[i] = entry;
+                    _size++;
+                    return;
+                }
+                if (_hashes[i] == hash && matches(existing, key))
+                {
+                    // Refer to the most recent entry.
+                    _entries[i] = entry;
+                    return;
+                }
+            }
+        }
+
+        void remove(Entry entry)
+        {
+            int mask = _entries.length - 1;
+            int i = spread(hash(entry)) & mask;
+            while (_entries[i] != entry)
+            {
+                // A more recent entry with the same key may have replaced this entry.
+                if (_entries[i] == null)
+                    return;
+                i = (i + 1) & mask;
+            }
+
+            // Shift back the following entries of the probe sequence over the removed one.
+            for (int j = (i + 1) & mask; _entries[j] != null; j = (j + 1) & mask)
+            {
+                int k = spread(_hashes[j]) & mask;
+                boolean movable = i <= j ? (k <= i || k > j) : (k <= i && k > j);
+                if (movable)
+                {
+                    _hashes[i] = _hashes[j];
+                    _entries[i] = _entries[j];
+                    i = j;
+                }
+            }
+            _entries[i] = null;
+            _size--;
+        }
+
+        void clear()
+        {
+            Arrays.fill(_entries, null);
+            _size = 0;
+        }
+
+        private void grow()
+        {
+            int[] hashes = _hashes;
+            Entry[] entries = _entries;
+            _hashes = new int[entries.length * 2];
+            _entries = new Entry[entries.length * 2];
+            int mask = _entries.length - 1;
+            for (int j = 0; j < entries.length; ++j)
+            {
+                Entry entry = entries[j];
+                if (entry != null)
+                {
+                    int i = spread(hashes[j]) & mask;
+                    while (_entries[i] != null)
+                    {
+                        i = (i + 1) & mask;
+                    }
+                    _hashes[i] = hashes[j];
+                    _entries[i] = entry;
+                }
+            }
+        }
+    }
+
     public static class Entry
     {
         final HttpField _field;
         int _slot; // The index within it's array
+        int _fieldHash;
+        String _lowerCaseName;
 
         Entry()
         {
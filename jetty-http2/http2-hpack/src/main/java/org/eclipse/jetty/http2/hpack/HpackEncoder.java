@@ -16,7 +16,9 @@ package org.eclipse.jetty.http2.hpack;
 import java.nio.ByteBuffer;
 import java.util.EnumMap;
 import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.jetty.http.HttpField;
@@ -40,6 +42,30 @@ import org.slf4j.LoggerFactory;
 
 public class HpackEncoder
 {
+    /**
+     * <p>How a field that is not in the HPACK tables is encoded.</p>
+     *
+     * @see #setIndexing(String, Indexing)
+     */
+    public enum Indexing
+    {
+        /**
+         * The field is added to the dynamic table, unless it is larger than the table.
+         */
+        INDEXED,
+        /**
+         * The field is encoded as a literal and is not added to the dynamic table.
+         */
+        NOT_INDEXED,
+        /**
+         * The field is encoded as a literal that must never be indexed,
+         * also by intermediaries, as for sensitive values.
+         */
+        NEVER_INDEXED
+    }
+
+    public static final int DEFAULT_HUFFMAN_CACHE_SIZE = 64;
+    private static final int MAX_HUFFMAN_CACHE_VALUE_LENGTH = 128;
     private static final Logger LOG = LoggerFactory.getLogger(HpackEncoder.class);
     private static final HttpField[] STATUSES = new HttpField[599];
     static final EnumSet<HttpHeader> DO_NOT_HUFFMAN =
@@ -94,6 +120,9 @@ public class HpackEncoder
 
     private final HpackContext _context;
     private final boolean _debug;
+    private final Map<String, Indexing> _indexing = new HashMap<>();
+    private String[] _huffmanCacheKeys;
+    private byte[][] _huffmanCacheValues;
     private int _remoteMaxDynamicTableSize;
     private int _localMaxDynamicTableSize;
     private int _maxHeaderListSize;
@@ -122,6 +151,7 @@ public class HpackEncoder
         _localMaxDynamicTableSize = localMaxDynamicTableSize;
         _maxHeaderListSize = maxHeaderListSize;
         _debug = LOG.isDebugEnabled();
+        setHuffmanCacheSize(DEFAULT_HUFFMAN_CACHE_SIZE);
     }
 
     public int getMaxHeaderListSize()
@@ -159,6 +189,69 @@ public class HpackEncoder
         _validateEncoding = validateEncoding;
     }
 
+    /**
+     * @param name the field name
+     * @return how the fields with the given name are encoded when they are not
+     * in the HPACK tables, or null if the default encoding strategy is used
+     */
+    public Indexing getIndexing(String name)
+    {
+        return _indexing.get(StringUtil.asciiToLowerCase(name));
+    }
+
+    /**
+     * <p>Configures how the fields with the given name are encoded when they are not in the HPACK tables.</p>
+     * <p>By default, the fields of known headers are indexed, except those that are likely to
+     * have a different value in each message (such as {@code last-modified} or {@code etag}),
+     * while fields of unknown headers are only indexed the first time their name is seen.
+     * Fields with values that are unique to each message should be {@link Indexing#NOT_INDEXED}
+     * so that they do not evict other fields from the dynamic table, while fields that are
+     * repeated in many messages should be {@link Indexing#INDEXED}.</p>
+     *
+     * @param name the field name
+     * @param indexing how the fields are encoded, or null to use the default encoding strategy
+     */
+    public void setIndexing(String name, Indexing indexing)
+    {
+        String lowerCaseName = StringUtil.asciiToLowerCase(name);
+        if (indexing == null)
+            _indexing.remove(lowerCaseName);
+        else
+            _indexing.put(lowerCaseName, indexing);
+    }
+
+    /**
+     * @return the number of Huffman encoded values cached, or 0 if the cache is disabled
+     */
+    public int getHuffmanCacheSize()
+    {
+        return _huffmanCacheValues == null ? 0 : _huffmanCacheValues.length;
+    }
+
+    /**
+     * <p>Sets the number of Huffman encoded values cached by this encoder.</p>
+     * <p>Values that are encoded as literals, rather than indexed, are cached
+     * when they are seen for the second time, so that values repeated in many
+     * messages (such as common {@code content-type} values) are only Huffman
+     * encoded once, while values that are unique to a message are not cached.</p>
+     *
+     * @param size the number of values cached, rounded up to a power of 2, or 0 to disable the cache
+     */
+    public void setHuffmanCacheSize(int size)
+    {
+        if (size <= 0)
+        {
+            _huffmanCacheKeys = null;
+            _huffmanCacheValues = null;
+        }
+        else
+        {
+            int length = Integer.highestOneBit(size - 1) << 1;
+            _huffmanCacheKeys = new String[Math.max(1, length)];
+            _huffmanCacheValues = new byte[Math.max(1, length)][];
+        }
+    }
+
     public void encode(ByteBuffer buffer, MetaData metadata) throws HpackException
     {
         try
@@ -329,9 +422,25 @@ public class HpackEncoder
 
             // Do we know its name?
             HttpHeader header = field.getHeader();
+            Indexing indexing = _indexing.isEmpty() || field instanceof PreEncodedHttpField ? null : _indexing.get(field.getLowerCaseName());
 
             // Select encoding strategy
-            if (header == null)
+            if (indexing != null)
+            {
+                // Configured encoding strategy
+                Entry name = header == null ? _context.get(field.getName()) : _context.get(header);
+                boolean huffman = header == null || !DO_NOT_HUFFMAN.contains(header);
+                String fieldName = header == null ? field.getName() : header.asString();
+                indexed = indexing == Indexing.INDEXED && fieldSize < _context.getMaxDynamicTableSize();
+                if (indexed)
+                    encodeName(buffer, (byte)0x40, 6, fieldName, name);
+                else
+                    encodeName(buffer, indexing == Indexing.NEVER_INDEXED ? (byte)0x10 : (byte)0x00, 4, fieldName, name);
+                encodeFieldValue(buffer, huffman, field.getValue());
+                if (_debug)
+                    encoding = "Lit" + (name == null ? "HuffN" : "IdxN") + (huffman ? "HuffV" : "LitV") + indexing;
+            }
+            else if (header == null)
             {
                 // Select encoding strategy for unknown header names
                 Entry name = _context.get(field.getName());
@@ -352,7 +461,7 @@ public class HpackEncoder
                     // custom field.  Unless the name is once only, this is worthwhile
                     indexed = true;
                     encodeName(buffer, (byte)0x40, 6, field.getName(), null);
-                    encodeValue(buffer, true, field.getValue());
+                    encodeFieldValue(buffer, true, field.getValue());
                     if (_debug)
                         encoding = "LitHuffNHuffVIdx";
                 }
@@ -362,7 +471,7 @@ public class HpackEncoder
                     // This is probably a custom field with changing value, so don't index.
                     indexed = false;
                     encodeName(buffer, (byte)0x00, 4, field.getName(), null);
-                    encodeValue(buffer, true, field.getValue());
+                    encodeFieldValue(buffer, true, field.getValue());
                     if (_debug)
                         encoding = "LitHuffNHuffV!Idx";
                 }
@@ -389,7 +498,7 @@ public class HpackEncoder
                     boolean neverIndex = NEVER_INDEX.contains(header);
                     boolean huffman = !DO_NOT_HUFFMAN.contains(header);
                     encodeName(buffer, neverIndex ? (byte)0x10 : (byte)0x00, 4, header.asString(), name);
-                    encodeValue(buffer, huffman, field.getValue());
+                    encodeFieldValue(buffer, huffman, field.getValue());
 
                     if (_debug)
                         encoding = "Lit" +
@@ -402,7 +511,7 @@ public class HpackEncoder
                     // The field is too large or a non-zero content length, so do not index.
                     indexed = false;
                     encodeName(buffer, (byte)0x00, 4, header.asString(), name);
-                    encodeValue(buffer, true, field.getValue());
+                    encodeFieldValue(buffer, true, field.getValue());
                     if (_debug)
                         encoding = "Lit" +
                             ((name == null) ? "HuffN" : "IdxNS" + (1 + NBitIntegerEncoder.octetsNeeded(4, _context.index(name)))) +
@@ -414,7 +523,7 @@ public class HpackEncoder
                     indexed = true;
                     boolean huffman = !DO_NOT_HUFFMAN.contains(header);
                     encodeName(buffer, (byte)0x40, 6, header.asString(), name);
-                    encodeValue(buffer, huffman, field.getValue());
+                    encodeFieldValue(buffer, huffman, field.getValue());
                     if (_debug)
                         encoding = ((name == null) ? "LitHuffN" : ("LitIdxN" + (name.isStatic() ? "S" : "") + (1 + NBitIntegerEncoder.octetsNeeded(6, _context.index(name))))) +
                             (huffman ? "HuffVIdx" : "LitVIdx");
@@ -450,6 +559,39 @@ public class HpackEncoder
         }
     }
 
+    private void encodeFieldValue(ByteBuffer buffer, boolean huffman, String value)
+    {
+        String[] keys = _huffmanCacheKeys;
+        if (!huffman || keys == null || value.length() > MAX_HUFFMAN_CACHE_VALUE_LENGTH)
+        {
+            encodeValue(buffer, huffman, value);
+            return;
+        }
+
+        int slot = value.hashCode() & (keys.length - 1);
+        byte[] encoded = _huffmanCacheValues[slot];
+        if (encoded != null && value.equals(keys[slot]))
+        {
+            buffer.put(encoded);
+        }
+        else if (encoded == null && value.equals(keys[slot]))
+        {
+            // Second time the value is seen, cache its encoding.
+            int start = buffer.position();
+            encodeValue(buffer, true, value);
+            encoded = new byte[buffer.position() - start];
+            buffer.duplicate().position(start).get(encoded);
+            _huffmanCacheValues[slot] = encoded;
+        }
+        else
+        {
+            // First time the value is seen, only remember it.
+            keys[slot] = value;
+            _huffmanCacheValues[slot] = null;
+            encodeValue(buffer, true, value);
+        }
+    }
+
     static void encodeValue(ByteBuffer buffer, boolean huffman, String value)
     {
         if (huffman)
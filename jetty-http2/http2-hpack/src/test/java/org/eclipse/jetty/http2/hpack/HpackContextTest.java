@@ -14,6 +14,10 @@
 package org.eclipse.jetty.http2.hpack;
 
 import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
 
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.compression.EncodingException;
@@ -28,6 +32,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
@@ -154,6 +159,42 @@ public class HpackContextTest
         assertNull(ctx.get("name"));
     }
 
+    @Test
+    public void testIndexMatchesDynamicTable()
+    {
+        // Many small entries, so that the index grows and its probe sequences wrap around.
+        HpackContext ctx = new HpackContext(4096);
+        Random random = new Random(1234);
+        for (int i = 0; i < 10_000; i++)
+        {
+            HttpField field = new HttpField("n" + random.nextInt(50), "v" + random.nextInt(20));
+            ctx.add(field);
+
+            // Every field and name must be found and refer to the most recent entry of the dynamic table.
+            Map<HttpField, Entry> fields = new HashMap<>();
+            Map<String, Entry> names = new HashMap<>();
+            for (int index = HpackContext.STATIC_SIZE + ctx.size(); index > HpackContext.STATIC_SIZE; index--)
+            {
+                Entry entry = ctx.get(index);
+                fields.put(entry.getHttpField(), entry);
+                names.put(entry.getHttpField().getName(), entry);
+            }
+            for (Map.Entry<HttpField, Entry> e : fields.entrySet())
+            {
+                assertSame(e.getValue(), ctx.get(e.getKey()));
+            }
+            for (Map.Entry<String, Entry> e : names.entrySet())
+            {
+                assertSame(e.getValue(), ctx.get(e.getKey().toUpperCase(Locale.ENGLISH)));
+            }
+            for (int n = 0; n < 50; n++)
+            {
+                if (!names.containsKey("n" + n))
+                    assertNull(ctx.get("n" + n));
+            }
+        }
+    }
+
     @Test
     @SuppressWarnings("ReferenceEquality")
     public void testGetAddStatic()
@@ -27,6 +27,7 @@ import org.junit.jupiter.api.Test;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 public class HpackEncoderTest
 {
@@ -221,6 +222,94 @@ public class HpackEncoderTest
         assertEquals(0, encoder.getHpackContext().size());
     }
 
+    @Test
+    public void testIndexing() throws Exception
+    {
+        HpackEncoder encoder = new HpackEncoder();
+        encoder.setIndexing("X-Request-Id", HpackEncoder.Indexing.NOT_INDEXED);
+        encoder.setIndexing("last-modified", HpackEncoder.Indexing.INDEXED);
+        encoder.setIndexing("x-secret", HpackEncoder.Indexing.NEVER_INDEXED);
+        assertEquals(HpackEncoder.Indexing.NOT_INDEXED, encoder.getIndexing("x-request-id"));
+        ByteBuffer buffer = BufferUtil.allocate(4096);
+
+        BufferUtil.clearToFill(buffer);
+        encoder.encode(buffer, new HttpField("x-request-id", "1234"));
+        BufferUtil.flipToFlush(buffer, 0);
+        // Literal without indexing, new name.
+        assertEquals(0x00, buffer.get(0));
+        assertEquals(0, encoder.getHpackContext().size());
+
+        BufferUtil.clearToFill(buffer);
+        encoder.encode(buffer, new HttpField("x-secret", "secret"));
+        BufferUtil.flipToFlush(buffer, 0);
+        // Literal never indexed, new name.
+        assertEquals(0x10, buffer.get(0));
+        assertEquals(0, encoder.getHpackContext().size());
+
+        BufferUtil.clearToFill(buffer);
+        encoder.encode(buffer, new HttpField(HttpHeader.LAST_MODIFIED, "Thu, 01 Jan 1970 00:00:00 GMT"));
+        BufferUtil.flipToFlush(buffer, 0);
+        // Literal with incremental indexing, static name index 44.
+        assertEquals(0x40 | 44, buffer.get(0));
+        assertEquals(1, encoder.getHpackContext().size());
+
+        // Back to the default strategy, which does not index last-modified.
+        encoder.setIndexing("Last-Modified", null);
+        BufferUtil.clearToFill(buffer);
+        encoder.encode(buffer, new HttpField(HttpHeader.LAST_MODIFIED, "Fri, 02 Jan 1970 00:00:00 GMT"));
+        BufferUtil.flipToFlush(buffer, 0);
+        assertEquals(1, encoder.getHpackContext().size());
+
+        // The fields can be decoded.
+        HpackDecoder decoder = new HpackDecoder(4096, 8192);
+        encoder = new HpackEncoder();
+        encoder.setIndexing("x-request-id", HpackEncoder.Indexing.NOT_INDEXED);
+        encoder.setIndexing("x-secret", HpackEncoder.Indexing.NEVER_INDEXED);
+        HttpFields fields = HttpFields.build()
+            .add("x-request-id", "1234")
+            .add("x-secret", "secret")
+            .add(HttpHeader.LAST_MODIFIED, "Thu, 01 Jan 1970 00:00:00 GMT");
+        BufferUtil.clearToFill(buffer);
+        encoder.encode(buffer, new MetaData(HttpVersion.HTTP_2, fields));
+        BufferUtil.flipToFlush(buffer, 0);
+        assertTrue(fields.isEqualTo(decoder.decode(buffer).getFields()));
+    }
+
+    @Test
+    public void testHuffmanCache() throws Exception
+    {
+        HpackEncoder cached = new HpackEncoder();
+        cached.setHuffmanCacheSize(4);
+        assertEquals(4, cached.getHuffmanCacheSize());
+        HpackEncoder uncached = new HpackEncoder();
+        uncached.setHuffmanCacheSize(0);
+        assertEquals(0, uncached.getHuffmanCacheSize());
+        HpackDecoder decoder = new HpackDecoder(4096, 8192);
+
+        ByteBuffer expected = BufferUtil.allocate(4096);
+        ByteBuffer buffer = BufferUtil.allocate(4096);
+        for (int i = 0; i < 20; i++)
+        {
+            // Values that are not indexed, some repeated and some not.
+            HttpFields fields = HttpFields.build()
+                .add(HttpHeader.ETAG, "W/\"etag-" + (i % 3) + "\"")
+                .add(HttpHeader.LOCATION, "/location/" + i)
+                .add(HttpHeader.LAST_MODIFIED, "Thu, 01 Jan 1970 00:00:00 GMT");
+            MetaData metaData = new MetaData(HttpVersion.HTTP_2, fields);
+
+            BufferUtil.clearToFill(expected);
+            uncached.encode(expected, metaData);
+            BufferUtil.flipToFlush(expected, 0);
+
+            BufferUtil.clearToFill(buffer);
+            cached.encode(buffer, metaData);
+            BufferUtil.flipToFlush(buffer, 0);
+
+            assertEquals(expected, buffer);
+            assertTrue(fields.isEqualTo(decoder.decode(buffer).getFields()));
+        }
+    }
+
     @Test
     public void testFieldLargerThanTable() throws Exception
     {
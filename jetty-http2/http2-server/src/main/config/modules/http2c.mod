@@ -29,6 +29,9 @@ etc/jetty-http2c.xml
 ## Specifies the maximum number of keys in all SETTINGS frames received by a session.
 # jetty.http2c.maxSettingsKeys=64
 
+## Specifies the number of HPACK Huffman encoded header values cached per session, 0 to disable the cache.
+# jetty.http2c.huffmanCacheSize=64
+
 ## Specifies the maximum number of bad frames and pings per second,
 ## after which a session is closed to avoid denial of service attacks.
 # jetty.http2c.rateControl.maxEventsPerSecond=50
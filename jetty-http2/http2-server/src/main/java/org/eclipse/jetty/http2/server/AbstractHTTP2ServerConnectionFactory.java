@@ -14,6 +14,7 @@
 package org.eclipse.jetty.http2.server;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
@@ -32,6 +33,7 @@ import org.eclipse.jetty.http2.api.server.ServerSessionListener;
 import org.eclipse.jetty.http2.frames.Frame;
 import org.eclipse.jetty.http2.frames.SettingsFrame;
 import org.eclipse.jetty.http2.generator.Generator;
+import org.eclipse.jetty.http2.hpack.HpackEncoder;
 import org.eclipse.jetty.http2.parser.RateControl;
 import org.eclipse.jetty.http2.parser.ServerParser;
 import org.eclipse.jetty.http2.parser.WindowRateControl;
@@ -41,6 +43,7 @@ import org.eclipse.jetty.io.RetainableByteBufferPool;
 import org.eclipse.jetty.server.AbstractConnectionFactory;
 import org.eclipse.jetty.server.Connector;
 import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.util.StringUtil;
 import org.eclipse.jetty.util.annotation.ManagedAttribute;
 import org.eclipse.jetty.util.annotation.ManagedObject;
 import org.eclipse.jetty.util.annotation.Name;
@@ -53,7 +56,9 @@ public abstract class AbstractHTTP2ServerConnectionFactory extends AbstractConne
 {
     private final HTTP2SessionContainer sessionContainer = new HTTP2SessionContainer();
     private final HttpConfiguration httpConfiguration;
+    private final Map<String, HpackEncoder.Indexing> hpackIndexing = new ConcurrentHashMap<>();
     private int maxDynamicTableSize = 4096;
+    private int huffmanCacheSize = HpackEncoder.DEFAULT_HUFFMAN_CACHE_SIZE;
     private int initialSessionRecvWindow = 1024 * 1024;
     private int initialStreamRecvWindow = 512 * 1024;
     private int maxConcurrentStreams = 128;
@@ -99,6 +104,44 @@ public abstract class AbstractHTTP2ServerConnectionFactory extends AbstractConne
         this.maxDynamicTableSize = maxDynamicTableSize;
     }
 
+    @ManagedAttribute("The number of HPACK Huffman encoded values cached per connection")
+    public int getHuffmanCacheSize()
+    {
+        return huffmanCacheSize;
+    }
+
+    /**
+     * @param huffmanCacheSize the number of Huffman encoded values cached per connection, or 0 to disable the cache
+     * @see HpackEncoder#setHuffmanCacheSize(int)
+     */
+    public void setHuffmanCacheSize(int huffmanCacheSize)
+    {
+        this.huffmanCacheSize = huffmanCacheSize;
+    }
+
+    /**
+     * @return how the fields are encoded when they are not in the HPACK tables, by lower case field name
+     */
+    public Map<String, HpackEncoder.Indexing> getHpackIndexing()
+    {
+        return Collections.unmodifiableMap(hpackIndexing);
+    }
+
+    /**
+     * @param name the field name
+     * @param indexing how the fields with the given name are encoded when they are not in the HPACK tables,
+     * or null to use the default encoding strategy
+     * @see HpackEncoder#setIndexing(String, HpackEncoder.Indexing)
+     */
+    public void setHpackIndexing(String name, HpackEncoder.Indexing indexing)
+    {
+        String lowerCaseName = StringUtil.asciiToLowerCase(name);
+        if (indexing == null)
+            hpackIndexing.remove(lowerCaseName);
+        else
+            hpackIndexing.put(lowerCaseName, indexing);
+    }
+
     @ManagedAttribute("The initial size of session's flow control receive window")
     public int getInitialSessionRecvWindow()
     {
@@ -261,6 +304,8 @@ public abstract class AbstractHTTP2ServerConnectionFactory extends AbstractConne
         ServerSessionListener listener = newSessionListener(connector, endPoint);
 
         Generator generator = new Generator(connector.getByteBufferPool(), isUseOutputDirectByteBuffers(), getMaxDynamicTableSize(), getMaxHeaderBlockFragment());
+        generator.setHuffmanCacheSize(getHuffmanCacheSize());
+        hpackIndexing.forEach(generator::setIndexing);
         FlowControlStrategy flowControl = getFlowControlStrategyFactory().newFlowControlStrategy();
         HTTP2ServerSession session = new HTTP2ServerSession(connector.getScheduler(), endPoint, generator, listener, flowControl);
         session.setMaxLocalStreams(getMaxConcurrentStreams());
@@ -152,7 +152,7 @@ public class HttpChannelOverHTTP2 extends HttpChannel implements Closeable, Writ
                         System.lineSeparator(), fields);
             }
 
-            return _delayedUntilContent ? null : this;
+            return _delayedUntilContent ? null : newRequestHandlingTask();
         }
         catch (BadMessageException x)
         {
@@ -184,7 +184,7 @@ public class HttpChannelOverHTTP2 extends HttpChannel implements Closeable, Writ
                         System.lineSeparator(), request.getFields());
             }
 
-            return this;
+            return newRequestHandlingTask();
         }
         catch (BadMessageException x)
         {
@@ -287,7 +287,9 @@ public class HttpChannelOverHTTP2 extends HttpChannel implements Closeable, Writ
 
         boolean wasDelayed = _delayedUntilContent;
         _delayedUntilContent = false;
-        return handle || wasDelayed ? this : null;
+        if (wasDelayed)
+            return newRequestHandlingTask();
+        return handle ? this : null;
     }
 
     /**
@@ -633,7 +635,9 @@ public class HttpChannelOverHTTP2 extends HttpChannel implements Closeable, Writ
 
         boolean wasDelayed = _delayedUntilContent;
         _delayedUntilContent = false;
-        return handle || wasDelayed ? this : null;
+        if (wasDelayed)
+            return newRequestHandlingTask();
+        return handle ? this : null;
     }
 
     @Override
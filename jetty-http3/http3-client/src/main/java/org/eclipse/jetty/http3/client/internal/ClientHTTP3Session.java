@@ -13,6 +13,7 @@
 
 package org.eclipse.jetty.http3.client.internal;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -44,6 +45,7 @@ public class ClientHTTP3Session extends ClientProtocolSession
 {
     private static final Logger LOG = LoggerFactory.getLogger(ClientHTTP3Session.class);
 
+    private final HTTP3Configuration configuration;
     private final HTTP3SessionClient session;
     private final QpackEncoder encoder;
     private final QpackDecoder decoder;
@@ -53,6 +55,7 @@ public class ClientHTTP3Session extends ClientProtocolSession
     public ClientHTTP3Session(HTTP3Configuration configuration, ClientQuicSession quicSession, Session.Client.Listener listener, Promise<Session.Client> promise)
     {
         super(quicSession);
+        this.configuration = configuration;
         this.session = new HTTP3SessionClient(this, listener, promise);
         addBean(session);
         session.setStreamIdleTimeout(configuration.getStreamIdleTimeout());
@@ -63,7 +66,10 @@ public class ClientHTTP3Session extends ClientProtocolSession
         long encoderStreamId = getQuicSession().newStreamId(StreamType.CLIENT_UNIDIRECTIONAL);
         QuicStreamEndPoint encoderEndPoint = openInstructionEndPoint(encoderStreamId);
         InstructionFlusher encoderInstructionFlusher = new InstructionFlusher(quicSession, encoderEndPoint, EncoderStreamConnection.STREAM_TYPE);
-        this.encoder = new QpackEncoder(new InstructionHandler(encoderInstructionFlusher), configuration.getMaxBlockedStreams());
+        // The encoder may not block streams until the remote decoder
+        // allows it, via the SETTINGS_QPACK_BLOCKED_STREAMS setting.
+        this.encoder = new QpackEncoder(new InstructionHandler(encoderInstructionFlusher), 0);
+        encoder.setInsertionThreshold(configuration.getEncoderInsertionThreshold());
         addBean(encoder);
         if (LOG.isDebugEnabled())
             LOG.debug("created encoder stream #{} on {}", encoderStreamId, encoderEndPoint);
@@ -87,6 +93,11 @@ public class ClientHTTP3Session extends ClientProtocolSession
         addBean(messageFlusher);
     }
 
+    public HTTP3Configuration getConfiguration()
+    {
+        return configuration;
+    }
+
     public QpackDecoder getQpackDecoder()
     {
         return decoder;
@@ -107,9 +118,14 @@ public class ClientHTTP3Session extends ClientProtocolSession
     {
         // Queue the mandatory SETTINGS frame.
         Map<Long, Long> settings = session.onPreface();
-        if (settings == null)
-            settings = Map.of();
-        // TODO: add default settings.
+        settings = settings == null ? new HashMap<>() : new HashMap<>(settings);
+        if (configuration.getMaxDecoderTableCapacity() > 0)
+            settings.putIfAbsent(SettingsFrame.MAX_TABLE_CAPACITY, (long)configuration.getMaxDecoderTableCapacity());
+        if (configuration.getMaxBlockedStreams() > 0)
+            settings.putIfAbsent(SettingsFrame.MAX_BLOCKED_STREAMS, (long)configuration.getMaxBlockedStreams());
+        // The decoder enforces the values advertised to the remote encoder.
+        decoder.setMaxTableCapacity(settings.getOrDefault(SettingsFrame.MAX_TABLE_CAPACITY, 0L).intValue());
+        decoder.setMaxBlockedStreams(settings.getOrDefault(SettingsFrame.MAX_BLOCKED_STREAMS, 0L).intValue());
         SettingsFrame frame = new SettingsFrame(settings);
         if (controlFlusher.offer(frame, Callback.from(Invocable.InvocationType.NON_BLOCKING, session::onOpen, this::failControlStream)))
             controlFlusher.iterate();
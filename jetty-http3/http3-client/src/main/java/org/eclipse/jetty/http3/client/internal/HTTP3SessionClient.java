@@ -20,8 +20,10 @@ import org.eclipse.jetty.http3.api.Stream;
 import org.eclipse.jetty.http3.frames.Frame;
 import org.eclipse.jetty.http3.frames.GoAwayFrame;
 import org.eclipse.jetty.http3.frames.HeadersFrame;
+import org.eclipse.jetty.http3.frames.PriorityUpdateFrame;
 import org.eclipse.jetty.http3.internal.HTTP3ErrorCode;
 import org.eclipse.jetty.http3.internal.HTTP3Session;
+import org.eclipse.jetty.http3.qpack.QpackEncoder;
 import org.eclipse.jetty.quic.common.ProtocolSession;
 import org.eclipse.jetty.quic.common.QuicStreamEndPoint;
 import org.eclipse.jetty.quic.common.StreamType;
@@ -80,6 +82,15 @@ public class HTTP3SessionClient extends HTTP3Session implements Session.Client
         }
     }
 
+    @Override
+    public void onPriorityUpdate(PriorityUpdateFrame frame)
+    {
+        if (LOG.isDebugEnabled())
+            LOG.debug("received {} on {}", frame, this);
+        // RFC 9218, section 7.2: PRIORITY_UPDATE frames are only sent by clients.
+        onSessionFailure(HTTP3ErrorCode.FRAME_UNEXPECTED_ERROR.code(), "invalid_frame_type", new IllegalStateException("invalid frame type"));
+    }
+
     @Override
     public CompletableFuture<Stream> newRequest(HeadersFrame frame, Stream.Client.Listener listener)
     {
@@ -150,7 +161,10 @@ public class HTTP3SessionClient extends HTTP3Session implements Session.Client
     @Override
     protected void onSettingMaxTableCapacity(long value)
     {
-        getProtocolSession().getQpackEncoder().setCapacity((int)value);
+        ClientHTTP3Session session = getProtocolSession();
+        QpackEncoder encoder = session.getQpackEncoder();
+        encoder.setMaxTableCapacity((int)value);
+        encoder.setCapacity((int)Math.min(value, session.getConfiguration().getMaxEncoderTableCapacity()));
     }
 
     @Override
@@ -162,8 +176,6 @@ public class HTTP3SessionClient extends HTTP3Session implements Session.Client
     @Override
     protected void onSettingMaxBlockedStreams(long value)
     {
-        ClientHTTP3Session session = getProtocolSession();
-        session.getQpackDecoder().setMaxBlockedStreams((int)value);
-        session.getQpackEncoder().setMaxBlockedStreams((int)value);
+        getProtocolSession().getQpackEncoder().setMaxBlockedStreams((int)value);
     }
 }
@@ -28,6 +28,9 @@ public class HTTP3Configuration
     private boolean useInputDirectByteBuffers = true;
     private boolean useOutputDirectByteBuffers = true;
     private int maxBlockedStreams = 0;
+    private int maxDecoderTableCapacity = 0;
+    private int maxEncoderTableCapacity = 4096;
+    private int encoderInsertionThreshold = 2;
     private int maxRequestHeadersSize = 8192;
     private int maxResponseHeadersSize = 8192;
 
@@ -92,11 +95,72 @@ public class HTTP3Configuration
         return maxBlockedStreams;
     }
 
+    /**
+     * <p>Sets the max number of streams that the QPACK decoder allows to be blocked,
+     * advertised to the remote peer in the {@code SETTINGS_QPACK_BLOCKED_STREAMS} setting.</p>
+     * <p>A value of zero prevents the remote encoder from referencing entries of the
+     * dynamic table that are not yet acknowledged, trading compression ratio for
+     * the absence of head-of-line blocking.</p>
+     *
+     * @param maxBlockedStreams the max number of QPACK blocked streams
+     */
     public void setMaxBlockedStreams(int maxBlockedStreams)
     {
         this.maxBlockedStreams = maxBlockedStreams;
     }
 
+    @ManagedAttribute("The max capacity of the QPACK decoder dynamic table")
+    public int getMaxDecoderTableCapacity()
+    {
+        return maxDecoderTableCapacity;
+    }
+
+    /**
+     * <p>Sets the max capacity of the QPACK decoder dynamic table, advertised
+     * to the remote peer in the {@code SETTINGS_QPACK_MAX_TABLE_CAPACITY} setting.</p>
+     * <p>A value of zero disables the use of the dynamic table by the remote encoder.</p>
+     *
+     * @param maxDecoderTableCapacity the max capacity of the QPACK decoder dynamic table
+     */
+    public void setMaxDecoderTableCapacity(int maxDecoderTableCapacity)
+    {
+        this.maxDecoderTableCapacity = maxDecoderTableCapacity;
+    }
+
+    @ManagedAttribute("The max capacity of the QPACK encoder dynamic table")
+    public int getMaxEncoderTableCapacity()
+    {
+        return maxEncoderTableCapacity;
+    }
+
+    /**
+     * <p>Sets the max capacity of the QPACK encoder dynamic table.</p>
+     * <p>The capacity actually used is the minimum between this value
+     * and the value of the {@code SETTINGS_QPACK_MAX_TABLE_CAPACITY}
+     * setting received from the remote peer.</p>
+     *
+     * @param maxEncoderTableCapacity the max capacity of the QPACK encoder dynamic table
+     */
+    public void setMaxEncoderTableCapacity(int maxEncoderTableCapacity)
+    {
+        this.maxEncoderTableCapacity = maxEncoderTableCapacity;
+    }
+
+    @ManagedAttribute("The number of times a field is encoded before being inserted in the QPACK dynamic table")
+    public int getEncoderInsertionThreshold()
+    {
+        return encoderInsertionThreshold;
+    }
+
+    /**
+     * @param encoderInsertionThreshold the number of times a field is encoded before being inserted in the QPACK dynamic table
+     * @see org.eclipse.jetty.http3.qpack.QpackEncoder#setInsertionThreshold(int)
+     */
+    public void setEncoderInsertionThreshold(int encoderInsertionThreshold)
+    {
+        this.encoderInsertionThreshold = encoderInsertionThreshold;
+    }
+
     @ManagedAttribute("The max size of the request headers")
     public int getMaxRequestHeadersSize()
     {
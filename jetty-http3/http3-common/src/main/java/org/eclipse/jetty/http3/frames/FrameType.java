@@ -24,7 +24,9 @@ public enum FrameType
     SETTINGS(0x4),
     PUSH_PROMISE(0x5),
     GOAWAY(0x7),
-    MAX_PUSH_ID(0xD);
+    MAX_PUSH_ID(0xD),
+    // RFC 9218 extensible priorities, on the control stream.
+    PRIORITY_UPDATE(0xF0700);
 
     public static FrameType from(long type)
     {
@@ -36,7 +38,8 @@ public enum FrameType
         return frameType == CANCEL_PUSH.type() ||
             frameType == SETTINGS.type() ||
             frameType == GOAWAY.type() ||
-            frameType == MAX_PUSH_ID.type();
+            frameType == MAX_PUSH_ID.type() ||
+            frameType == PRIORITY_UPDATE.type();
     }
 
     public static boolean isMessage(long frameType)
@@ -46,6 +49,10 @@ public enum FrameType
             frameType == PUSH_PROMISE.type();
     }
 
+    /**
+     * @return the maximum type of the frames that are indexed by type in arrays,
+     * which excludes the frame types with large values such as {@link #PRIORITY_UPDATE}
+     */
     public static int maxType()
     {
         return MAX_PUSH_ID.type();
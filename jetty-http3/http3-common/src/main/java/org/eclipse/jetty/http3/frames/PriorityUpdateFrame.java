@@ -0,0 +1,49 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http3.frames;
+
+import org.eclipse.jetty.http.Priority;
+
+/**
+ * <p>The {@code PRIORITY_UPDATE} frame defined by RFC 9218, sent on the
+ * control stream to update the {@link Priority} of a request stream.</p>
+ */
+public class PriorityUpdateFrame extends Frame
+{
+    private final long prioritizedStreamId;
+    private final Priority priority;
+
+    public PriorityUpdateFrame(long prioritizedStreamId, Priority priority)
+    {
+        super(FrameType.PRIORITY_UPDATE);
+        this.prioritizedStreamId = prioritizedStreamId;
+        this.priority = priority;
+    }
+
+    public long getPrioritizedStreamId()
+    {
+        return prioritizedStreamId;
+    }
+
+    public Priority getPriority()
+    {
+        return priority;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s[streamId=%d,priority=%s]", super.toString(), getPrioritizedStreamId(), getPriority().asString());
+    }
+}
@@ -29,12 +29,14 @@ import java.util.function.Consumer;
 import java.util.function.Predicate;
 
 import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http.Priority;
 import org.eclipse.jetty.http3.api.Session;
 import org.eclipse.jetty.http3.api.Stream;
 import org.eclipse.jetty.http3.frames.DataFrame;
 import org.eclipse.jetty.http3.frames.Frame;
 import org.eclipse.jetty.http3.frames.GoAwayFrame;
 import org.eclipse.jetty.http3.frames.HeadersFrame;
+import org.eclipse.jetty.http3.frames.PriorityUpdateFrame;
 import org.eclipse.jetty.http3.frames.SettingsFrame;
 import org.eclipse.jetty.http3.internal.parser.ParserListener;
 import org.eclipse.jetty.io.CyclicTimeouts;
@@ -324,6 +326,16 @@ public abstract class HTTP3Session extends ContainerLifeCycle implements Session
         return streams.get(streamId);
     }
 
+    /**
+     * @param streamId the stream id
+     * @return the priority of the given stream, or the default priority if the stream does not exist
+     */
+    public Priority getPriority(long streamId)
+    {
+        HTTP3Stream stream = getStream(streamId);
+        return stream == null ? Priority.DEFAULT : stream.getPriority();
+    }
+
     public void removeStream(HTTP3Stream stream, Throwable failure)
     {
         boolean removed = streams.remove(stream.getId()) != null;
@@ -473,6 +485,18 @@ public abstract class HTTP3Session extends ContainerLifeCycle implements Session
         stream.onDataAvailable();
     }
 
+    @Override
+    public void onPriorityUpdate(PriorityUpdateFrame frame)
+    {
+        if (LOG.isDebugEnabled())
+            LOG.debug("received {} on {}", frame, this);
+
+        // Updates for streams that are not open (yet) are ignored, as allowed by RFC 9218.
+        HTTP3Stream stream = getStream(frame.getPrioritizedStreamId());
+        if (stream != null)
+            stream.setPriority(frame.getPriority());
+    }
+
     @Override
     public void onGoAway(GoAwayFrame frame)
     {
@@ -18,6 +18,7 @@ import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
+import org.eclipse.jetty.http.Priority;
 import org.eclipse.jetty.http3.api.Stream;
 import org.eclipse.jetty.http3.frames.DataFrame;
 import org.eclipse.jetty.http3.frames.Frame;
@@ -44,6 +45,7 @@ public abstract class HTTP3Stream implements Stream, CyclicTimeouts.Expirable, A
     private long idleTimeout;
     private long expireNanoTime;
     private Object attachment;
+    private volatile Priority priority = Priority.DEFAULT;
 
     public HTTP3Stream(HTTP3Session session, QuicStreamEndPoint endPoint, boolean local)
     {
@@ -86,6 +88,22 @@ public abstract class HTTP3Stream implements Stream, CyclicTimeouts.Expirable, A
         return local;
     }
 
+    /**
+     * @return the RFC 9218 priority of this stream, used to schedule the frames of this stream
+     */
+    public Priority getPriority()
+    {
+        return priority;
+    }
+
+    /**
+     * @param priority the new priority of this stream
+     */
+    public void setPriority(Priority priority)
+    {
+        this.priority = priority;
+    }
+
     public long getIdleTimeout()
     {
         return idleTimeout;
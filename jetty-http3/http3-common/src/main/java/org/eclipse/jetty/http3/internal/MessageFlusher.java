@@ -17,7 +17,9 @@ import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
 import java.util.List;
 import java.util.Queue;
+import java.util.function.LongFunction;
 
+import org.eclipse.jetty.http.Priority;
 import org.eclipse.jetty.http3.frames.Frame;
 import org.eclipse.jetty.http3.internal.generator.MessageGenerator;
 import org.eclipse.jetty.http3.qpack.QpackEncoder;
@@ -29,6 +31,14 @@ import org.eclipse.jetty.util.thread.AutoLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * <p>Serializes the writes of the frames of the request streams of a session.</p>
+ * <p>When a function that provides the RFC 9218 {@link Priority} of the streams
+ * is specified, the next frame to write is the one of the most urgent stream;
+ * for the same urgency, non-incremental streams are written first, one at a time
+ * in stream id order, while incremental streams are written round-robin.
+ * The frames of the same stream are always written in the order they were queued.</p>
+ */
 public class MessageFlusher extends IteratingCallback
 {
     private static final Logger LOG = LoggerFactory.getLogger(MessageFlusher.class);
@@ -37,12 +47,28 @@ public class MessageFlusher extends IteratingCallback
     private final Queue<Entry> entries = new ArrayDeque<>();
     private final ByteBufferPool.Lease lease;
     private final MessageGenerator generator;
+    private final LongFunction<Priority> priorities;
+    private final long[] lastIncrementalStreamIds = new long[Priority.URGENCY_LOWEST + 1];
     private Entry entry;
 
     public MessageFlusher(ByteBufferPool byteBufferPool, QpackEncoder encoder, int maxHeadersLength, boolean useDirectByteBuffers)
+    {
+        this(byteBufferPool, encoder, maxHeadersLength, useDirectByteBuffers, null);
+    }
+
+    /**
+     * @param byteBufferPool the pool of buffers used to generate the frames
+     * @param encoder the QPACK encoder
+     * @param maxHeadersLength the max length of the headers
+     * @param useDirectByteBuffers whether to generate the frames in direct buffers
+     * @param priorities the function that provides the priority of a stream given its id,
+     * or null to write the frames in FIFO order
+     */
+    public MessageFlusher(ByteBufferPool byteBufferPool, QpackEncoder encoder, int maxHeadersLength, boolean useDirectByteBuffers, LongFunction<Priority> priorities)
     {
         this.lease = new ByteBufferPool.Lease(byteBufferPool);
         this.generator = new MessageGenerator(encoder, maxHeadersLength, useDirectByteBuffers);
+        this.priorities = priorities;
     }
 
     public boolean offer(QuicStreamEndPoint endPoint, Frame frame, Callback callback)
@@ -59,7 +85,7 @@ public class MessageFlusher extends IteratingCallback
     {
         try (AutoLock l = lock.lock())
         {
-            entry = entries.poll();
+            entry = poll();
             if (entry == null)
                 return Action.IDLE;
         }
@@ -88,6 +114,70 @@ public class MessageFlusher extends IteratingCallback
         return Action.SCHEDULED;
     }
 
+    private Entry poll()
+    {
+        assert lock.isHeldByCurrentThread();
+
+        if (priorities == null || entries.size() < 2)
+            return entries.poll();
+
+        Entry next = null;
+        Priority nextPriority = null;
+        for (Entry queued : entries)
+        {
+            if (next != null && queued.endPoint == next.endPoint)
+                continue;
+            Priority priority = priorities.apply(queued.endPoint.getStreamId());
+            // Strictly less, so that the oldest entry of a stream wins.
+            if (next == null || compare(queued, priority, next, nextPriority) < 0)
+            {
+                next = queued;
+                nextPriority = priority;
+            }
+        }
+
+        // The frames of the same stream must be written in order, even
+        // if the priority of the stream is concurrently updated.
+        for (Entry queued : entries)
+        {
+            if (queued.endPoint == next.endPoint)
+            {
+                next = queued;
+                break;
+            }
+        }
+        entries.remove(next);
+
+        if (nextPriority.isIncremental())
+            lastIncrementalStreamIds[nextPriority.getUrgency()] = next.endPoint.getStreamId();
+        if (LOG.isDebugEnabled())
+            LOG.debug("selected {} with {} on {}", next, nextPriority, this);
+        return next;
+    }
+
+    private int compare(Entry entry1, Priority priority1, Entry entry2, Priority priority2)
+    {
+        int result = Integer.compare(priority1.getUrgency(), priority2.getUrgency());
+        if (result != 0)
+            return result;
+        result = Boolean.compare(priority1.isIncremental(), priority2.isIncremental());
+        if (result != 0)
+            return result;
+        long streamId1 = entry1.endPoint.getStreamId();
+        long streamId2 = entry2.endPoint.getStreamId();
+        // Non-incremental streams are written one at a time, in stream id order,
+        // even if the frames of a stream with a larger id were queued before.
+        if (!priority1.isIncremental())
+            return Long.compare(streamId1, streamId2);
+        // Round-robin, starting after the last incremental stream written.
+        long lastStreamId = lastIncrementalStreamIds[priority1.getUrgency()];
+        boolean after1 = streamId1 > lastStreamId;
+        boolean after2 = streamId2 > lastStreamId;
+        if (after1 != after2)
+            return after1 ? -1 : 1;
+        return Long.compare(streamId1, streamId2);
+    }
+
     @Override
     public void succeeded()
     {
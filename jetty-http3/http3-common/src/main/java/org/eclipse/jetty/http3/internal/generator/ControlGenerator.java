@@ -22,6 +22,7 @@ import org.eclipse.jetty.io.ByteBufferPool;
 public class ControlGenerator
 {
     private final FrameGenerator[] generators = new FrameGenerator[FrameType.maxType() + 1];
+    private final FrameGenerator priorityUpdateGenerator;
 
     public ControlGenerator(boolean useDirectByteBuffers)
     {
@@ -29,10 +30,13 @@ public class ControlGenerator
         generators[FrameType.SETTINGS.type()] = new SettingsGenerator(useDirectByteBuffers);
         generators[FrameType.GOAWAY.type()] = new GoAwayGenerator(useDirectByteBuffers);
         generators[FrameType.MAX_PUSH_ID.type()] = new MaxPushIdGenerator();
+        priorityUpdateGenerator = new PriorityUpdateGenerator(useDirectByteBuffers);
     }
 
     public int generate(ByteBufferPool.Lease lease, long streamId, Frame frame, Consumer<Throwable> fail)
     {
-        return generators[frame.getFrameType().type()].generate(lease, streamId, frame, fail);
+        FrameType frameType = frame.getFrameType();
+        FrameGenerator generator = frameType == FrameType.PRIORITY_UPDATE ? priorityUpdateGenerator : generators[frameType.type()];
+        return generator.generate(lease, streamId, frame, fail);
     }
 }
@@ -17,6 +17,7 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 
 import org.eclipse.jetty.http3.frames.GoAwayFrame;
+import org.eclipse.jetty.http3.frames.PriorityUpdateFrame;
 import org.eclipse.jetty.http3.frames.SettingsFrame;
 import org.eclipse.jetty.http3.internal.HTTP3ErrorCode;
 import org.eclipse.jetty.util.BufferUtil;
@@ -123,6 +124,18 @@ public abstract class BodyParser
         }
     }
 
+    protected void notifyPriorityUpdate(PriorityUpdateFrame frame)
+    {
+        try
+        {
+            listener.onPriorityUpdate(frame);
+        }
+        catch (Throwable x)
+        {
+            LOG.info("failure while notifying listener {}", listener, x);
+        }
+    }
+
     public enum Result
     {
         NO_FRAME, FRAGMENT_FRAME, WHOLE_FRAME
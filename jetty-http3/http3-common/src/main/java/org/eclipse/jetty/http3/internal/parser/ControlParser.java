@@ -32,6 +32,7 @@ public class ControlParser
 
     private final HeaderParser headerParser;
     private final BodyParser[] bodyParsers = new BodyParser[FrameType.maxType() + 1];
+    private final BodyParser priorityUpdateBodyParser;
     private final BodyParser unknownBodyParser;
     private State state = State.HEADER;
 
@@ -42,6 +43,7 @@ public class ControlParser
         this.bodyParsers[FrameType.SETTINGS.type()] = new SettingsBodyParser(headerParser, listener);
         this.bodyParsers[FrameType.GOAWAY.type()] = new GoAwayBodyParser(headerParser, listener);
         this.bodyParsers[FrameType.MAX_PUSH_ID.type()] = new MaxPushIdBodyParser(headerParser, listener);
+        this.priorityUpdateBodyParser = new PriorityUpdateBodyParser(headerParser, listener);
         this.unknownBodyParser = new UnknownBodyParser(headerParser, listener);
     }
 
@@ -79,6 +81,8 @@ public class ControlParser
                         long frameType = headerParser.getFrameType();
                         if (frameType >= 0 && frameType < bodyParsers.length)
                             bodyParser = bodyParsers[(int)frameType];
+                        else if (frameType == FrameType.PRIORITY_UPDATE.type())
+                            bodyParser = priorityUpdateBodyParser;
 
                         if (bodyParser == null)
                         {
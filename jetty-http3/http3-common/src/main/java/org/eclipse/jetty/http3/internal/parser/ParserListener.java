@@ -16,6 +16,7 @@ package org.eclipse.jetty.http3.internal.parser;
 import org.eclipse.jetty.http3.frames.DataFrame;
 import org.eclipse.jetty.http3.frames.GoAwayFrame;
 import org.eclipse.jetty.http3.frames.HeadersFrame;
+import org.eclipse.jetty.http3.frames.PriorityUpdateFrame;
 import org.eclipse.jetty.http3.frames.SettingsFrame;
 
 public interface ParserListener
@@ -36,6 +37,10 @@ public interface ParserListener
     {
     }
 
+    public default void onPriorityUpdate(PriorityUpdateFrame frame)
+    {
+    }
+
     public default void onStreamFailure(long streamId, long error, Throwable failure)
     {
     }
@@ -71,6 +76,12 @@ public interface ParserListener
             listener.onSettings(frame);
         }
 
+        @Override
+        public void onPriorityUpdate(PriorityUpdateFrame frame)
+        {
+            listener.onPriorityUpdate(frame);
+        }
+
         @Override
         public void onStreamFailure(long streamId, long error, Throwable failure)
         {
@@ -0,0 +1,114 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http3.internal.parser;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.jetty.http.Priority;
+import org.eclipse.jetty.http3.frames.PriorityUpdateFrame;
+import org.eclipse.jetty.http3.internal.HTTP3ErrorCode;
+import org.eclipse.jetty.http3.internal.VarLenInt;
+
+public class PriorityUpdateBodyParser extends BodyParser
+{
+    private final VarLenInt varLenInt = new VarLenInt();
+    private State state = State.INIT;
+    private long prioritizedStreamId;
+    private byte[] value;
+    private int cursor;
+
+    public PriorityUpdateBodyParser(HeaderParser headerParser, ParserListener listener)
+    {
+        super(headerParser, listener);
+    }
+
+    private void reset()
+    {
+        varLenInt.reset();
+        state = State.INIT;
+        prioritizedStreamId = 0;
+        value = null;
+        cursor = 0;
+    }
+
+    @Override
+    protected void emptyBody(ByteBuffer buffer)
+    {
+        sessionFailure(buffer, HTTP3ErrorCode.FRAME_ERROR.code(), "invalid_priority_update_frame", new IOException("invalid priority update frame"));
+    }
+
+    @Override
+    public Result parse(ByteBuffer buffer)
+    {
+        while (buffer.hasRemaining())
+        {
+            switch (state)
+            {
+                case INIT:
+                {
+                    state = State.PRIORITIZED_STREAM_ID;
+                    break;
+                }
+                case PRIORITIZED_STREAM_ID:
+                {
+                    if (varLenInt.decode(buffer, v -> prioritizedStreamId = v))
+                    {
+                        long length = getBodyLength() - VarLenInt.length(prioritizedStreamId);
+                        if (length < 0 || length > Integer.MAX_VALUE)
+                        {
+                            sessionFailure(buffer, HTTP3ErrorCode.FRAME_ERROR.code(), "invalid_priority_update_frame", new IOException("invalid priority update frame"));
+                            return Result.NO_FRAME;
+                        }
+                        value = new byte[(int)length];
+                        if (length == 0)
+                            return onPriorityUpdate();
+                        state = State.VALUE;
+                        break;
+                    }
+                    return Result.NO_FRAME;
+                }
+                case VALUE:
+                {
+                    int length = Math.min(buffer.remaining(), value.length - cursor);
+                    buffer.get(value, cursor, length);
+                    cursor += length;
+                    if (cursor == value.length)
+                        return onPriorityUpdate();
+                    break;
+                }
+                default:
+                {
+                    throw new IllegalStateException();
+                }
+            }
+        }
+        return Result.NO_FRAME;
+    }
+
+    private Result onPriorityUpdate()
+    {
+        Priority priority = Priority.from(new String(value, StandardCharsets.US_ASCII));
+        PriorityUpdateFrame frame = new PriorityUpdateFrame(prioritizedStreamId, priority);
+        reset();
+        notifyPriorityUpdate(frame);
+        return Result.WHOLE_FRAME;
+    }
+
+    private enum State
+    {
+        INIT, PRIORITIZED_STREAM_ID, VALUE
+    }
+}
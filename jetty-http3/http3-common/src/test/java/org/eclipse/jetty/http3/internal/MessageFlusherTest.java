@@ -0,0 +1,96 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http3.internal;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.jetty.http.Priority;
+import org.eclipse.jetty.http3.frames.DataFrame;
+import org.eclipse.jetty.io.NullByteBufferPool;
+import org.eclipse.jetty.quic.common.QuicStreamEndPoint;
+import org.eclipse.jetty.util.Callback;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class MessageFlusherTest
+{
+    private final Map<Long, Priority> priorities = new HashMap<>();
+    private final List<Long> written = new ArrayList<>();
+    private final MessageFlusher flusher = new MessageFlusher(new NullByteBufferPool(), null, 8192, false, priorities::get);
+
+    @Test
+    public void testMoreUrgentStreamWrittenFirst()
+    {
+        QuicStreamEndPoint lessUrgent = newStreamEndPoint(4, new Priority(Priority.URGENCY_LOWEST, false));
+        QuicStreamEndPoint moreUrgent = newStreamEndPoint(8, new Priority(Priority.URGENCY_HIGHEST, false));
+
+        offerData(lessUrgent, moreUrgent, lessUrgent, moreUrgent, lessUrgent, moreUrgent);
+        flusher.iterate();
+
+        assertEquals(List.of(8L, 8L, 8L, 4L, 4L, 4L), written);
+    }
+
+    @Test
+    public void testIncrementalStreamsWithSameUrgencyInterleaved()
+    {
+        QuicStreamEndPoint stream4 = newStreamEndPoint(4, new Priority(1, true));
+        QuicStreamEndPoint stream8 = newStreamEndPoint(8, new Priority(1, true));
+
+        offerData(stream4, stream4, stream4, stream8, stream8, stream8);
+        flusher.iterate();
+
+        assertEquals(List.of(4L, 8L, 4L, 8L, 4L, 8L), written);
+    }
+
+    @Test
+    public void testNonIncrementalStreamWrittenToCompletion()
+    {
+        QuicStreamEndPoint stream4 = newStreamEndPoint(4, new Priority(1, false));
+        QuicStreamEndPoint stream8 = newStreamEndPoint(8, new Priority(1, false));
+
+        // The first frame queued is for the stream with the larger id,
+        // but the stream with the smaller id must be written first.
+        offerData(stream8, stream4, stream8, stream4, stream8, stream4);
+        flusher.iterate();
+
+        assertEquals(List.of(4L, 4L, 4L, 8L, 8L, 8L), written);
+    }
+
+    private QuicStreamEndPoint newStreamEndPoint(long streamId, Priority priority)
+    {
+        priorities.put(streamId, priority);
+        return new QuicStreamEndPoint(null, null, streamId)
+        {
+            @Override
+            public void write(Callback callback, List<ByteBuffer> buffers, boolean last)
+            {
+                written.add(getStreamId());
+                callback.succeeded();
+            }
+        };
+    }
+
+    private void offerData(QuicStreamEndPoint... endPoints)
+    {
+        for (QuicStreamEndPoint endPoint : endPoints)
+        {
+            flusher.offer(endPoint, new DataFrame(ByteBuffer.allocate(16), false), Callback.NOOP);
+        }
+    }
+}
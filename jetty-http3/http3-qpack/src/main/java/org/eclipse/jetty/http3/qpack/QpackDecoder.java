@@ -21,6 +21,7 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.MetaData;
@@ -55,8 +56,10 @@ public class QpackDecoder implements Dumpable
     private final NBitIntegerDecoder _integerDecoder = new NBitIntegerDecoder();
     private final InstructionHandler _instructionHandler = new InstructionHandler();
     private final Map<Long, AtomicInteger> _blockedStreams = new HashMap<>();
+    private final LongAdder _blockedSections = new LongAdder();
     private int _maxHeaderSize;
     private int _maxBlockedStreams;
+    private int _maxTableCapacity = -1;
 
     private static class MetaDataNotification
     {
@@ -113,6 +116,37 @@ public class QpackDecoder implements Dumpable
         _maxBlockedStreams = maxBlockedStreams;
     }
 
+    /**
+     * @return the max capacity of the DynamicTable, or -1 if unknown
+     */
+    public int getMaxTableCapacity()
+    {
+        return _maxTableCapacity;
+    }
+
+    /**
+     * <p>Sets the max capacity of the DynamicTable, as advertised to the remote Encoder
+     * in the {@code SETTINGS_QPACK_MAX_TABLE_CAPACITY} setting.</p>
+     * <p>The remote Encoder cannot set a capacity greater than the max capacity,
+     * which is also used to decode the Required Insert Count.
+     * If it is not set, the current capacity is used instead.</p>
+     *
+     * @param maxTableCapacity the max capacity of the DynamicTable
+     */
+    public void setMaxTableCapacity(int maxTableCapacity)
+    {
+        _maxTableCapacity = maxTableCapacity;
+    }
+
+    /**
+     * @return the number of field sections whose decoding was blocked
+     * waiting for entries not yet received from the remote Encoder
+     */
+    public long getBlockedSections()
+    {
+        return _blockedSections.sum();
+    }
+
     public interface Handler
     {
         void onMetaData(long streamId, MetaData metadata);
@@ -155,7 +189,7 @@ public class QpackDecoder implements Dumpable
         // Decode the Required Insert Count using the DynamicTable state.
         DynamicTable dynamicTable = _context.getDynamicTable();
         int insertCount = dynamicTable.getInsertCount();
-        int maxDynamicTableSize = dynamicTable.getCapacity();
+        int maxDynamicTableSize = _maxTableCapacity >= 0 ? _maxTableCapacity : dynamicTable.getCapacity();
         int requiredInsertCount = decodeInsertCount(encodedInsertCount, insertCount, maxDynamicTableSize);
 
         try
@@ -182,6 +216,7 @@ public class QpackDecoder implements Dumpable
                 blockedFields.incrementAndGet();
                 if (_blockedStreams.size() > _maxBlockedStreams)
                     throw new QpackException.SessionException(QPACK_DECOMPRESSION_FAILED, "exceeded max blocked streams");
+                _blockedSections.increment();
                 _encodedFieldSections.add(encodedFieldSection);
             }
 
@@ -336,8 +371,10 @@ public class QpackDecoder implements Dumpable
     class InstructionHandler implements DecoderInstructionParser.Handler
     {
         @Override
-        public void onSetDynamicTableCapacity(int capacity)
+        public void onSetDynamicTableCapacity(int capacity) throws QpackException
         {
+            if (_maxTableCapacity >= 0 && capacity > _maxTableCapacity)
+                throw new QpackException.SessionException(QPACK_ENCODER_STREAM_ERROR, "capacity exceeds max table capacity");
             _context.getDynamicTable().setCapacity(capacity);
         }
 
@@ -21,6 +21,7 @@ import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpHeader;
@@ -97,6 +98,15 @@ public class QpackEncoder implements Dumpable
     private final InstructionHandler _instructionHandler = new InstructionHandler();
     private int _knownInsertCount = 0;
     private int _blockedStreams = 0;
+    private int _maxTableCapacity = -1;
+    private int _insertionThreshold = 1;
+    private HttpField[] _insertionCandidates;
+    private int[] _insertionCounts;
+    private final LongAdder _encodedSections = new LongAdder();
+    private final LongAdder _fieldBytes = new LongAdder();
+    private final LongAdder _encodedBytes = new LongAdder();
+    private final LongAdder _blockingSections = new LongAdder();
+    private final LongAdder _blockedStreamsStalls = new LongAdder();
 
     public QpackEncoder(Instruction.Handler handler, int maxBlockedStreams)
     {
@@ -116,9 +126,43 @@ public class QpackEncoder implements Dumpable
         return _maxBlockedStreams;
     }
 
+    /**
+     * <p>Sets the max number of streams that may be blocked by the remote Decoder,
+     * as received in its {@code SETTINGS_QPACK_BLOCKED_STREAMS} setting.</p>
+     *
+     * @param maxBlockedStreams the max number of streams that may be blocked by the remote Decoder
+     */
     public void setMaxBlockedStreams(int maxBlockedStreams)
     {
-        _maxBlockedStreams = maxBlockedStreams;
+        try (AutoLock l = lock.lock())
+        {
+            _maxBlockedStreams = maxBlockedStreams;
+        }
+    }
+
+    /**
+     * @return the max capacity of the DynamicTable of the remote Decoder, or -1 if unknown
+     */
+    public int getMaxTableCapacity()
+    {
+        return _maxTableCapacity;
+    }
+
+    /**
+     * <p>Sets the max capacity of the DynamicTable of the remote Decoder, as received in its
+     * {@code SETTINGS_QPACK_MAX_TABLE_CAPACITY} setting.</p>
+     * <p>The max capacity limits the capacity that can be set with {@link #setCapacity(int)},
+     * and is used by both the Encoder and the Decoder to encode the Required Insert Count.
+     * If it is not set, the current capacity is used instead.</p>
+     *
+     * @param maxTableCapacity the max capacity of the DynamicTable of the remote Decoder
+     */
+    public void setMaxTableCapacity(int maxTableCapacity)
+    {
+        try (AutoLock l = lock.lock())
+        {
+            _maxTableCapacity = maxTableCapacity;
+        }
     }
 
     public int getCapacity()
@@ -130,14 +174,108 @@ public class QpackEncoder implements Dumpable
      * Set the capacity of the DynamicTable and send a instruction to set the capacity on the remote Decoder.
      *
      * @param capacity the new capacity.
+     * @throws IllegalArgumentException if the capacity is greater than the {@link #getMaxTableCapacity() max capacity}
      */
     public void setCapacity(int capacity)
     {
+        if (_maxTableCapacity >= 0 && capacity > _maxTableCapacity)
+            throw new IllegalArgumentException("Capacity " + capacity + " exceeds max table capacity " + _maxTableCapacity);
         _context.getDynamicTable().setCapacity(capacity);
         _handler.onInstructions(List.of(new SetCapacityInstruction(capacity)));
         notifyInstructionHandler();
     }
 
+    /**
+     * @return the number of times a field must be encoded before it is inserted into the DynamicTable
+     */
+    public int getInsertionThreshold()
+    {
+        return _insertionThreshold;
+    }
+
+    /**
+     * <p>Sets the number of times a field must be encoded before it is inserted into the DynamicTable.</p>
+     * <p>With a threshold of 1, every field that may be indexed is inserted the first time
+     * it is encoded. A higher threshold avoids filling the DynamicTable with fields whose
+     * values are rarely repeated, which would otherwise evict the fields that are repeated
+     * in many field sections. The occurrences are counted in a small direct mapped table,
+     * so rarely repeated fields are eventually forgotten.</p>
+     *
+     * @param insertionThreshold the number of times a field must be encoded before it is inserted
+     */
+    public void setInsertionThreshold(int insertionThreshold)
+    {
+        try (AutoLock l = lock.lock())
+        {
+            _insertionThreshold = Math.max(1, insertionThreshold);
+            if (_insertionThreshold > 1 && _insertionCandidates == null)
+            {
+                _insertionCandidates = new HttpField[256];
+                _insertionCounts = new int[256];
+            }
+        }
+    }
+
+    /**
+     * @return the number of field sections encoded
+     */
+    public long getEncodedSections()
+    {
+        return _encodedSections.sum();
+    }
+
+    /**
+     * @return the total length of the names and values of the fields encoded
+     */
+    public long getFieldBytes()
+    {
+        return _fieldBytes.sum();
+    }
+
+    /**
+     * @return the number of bytes of the encoded field sections, excluding the Encoder stream instructions
+     */
+    public long getEncodedBytes()
+    {
+        return _encodedBytes.sum();
+    }
+
+    /**
+     * @return the ratio between the encoded bytes and the field bytes, or 0 if no field was encoded
+     */
+    public double getCompressionRatio()
+    {
+        long fieldBytes = getFieldBytes();
+        return fieldBytes == 0 ? 0 : (double)getEncodedBytes() / fieldBytes;
+    }
+
+    /**
+     * @return the number of field sections that may block the remote Decoder,
+     * because they reference entries it has not acknowledged yet
+     */
+    public long getBlockingSections()
+    {
+        return _blockingSections.sum();
+    }
+
+    /**
+     * @return the number of times an unacknowledged entry was not referenced because
+     * the max number of blocked streams was reached
+     */
+    public long getBlockedStreamsStalls()
+    {
+        return _blockedStreamsStalls.sum();
+    }
+
+    public void resetStatistics()
+    {
+        _encodedSections.reset();
+        _fieldBytes.reset();
+        _encodedBytes.reset();
+        _blockingSections.reset();
+        _blockedStreamsStalls.reset();
+    }
+
     /**
      * <p>Encodes a {@link MetaData} object into the supplied {@link ByteBuffer} for a specific HTTP/s stream.</p>
      * <p>This method may generate instructions to be sent back over the Encoder stream to the remote Decoder.</p>
@@ -186,9 +324,13 @@ public class QpackEncoder implements Dumpable
 
             try
             {
+                int start = buffer.position();
+                int fieldBytes = 0;
                 int requiredInsertCount = 0;
                 for (HttpField field : new Http3Fields(metadata))
                 {
+                    String value = field.getValue();
+                    fieldBytes += field.getName().length() + (value == null ? 0 : value.length());
                     EncodableEntry entry = encode(streamInfo, field);
                     encodableEntries.add(entry);
 
@@ -208,7 +350,8 @@ public class QpackEncoder implements Dumpable
                 }
 
                 int base = dynamicTable.getBase();
-                int encodedInsertCount = encodeInsertCount(requiredInsertCount, dynamicTable.getCapacity());
+                int maxTableCapacity = _maxTableCapacity >= 0 ? _maxTableCapacity : dynamicTable.getCapacity();
+                int encodedInsertCount = encodeInsertCount(requiredInsertCount, maxTableCapacity);
                 boolean signBit = base < requiredInsertCount;
                 int deltaBase = signBit ? requiredInsertCount - base - 1 : base - requiredInsertCount;
 
@@ -223,6 +366,12 @@ public class QpackEncoder implements Dumpable
                     entry.encode(buffer, base);
                 }
 
+                _encodedSections.increment();
+                _fieldBytes.add(fieldBytes);
+                _encodedBytes.add(buffer.position() - start);
+                if (sectionInfo.isBlocking())
+                    _blockingSections.increment();
+
                 notifyInstructionHandler();
             }
             catch (BufferOverflowException e)
@@ -351,7 +500,7 @@ public class QpackEncoder implements Dumpable
         if (field instanceof PreEncodedHttpField)
             return EncodableEntry.getPreEncodedEntry((PreEncodedHttpField)field);
 
-        boolean canCreateEntry = shouldIndex(field) && dynamicTable.canInsert(field);
+        boolean canCreateEntry = shouldIndex(field) && isFrequent(field) && dynamicTable.canInsert(field);
 
         Entry entry = _context.get(field);
         if (referenceEntry(entry, streamInfo))
@@ -410,6 +559,20 @@ public class QpackEncoder implements Dumpable
         }
     }
 
+    private boolean isFrequent(HttpField field)
+    {
+        if (_insertionThreshold <= 1)
+            return true;
+
+        // Count the occurrences of the field in a direct mapped table, replacing any other field in the slot.
+        int slot = field.hashCode() & (_insertionCandidates.length - 1);
+        if (field.equals(_insertionCandidates[slot]))
+            return ++_insertionCounts[slot] >= _insertionThreshold;
+        _insertionCandidates[slot] = field;
+        _insertionCounts[slot] = 1;
+        return false;
+    }
+
     private boolean referenceEntry(Entry entry, StreamInfo streamInfo)
     {
         if (entry == null)
@@ -447,6 +610,8 @@ public class QpackEncoder implements Dumpable
             return true;
         }
 
+        if (getMaxBlockedStreams() > 0)
+            _blockedStreamsStalls.increment();
         return false;
     }
 
@@ -530,6 +695,13 @@ public class QpackEncoder implements Dumpable
     @Override
     public void dump(Appendable out, String indent) throws IOException
     {
-        Dumpable.dumpObjects(out, indent, _context.getDynamicTable());
+        Dumpable.dumpObjects(out, indent, this, _context.getDynamicTable());
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x{sections=%d,ratio=%.3f,blocking=%d,stalls=%d}",
+            getClass().getSimpleName(), hashCode(), getEncodedSections(), getCompressionRatio(), getBlockingSections(), getBlockedStreamsStalls());
     }
 }
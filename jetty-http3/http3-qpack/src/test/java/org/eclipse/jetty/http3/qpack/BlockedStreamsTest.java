@@ -167,6 +167,11 @@ public class BlockedStreamsTest
         assertNull(_encoderHandler.getInstruction());
         decoded = _decoder.decode(4, buffer, _decoderHandler);
         assertFalse(decoded);
+
+        // Streams 0, 1 and 4 were blocked, while stream 3 could not reference its entry.
+        assertThat(_encoder.getBlockingSections(), equalTo(3L));
+        assertThat(_encoder.getBlockedStreamsStalls(), equalTo(1L));
+        assertThat(_decoder.getBlockedSections(), equalTo(3L));
     }
 
     @Test
@@ -0,0 +1,132 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http3.qpack;
+
+import java.nio.ByteBuffer;
+
+import org.eclipse.jetty.http.HttpField;
+import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http3.qpack.internal.instruction.LiteralNameEntryInstruction;
+import org.eclipse.jetty.http3.qpack.internal.instruction.SetCapacityInstruction;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.eclipse.jetty.http3.qpack.QpackTestUtil.encode;
+import static org.eclipse.jetty.http3.qpack.QpackTestUtil.toBuffer;
+import static org.eclipse.jetty.http3.qpack.QpackTestUtil.toMetaData;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InsertionPolicyTest
+{
+    private static final int MAX_BLOCKED_STREAMS = 5;
+    private static final int MAX_HEADER_SIZE = 1024;
+
+    private QpackEncoder _encoder;
+    private QpackDecoder _decoder;
+    private TestDecoderHandler _decoderHandler;
+    private TestEncoderHandler _encoderHandler;
+
+    @BeforeEach
+    public void before()
+    {
+        _encoderHandler = new TestEncoderHandler();
+        _decoderHandler = new TestDecoderHandler();
+        _encoder = new QpackEncoder(_encoderHandler, MAX_BLOCKED_STREAMS);
+        _decoder = new QpackDecoder(_decoderHandler, MAX_HEADER_SIZE);
+        _decoder.setMaxBlockedStreams(MAX_BLOCKED_STREAMS);
+    }
+
+    @Test
+    public void testInsertionThreshold() throws Exception
+    {
+        _encoder.setInsertionThreshold(2);
+        _encoder.setCapacity(1024);
+        _decoder.parseInstructions(toBuffer(_encoderHandler.getInstruction()));
+
+        // The first occurrence of a field is encoded as a literal.
+        HttpField field = new HttpField("name", "value");
+        ByteBuffer buffer = encode(_encoder, 0, toMetaData("GET", "/", "http", field));
+        assertNull(_encoderHandler.getInstruction());
+        assertTrue(_decoder.decode(0, buffer, _decoderHandler));
+        MetaData metaData = _decoderHandler.getMetaData();
+        assertThat(metaData.getFields().get("name"), equalTo("value"));
+
+        // The second occurrence is inserted into the dynamic table.
+        buffer = encode(_encoder, 4, toMetaData("GET", "/", "http", field));
+        Instruction instruction = _encoderHandler.getInstruction();
+        assertThat(instruction, instanceOf(LiteralNameEntryInstruction.class));
+        assertNull(_encoderHandler.getInstruction());
+        _decoder.parseInstructions(toBuffer(instruction));
+        assertThat(_decoder.getQpackContext().getDynamicTable().getNumEntries(), equalTo(1));
+        assertTrue(_decoder.decode(4, buffer, _decoderHandler));
+        metaData = _decoderHandler.getMetaData();
+        assertThat(metaData.getFields().get("name"), equalTo("value"));
+    }
+
+    @Test
+    public void testMaxTableCapacity() throws Exception
+    {
+        _encoder.setMaxTableCapacity(512);
+        _decoder.setMaxTableCapacity(512);
+        assertThrows(IllegalArgumentException.class, () -> _encoder.setCapacity(1024));
+
+        _encoder.setCapacity(256);
+        Instruction instruction = _encoderHandler.getInstruction();
+        assertThat(instruction, instanceOf(SetCapacityInstruction.class));
+        _decoder.parseInstructions(toBuffer(instruction));
+
+        // The Required Insert Count is encoded using the max table capacity on both sides.
+        HttpField field = new HttpField("name", "value");
+        ByteBuffer buffer = encode(_encoder, 0, toMetaData("GET", "/", "http", field));
+        _decoder.parseInstructions(_encoderHandler.getInstructionBuffer());
+        assertTrue(_decoder.decode(0, buffer, _decoderHandler));
+        assertThat(_decoderHandler.getMetaData().getFields().get("name"), equalTo("value"));
+
+        // The remote encoder cannot exceed the advertised max table capacity.
+        assertThrows(QpackException.SessionException.class, () -> _decoder.parseInstructions(toBuffer(new SetCapacityInstruction(1024))));
+    }
+
+    @Test
+    public void testStatistics() throws Exception
+    {
+        _encoder.setCapacity(1024);
+        _decoder.parseInstructions(toBuffer(_encoderHandler.getInstruction()));
+
+        HttpField field = new HttpField("x-repeated", "a-long-value-repeated-in-every-section");
+        for (int i = 0; i < 10; ++i)
+        {
+            long streamId = i * 4L;
+            ByteBuffer buffer = encode(_encoder, streamId, toMetaData("GET", "/", "http", field));
+            _decoder.parseInstructions(_encoderHandler.getInstructionBuffer());
+            assertTrue(_decoder.decode(streamId, buffer, _decoderHandler));
+            _encoder.parseInstructions(_decoderHandler.getInstructionBuffer());
+            _decoderHandler.getMetaData();
+        }
+
+        assertThat(_encoder.getEncodedSections(), equalTo(10L));
+        assertThat(_encoder.getFieldBytes(), greaterThan(_encoder.getEncodedBytes()));
+        assertThat(_encoder.getCompressionRatio(), lessThan(0.5));
+
+        _encoder.resetStatistics();
+        assertThat(_encoder.getEncodedSections(), equalTo(0L));
+        assertThat(_encoder.getCompressionRatio(), equalTo(0.0));
+    }
+}
@@ -18,6 +18,7 @@ import org.eclipse.jetty.http3.frames.Frame;
 import org.eclipse.jetty.http3.frames.GoAwayFrame;
 import org.eclipse.jetty.http3.frames.HeadersFrame;
 import org.eclipse.jetty.http3.internal.HTTP3Session;
+import org.eclipse.jetty.http3.qpack.QpackEncoder;
 import org.eclipse.jetty.quic.common.QuicStreamEndPoint;
 import org.eclipse.jetty.util.Callback;
 import org.slf4j.Logger;
@@ -98,7 +99,10 @@ public class HTTP3SessionServer extends HTTP3Session implements Session.Server
     @Override
     protected void onSettingMaxTableCapacity(long value)
     {
-        getProtocolSession().getQpackEncoder().setCapacity((int)value);
+        ServerHTTP3Session session = getProtocolSession();
+        QpackEncoder encoder = session.getQpackEncoder();
+        encoder.setMaxTableCapacity((int)value);
+        encoder.setCapacity((int)Math.min(value, session.getConfiguration().getMaxEncoderTableCapacity()));
     }
 
     @Override
@@ -110,9 +114,7 @@ public class HTTP3SessionServer extends HTTP3Session implements Session.Server
     @Override
     protected void onSettingMaxBlockedStreams(long value)
     {
-        ServerHTTP3Session session = getProtocolSession();
-        session.getQpackDecoder().setMaxBlockedStreams((int)value);
-        session.getQpackEncoder().setMaxBlockedStreams((int)value);
+        getProtocolSession().getQpackEncoder().setMaxBlockedStreams((int)value);
     }
 
     private void notifyAccept()
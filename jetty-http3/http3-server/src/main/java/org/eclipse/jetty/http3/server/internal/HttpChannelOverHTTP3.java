@@ -155,7 +155,7 @@ public class HttpChannelOverHTTP3 extends HttpChannel
                     System.lineSeparator(), fields);
             }
 
-            return delayedUntilContent ? null : this;
+            return delayedUntilContent ? null : newRequestHandlingTask();
         }
         catch (BadMessageException x)
         {
@@ -196,9 +196,12 @@ public class HttpChannelOverHTTP3 extends HttpChannel
         delayedUntilContent = false;
 
         if (wasDelayed)
+        {
             connection.setApplicationMode(true);
+            return newRequestHandlingTask();
+        }
 
-        return wasDelayed || woken ? this : null;
+        return woken ? this : null;
     }
 
     public Runnable onTrailer(HeadersFrame frame)
@@ -223,9 +226,12 @@ public class HttpChannelOverHTTP3 extends HttpChannel
         delayedUntilContent = false;
 
         if (wasDelayed)
+        {
             connection.setApplicationMode(true);
+            return newRequestHandlingTask();
+        }
 
-        return wasDelayed || handle ? this : null;
+        return handle ? this : null;
     }
 
     public boolean onIdleTimeout(Throwable failure, Consumer<Runnable> consumer)
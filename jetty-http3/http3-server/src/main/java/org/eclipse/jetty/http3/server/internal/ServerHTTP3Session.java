@@ -13,6 +13,7 @@
 
 package org.eclipse.jetty.http3.server.internal;
 
+import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
 
@@ -43,6 +44,7 @@ public class ServerHTTP3Session extends ServerProtocolSession
 {
     private static final Logger LOG = LoggerFactory.getLogger(ServerHTTP3Session.class);
 
+    private final HTTP3Configuration configuration;
     private final HTTP3SessionServer session;
     private final QpackEncoder encoder;
     private final QpackDecoder decoder;
@@ -52,6 +54,7 @@ public class ServerHTTP3Session extends ServerProtocolSession
     public ServerHTTP3Session(HTTP3Configuration configuration, ServerQuicSession quicSession, Session.Server.Listener listener)
     {
         super(quicSession);
+        this.configuration = configuration;
         this.session = new HTTP3SessionServer(this, listener);
         addBean(session);
         session.setStreamIdleTimeout(configuration.getStreamIdleTimeout());
@@ -62,7 +65,10 @@ public class ServerHTTP3Session extends ServerProtocolSession
         long encoderStreamId = getQuicSession().newStreamId(StreamType.SERVER_UNIDIRECTIONAL);
         QuicStreamEndPoint encoderEndPoint = openInstructionEndPoint(encoderStreamId);
         InstructionFlusher encoderInstructionFlusher = new InstructionFlusher(quicSession, encoderEndPoint, EncoderStreamConnection.STREAM_TYPE);
-        this.encoder = new QpackEncoder(new InstructionHandler(encoderInstructionFlusher), configuration.getMaxBlockedStreams());
+        // The encoder may not block streams until the remote decoder
+        // allows it, via the SETTINGS_QPACK_BLOCKED_STREAMS setting.
+        this.encoder = new QpackEncoder(new InstructionHandler(encoderInstructionFlusher), 0);
+        encoder.setInsertionThreshold(configuration.getEncoderInsertionThreshold());
         addBean(encoder);
         if (LOG.isDebugEnabled())
             LOG.debug("created encoder stream #{} on {}", encoderStreamId, encoderEndPoint);
@@ -82,10 +88,15 @@ public class ServerHTTP3Session extends ServerProtocolSession
         if (LOG.isDebugEnabled())
             LOG.debug("created control stream #{} on {}", controlStreamId, controlEndPoint);
 
-        this.messageFlusher = new MessageFlusher(quicSession.getByteBufferPool(), encoder, configuration.getMaxResponseHeadersSize(), configuration.isUseOutputDirectByteBuffers());
+        this.messageFlusher = new MessageFlusher(quicSession.getByteBufferPool(), encoder, configuration.getMaxResponseHeadersSize(), configuration.isUseOutputDirectByteBuffers(), session::getPriority);
         addBean(messageFlusher);
     }
 
+    public HTTP3Configuration getConfiguration()
+    {
+        return configuration;
+    }
+
     public QpackDecoder getQpackDecoder()
     {
         return decoder;
@@ -106,9 +117,14 @@ public class ServerHTTP3Session extends ServerProtocolSession
     {
         // Queue the mandatory SETTINGS frame.
         Map<Long, Long> settings = session.onPreface();
-        if (settings == null)
-            settings = Map.of();
-        // TODO: add default settings.
+        settings = settings == null ? new HashMap<>() : new HashMap<>(settings);
+        if (configuration.getMaxDecoderTableCapacity() > 0)
+            settings.putIfAbsent(SettingsFrame.MAX_TABLE_CAPACITY, (long)configuration.getMaxDecoderTableCapacity());
+        if (configuration.getMaxBlockedStreams() > 0)
+            settings.putIfAbsent(SettingsFrame.MAX_BLOCKED_STREAMS, (long)configuration.getMaxBlockedStreams());
+        // The decoder enforces the values advertised to the remote encoder.
+        decoder.setMaxTableCapacity(settings.getOrDefault(SettingsFrame.MAX_TABLE_CAPACITY, 0L).intValue());
+        decoder.setMaxBlockedStreams(settings.getOrDefault(SettingsFrame.MAX_BLOCKED_STREAMS, 0L).intValue());
         SettingsFrame frame = new SettingsFrame(settings);
         if (controlFlusher.offer(frame, Callback.from(Invocable.InvocationType.NON_BLOCKING, session::onOpen, this::failControlStream)))
             controlFlusher.iterate();
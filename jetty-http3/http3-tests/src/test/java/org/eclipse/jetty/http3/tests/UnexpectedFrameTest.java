@@ -16,10 +16,13 @@ package org.eclipse.jetty.http3.tests;
 import java.nio.ByteBuffer;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
+import org.eclipse.jetty.http.Priority;
 import org.eclipse.jetty.http3.api.Session;
 import org.eclipse.jetty.http3.frames.DataFrame;
 import org.eclipse.jetty.http3.frames.GoAwayFrame;
+import org.eclipse.jetty.http3.frames.PriorityUpdateFrame;
 import org.eclipse.jetty.http3.internal.HTTP3ErrorCode;
 import org.eclipse.jetty.http3.internal.HTTP3Session;
 import org.eclipse.jetty.util.Callback;
@@ -71,4 +74,45 @@ public class UnexpectedFrameTest extends AbstractClientServerTest
 
         await().atMost(1, TimeUnit.SECONDS).until(clientSession::isClosed);
     }
+
+    @Test
+    public void testPriorityUpdateFromServer() throws Exception
+    {
+        AtomicReference<HTTP3Session> serverSessionRef = new AtomicReference<>();
+        CountDownLatch serverDisconnectLatch = new CountDownLatch(1);
+        start(new Session.Server.Listener()
+        {
+            @Override
+            public void onAccept(Session session)
+            {
+                serverSessionRef.set((HTTP3Session)session);
+            }
+
+            @Override
+            public void onDisconnect(Session session, long error, String reason)
+            {
+                assertEquals(HTTP3ErrorCode.FRAME_UNEXPECTED_ERROR.code(), error);
+                serverDisconnectLatch.countDown();
+            }
+        });
+
+        CountDownLatch clientFailureLatch = new CountDownLatch(1);
+        HTTP3Session clientSession = (HTTP3Session)newSession(new Session.Client.Listener()
+        {
+            @Override
+            public void onFailure(Session session, long error, String reason, Throwable failure)
+            {
+                assertEquals(HTTP3ErrorCode.FRAME_UNEXPECTED_ERROR.code(), error);
+                clientFailureLatch.countDown();
+            }
+        });
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> serverSessionRef.get() != null);
+        serverSessionRef.get().writeControlFrame(new PriorityUpdateFrame(0, new Priority(1, true)), Callback.NOOP);
+
+        assertTrue(clientFailureLatch.await(5, TimeUnit.SECONDS));
+        assertTrue(serverDisconnectLatch.await(5, TimeUnit.SECONDS));
+
+        await().atMost(1, TimeUnit.SECONDS).until(clientSession::isClosed);
+    }
 }
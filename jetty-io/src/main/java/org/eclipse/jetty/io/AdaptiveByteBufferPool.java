@@ -0,0 +1,593 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.function.ToLongFunction;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.NanoTime;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.component.Dumpable;
+import org.eclipse.jetty.util.component.DumpableCollection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A ByteBuffer pool that sizes its buckets from the observed demand.</p>
+ * <p>ByteBuffers are held in buckets spaced by a capacity {@code factor}, like in {@link ArrayByteBufferPool},
+ * but the number of ByteBuffers each bucket may retain is not fixed: every bucket records how many
+ * ByteBuffers have been acquired from it (which gives the acquire-size histogram of the pool), how many
+ * acquisitions were served from the pool (hits) or had to allocate (misses), and the peak number of its
+ * ByteBuffers that were in use at the same time.</p>
+ * <p>Every {@link #getResizePeriod() resize period}, each bucket limit is grown to the peak demand observed
+ * during the last period, or shrunk half way towards it, and the ByteBuffers in excess of the new limit are
+ * evicted. Buckets that are not used anymore therefore release their memory over time, while busy buckets
+ * retain enough ByteBuffers to avoid allocations. The {@code maxBucketSize} is an upper bound for the
+ * bucket limits, and {@code maxHeapMemory} and {@code maxDirectMemory} bound the memory retained by the
+ * pool, evicting from the least recently used buckets first.</p>
+ * <p>The {@code maxHeapMemory} and {@code maxDirectMemory} default heuristic is to use {@link Runtime#maxMemory()}
+ * divided by 4.</p>
+ */
+@ManagedObject
+public class AdaptiveByteBufferPool extends AbstractByteBufferPool implements Dumpable
+{
+    private static final Logger LOG = LoggerFactory.getLogger(AdaptiveByteBufferPool.class);
+    public static final long DEFAULT_RESIZE_PERIOD = 5000;
+
+    private final int _minCapacity;
+    private final int _maxCapacity;
+    private final AdaptiveBucket[] _direct;
+    private final AdaptiveBucket[] _indirect;
+    private final AtomicLong _lastResize = new AtomicLong(NanoTime.now());
+    private final LongAdder _unpooled = new LongAdder();
+    private final LongAdder _resizes = new LongAdder();
+    private volatile long _resizePeriod = DEFAULT_RESIZE_PERIOD;
+
+    /**
+     * Creates a new AdaptiveByteBufferPool with a default configuration.
+     * Both {@code maxHeapMemory} and {@code maxDirectMemory} default to 0 to use default heuristic.
+     */
+    public AdaptiveByteBufferPool()
+    {
+        this(-1, -1, -1);
+    }
+
+    /**
+     * Creates a new AdaptiveByteBufferPool with the given configuration.
+     * Both {@code maxHeapMemory} and {@code maxDirectMemory} default to 0 to use default heuristic.
+     *
+     * @param minCapacity the minimum ByteBuffer capacity
+     * @param factor the capacity factor
+     * @param maxCapacity the maximum ByteBuffer capacity
+     */
+    public AdaptiveByteBufferPool(int minCapacity, int factor, int maxCapacity)
+    {
+        this(minCapacity, factor, maxCapacity, -1, 0, 0);
+    }
+
+    /**
+     * Creates a new AdaptiveByteBufferPool with the given configuration.
+     *
+     * @param minCapacity the minimum ByteBuffer capacity
+     * @param factor the capacity factor
+     * @param maxCapacity the maximum ByteBuffer capacity
+     * @param maxBucketSize the upper bound of the bucket limits, -1 for no upper bound
+     * @param maxHeapMemory the max heap memory in bytes, -1 for unlimited memory or 0 to use default heuristic
+     * @param maxDirectMemory the max direct memory in bytes, -1 for unlimited memory or 0 to use default heuristic
+     */
+    public AdaptiveByteBufferPool(int minCapacity, int factor, int maxCapacity, int maxBucketSize, long maxHeapMemory, long maxDirectMemory)
+    {
+        super(factor, maxCapacity, maxBucketSize, maxHeapMemory, maxDirectMemory, -2, -2);
+        maxCapacity = getMaxCapacity();
+        factor = getCapacityFactor();
+        if (minCapacity <= 0)
+            minCapacity = 0;
+        if ((maxCapacity % factor) != 0 || factor >= maxCapacity)
+            throw new IllegalArgumentException("The capacity factor must be a divisor of maxCapacity");
+        _minCapacity = minCapacity;
+        _maxCapacity = maxCapacity;
+
+        int maxLimit = maxBucketSize > 0 ? maxBucketSize : Integer.MAX_VALUE;
+        int length = bucketFor(maxCapacity) + 1;
+        _direct = new AdaptiveBucket[length];
+        _indirect = new AdaptiveBucket[length];
+        for (int i = 0; i < length; i++)
+        {
+            _direct[i] = new AdaptiveBucket(capacityFor(i), maxLimit, updateMemory(true));
+            _indirect[i] = new AdaptiveBucket(capacityFor(i), maxLimit, updateMemory(false));
+        }
+    }
+
+    /**
+     * @return the period in milliseconds between two resizes of the bucket limits
+     */
+    @ManagedAttribute("The period in ms between two resizes of the bucket limits, 0 or less to disable automatic resizing")
+    public long getResizePeriod()
+    {
+        return _resizePeriod;
+    }
+
+    /**
+     * @param resizePeriod the period in milliseconds between two resizes of the bucket limits,
+     * 0 or less to only resize when {@link #resize()} is explicitly called
+     */
+    public void setResizePeriod(long resizePeriod)
+    {
+        _resizePeriod = resizePeriod;
+    }
+
+    @Override
+    public ByteBuffer acquire(int size, boolean direct)
+    {
+        maybeResize();
+        AdaptiveBucket bucket = bucketFor(size, direct);
+        if (bucket == null)
+        {
+            _unpooled.increment();
+            int capacity = size < _minCapacity ? size : capacityFor(bucketFor(size));
+            return newByteBuffer(capacity, direct);
+        }
+        ByteBuffer buffer = bucket.acquire();
+        if (buffer == null)
+            return newByteBuffer(bucket._capacity, direct);
+        return buffer;
+    }
+
+    @Override
+    public void release(ByteBuffer buffer)
+    {
+        if (buffer == null)
+            return;
+
+        int capacity = buffer.capacity();
+        // Validate that this buffer is from this pool.
+        if (capacity != capacityFor(bucketFor(capacity)))
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("ByteBuffer {} does not belong to this pool, discarding it", BufferUtil.toDetailString(buffer));
+            return;
+        }
+
+        boolean direct = buffer.isDirect();
+        AdaptiveBucket bucket = bucketFor(capacity, direct);
+        if (bucket != null)
+        {
+            bucket.release(buffer);
+            releaseExcessMemory(direct, this::releaseMemory);
+        }
+        maybeResize();
+    }
+
+    private void maybeResize()
+    {
+        long period = _resizePeriod;
+        if (period <= 0)
+            return;
+        long last = _lastResize.get();
+        long now = NanoTime.now();
+        if (NanoTime.millisElapsed(last, now) >= period && _lastResize.compareAndSet(last, now))
+            resize();
+    }
+
+    /**
+     * <p>Resizes the limit of every bucket from the demand observed since the previous resize,
+     * evicting the ByteBuffers in excess of the new limits.</p>
+     */
+    @ManagedOperation(value = "Resizes the bucket limits from the observed demand", impact = "ACTION")
+    public void resize()
+    {
+        int evicted = 0;
+        for (int i = 0; i < _direct.length; ++i)
+        {
+            evicted += _direct[i].resize();
+            evicted += _indirect[i].resize();
+        }
+        _resizes.increment();
+        if (LOG.isDebugEnabled())
+            LOG.debug("Resized {}, evicted {} buffers", this, evicted);
+    }
+
+    @Override
+    public void clear()
+    {
+        for (int i = 0; i < _direct.length; ++i)
+        {
+            _direct[i].clear();
+            _indirect[i].clear();
+        }
+        super.clear();
+    }
+
+    protected void releaseMemory(boolean direct)
+    {
+        long oldest = Long.MAX_VALUE;
+        int index = -1;
+        AdaptiveBucket[] buckets = bucketsFor(direct);
+        for (int i = 0; i < buckets.length; ++i)
+        {
+            AdaptiveBucket bucket = buckets[i];
+            if (bucket.isEmpty())
+                continue;
+            long lastUpdateNanoTime = bucket.getLastUpdate();
+            if (oldest == Long.MAX_VALUE || NanoTime.isBefore(lastUpdateNanoTime, oldest))
+            {
+                oldest = lastUpdateNanoTime;
+                index = i;
+            }
+        }
+        if (index >= 0)
+            buckets[index].evict();
+    }
+
+    protected int bucketFor(int capacity)
+    {
+        return (int)Math.ceil((double)capacity / getCapacityFactor());
+    }
+
+    protected int capacityFor(int bucket)
+    {
+        return bucket * getCapacityFactor();
+    }
+
+    private AdaptiveBucket bucketFor(int capacity, boolean direct)
+    {
+        if (capacity < _minCapacity)
+            return null;
+        int bucket = bucketFor(capacity);
+        if (bucket >= _direct.length)
+            return null;
+        return bucketsFor(direct)[bucket];
+    }
+
+    // Package local for testing
+    AdaptiveBucket[] bucketsFor(boolean direct)
+    {
+        return direct ? _direct : _indirect;
+    }
+
+    /**
+     * <p>Returns the number of acquisitions of each bucket, indexed by bucket,
+     * where bucket {@code i} holds ByteBuffers of capacity {@code i * factor}.</p>
+     *
+     * @param direct whether to return the histogram of direct or heap ByteBuffers
+     * @return the acquire-size histogram
+     */
+    public long[] getAcquireHistogram(boolean direct)
+    {
+        return Arrays.stream(bucketsFor(direct)).mapToLong(AdaptiveBucket::getAcquires).toArray();
+    }
+
+    @ManagedAttribute("The statistics of the direct buckets that have been used")
+    public String[] getDirectBucketStatistics()
+    {
+        return getBucketStatistics(true);
+    }
+
+    @ManagedAttribute("The statistics of the heap buckets that have been used")
+    public String[] getHeapBucketStatistics()
+    {
+        return getBucketStatistics(false);
+    }
+
+    private String[] getBucketStatistics(boolean direct)
+    {
+        return Arrays.stream(bucketsFor(direct))
+            .filter(b -> b.getAcquires() > 0 || !b.isEmpty())
+            .map(AdaptiveBucket::toString)
+            .toArray(String[]::new);
+    }
+
+    @ManagedAttribute("The number of pooled direct ByteBuffers")
+    public long getDirectByteBufferCount()
+    {
+        return sum(bucketsFor(true), AdaptiveBucket::size);
+    }
+
+    @ManagedAttribute("The number of pooled heap ByteBuffers")
+    public long getHeapByteBufferCount()
+    {
+        return sum(bucketsFor(false), AdaptiveBucket::size);
+    }
+
+    @ManagedAttribute("The number of ByteBuffers acquired from the buckets")
+    public long getAcquires()
+    {
+        return sum(AdaptiveBucket::getAcquires);
+    }
+
+    @ManagedAttribute("The number of ByteBuffers acquired from the buckets that were pooled")
+    public long getHits()
+    {
+        return sum(AdaptiveBucket::getHits);
+    }
+
+    @ManagedAttribute("The number of ByteBuffers acquired from the buckets that had to be allocated")
+    public long getMisses()
+    {
+        return sum(AdaptiveBucket::getMisses);
+    }
+
+    @ManagedAttribute("The ratio of hits over the acquisitions from the buckets")
+    public double getHitRatio()
+    {
+        long hits = getHits();
+        long total = hits + getMisses();
+        return total == 0 ? 0.0 : (double)hits / total;
+    }
+
+    @ManagedAttribute("The number of ByteBuffers acquired with a size outside the pooled capacities")
+    public long getUnpooledAcquires()
+    {
+        return _unpooled.longValue();
+    }
+
+    @ManagedAttribute("The number of released ByteBuffers that were discarded because their bucket was full")
+    public long getDiscards()
+    {
+        return sum(AdaptiveBucket::getDiscards);
+    }
+
+    @ManagedAttribute("The number of pooled ByteBuffers evicted by resizes or memory limits")
+    public long getEvictions()
+    {
+        return sum(AdaptiveBucket::getEvictions);
+    }
+
+    @ManagedAttribute("The number of resizes of the bucket limits")
+    public long getResizes()
+    {
+        return _resizes.longValue();
+    }
+
+    private long sum(ToLongFunction<AdaptiveBucket> value)
+    {
+        return sum(_direct, value) + sum(_indirect, value);
+    }
+
+    private static long sum(AdaptiveBucket[] buckets, ToLongFunction<AdaptiveBucket> value)
+    {
+        return Arrays.stream(buckets).mapToLong(value).sum();
+    }
+
+    @ManagedOperation(value = "Resets the statistics", impact = "ACTION")
+    public void resetStatistics()
+    {
+        Stream.concat(Arrays.stream(_direct), Arrays.stream(_indirect)).forEach(AdaptiveBucket::resetStatistics);
+        _unpooled.reset();
+        _resizes.reset();
+    }
+
+    @Override
+    public void dump(Appendable out, String indent) throws IOException
+    {
+        List<Object> dump = new ArrayList<>();
+        dump.add(String.format("HeapMemory: %d/%d", getHeapMemory(), getMaxHeapMemory()));
+        dump.add(String.format("DirectMemory: %d/%d", getDirectMemory(), getMaxDirectMemory()));
+        dump.add(String.format("Acquires: %d hits=%d misses=%d unpooled=%d", getAcquires(), getHits(), getMisses(), getUnpooledAcquires()));
+        List<AdaptiveBucket> indirect = Arrays.stream(_indirect).filter(b -> b.getAcquires() > 0 || !b.isEmpty()).collect(Collectors.toList());
+        List<AdaptiveBucket> direct = Arrays.stream(_direct).filter(b -> b.getAcquires() > 0 || !b.isEmpty()).collect(Collectors.toList());
+        dump.add(new DumpableCollection("Indirect Buckets", indirect));
+        dump.add(new DumpableCollection("Direct Buckets", direct));
+        Dumpable.dumpObjects(out, indent, this, dump);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x{minBufferCapacity=%s, maxBufferCapacity=%s, maxBucketSize=%s, factor=%s, resizePeriod=%d}",
+            getClass().getSimpleName(), hashCode(),
+            _minCapacity,
+            _maxCapacity,
+            getMaxBucketSize(),
+            getCapacityFactor(),
+            getResizePeriod());
+    }
+
+    /**
+     * <p>A bucket of ByteBuffers of the same capacity, whose limit
+     * of retained ByteBuffers follows the observed demand.</p>
+     */
+    protected static class AdaptiveBucket
+    {
+        private final Queue<ByteBuffer> _queue = new ConcurrentLinkedQueue<>();
+        private final int _capacity;
+        private final int _maxLimit;
+        private final IntConsumer _memoryFunction;
+        private final AtomicInteger _size = new AtomicInteger();
+        private final AtomicInteger _inUse = new AtomicInteger();
+        private final AtomicInteger _peakInUse = new AtomicInteger();
+        private final AtomicLong _lastUpdate = new AtomicLong(NanoTime.now());
+        private final LongAdder _acquires = new LongAdder();
+        private final LongAdder _hits = new LongAdder();
+        private final LongAdder _discards = new LongAdder();
+        private final LongAdder _evictions = new LongAdder();
+        private volatile int _limit;
+
+        public AdaptiveBucket(int capacity, int maxLimit, IntConsumer memoryFunction)
+        {
+            _capacity = capacity;
+            _maxLimit = maxLimit;
+            _limit = maxLimit;
+            _memoryFunction = Objects.requireNonNull(memoryFunction);
+        }
+
+        public ByteBuffer acquire()
+        {
+            _acquires.increment();
+            int inUse = _inUse.incrementAndGet();
+            if (inUse > _peakInUse.get())
+                _peakInUse.accumulateAndGet(inUse, Math::max);
+            ByteBuffer buffer = poll();
+            if (buffer != null)
+                _hits.increment();
+            return buffer;
+        }
+
+        public void release(ByteBuffer buffer)
+        {
+            // Buffers not acquired from this pool may be released too.
+            _inUse.getAndUpdate(i -> i > 0 ? i - 1 : 0);
+            _lastUpdate.lazySet(NanoTime.now());
+            BufferUtil.reset(buffer);
+            if (_size.incrementAndGet() <= _limit)
+            {
+                _queue.offer(buffer);
+                _memoryFunction.accept(buffer.capacity());
+            }
+            else
+            {
+                _size.decrementAndGet();
+                _discards.increment();
+            }
+        }
+
+        private ByteBuffer poll()
+        {
+            ByteBuffer buffer = _queue.poll();
+            if (buffer != null)
+            {
+                _size.decrementAndGet();
+                _memoryFunction.accept(-buffer.capacity());
+            }
+            return buffer;
+        }
+
+        /**
+         * <p>Grows the limit to the peak demand observed since the last resize,
+         * or shrinks it half way towards it, then evicts the ByteBuffers in excess.</p>
+         *
+         * @return the number of evicted ByteBuffers
+         */
+        int resize()
+        {
+            int peak = _peakInUse.getAndSet(_inUse.get());
+            int limit = _limit;
+            if (peak >= limit)
+            {
+                limit = Math.min(peak, _maxLimit);
+            }
+            else
+            {
+                // Shrink from what is actually retained, so that a
+                // large limit that was never reached decays quickly.
+                limit = Math.min(limit, Math.max(peak, size()));
+                limit -= (limit - peak + 1) / 2;
+            }
+            _limit = limit;
+
+            int evicted = 0;
+            while (_size.get() > limit)
+            {
+                if (!evict())
+                    break;
+                ++evicted;
+            }
+            return evicted;
+        }
+
+        boolean evict()
+        {
+            ByteBuffer buffer = poll();
+            if (buffer == null)
+                return false;
+            _evictions.increment();
+            return true;
+        }
+
+        public void clear()
+        {
+            while (poll() != null)
+            {
+                // Keep polling.
+            }
+        }
+
+        void resetStatistics()
+        {
+            _acquires.reset();
+            _hits.reset();
+            _discards.reset();
+            _evictions.reset();
+        }
+
+        boolean isEmpty()
+        {
+            return _queue.isEmpty();
+        }
+
+        int size()
+        {
+            return _size.get();
+        }
+
+        int getLimit()
+        {
+            return _limit;
+        }
+
+        long getLastUpdate()
+        {
+            return _lastUpdate.getOpaque();
+        }
+
+        long getAcquires()
+        {
+            return _acquires.longValue();
+        }
+
+        long getHits()
+        {
+            return _hits.longValue();
+        }
+
+        long getMisses()
+        {
+            return Math.max(0, getAcquires() - getHits());
+        }
+
+        long getDiscards()
+        {
+            return _discards.longValue();
+        }
+
+        long getEvictions()
+        {
+            return _evictions.longValue();
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x{capacity=%d, size=%d, limit=%d, acquires=%d, hits=%d, misses=%d, discards=%d, evictions=%d}",
+                getClass().getSimpleName(), hashCode(), _capacity, size(), getLimit(),
+                getAcquires(), getHits(), getMisses(), getDiscards(), getEvictions());
+        }
+    }
+}
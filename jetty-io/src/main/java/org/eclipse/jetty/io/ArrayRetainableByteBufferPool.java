@@ -16,6 +16,8 @@ package org.eclipse.jetty.io;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.function.Function;
@@ -24,6 +26,7 @@ import java.util.function.IntUnaryOperator;
 import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.NanoTime;
 import org.eclipse.jetty.util.Pool;
+import org.eclipse.jetty.util.VirtualThreads;
 import org.eclipse.jetty.util.annotation.ManagedAttribute;
 import org.eclipse.jetty.util.annotation.ManagedObject;
 import org.eclipse.jetty.util.annotation.ManagedOperation;
@@ -40,6 +43,12 @@ import org.slf4j.LoggerFactory;
  * 2048, and so on.</p>
  * <p>The {@code maxHeapMemory} and {@code maxDirectMemory} default heuristic is to use {@link Runtime#maxMemory()}
  * divided by 4.</p>
+ * <p>When the {@link #setThreadCacheSize(int) thread cache size} is positive, each thread keeps a small
+ * magazine of released RetainableByteBuffers per bucket, so that most acquisitions and releases performed
+ * by the same thread, such as a selector thread, do not touch the shared buckets; when a magazine is full,
+ * half of it is spilled back to its bucket in one batch. The buffers cached by threads that have exited
+ * are released back to their buckets when a new thread starts caching, when the pool is {@link #clear() cleared}
+ * or when the max memory is exceeded. Virtual threads, being typically short-lived, do not cache buffers.</p>
  */
 @SuppressWarnings("resource")
 @ManagedObject
@@ -56,6 +65,9 @@ public class ArrayRetainableByteBufferPool implements RetainableByteBufferPool,
     private final AtomicLong _currentHeapMemory = new AtomicLong();
     private final AtomicLong _currentDirectMemory = new AtomicLong();
     private final IntUnaryOperator _bucketIndexFor;
+    private final ThreadLocal<Magazine> _magazines;
+    private final Set<Magazine> _allMagazines = ConcurrentHashMap.newKeySet();
+    private volatile int _threadCacheSize;
 
     /**
      * Creates a new ArrayRetainableByteBufferPool with a default configuration.
@@ -150,8 +162,8 @@ public class ArrayRetainableByteBufferPool implements RetainableByteBufferPool,
         for (int i = 0; i < directArray.length; i++)
         {
             int capacity = Math.min(bucketCapacity.applyAsInt(i), maxCapacity);
-            directArray[i] = new RetainedBucket(capacity, maxBucketSize);
-            indirectArray[i] = new RetainedBucket(capacity, maxBucketSize);
+            directArray[i] = new RetainedBucket(capacity, maxBucketSize, 2 * i + 1);
+            indirectArray[i] = new RetainedBucket(capacity, maxBucketSize, 2 * i);
         }
 
         _minCapacity = minCapacity;
@@ -161,6 +173,7 @@ public class ArrayRetainableByteBufferPool implements RetainableByteBufferPool,
         _maxHeapMemory = AbstractByteBufferPool.retainedSize(maxHeapMemory);
         _maxDirectMemory = AbstractByteBufferPool.retainedSize(maxDirectMemory);
         _bucketIndexFor = bucketIndexFor;
+        _magazines = ThreadLocal.withInitial(() -> newMagazine(2 * length));
     }
 
     @ManagedAttribute("The minimum pooled buffer capacity")
@@ -175,12 +188,42 @@ public class ArrayRetainableByteBufferPool implements RetainableByteBufferPool,
         return _maxCapacity;
     }
 
+    /**
+     * @return the max number of RetainableByteBuffers cached by each thread for each bucket
+     */
+    @ManagedAttribute("The max number of buffers cached by each thread for each bucket, 0 to disable the thread cache")
+    public int getThreadCacheSize()
+    {
+        return _threadCacheSize;
+    }
+
+    /**
+     * <p>Sets the max number of released RetainableByteBuffers that each thread caches for each bucket.</p>
+     * <p>Cached buffers are acquired again by the same thread without contending on the shared buckets,
+     * but they are not available to other threads, so the cache size should be kept small.</p>
+     *
+     * @param threadCacheSize the max number of buffers cached by each thread for each bucket, 0 to disable the thread cache
+     */
+    public void setThreadCacheSize(int threadCacheSize)
+    {
+        _threadCacheSize = Math.max(0, threadCacheSize);
+    }
+
     @Override
     public RetainableByteBuffer acquire(int size, boolean direct)
     {
         RetainedBucket bucket = bucketFor(size, direct);
         if (bucket == null)
             return newRetainableByteBuffer(size, direct, this::removed);
+
+        if (_threadCacheSize > 0)
+        {
+            Magazine magazine = _magazines.get();
+            RetainableByteBuffer buffer = magazine == null ? null : magazine.poll(bucket._slot);
+            if (buffer != null)
+                return buffer;
+        }
+
         RetainedBucket.Entry entry = bucket.acquire();
 
         RetainableByteBuffer buffer;
@@ -192,7 +235,7 @@ public class ArrayRetainableByteBufferPool implements RetainableByteBufferPool,
                 buffer = newRetainableByteBuffer(bucket._capacity, direct, retainedBuffer ->
                 {
                     BufferUtil.reset(retainedBuffer.getBuffer());
-                    reservedEntry.release();
+                    release(bucket, reservedEntry);
                 });
                 reservedEntry.enable(buffer, true);
                 if (direct)
@@ -214,6 +257,38 @@ public class ArrayRetainableByteBufferPool implements RetainableByteBufferPool,
         return buffer;
     }
 
+    private void release(RetainedBucket bucket, Pool<RetainableByteBuffer>.Entry entry)
+    {
+        int threadCacheSize = _threadCacheSize;
+        Magazine magazine = threadCacheSize <= 0 ? null : _magazines.get();
+        if (magazine == null || !magazine.offer(bucket._slot, entry, threadCacheSize))
+            entry.release();
+    }
+
+    private Magazine newMagazine(int slots)
+    {
+        if (VirtualThreads.isVirtualThread())
+            return null;
+        reclaimMagazines();
+        Magazine magazine = new Magazine(Thread.currentThread(), slots);
+        _allMagazines.add(magazine);
+        return magazine;
+    }
+
+    /**
+     * <p>Releases back to their buckets the entries cached by the threads that have exited,
+     * which would otherwise be in use forever.</p>
+     */
+    private void reclaimMagazines()
+    {
+        for (Magazine magazine : _allMagazines)
+        {
+            // A thread that is not alive anymore cannot access its magazine concurrently.
+            if (!magazine._thread.isAlive() && _allMagazines.remove(magazine))
+                magazine.drain();
+        }
+    }
+
     protected ByteBuffer allocate(int capacity)
     {
         return ByteBuffer.allocate(capacity);
@@ -336,6 +411,7 @@ public class ArrayRetainableByteBufferPool implements RetainableByteBufferPool,
     @ManagedOperation(value = "Clears this RetainableByteBufferPool", impact = "ACTION")
     public void clear()
     {
+        reclaimMagazines();
         clearArray(_direct, _currentDirectMemory);
         clearArray(_indirect, _currentHeapMemory);
     }
@@ -362,7 +438,10 @@ public class ArrayRetainableByteBufferPool implements RetainableByteBufferPool,
         {
             long excess = getMemory(direct) - maxMemory;
             if (excess > 0)
+            {
+                reclaimMagazines();
                 evict(direct, excess);
+            }
         }
     }
 
@@ -450,11 +529,13 @@ public class ArrayRetainableByteBufferPool implements RetainableByteBufferPool,
     private static class RetainedBucket extends Pool<RetainableByteBuffer>
     {
         private final int _capacity;
+        private final int _slot;
 
-        RetainedBucket(int capacity, int size)
+        RetainedBucket(int capacity, int size, int slot)
         {
             super(Pool.StrategyType.THREAD_ID, size, true);
             _capacity = capacity;
+            _slot = slot;
         }
 
         @Override
@@ -476,4 +557,83 @@ public class ArrayRetainableByteBufferPool implements RetainableByteBufferPool,
                 entries > 0 ? (inUse * 100) / entries : 0);
         }
     }
+
+    /**
+     * <p>A per-thread cache of pooled entries, one stack for each bucket.</p>
+     * <p>Cached entries are still acquired from the point of view of their bucket;
+     * entries that have been removed from their bucket while cached are discarded.</p>
+     */
+    private static class Magazine
+    {
+        private final Thread _thread;
+        private final Object[][] _entries;
+        private final int[] _sizes;
+
+        private Magazine(Thread thread, int slots)
+        {
+            _thread = thread;
+            _entries = new Object[slots][];
+            _sizes = new int[slots];
+        }
+
+        @SuppressWarnings("unchecked")
+        private void drain()
+        {
+            for (int slot = 0; slot < _entries.length; ++slot)
+            {
+                Object[] entries = _entries[slot];
+                for (int i = 0; i < _sizes[slot]; ++i)
+                {
+                    ((Pool<RetainableByteBuffer>.Entry)entries[i]).release();
+                    entries[i] = null;
+                }
+                _sizes[slot] = 0;
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private RetainableByteBuffer poll(int slot)
+        {
+            Object[] entries = _entries[slot];
+            int size = _sizes[slot];
+            while (size > 0)
+            {
+                Pool<RetainableByteBuffer>.Entry entry = (Pool<RetainableByteBuffer>.Entry)entries[--size];
+                entries[size] = null;
+                _sizes[slot] = size;
+                if (entry.isClosed())
+                    continue;
+                RetainableByteBuffer buffer = entry.getPooled();
+                buffer.acquire();
+                return buffer;
+            }
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        private boolean offer(int slot, Pool<RetainableByteBuffer>.Entry entry, int capacity)
+        {
+            if (entry.isClosed())
+                return false;
+            Object[] entries = _entries[slot];
+            if (entries == null || entries.length < capacity)
+                entries = _entries[slot] = entries == null ? new Object[capacity] : Arrays.copyOf(entries, capacity);
+            int size = _sizes[slot];
+            if (size >= capacity)
+            {
+                // Spill the oldest half back to the bucket.
+                int spill = size - capacity / 2;
+                for (int i = 0; i < spill; ++i)
+                {
+                    ((Pool<RetainableByteBuffer>.Entry)entries[i]).release();
+                }
+                size -= spill;
+                System.arraycopy(entries, spill, entries, 0, size);
+                Arrays.fill(entries, size, size + spill, null);
+            }
+            entries[size] = entry;
+            _sizes[slot] = size + 1;
+            return true;
+        }
+    }
 }
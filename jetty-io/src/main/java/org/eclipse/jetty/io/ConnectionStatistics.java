@@ -17,6 +17,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.LongAdder;
 
@@ -25,6 +26,7 @@ import org.eclipse.jetty.util.annotation.ManagedObject;
 import org.eclipse.jetty.util.annotation.ManagedOperation;
 import org.eclipse.jetty.util.component.AbstractLifeCycle;
 import org.eclipse.jetty.util.component.Dumpable;
+import org.eclipse.jetty.util.component.DumpableCollection;
 import org.eclipse.jetty.util.statistic.CounterStatistic;
 import org.eclipse.jetty.util.statistic.RateCounter;
 import org.eclipse.jetty.util.statistic.SampleStatistic;
@@ -37,6 +39,8 @@ import org.eclipse.jetty.util.statistic.SampleStatistic;
  * connections managed by the server or by the client.</p>
  * <p>The statistics for a connection are gathered when the connection
  * is closed.</p>
+ * <p>Connectors that accept connections from several listening channels also
+ * record the number of connections accepted from each channel.</p>
  * <p>ConnectionStatistics instances must be {@link #start() started}
  * to collect statistics, either as part of starting the whole component
  * tree, or explicitly if the component tree has already been started.</p>
@@ -46,12 +50,14 @@ public class ConnectionStatistics extends AbstractLifeCycle implements Connectio
 {
     private final Stats _stats = new Stats("total");
     private final Map<String, Stats> _statsMap = new ConcurrentHashMap<>();
+    private final Map<String, LongAdder> _acceptedMap = new ConcurrentHashMap<>();
 
     @ManagedOperation(value = "Resets the statistics", impact = "ACTION")
     public void reset()
     {
         _stats.reset();
         _statsMap.clear();
+        _acceptedMap.clear();
     }
 
     @Override
@@ -79,6 +85,18 @@ public class ConnectionStatistics extends AbstractLifeCycle implements Connectio
         _statsMap.computeIfAbsent(connection.getClass().getName(), Stats::new).incrementCount();
     }
 
+    /**
+     * <p>Records a connection accepted from the given listening channel.</p>
+     *
+     * @param channel the name of the listening channel
+     */
+    public void onAccepted(String channel)
+    {
+        if (!isStarted())
+            return;
+        _acceptedMap.computeIfAbsent(channel, k -> new LongAdder()).increment();
+    }
+
     @Override
     public void onClosed(Connection connection)
     {
@@ -207,12 +225,22 @@ public class ConnectionStatistics extends AbstractLifeCycle implements Connectio
         return _statsMap;
     }
 
+    @ManagedAttribute("The number of accepted connections per listening channel")
+    public Map<String, Long> getAcceptedConnections()
+    {
+        Map<String, Long> result = new TreeMap<>();
+        _acceptedMap.forEach((channel, accepted) -> result.put(channel, accepted.sum()));
+        return result;
+    }
+
     @Override
     public void dump(Appendable out, String indent) throws IOException
     {
-        List<Stats> children = new ArrayList<>();
+        List<Dumpable> children = new ArrayList<>();
         children.add(_stats);
         children.addAll(_statsMap.values());
+        if (!_acceptedMap.isEmpty())
+            children.add(new DumpableCollection("accepted", getAcceptedConnections().entrySet()));
         Dumpable.dumpObjects(out, indent, this, children.toArray());
     }
 
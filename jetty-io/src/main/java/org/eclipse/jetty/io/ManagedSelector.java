@@ -83,6 +83,7 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
     private boolean _selecting;
     private final SelectorManager _selectorManager;
     private final int _id;
+    private final Executor _executor;
     private final ExecutionStrategy _strategy;
     private Selector _selector;
     private Deque<SelectorUpdate> _updates = new ArrayDeque<>();
@@ -90,15 +91,40 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
     private final SampleStatistic _keyStats = new SampleStatistic();
 
     public ManagedSelector(SelectorManager selectorManager, int id)
+    {
+        this(selectorManager, id, null);
+    }
+
+    /**
+     * <p>Creates a selector that runs its tasks with the given executor,
+     * rather than with the executor of the {@link SelectorManager}.</p>
+     * <p>A dedicated executor is managed by this selector, so that the
+     * threads of a partition are started and stopped with its selector.</p>
+     *
+     * @param selectorManager the SelectorManager of this selector
+     * @param id the selector id
+     * @param executor the executor dedicated to this selector, or null to use the executor of the SelectorManager
+     */
+    public ManagedSelector(SelectorManager selectorManager, int id, Executor executor)
     {
         _selectorManager = selectorManager;
         _id = id;
+        _executor = executor;
+        if (executor != null)
+            addBean(executor, true);
         SelectorProducer producer = new SelectorProducer();
-        Executor executor = selectorManager.getExecutor();
-        _strategy = new AdaptiveExecutionStrategy(producer, executor);
+        _strategy = new AdaptiveExecutionStrategy(producer, executor == null ? selectorManager.getExecutor() : executor);
         addBean(_strategy, true);
     }
 
+    /**
+     * @return the executor dedicated to this selector, or null if this selector uses the executor of the SelectorManager
+     */
+    public Executor getExecutor()
+    {
+        return _executor;
+    }
+
     public Selector getSelector()
     {
         return _selector;
@@ -116,7 +142,7 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
 
         // The normal strategy obtains the produced task, schedules
         // a new thread to produce more, runs the task and then exits.
-        _selectorManager.execute(_strategy::produce);
+        dispatch(_strategy::produce);
 
         // Set started only if we really are started
         Start start = new Start();
@@ -322,11 +348,19 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
             selector.wakeup();
     }
 
+    private void dispatch(Runnable task)
+    {
+        if (_executor == null)
+            _selectorManager.execute(task);
+        else
+            _executor.execute(task);
+    }
+
     private void execute(Runnable task)
     {
         try
         {
-            _selectorManager.execute(task);
+            dispatch(task);
         }
         catch (RejectedExecutionException x)
         {
@@ -812,7 +846,7 @@ public class ManagedSelector extends ContainerLifeCycle implements Dumpable
                     channel = _selectorManager.doAccept(_channel);
                     if (channel == null)
                         break;
-                    _selectorManager.accepted(channel);
+                    _selectorManager.accepted(_channel, channel);
                 }
             }
             catch (Throwable x)
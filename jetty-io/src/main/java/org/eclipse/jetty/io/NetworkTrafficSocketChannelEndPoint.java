@@ -46,6 +46,13 @@ public class NetworkTrafficSocketChannelEndPoint extends SocketChannelEndPoint
         return read;
     }
 
+    @Override
+    public boolean isFileTransferSupported()
+    {
+        // Transferred bytes never reach user-space, so they could not be notified to the listener.
+        return false;
+    }
+
     @Override
     public boolean flush(ByteBuffer... buffers) throws IOException
     {
@@ -36,6 +36,7 @@ import org.eclipse.jetty.util.annotation.ManagedObject;
 import org.eclipse.jetty.util.component.Container;
 import org.eclipse.jetty.util.component.ContainerLifeCycle;
 import org.eclipse.jetty.util.component.Dumpable;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.eclipse.jetty.util.thread.Scheduler;
 import org.eclipse.jetty.util.thread.ThreadPool;
 import org.eclipse.jetty.util.thread.ThreadPoolBudget;
@@ -47,6 +48,13 @@ import org.slf4j.LoggerFactory;
  * simplify the non-blocking primitives provided by the JVM via the {@code java.nio} package.</p>
  * <p>{@link SelectorManager} subclasses implement methods to return protocol-specific
  * {@link EndPoint}s and {@link Connection}s.</p>
+ * <p>By default the tasks of all the selectors are run by the shared {@link #getExecutor() executor}.
+ * When {@link #setPartitionThreads(int) partitioned}, each selector runs its tasks with a small
+ * dedicated group of threads, so that the I/O and the processing of a connection are performed
+ * by the same few threads, which keeps the connection state in the caches of the cores that run
+ * them, rather than bouncing it between all the threads of the shared executor.
+ * Accepted and connected channels are distributed across the selectors, and thus across the
+ * partitions, in a round-robin fashion.</p>
  */
 
 @ManagedObject("Manager of the NIO Selectors")
@@ -62,6 +70,7 @@ public abstract class SelectorManager extends ContainerLifeCycle implements Dump
     private final IntUnaryOperator _selectorIndexUpdate;
     private final List<AcceptListener> _acceptListeners = new CopyOnWriteArrayList<>();
     private long _connectTimeout = DEFAULT_CONNECT_TIMEOUT;
+    private int _partitionThreads;
     private ThreadPoolBudget.Lease _lease;
 
     private static int defaultSelectors(Executor executor)
@@ -129,6 +138,34 @@ public abstract class SelectorManager extends ContainerLifeCycle implements Dump
         _connectTimeout = milliseconds;
     }
 
+    /**
+     * @return the number of threads dedicated to each selector, or 0 if the selectors share the executor
+     * @see #setPartitionThreads(int)
+     */
+    @ManagedAttribute("The number of threads dedicated to each selector, or 0 if the selectors share the executor")
+    public int getPartitionThreads()
+    {
+        return _partitionThreads;
+    }
+
+    /**
+     * <p>Sets the number of threads dedicated to each selector.</p>
+     * <p>When set to a positive value, each selector runs the selection and the tasks of its
+     * endpoints with its own group of threads rather than with the shared executor.
+     * One thread of each group is used to select, so at least 2 threads are needed, and the
+     * group should be sized for the blocking performed by the tasks of its connections.</p>
+     *
+     * @param threads the number of threads dedicated to each selector, or 0 to use the shared executor
+     */
+    public void setPartitionThreads(int threads)
+    {
+        if (isStarted())
+            throw new IllegalStateException(getState());
+        if (threads < 0 || threads == 1)
+            throw new IllegalArgumentException("Invalid partition threads " + threads);
+        _partitionThreads = threads;
+    }
+
     /**
      * Executes the given task in a different thread.
      *
@@ -195,6 +232,21 @@ public abstract class SelectorManager extends ContainerLifeCycle implements Dump
         selector.submit(selector.new Accept(channel, attachment));
     }
 
+    /**
+     * <p>Registers a channel to perform non-blocking read/write operations
+     * with the selector of the given index, rather than with a selector chosen in round-robin.</p>
+     *
+     * @param channel the channel to register
+     * @param attachment the attachment object
+     * @param selectorIndex the index of the selector, modulo the {@link #getSelectorCount() number of selectors}
+     * @see #accept(SelectableChannel, Object)
+     */
+    public void accept(SelectableChannel channel, Object attachment, int selectorIndex)
+    {
+        ManagedSelector selector = _selectors[Math.floorMod(selectorIndex, _selectors.length)];
+        selector.submit(selector.new Accept(channel, attachment));
+    }
+
     /**
      * <p>Registers a server channel for accept operations.
      * When a {@link SocketChannel} is accepted from the given {@link ServerSocketChannel}
@@ -206,7 +258,24 @@ public abstract class SelectorManager extends ContainerLifeCycle implements Dump
      */
     public Closeable acceptor(SelectableChannel server)
     {
-        ManagedSelector selector = chooseSelector();
+        return acceptor(server, chooseSelector());
+    }
+
+    /**
+     * <p>Registers a server channel for accept operations with the selector of the given index.</p>
+     *
+     * @param server the server channel to register
+     * @param selectorIndex the index of the selector, modulo the {@link #getSelectorCount() number of selectors}
+     * @return A Closable that allows the acceptor to be cancelled
+     * @see #acceptor(SelectableChannel)
+     */
+    public Closeable acceptor(SelectableChannel server, int selectorIndex)
+    {
+        return acceptor(server, _selectors[Math.floorMod(selectorIndex, _selectors.length)]);
+    }
+
+    private Closeable acceptor(SelectableChannel server, ManagedSelector selector)
+    {
         ManagedSelector.Acceptor acceptor = selector.new Acceptor(server);
         selector.submit(acceptor);
         return acceptor;
@@ -226,10 +295,25 @@ public abstract class SelectorManager extends ContainerLifeCycle implements Dump
         throw new UnsupportedOperationException();
     }
 
+    /**
+     * <p>Callback method when a channel is accepted from the given server channel
+     * passed to {@link #acceptor(SelectableChannel)}.</p>
+     * <p>The default implementation calls {@link #accepted(SelectableChannel)}.</p>
+     *
+     * @param server the server channel the channel has been accepted from
+     * @param channel the accepted channel
+     * @throws IOException if unable to accept channel
+     */
+    protected void accepted(SelectableChannel server, SelectableChannel channel) throws IOException
+    {
+        accepted(channel);
+    }
+
     @Override
     protected void doStart() throws Exception
     {
-        _lease = ThreadPoolBudget.leaseFrom(getExecutor(), this, _selectors.length);
+        if (_partitionThreads == 0)
+            _lease = ThreadPoolBudget.leaseFrom(getExecutor(), this, _selectors.length);
         for (int i = 0; i < _selectors.length; i++)
         {
             ManagedSelector selector = newSelector(i);
@@ -247,9 +331,36 @@ public abstract class SelectorManager extends ContainerLifeCycle implements Dump
      */
     protected ManagedSelector newSelector(int id)
     {
+        if (_partitionThreads > 0)
+            return new ManagedSelector(this, id, newPartitionExecutor(id));
         return new ManagedSelector(this, id);
     }
 
+    /**
+     * <p>Factory method for the executor dedicated to a {@link ManagedSelector}
+     * when the selectors are {@link #setPartitionThreads(int) partitioned}.</p>
+     *
+     * @param id the id of the {@link ManagedSelector}
+     * @return a new executor with {@link #getPartitionThreads()} threads
+     */
+    protected Executor newPartitionExecutor(int id)
+    {
+        QueuedThreadPool partition = new QueuedThreadPool(_partitionThreads, _partitionThreads);
+        Executor executor = getExecutor();
+        if (executor instanceof QueuedThreadPool)
+        {
+            QueuedThreadPool shared = (QueuedThreadPool)executor;
+            partition.setName(shared.getName() + "-partition-" + id);
+            partition.setDaemon(shared.isDaemon());
+            partition.setThreadsPriority(shared.getThreadsPriority());
+        }
+        else
+        {
+            partition.setName(String.format("%s@%x-partition-%d", getClass().getSimpleName(), hashCode(), id));
+        }
+        return partition;
+    }
+
     protected Selector newSelector() throws IOException
     {
         return Selector.open();
@@ -273,6 +384,7 @@ public abstract class SelectorManager extends ContainerLifeCycle implements Dump
             Arrays.fill(_selectors, null);
             if (_lease != null)
                 _lease.close();
+            _lease = null;
         }
     }
 
@@ -0,0 +1,527 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.component.Dumpable;
+import org.eclipse.jetty.util.component.DumpableCollection;
+import org.eclipse.jetty.util.thread.AutoLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A {@link RetainableByteBufferPool} that carves direct buffers out of large pre-allocated slabs.</p>
+ * <p>Buffers are grouped in size classes whose capacities are powers of 2, from {@code minCapacity}
+ * to {@code maxCapacity}; each slab of {@code slabSize} bytes is split into chunks of a single size class.
+ * Chunks are handed out as {@link RetainableByteBuffer}s and are returned to their slab as soon as they
+ * are released, so that the direct memory of this pool never depends on the garbage collector to be
+ * reclaimed, and is bounded by {@code maxDirectMemory}.</p>
+ * <p>Slabs are normally allocated with {@link ByteBuffer#allocateDirect(int)}; when a
+ * {@link #setSlabDirectory(Path) slab directory} is configured, for example a {@code hugetlbfs}
+ * or {@code tmpfs} mount point, slabs are instead mapped from files created (and immediately
+ * deleted) in that directory, which allows them to be backed by huge pages.</p>
+ * <p>Heap buffers, buffers larger than {@code maxCapacity} and direct buffers requested when
+ * all the slabs are in use and no new slab can be allocated are acquired from a fallback pool.</p>
+ */
+@ManagedObject
+public class SlabRetainableByteBufferPool implements RetainableByteBufferPool, Dumpable
+{
+    private static final Logger LOG = LoggerFactory.getLogger(SlabRetainableByteBufferPool.class);
+    public static final int DEFAULT_SLAB_SIZE = 1024 * 1024;
+
+    private final SizeClass[] _sizeClasses;
+    private final int _minCapacity;
+    private final int _maxCapacity;
+    private final int _slabSize;
+    private final long _maxDirectMemory;
+    private final RetainableByteBufferPool _fallback;
+    private final AtomicLong _slabMemory = new AtomicLong();
+    private final LongAdder _overflows = new LongAdder();
+    private volatile Path _slabDirectory;
+
+    /**
+     * Creates a new SlabRetainableByteBufferPool with a default configuration.
+     */
+    public SlabRetainableByteBufferPool()
+    {
+        this(0, -1, -1, 0);
+    }
+
+    /**
+     * Creates a new SlabRetainableByteBufferPool with the given configuration.
+     *
+     * @param minCapacity the capacity of the smallest size class, rounded up to a power of 2 of at least 1024
+     * @param maxCapacity the capacity of the largest size class, rounded up to a power of 2
+     * @param slabSize the size in bytes of each slab, -1 for the default of 1 MiB
+     * @param maxDirectMemory the max direct memory in bytes of all the slabs, -1 for unlimited memory or 0 to use default heuristic
+     */
+    public SlabRetainableByteBufferPool(int minCapacity, int maxCapacity, int slabSize, long maxDirectMemory)
+    {
+        this(minCapacity, maxCapacity, slabSize, maxDirectMemory, null);
+    }
+
+    /**
+     * Creates a new SlabRetainableByteBufferPool with the given configuration.
+     *
+     * @param minCapacity the capacity of the smallest size class, rounded up to a power of 2 of at least 1024
+     * @param maxCapacity the capacity of the largest size class, rounded up to a power of 2
+     * @param slabSize the size in bytes of each slab, -1 for the default of 1 MiB
+     * @param maxDirectMemory the max direct memory in bytes of all the slabs, -1 for unlimited memory or 0 to use default heuristic
+     * @param fallback the pool to acquire buffers that cannot be carved out of the slabs from,
+     * or null to use an {@link ArrayRetainableByteBufferPool}
+     */
+    public SlabRetainableByteBufferPool(int minCapacity, int maxCapacity, int slabSize, long maxDirectMemory, RetainableByteBufferPool fallback)
+    {
+        minCapacity = roundUpToPowerOf2(Math.max(minCapacity, 1024));
+        maxCapacity = roundUpToPowerOf2(maxCapacity <= 0 ? AbstractByteBufferPool.DEFAULT_MAX_CAPACITY_BY_FACTOR * AbstractByteBufferPool.DEFAULT_FACTOR : maxCapacity);
+        if (slabSize <= 0)
+            slabSize = DEFAULT_SLAB_SIZE;
+        if (minCapacity > maxCapacity)
+            throw new IllegalArgumentException(String.format("minCapacity(%d) must not be greater than maxCapacity(%d)", minCapacity, maxCapacity));
+        if (slabSize < maxCapacity)
+            throw new IllegalArgumentException(String.format("slabSize(%d) must not be less than maxCapacity(%d)", slabSize, maxCapacity));
+
+        int length = Integer.numberOfTrailingZeros(maxCapacity) - Integer.numberOfTrailingZeros(minCapacity) + 1;
+        _sizeClasses = new SizeClass[length];
+        for (int i = 0; i < length; ++i)
+        {
+            _sizeClasses[i] = new SizeClass(minCapacity << i);
+        }
+        _minCapacity = minCapacity;
+        _maxCapacity = maxCapacity;
+        _slabSize = slabSize;
+        _maxDirectMemory = AbstractByteBufferPool.memorySize(maxDirectMemory);
+        _fallback = fallback != null ? fallback : new ArrayRetainableByteBufferPool();
+    }
+
+    private static int roundUpToPowerOf2(int value)
+    {
+        return value <= 1 ? 1 : Integer.highestOneBit(value - 1) << 1;
+    }
+
+    @ManagedAttribute("The capacity of the smallest size class")
+    public int getMinCapacity()
+    {
+        return _minCapacity;
+    }
+
+    @ManagedAttribute("The capacity of the largest size class")
+    public int getMaxCapacity()
+    {
+        return _maxCapacity;
+    }
+
+    @ManagedAttribute("The size in bytes of each slab")
+    public int getSlabSize()
+    {
+        return _slabSize;
+    }
+
+    @ManagedAttribute("The max direct memory of all the slabs")
+    public long getMaxDirectMemory()
+    {
+        return _maxDirectMemory;
+    }
+
+    /**
+     * @return the directory where the files backing the slabs are created, or null if slabs are not file backed
+     */
+    @ManagedAttribute("The directory where the files backing the slabs are created")
+    public Path getSlabDirectory()
+    {
+        return _slabDirectory;
+    }
+
+    /**
+     * <p>Sets the directory where the files backing the slabs are created, typically
+     * a {@code hugetlbfs} or {@code tmpfs} mount point.</p>
+     * <p>Only the slabs allocated after this call are affected.</p>
+     *
+     * @param slabDirectory the directory where the files backing the slabs are created,
+     * or null to allocate slabs with {@link ByteBuffer#allocateDirect(int)}
+     */
+    public void setSlabDirectory(Path slabDirectory)
+    {
+        _slabDirectory = slabDirectory;
+    }
+
+    /**
+     * @return the pool used for the buffers that cannot be carved out of the slabs
+     */
+    public RetainableByteBufferPool getFallback()
+    {
+        return _fallback;
+    }
+
+    @Override
+    public RetainableByteBuffer acquire(int size, boolean direct)
+    {
+        SizeClass sizeClass = direct ? sizeClassFor(size) : null;
+        if (sizeClass != null)
+        {
+            RetainableByteBuffer buffer = sizeClass.acquire(size);
+            if (buffer != null)
+                return buffer;
+            _overflows.increment();
+        }
+        return _fallback.acquire(size, direct);
+    }
+
+    private SizeClass sizeClassFor(int size)
+    {
+        if (size > _maxCapacity)
+            return null;
+        int capacity = roundUpToPowerOf2(Math.max(size, _minCapacity));
+        return _sizeClasses[Integer.numberOfTrailingZeros(capacity) - Integer.numberOfTrailingZeros(_minCapacity)];
+    }
+
+    private Slab newSlab(SizeClass sizeClass)
+    {
+        while (true)
+        {
+            long memory = _slabMemory.get();
+            if (_maxDirectMemory > 0 && memory + _slabSize > _maxDirectMemory)
+                return null;
+            if (_slabMemory.compareAndSet(memory, memory + _slabSize))
+                break;
+        }
+
+        try
+        {
+            Path directory = _slabDirectory;
+            if (directory != null)
+            {
+                try
+                {
+                    return new Slab(sizeClass, map(directory), true);
+                }
+                catch (IOException x)
+                {
+                    LOG.warn("Could not map slab in {}, allocating it from direct memory", directory, x);
+                }
+            }
+            return new Slab(sizeClass, ByteBuffer.allocateDirect(_slabSize), false);
+        }
+        catch (Throwable x)
+        {
+            _slabMemory.addAndGet(-_slabSize);
+            throw x;
+        }
+    }
+
+    private ByteBuffer map(Path directory) throws IOException
+    {
+        Path file = Files.createTempFile(directory, "slab-", ".bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            // The mapping remains valid after the channel is closed and the file deleted.
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, _slabSize);
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @ManagedAttribute("The number of slabs")
+    public int getSlabCount()
+    {
+        int count = 0;
+        for (SizeClass sizeClass : _sizeClasses)
+        {
+            count += sizeClass.getSlabCount();
+        }
+        return count;
+    }
+
+    @ManagedAttribute("The bytes of direct memory allocated for the slabs")
+    public long getSlabMemory()
+    {
+        return _slabMemory.get();
+    }
+
+    @ManagedAttribute("The bytes of the slab chunks in use")
+    public long getUsedMemory()
+    {
+        long used = 0;
+        for (SizeClass sizeClass : _sizeClasses)
+        {
+            used += sizeClass._used.longValue();
+        }
+        return used;
+    }
+
+    @ManagedAttribute("The bytes requested for the slab chunks in use")
+    public long getRequestedMemory()
+    {
+        long requested = 0;
+        for (SizeClass sizeClass : _sizeClasses)
+        {
+            requested += sizeClass._requested.longValue();
+        }
+        return requested;
+    }
+
+    @ManagedAttribute("The ratio of the slab memory in use")
+    public double getSlabOccupancy()
+    {
+        long memory = getSlabMemory();
+        return memory == 0 ? 0.0 : (double)getUsedMemory() / memory;
+    }
+
+    @ManagedAttribute("The ratio of the slab chunks in use that is wasted by rounding up the requested sizes")
+    public double getInternalFragmentation()
+    {
+        long used = getUsedMemory();
+        return used == 0 ? 0.0 : 1.0 - (double)getRequestedMemory() / used;
+    }
+
+    @ManagedAttribute("The ratio of the free slab memory that is held by partially used slabs")
+    public double getExternalFragmentation()
+    {
+        long free = 0;
+        long stranded = 0;
+        for (SizeClass sizeClass : _sizeClasses)
+        {
+            try (AutoLock l = sizeClass._lock.lock())
+            {
+                for (Slab slab : sizeClass._slabs)
+                {
+                    long slabFree = (long)slab._freeCount * sizeClass._capacity;
+                    free += slabFree;
+                    if (slab._freeCount < slab._buffers.length)
+                        stranded += slabFree;
+                }
+            }
+        }
+        return free == 0 ? 0.0 : (double)stranded / free;
+    }
+
+    @ManagedAttribute("The number of direct buffers acquired from the fallback pool because the slabs were exhausted")
+    public long getOverflows()
+    {
+        return _overflows.longValue();
+    }
+
+    @ManagedAttribute("The occupancy of each slab")
+    public String[] getSlabStatistics()
+    {
+        List<String> result = new ArrayList<>();
+        for (SizeClass sizeClass : _sizeClasses)
+        {
+            try (AutoLock l = sizeClass._lock.lock())
+            {
+                for (Slab slab : sizeClass._slabs)
+                {
+                    result.add(slab.toString());
+                }
+            }
+        }
+        return result.toArray(new String[0]);
+    }
+
+    /**
+     * <p>Drops the slabs that have no chunk in use, and clears the fallback pool.</p>
+     * <p>Slabs backed by files are unmapped when they are garbage collected.</p>
+     */
+    @Override
+    @ManagedOperation(value = "Drops the unused slabs", impact = "ACTION")
+    public void clear()
+    {
+        for (SizeClass sizeClass : _sizeClasses)
+        {
+            sizeClass.clear();
+        }
+        _fallback.clear();
+    }
+
+    @Override
+    public void dump(Appendable out, String indent) throws IOException
+    {
+        Dumpable.dumpObjects(out, indent, this,
+            DumpableCollection.fromArray("sizeClasses", _sizeClasses),
+            _fallback);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x{min=%d,max=%d,slabSize=%d,slabs=%d,direct=%d/%d,used=%d}",
+            getClass().getSimpleName(), hashCode(),
+            _minCapacity, _maxCapacity, _slabSize,
+            getSlabCount(), getSlabMemory(), _maxDirectMemory, getUsedMemory());
+    }
+
+    private class SizeClass
+    {
+        private final AutoLock _lock = new AutoLock();
+        private final List<Slab> _slabs = new ArrayList<>();
+        private final LongAdder _used = new LongAdder();
+        private final LongAdder _requested = new LongAdder();
+        private final int _capacity;
+
+        private SizeClass(int capacity)
+        {
+            _capacity = capacity;
+        }
+
+        private RetainableByteBuffer acquire(int size)
+        {
+            RetainableByteBuffer buffer = null;
+            try (AutoLock l = _lock.lock())
+            {
+                // First fit, so that the chunks in use gather in the oldest slabs.
+                for (Slab slab : _slabs)
+                {
+                    buffer = slab.allocate(size);
+                    if (buffer != null)
+                        break;
+                }
+                if (buffer == null)
+                {
+                    Slab slab = newSlab(this);
+                    if (slab == null)
+                        return null;
+                    _slabs.add(slab);
+                    buffer = slab.allocate(size);
+                }
+            }
+            _used.add(_capacity);
+            _requested.add(size);
+            buffer.acquire();
+            return buffer;
+        }
+
+        private void release(Slab slab, int index)
+        {
+            int requested;
+            try (AutoLock l = _lock.lock())
+            {
+                requested = slab.free(index);
+            }
+            _used.add(-_capacity);
+            _requested.add(-requested);
+        }
+
+        private int getSlabCount()
+        {
+            try (AutoLock l = _lock.lock())
+            {
+                return _slabs.size();
+            }
+        }
+
+        private void clear()
+        {
+            try (AutoLock l = _lock.lock())
+            {
+                _slabs.removeIf(slab ->
+                {
+                    if (slab._freeCount < slab._buffers.length)
+                        return false;
+                    _slabMemory.addAndGet(-slab._memory.capacity());
+                    return true;
+                });
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s{capacity=%d,slabs=%d,used=%d,requested=%d}",
+                getClass().getSimpleName(), _capacity, getSlabCount(), _used.longValue(), _requested.longValue());
+        }
+    }
+
+    private class Slab
+    {
+        private final SizeClass _sizeClass;
+        private final ByteBuffer _memory;
+        private final boolean _mapped;
+        private final RetainableByteBuffer[] _buffers;
+        private final int[] _requested;
+        private final int[] _free;
+        private int _freeCount;
+
+        private Slab(SizeClass sizeClass, ByteBuffer memory, boolean mapped)
+        {
+            _sizeClass = Objects.requireNonNull(sizeClass);
+            _memory = memory;
+            _mapped = mapped;
+            int capacity = sizeClass._capacity;
+            int chunks = memory.capacity() / capacity;
+            _buffers = new RetainableByteBuffer[chunks];
+            _requested = new int[chunks];
+            _free = new int[chunks];
+            for (int i = 0; i < chunks; ++i)
+            {
+                ByteBuffer chunk = memory.duplicate();
+                chunk.limit((i + 1) * capacity).position(i * capacity);
+                chunk = chunk.slice();
+                BufferUtil.clear(chunk);
+                int index = i;
+                _buffers[i] = new RetainableByteBuffer(chunk, retainedBuffer ->
+                {
+                    BufferUtil.reset(retainedBuffer.getBuffer());
+                    _sizeClass.release(this, index);
+                });
+                // Hand out the lowest chunks first.
+                _free[chunks - 1 - i] = i;
+            }
+            _freeCount = chunks;
+        }
+
+        private RetainableByteBuffer allocate(int size)
+        {
+            if (_freeCount == 0)
+                return null;
+            int index = _free[--_freeCount];
+            _requested[index] = size;
+            return _buffers[index];
+        }
+
+        private int free(int index)
+        {
+            int requested = _requested[index];
+            _requested[index] = 0;
+            _free[_freeCount++] = index;
+            return requested;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x{capacity=%d,mapped=%b,inuse=%d/%d}",
+                getClass().getSimpleName(), hashCode(),
+                _sizeClass._capacity,
+                _mapped,
+                _buffers.length - _freeCount, _buffers.length);
+        }
+    }
+}
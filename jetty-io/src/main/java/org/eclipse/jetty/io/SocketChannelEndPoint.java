@@ -16,10 +16,14 @@ package org.eclipse.jetty.io;
 import java.io.IOException;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.SocketChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.channels.WritePendingException;
 
 import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.thread.Scheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -31,6 +35,8 @@ public class SocketChannelEndPoint extends SelectableChannelEndPoint
 {
     private static final Logger LOG = LoggerFactory.getLogger(SocketChannelEndPoint.class);
 
+    private FileTransfer _transfer;
+
     public SocketChannelEndPoint(SocketChannel channel, ManagedSelector selector, SelectionKey key, Scheduler scheduler)
     {
         super(scheduler, channel, selector, key);
@@ -101,9 +107,60 @@ public class SocketChannelEndPoint extends SelectableChannelEndPoint
         return filled;
     }
 
+    /**
+     * @return whether {@link #transferFile(Callback, FileChannel, long, long)} is supported by this EndPoint
+     */
+    public boolean isFileTransferSupported()
+    {
+        return true;
+    }
+
+    /**
+     * <p>Writes a region of a file to this EndPoint.</p>
+     * <p>The bytes are copied by the kernel from the file to the socket using
+     * {@link FileChannel#transferTo(long, long, WritableByteChannel)}, without
+     * going through user-space buffers.</p>
+     * <p>Like {@link #write(Callback, ByteBuffer...)}, the callback is notified when
+     * the whole region has been written, and only one write or transfer may be
+     * pending at any time.</p>
+     *
+     * @param callback the callback to call on either failed or complete
+     * @param file the file to transfer the bytes from
+     * @param position the position in the file of the first byte to transfer
+     * @param length the number of bytes to transfer
+     * @throws WritePendingException if another write operation is concurrent.
+     */
+    public void transferFile(Callback callback, FileChannel file, long position, long length) throws WritePendingException
+    {
+        if (!isFileTransferSupported())
+            throw new UnsupportedOperationException();
+        if (!getWriteFlusher().isIdle())
+            throw new WritePendingException();
+        _transfer = new FileTransfer(file, position, length);
+        // The transfer is performed by flush(), driven by the WriteFlusher
+        // so that incomplete transfers are resumed when the socket is writable.
+        write(new Callback.Nested(callback)
+        {
+            @Override
+            public void failed(Throwable x)
+            {
+                _transfer = null;
+                super.failed(x);
+            }
+        }, BufferUtil.EMPTY_BUFFER);
+    }
+
     @Override
     public boolean flush(ByteBuffer... buffers) throws IOException
     {
+        FileTransfer transfer = _transfer;
+        if (transfer != null)
+        {
+            if (!transfer.transferTo(getChannel()))
+                return false;
+            _transfer = null;
+        }
+
         long flushed;
         try
         {
@@ -127,4 +184,53 @@ public class SocketChannelEndPoint extends SelectableChannelEndPoint
 
         return true;
     }
+
+    private class FileTransfer
+    {
+        private final FileChannel _file;
+        private long _position;
+        private long _remaining;
+
+        private FileTransfer(FileChannel file, long position, long length)
+        {
+            _file = file;
+            _position = position;
+            _remaining = length;
+        }
+
+        private boolean transferTo(SocketChannel channel) throws IOException
+        {
+            while (_remaining > 0)
+            {
+                long transferred;
+                try
+                {
+                    transferred = _file.transferTo(_position, _remaining, channel);
+                }
+                catch (IOException e)
+                {
+                    if (!_file.isOpen())
+                        throw e;
+                    throw new EofException(e);
+                }
+
+                if (LOG.isDebugEnabled())
+                    LOG.debug("transferred {}/{} from {} {}", transferred, _remaining, _file, SocketChannelEndPoint.this);
+
+                if (transferred == 0)
+                {
+                    if (_position >= _file.size())
+                        throw new IOException("Unexpected end of file " + _file + " at position " + _position);
+                    return false;
+                }
+
+                notIdle();
+                _position += transferred;
+                _remaining -= transferred;
+                // Account the transferred bytes like the bytes flushed from buffers.
+                getWriteFlusher().notifyFlushed(transferred);
+            }
+            return true;
+        }
+    }
 }
@@ -427,11 +427,7 @@ public abstract class WriteFlusher
                 LOG.debug("Flushed={} written={} remaining={} {}", flushed, written, after, this);
 
             if (written > 0)
-            {
-                Connection connection = _endPoint.getConnection();
-                if (connection instanceof Listener)
-                    ((Listener)connection).onFlushed(written);
-            }
+                notifyFlushed(written);
 
             if (flushed)
                 return null;
@@ -470,6 +466,21 @@ public abstract class WriteFlusher
         return buffers == null ? EMPTY_BUFFERS : buffers;
     }
 
+    /**
+     * <p>Notifies the connection, if it is a {@link Listener}, that bytes have been flushed.</p>
+     * <p>Also used by EndPoints that write bytes that are not in the flushed buffers,
+     * such as the bytes of a file transferred by {@link SocketChannelEndPoint}.</p>
+     *
+     * @param bytes the number of bytes flushed
+     * @throws IOException if the connection fails the flush
+     */
+    void notifyFlushed(long bytes) throws IOException
+    {
+        Connection connection = _endPoint.getConnection();
+        if (connection instanceof Listener)
+            ((Listener)connection).onFlushed(bytes);
+    }
+
     /**
      * Notify the flusher of a failure
      *
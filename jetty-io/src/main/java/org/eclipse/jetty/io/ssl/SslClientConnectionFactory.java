@@ -46,6 +46,7 @@ public class SslClientConnectionFactory implements ClientConnectionFactory
     private boolean _directBuffersForEncryption = true;
     private boolean _directBuffersForDecryption = true;
     private boolean _requireCloseMessage;
+    private int _targetWriteSize;
 
     public SslClientConnectionFactory(SslContextFactory sslContextFactory, ByteBufferPool byteBufferPool, Executor executor, ClientConnectionFactory connectionFactory)
     {
@@ -98,6 +99,25 @@ public class SslClientConnectionFactory implements ClientConnectionFactory
         _requireCloseMessage = requireCloseMessage;
     }
 
+    /**
+     * @return the number of encrypted bytes to accumulate before writing them to the network
+     * @see SslConnection#getTargetWriteSize()
+     */
+    public int getTargetWriteSize()
+    {
+        return _targetWriteSize;
+    }
+
+    /**
+     * @param targetWriteSize the number of encrypted bytes to accumulate before writing them to the network,
+     * or 0 to write each TLS record as soon as it is produced
+     * @see SslConnection#setTargetWriteSize(int)
+     */
+    public void setTargetWriteSize(int targetWriteSize)
+    {
+        _targetWriteSize = targetWriteSize;
+    }
+
     @Override
     public org.eclipse.jetty.io.Connection newConnection(EndPoint endPoint, Map<String, Object> context) throws IOException
     {
@@ -144,6 +164,7 @@ public class SslClientConnectionFactory implements ClientConnectionFactory
             sslConnection.setRenegotiationAllowed(sslContextFactory.isRenegotiationAllowed());
             sslConnection.setRenegotiationLimit(sslContextFactory.getRenegotiationLimit());
             sslConnection.setRequireCloseMessage(isRequireCloseMessage());
+            sslConnection.setTargetWriteSize(getTargetWriteSize());
             ContainerLifeCycle client = (ContainerLifeCycle)context.get(ClientConnectionFactory.CLIENT_CONTEXT_KEY);
             if (client != null)
                 client.getBeans(SslHandshakeListener.class).forEach(sslConnection::addHandshakeListener);
@@ -108,6 +108,8 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
     private final List<SslHandshakeListener> handshakeListeners = new ArrayList<>();
     private final AtomicLong _bytesIn = new AtomicLong();
     private final AtomicLong _bytesOut = new AtomicLong();
+    private final AtomicLong _encryptedRecords = new AtomicLong();
+    private final AtomicLong _encryptedFlushes = new AtomicLong();
     private final ByteBufferPool _bufferPool;
     private final RetainableByteBufferPool _retainableByteBufferPool;
     private final SSLEngine _sslEngine;
@@ -121,6 +123,7 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
     private int _renegotiationLimit = -1;
     private boolean _closedOutbound;
     private boolean _requireCloseMessage;
+    private int _targetWriteSize;
     private FlushState _flushState = FlushState.IDLE;
     private FillState _fillState = FillState.IDLE;
     private boolean _underflown;
@@ -278,6 +281,45 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
         _requireCloseMessage = requireCloseMessage;
     }
 
+    /**
+     * @return the number of encrypted bytes to accumulate before writing them to the network,
+     * or 0 to write each TLS record as soon as it is produced
+     */
+    public int getTargetWriteSize()
+    {
+        return _targetWriteSize;
+    }
+
+    /**
+     * <p>Sets the number of encrypted bytes to accumulate before writing them to the network.</p>
+     * <p>When the application flushes more than one TLS record worth of data, several records
+     * are wrapped into a larger encrypted output buffer and written with a single network
+     * write, rather than performing one write per record.</p>
+     *
+     * @param targetWriteSize the number of encrypted bytes to accumulate before writing them,
+     * or 0 to write each TLS record as soon as it is produced
+     */
+    public void setTargetWriteSize(int targetWriteSize)
+    {
+        _targetWriteSize = Math.max(0, targetWriteSize);
+    }
+
+    /**
+     * @return the number of TLS records wrapped from application data
+     */
+    public long getEncryptedRecords()
+    {
+        return _encryptedRecords.get();
+    }
+
+    /**
+     * @return the number of network flushes of encrypted data performed when flushing application data
+     */
+    public long getEncryptedFlushes()
+    {
+        return _encryptedFlushes.get();
+    }
+
     private boolean isHandshakeInitial()
     {
         return _handshake.get() == HandshakeState.INITIAL;
@@ -324,7 +366,7 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
     private void acquireEncryptedOutput()
     {
         if (_encryptedOutput == null)
-            _encryptedOutput = _bufferPool.acquire(getPacketBufferSize(), _encryptedDirectBuffers);
+            _encryptedOutput = _bufferPool.acquire(Math.max(getPacketBufferSize(), _targetWriteSize), _encryptedDirectBuffers);
     }
 
     @Override
@@ -1025,6 +1067,7 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
                             int remaining = _encryptedOutput.remaining();
                             if (remaining > 0)
                             {
+                                _encryptedFlushes.incrementAndGet();
                                 boolean flushed = networkFlush(_encryptedOutput);
                                 int written = remaining - _encryptedOutput.remaining();
                                 if (written > 0)
@@ -1104,14 +1147,18 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
 
                             // Was all the data consumed?
                             isEmpty = BufferUtil.isEmpty(appOuts);
+                            if (wrapResult.bytesProduced() > 0)
+                                _encryptedRecords.incrementAndGet();
 
-                            // if we have net bytes, let's try to flush them
+                            // if we have net bytes, let's try to flush them, unless there is
+                            // more data to wrap and room to accumulate another record
                             boolean flushed = true;
-                            if (_encryptedOutput != null)
+                            if (_encryptedOutput != null && !isWrapMore(wrapResult, isEmpty))
                             {
                                 int remaining = _encryptedOutput.remaining();
                                 if (remaining > 0)
                                 {
+                                    _encryptedFlushes.incrementAndGet();
                                     flushed = networkFlush(_encryptedOutput);
                                     int written = remaining - _encryptedOutput.remaining();
                                     if (written > 0)
@@ -1208,6 +1255,16 @@ public class SslConnection extends AbstractConnection implements Connection.Upgr
             }
         }
 
+        private boolean isWrapMore(SSLEngineResult wrapResult, boolean isEmpty)
+        {
+            if (isEmpty || wrapResult.getStatus() != Status.OK || wrapResult.bytesConsumed() == 0)
+                return false;
+            if (wrapResult.getHandshakeStatus() != HandshakeStatus.NOT_HANDSHAKING)
+                return false;
+            int remaining = _encryptedOutput.remaining();
+            return remaining < _targetWriteSize && _encryptedOutput.capacity() - remaining >= getPacketBufferSize();
+        }
+
         @Override
         protected void onIncompleteFlush()
         {
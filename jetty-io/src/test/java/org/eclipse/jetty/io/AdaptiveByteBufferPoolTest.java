@@ -0,0 +1,177 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.io;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jetty.io.AdaptiveByteBufferPool.AdaptiveBucket;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class AdaptiveByteBufferPoolTest
+{
+    private static AdaptiveByteBufferPool newPool(int maxBucketSize, long maxMemory)
+    {
+        AdaptiveByteBufferPool pool = new AdaptiveByteBufferPool(0, 1024, 8192, maxBucketSize, maxMemory, maxMemory);
+        pool.setResizePeriod(0);
+        return pool;
+    }
+
+    private static List<ByteBuffer> acquire(AdaptiveByteBufferPool pool, int count, int size)
+    {
+        List<ByteBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < count; ++i)
+        {
+            buffers.add(pool.acquire(size, true));
+        }
+        return buffers;
+    }
+
+    @Test
+    public void testHitsAndMisses()
+    {
+        AdaptiveByteBufferPool pool = newPool(-1, -1);
+
+        ByteBuffer buffer1 = pool.acquire(1000, true);
+        assertEquals(1024, buffer1.capacity());
+        pool.release(buffer1);
+        ByteBuffer buffer2 = pool.acquire(1024, true);
+        assertSame(buffer1, buffer2);
+        pool.release(buffer2);
+        pool.release(pool.acquire(3000, true));
+        pool.release(pool.acquire(100_000, true));
+
+        assertEquals(3, pool.getAcquires());
+        assertEquals(1, pool.getHits());
+        assertEquals(2, pool.getMisses());
+        assertEquals(1, pool.getUnpooledAcquires());
+        assertArrayEquals(new long[]{0, 2, 0, 1, 0, 0, 0, 0, 0}, pool.getAcquireHistogram(true));
+        assertEquals(0, pool.getAcquireHistogram(false)[1]);
+        assertEquals(2, pool.getDirectBucketStatistics().length);
+        assertEquals(0, pool.getHeapBucketStatistics().length);
+
+        pool.resetStatistics();
+        assertEquals(0, pool.getAcquires());
+        assertEquals(0.0, pool.getHitRatio());
+    }
+
+    @Test
+    public void testLimitFollowsDemand()
+    {
+        AdaptiveByteBufferPool pool = newPool(64, -1);
+        AdaptiveBucket bucket = pool.bucketsFor(true)[1];
+        assertEquals(64, bucket.getLimit());
+
+        // Peak demand of 8 buffers shrinks the limit to the retained buffers.
+        List<ByteBuffer> buffers = acquire(pool, 8, 1024);
+        buffers.forEach(pool::release);
+        pool.resize();
+        assertEquals(8, bucket.getLimit());
+        assertEquals(8, bucket.size());
+
+        // Steady demand converges to the peak.
+        for (int i = 0; i < 10; ++i)
+        {
+            buffers = acquire(pool, 8, 1024);
+            buffers.forEach(pool::release);
+            pool.resize();
+        }
+        assertEquals(8, bucket.getLimit());
+        assertEquals(8, bucket.size());
+
+        // Higher demand grows the limit to the new peak.
+        buffers = acquire(pool, 20, 1024);
+        buffers.forEach(pool::release);
+        assertEquals(12, pool.getDiscards());
+        pool.resize();
+        assertEquals(20, bucket.getLimit());
+        buffers = acquire(pool, 20, 1024);
+        buffers.forEach(pool::release);
+        assertEquals(20, bucket.size());
+        pool.resize();
+        assertEquals(20, bucket.getLimit());
+
+        // Lower demand shrinks the limit half way and evicts the excess.
+        buffers = acquire(pool, 4, 1024);
+        buffers.forEach(pool::release);
+        pool.resize();
+        assertEquals(12, bucket.getLimit());
+        assertEquals(12, bucket.size());
+        assertEquals(8, pool.getEvictions());
+
+        // Demand above the maxBucketSize is capped.
+        buffers = acquire(pool, 100, 1024);
+        buffers.forEach(pool::release);
+        pool.resize();
+        assertEquals(64, bucket.getLimit());
+    }
+
+    @Test
+    public void testIdleBuffersAreEvicted()
+    {
+        AdaptiveByteBufferPool pool = newPool(-1, -1);
+        List<ByteBuffer> buffers = acquire(pool, 16, 2048);
+        buffers.forEach(pool::release);
+        assertEquals(16, pool.getDirectByteBufferCount());
+        assertEquals(16 * 2048, pool.getDirectMemory());
+
+        pool.resize();
+        assertEquals(16, pool.getDirectByteBufferCount());
+
+        // Without demand the bucket limit decays to zero.
+        for (int i = 0; i < 10; ++i)
+        {
+            pool.resize();
+        }
+        assertEquals(0, pool.getDirectByteBufferCount());
+        assertEquals(0, pool.getDirectMemory());
+        assertEquals(16, pool.getEvictions());
+        assertEquals(11, pool.getResizes());
+    }
+
+    @Test
+    public void testAutomaticResize() throws Exception
+    {
+        AdaptiveByteBufferPool pool = newPool(-1, -1);
+        pool.setResizePeriod(10);
+        pool.release(pool.acquire(1024, false));
+        Thread.sleep(50);
+        pool.release(pool.acquire(1024, false));
+        assertEquals(1, pool.getResizes());
+    }
+
+    @Test
+    public void testMaxMemory()
+    {
+        long maxMemory = 10 * 1024;
+        AdaptiveByteBufferPool pool = newPool(-1, maxMemory);
+        List<ByteBuffer> buffers = acquire(pool, 8, 1024);
+        buffers.addAll(acquire(pool, 8, 4096));
+        buffers.forEach(pool::release);
+
+        assertThat(pool.getDirectMemory(), lessThanOrEqualTo(maxMemory));
+        assertEquals(pool.getDirectMemory(), 1024 * pool.bucketsFor(true)[1].size() + 4096 * pool.bucketsFor(true)[4].size());
+
+        pool.clear();
+        assertEquals(0, pool.getDirectMemory());
+        assertEquals(0, pool.getDirectByteBufferCount());
+    }
+}
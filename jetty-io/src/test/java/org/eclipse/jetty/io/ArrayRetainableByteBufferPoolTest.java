@@ -420,4 +420,79 @@ public class ArrayRetainableByteBufferPoolTest
         assertThat(retain9, not(sameInstance(retain5)));
         retain9.release();
     }
+
+    @Test
+    public void testThreadCache()
+    {
+        ArrayRetainableByteBufferPool pool = new ArrayRetainableByteBufferPool(0, 10, 20, Integer.MAX_VALUE);
+        pool.setThreadCacheSize(4);
+
+        RetainableByteBuffer buffer1 = pool.acquire(10, true);
+        buffer1.release();
+        // The buffer is cached by this thread, not available in the bucket.
+        assertThat(pool.getAvailableDirectByteBufferCount(), is(0L));
+        RetainableByteBuffer buffer2 = pool.acquire(10, true);
+        assertThat(buffer2, sameInstance(buffer1));
+        assertThat(buffer2.isRetained(), is(false));
+        buffer2.release();
+
+        List<RetainableByteBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+        {
+            buffers.add(pool.acquire(10, true));
+        }
+        assertThat(pool.getDirectByteBufferCount(), is(5L));
+        buffers.forEach(RetainableByteBuffer::release);
+
+        // The fifth release spilled half of the full cache back to the bucket.
+        assertThat(pool.getAvailableDirectByteBufferCount(), is(2L));
+        assertThat(pool.getDirectMemory(), is(50L));
+
+        // Cached buffers are discarded once removed from their bucket.
+        pool.clear();
+        assertThat(pool.getDirectMemory(), is(0L));
+        RetainableByteBuffer buffer3 = pool.acquire(10, true);
+        assertThat(buffers.contains(buffer3), is(false));
+        buffer3.release();
+    }
+
+    @Test
+    public void testThreadCacheOfExitedThreadIsReclaimed() throws Exception
+    {
+        ArrayRetainableByteBufferPool pool = new ArrayRetainableByteBufferPool(0, 10, 20, Integer.MAX_VALUE);
+        pool.setThreadCacheSize(4);
+
+        Thread thread = new Thread(() ->
+        {
+            List<RetainableByteBuffer> buffers = new ArrayList<>();
+            for (int i = 0; i < 3; i++)
+            {
+                buffers.add(pool.acquire(10, true));
+            }
+            buffers.forEach(RetainableByteBuffer::release);
+        });
+        thread.start();
+        thread.join(5000);
+        assertThat(thread.isAlive(), is(false));
+
+        // The buffers are still cached by the exited thread.
+        assertThat(pool.getDirectByteBufferCount(), is(3L));
+        assertThat(pool.getAvailableDirectByteBufferCount(), is(0L));
+
+        // A new thread caching buffers reclaims the cache of the exited thread.
+        RetainableByteBuffer buffer = pool.acquire(10, true);
+        assertThat(pool.getDirectByteBufferCount(), is(3L));
+        assertThat(pool.getAvailableDirectByteBufferCount(), is(2L));
+        buffer.release();
+
+        thread = new Thread(() -> pool.acquire(10, true).release());
+        thread.start();
+        thread.join(5000);
+        assertThat(thread.isAlive(), is(false));
+
+        // Clearing the pool reclaims the cache of the exited thread.
+        pool.clear();
+        assertThat(pool.getDirectByteBufferCount(), is(0L));
+        assertThat(pool.getDirectMemory(), is(0L));
+    }
 }
@@ -0,0 +1,174 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.io;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDir;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDirExtension;
+import org.eclipse.jetty.util.BufferUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@ExtendWith(WorkDirExtension.class)
+public class SlabRetainableByteBufferPoolTest
+{
+    public WorkDir workDir;
+
+    @Test
+    public void testAcquireReleaseReusesChunks()
+    {
+        SlabRetainableByteBufferPool pool = new SlabRetainableByteBufferPool(1024, 8192, 16384, -1);
+
+        RetainableByteBuffer buffer1 = pool.acquire(1000, true);
+        assertThat(buffer1.capacity(), is(1024));
+        assertThat(buffer1.isDirect(), is(true));
+        assertThat(pool.getSlabCount(), is(1));
+        assertThat(pool.getSlabMemory(), is(16384L));
+        assertThat(pool.getUsedMemory(), is(1024L));
+        assertThat(pool.getRequestedMemory(), is(1000L));
+
+        BufferUtil.append(buffer1.getBuffer(), ByteBuffer.wrap(new byte[]{1, 2, 3}));
+        assertThat(buffer1.release(), is(true));
+        assertThat(pool.getUsedMemory(), is(0L));
+        assertThat(pool.getRequestedMemory(), is(0L));
+
+        RetainableByteBuffer buffer2 = pool.acquire(1024, true);
+        assertThat(buffer2, sameInstance(buffer1));
+        assertThat(buffer2.remaining(), is(0));
+        buffer2.retain();
+        assertThat(buffer2.release(), is(false));
+        assertThat(buffer2.release(), is(true));
+        assertThrows(IllegalStateException.class, buffer2::release);
+    }
+
+    @Test
+    public void testSizeClasses()
+    {
+        SlabRetainableByteBufferPool pool = new SlabRetainableByteBufferPool(1024, 8192, 16384, -1);
+
+        RetainableByteBuffer buffer1 = pool.acquire(1025, true);
+        assertThat(buffer1.capacity(), is(2048));
+        RetainableByteBuffer buffer2 = pool.acquire(8192, true);
+        assertThat(buffer2.capacity(), is(8192));
+        assertThat(pool.getSlabCount(), is(2));
+        assertThat(pool.getInternalFragmentation(), closeTo(1.0 - (1025.0 + 8192.0) / (2048.0 + 8192.0), 0.0001));
+
+        // Heap and oversized buffers come from the fallback pool.
+        RetainableByteBuffer heap = pool.acquire(1024, false);
+        assertThat(heap.isDirect(), is(false));
+        RetainableByteBuffer large = pool.acquire(8193, true);
+        assertThat(large.capacity() >= 8193, is(true));
+        assertThat(pool.getSlabCount(), is(2));
+        assertThat(pool.getOverflows(), is(0L));
+
+        buffer1.release();
+        buffer2.release();
+        heap.release();
+        large.release();
+    }
+
+    @Test
+    public void testMaxDirectMemory()
+    {
+        SlabRetainableByteBufferPool pool = new SlabRetainableByteBufferPool(4096, 4096, 8192, 8192);
+
+        RetainableByteBuffer buffer1 = pool.acquire(4096, true);
+        RetainableByteBuffer buffer2 = pool.acquire(4096, true);
+        assertThat(pool.getSlabOccupancy(), is(1.0));
+
+        // The slab is exhausted and no other slab can be allocated.
+        RetainableByteBuffer buffer3 = pool.acquire(4096, true);
+        assertThat(buffer3.isDirect(), is(true));
+        assertThat(pool.getOverflows(), is(1L));
+        assertThat(pool.getSlabCount(), is(1));
+        assertThat(pool.getSlabMemory(), is(8192L));
+
+        buffer1.release();
+        assertThat(pool.getSlabOccupancy(), is(0.5));
+        assertThat(pool.getExternalFragmentation(), is(1.0));
+        RetainableByteBuffer buffer4 = pool.acquire(4096, true);
+        assertThat(buffer4, sameInstance(buffer1));
+
+        buffer2.release();
+        buffer3.release();
+        buffer4.release();
+        assertThat(pool.getExternalFragmentation(), is(0.0));
+    }
+
+    @Test
+    public void testClearDropsUnusedSlabs()
+    {
+        SlabRetainableByteBufferPool pool = new SlabRetainableByteBufferPool(1024, 1024, 2048, -1);
+
+        List<RetainableByteBuffer> buffers = new ArrayList<>();
+        for (int i = 0; i < 4; ++i)
+        {
+            buffers.add(pool.acquire(1024, true));
+        }
+        assertThat(pool.getSlabCount(), is(2));
+        assertThat(pool.getSlabStatistics().length, is(2));
+
+        buffers.get(2).release();
+        buffers.get(3).release();
+        pool.clear();
+        assertThat(pool.getSlabCount(), is(1));
+        assertThat(pool.getSlabMemory(), is(2048L));
+
+        buffers.get(0).release();
+        buffers.get(1).release();
+        pool.clear();
+        assertThat(pool.getSlabCount(), is(0));
+        assertThat(pool.getSlabMemory(), is(0L));
+    }
+
+    @Test
+    public void testMappedSlabs() throws Exception
+    {
+        Path directory = workDir.getEmptyPathDir();
+        SlabRetainableByteBufferPool pool = new SlabRetainableByteBufferPool(1024, 4096, 8192, -1);
+        pool.setSlabDirectory(directory);
+
+        RetainableByteBuffer buffer = pool.acquire(2048, true);
+        assertThat(buffer.isDirect(), is(true));
+        BufferUtil.append(buffer.getBuffer(), ByteBuffer.wrap(new byte[]{'x', 'y', 'z'}));
+        assertThat(BufferUtil.toString(buffer.getBuffer()), is("xyz"));
+        assertThat(pool.getSlabStatistics()[0], containsString("mapped=true"));
+
+        // The backing file is deleted once mapped.
+        try (Stream<Path> files = Files.list(directory))
+        {
+            assertThat(files.count(), is(0L));
+        }
+
+        RetainableByteBuffer other = pool.acquire(2048, true);
+        assertThat(other, not(sameInstance(buffer)));
+        buffer.release();
+        other.release();
+        assertThat(pool.getUsedMemory(), is(0L));
+    }
+}
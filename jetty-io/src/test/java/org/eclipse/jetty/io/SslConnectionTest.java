@@ -49,6 +49,7 @@ import org.slf4j.LoggerFactory;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -63,6 +64,8 @@ public class SslConnectionTest
 
     private final SslContextFactory _sslCtxFactory = new SslContextFactory.Server();
     protected volatile EndPoint _lastEndp;
+    protected volatile SslConnection _lastSslConnection;
+    private volatile int _targetWriteSize;
     private volatile boolean _testFill = true;
     private volatile boolean _onXWriteThenShutdown = false;
 
@@ -89,6 +92,8 @@ public class SslConnectionTest
             SslConnection sslConnection = new SslConnection(__byteBufferPool, getExecutor(), endpoint, engine);
             sslConnection.setRenegotiationAllowed(_sslCtxFactory.isRenegotiationAllowed());
             sslConnection.setRenegotiationLimit(_sslCtxFactory.getRenegotiationLimit());
+            sslConnection.setTargetWriteSize(_targetWriteSize);
+            _lastSslConnection = sslConnection;
             Connection appConnection = new TestConnection(sslConnection.getDecryptedEndPoint());
             sslConnection.getDecryptedEndPoint().setConnection(appConnection);
             return sslConnection;
@@ -152,6 +157,8 @@ public class SslConnectionTest
         _testFill = true;
         _writeCallback = null;
         _lastEndp = null;
+        _lastSslConnection = null;
+        _targetWriteSize = 0;
         _connector = ServerSocketChannel.open();
         _connector.socket().bind(null);
         _threadPool.start();
@@ -469,6 +476,58 @@ public class SslConnectionTest
         }
     }
 
+    @Test
+    public void testLargeWriteBatchesRecords() throws Exception
+    {
+        _targetWriteSize = 64 * 1024;
+        startSSL();
+        try (SSLSocket client = newClient())
+        {
+            client.setSoTimeout(5000);
+            try (SocketChannel server = _connector.accept())
+            {
+                server.configureBlocking(false);
+                _manager.accept(server);
+
+                client.getOutputStream().write("Hello".getBytes(StandardCharsets.UTF_8));
+                byte[] buffer = new byte[1024];
+                int len = client.getInputStream().read(buffer);
+                assertEquals("Hello", new String(buffer, 0, len, StandardCharsets.UTF_8));
+
+                SslConnection sslConnection = _lastSslConnection;
+                assertEquals(64 * 1024, sslConnection.getTargetWriteSize());
+                long records = sslConnection.getEncryptedRecords();
+                long flushes = sslConnection.getEncryptedFlushes();
+
+                // Write enough data to produce many TLS records.
+                byte[] content = new byte[1024 * 1024];
+                for (int i = 0; i < content.length; ++i)
+                {
+                    content[i] = (byte)('A' + i % 26);
+                }
+                FutureCallback callback = new FutureCallback();
+                sslConnection.getDecryptedEndPoint().write(callback, ByteBuffer.wrap(content));
+
+                byte[] received = new byte[content.length];
+                int offset = 0;
+                while (offset < received.length)
+                {
+                    int read = client.getInputStream().read(received, offset, received.length - offset);
+                    assertThat(read > 0, is(true));
+                    offset += read;
+                }
+                callback.get(5, TimeUnit.SECONDS);
+                assertArrayEquals(content, received);
+
+                // Several records are written by each network flush.
+                records = sslConnection.getEncryptedRecords() - records;
+                flushes = sslConnection.getEncryptedFlushes() - flushes;
+                assertThat(records >= content.length / (16 * 1024), is(true));
+                assertThat("records=" + records + " flushes=" + flushes, flushes * 2 <= records, is(true));
+            }
+        }
+    }
+
     @Test
     public void testBlockedClose() throws Exception
     {
@@ -15,6 +15,8 @@ package org.eclipse.jetty.quic.client;
 
 import java.io.IOException;
 import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 import javax.servlet.http.HttpServletRequest;
@@ -44,6 +46,9 @@ import org.junit.jupiter.api.Tag;
 import org.junit.jupiter.api.Test;
 
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.core.Is.is;
 
 public class End2EndClientTest
@@ -86,13 +91,18 @@ public class End2EndClientTest
 
         server.start();
 
+        client = newHttpClient();
+        client.start();
+    }
+
+    private HttpClient newHttpClient()
+    {
         ClientConnectionFactory.Info http1Info = HttpClientConnectionFactory.HTTP11;
         ClientConnectionFactoryOverHTTP2.HTTP2 http2Info = new ClientConnectionFactoryOverHTTP2.HTTP2(new HTTP2Client());
         QuicClientConnectorConfigurator configurator = new QuicClientConnectorConfigurator();
         configurator.getQuicConfiguration().setVerifyPeerCertificates(false);
         HttpClientTransportDynamic transport = new HttpClientTransportDynamic(new ClientConnector(configurator), http1Info, http2Info);
-        client = new HttpClient(transport);
-        client.start();
+        return new HttpClient(transport);
     }
 
     @AfterEach
@@ -140,6 +150,86 @@ public class End2EndClientTest
         }
     }
 
+    @Test
+    public void testDatagramStatistics() throws Exception
+    {
+        for (int i = 0; i < 10; i++)
+        {
+            ContentResponse response = client.newRequest("https://localhost:" + connector.getLocalPort() + "/" + i)
+                .version(HttpVersion.HTTP_2)
+                .timeout(5, TimeUnit.SECONDS)
+                .send();
+            assertThat(response.getStatus(), is(200));
+        }
+
+        assertThat(connector.getReceivedDatagrams(), greaterThan(0L));
+        assertThat(connector.getSentDatagrams(), greaterThan(0L));
+        assertThat(connector.getDatagramsPerReceive(), greaterThanOrEqualTo(1.0));
+        assertThat(connector.getDatagramsPerReceive(), lessThanOrEqualTo((double)connector.getDatagramBatchSize()));
+        assertThat(connector.getDatagramsPerSend(), greaterThanOrEqualTo(1.0));
+    }
+
+    @Test
+    public void testShards() throws Exception
+    {
+        server.stop();
+        connector.setShards(4);
+        server.start();
+
+        // Each client uses its own QUIC connection, with its own connection IDs,
+        // so that the datagrams are routed to different shards.
+        List<HttpClient> clients = new ArrayList<>();
+        clients.add(client);
+        for (int i = 1; i < 8; ++i)
+        {
+            HttpClient httpClient = newHttpClient();
+            httpClient.start();
+            clients.add(httpClient);
+        }
+
+        try
+        {
+            testShards(clients);
+        }
+        finally
+        {
+            for (HttpClient httpClient : clients.subList(1, clients.size()))
+            {
+                LifeCycle.stop(httpClient);
+            }
+        }
+
+        assertThat(connector.getActiveShards(), greaterThan(1L));
+    }
+
+    private void testShards(List<HttpClient> clients)
+    {
+        int count = 32;
+        CompletableFuture<?>[] futures = new CompletableFuture[count];
+        for (int i = 0; i < count; ++i)
+        {
+            CompletableFuture<Integer> future = new CompletableFuture<>();
+            clients.get(i % clients.size()).newRequest("https://localhost:" + connector.getLocalPort() + "/" + i)
+                .version(HttpVersion.HTTP_2)
+                .timeout(5, TimeUnit.SECONDS)
+                .send(result ->
+                {
+                    if (result.isSucceeded())
+                        future.complete(result.getResponse().getStatus());
+                    else
+                        future.completeExceptionally(result.getFailure());
+                });
+            futures[i] = future;
+        }
+        CompletableFuture.allOf(futures)
+            .orTimeout(15, TimeUnit.SECONDS)
+            .join();
+        for (CompletableFuture<?> future : futures)
+        {
+            assertThat(future.join(), is(200));
+        }
+    }
+
     @Test
     @Tag("flaky") // Issue #8815
     public void testMultiThreadedHTTP1()
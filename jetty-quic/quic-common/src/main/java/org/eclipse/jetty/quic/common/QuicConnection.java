@@ -17,6 +17,7 @@ import java.io.IOException;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.EventListener;
 import java.util.List;
@@ -25,6 +26,7 @@ import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.Executor;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
 
 import org.eclipse.jetty.io.AbstractConnection;
 import org.eclipse.jetty.io.ByteBufferPool;
@@ -39,6 +41,7 @@ import org.eclipse.jetty.util.IteratingCallback;
 import org.eclipse.jetty.util.component.LifeCycle;
 import org.eclipse.jetty.util.thread.AutoLock;
 import org.eclipse.jetty.util.thread.ExecutionStrategy;
+import org.eclipse.jetty.util.thread.Invocable;
 import org.eclipse.jetty.util.thread.Scheduler;
 import org.eclipse.jetty.util.thread.strategy.AdaptiveExecutionStrategy;
 import org.slf4j.Logger;
@@ -50,6 +53,15 @@ import org.slf4j.LoggerFactory;
  * {@link QuicSession}, and the received bytes are then passed to the {@link QuicSession} for processing.</p>
  * <p>On the receive side, one QuicConnection <em>fans-out</em> to multiple {@link QuicSession}s.</p>
  * <p>On the send side, many {@link QuicSession}s <em>fan-in</em> to one QuicConnection.</p>
+ * <p>Datagrams are received and sent in batches of up to {@link #getDatagramBatchSize()} datagrams:
+ * on the receive side, datagrams are drained from the {@link DatagramChannelEndPoint} into pooled
+ * buffers before being processed; on the send side, the datagrams queued for the same peer are
+ * coalesced into a single write.</p>
+ * <p>The received datagrams are processed by the thread that receives them, unless
+ * {@link #setShards(int) shards} are configured: in that case, each datagram is routed by its
+ * QUIC connection ID to one of the shards, and the shards are executed independently, so that
+ * the datagrams of different {@link QuicSession}s are processed in parallel, while the datagrams
+ * of the same {@link QuicSession} are processed in order.</p>
  */
 public abstract class QuicConnection extends AbstractConnection
 {
@@ -63,6 +75,16 @@ public abstract class QuicConnection extends AbstractConnection
     private final AdaptiveExecutionStrategy strategy;
     private final Flusher flusher = new Flusher();
     private final Callback fillableCallback = new FillableCallback();
+    private final AutoLock datagramsLock = new AutoLock();
+    private final ArrayDeque<Datagram> datagrams = new ArrayDeque<>();
+    private boolean datagramsReleased;
+    private final LongAdder receivedDatagrams = new LongAdder();
+    private final LongAdder receiveBatches = new LongAdder();
+    private final LongAdder sentDatagrams = new LongAdder();
+    private final LongAdder sendBatches = new LongAdder();
+    private int datagramBatchSize = 16;
+    private int shardCount = 1;
+    private Shard[] shards;
     private int outputBufferSize = 2048;
     private boolean useInputDirectByteBuffers = true;
     private boolean useOutputDirectByteBuffers = true;
@@ -123,6 +145,93 @@ public abstract class QuicConnection extends AbstractConnection
         this.useOutputDirectByteBuffers = useOutputDirectByteBuffers;
     }
 
+    /**
+     * @return the max number of datagrams received or sent in a batch
+     */
+    public int getDatagramBatchSize()
+    {
+        return datagramBatchSize;
+    }
+
+    /**
+     * @param datagramBatchSize the max number of datagrams received or sent in a batch
+     */
+    public void setDatagramBatchSize(int datagramBatchSize)
+    {
+        this.datagramBatchSize = Math.max(1, datagramBatchSize);
+    }
+
+    /**
+     * @return the number of shards that process the received datagrams
+     */
+    public int getShards()
+    {
+        return shardCount;
+    }
+
+    /**
+     * <p>Sets the number of shards that process the received datagrams.</p>
+     * <p>With one shard, the datagrams are processed by the thread that receives them.
+     * With more shards, the datagrams are routed by their QUIC connection ID to a shard,
+     * and each shard processes its datagrams in a separate thread.</p>
+     * <p>The number of shards must be set before the connection is opened.</p>
+     *
+     * @param shards the number of shards that process the received datagrams
+     */
+    public void setShards(int shards)
+    {
+        this.shardCount = Math.max(1, shards);
+    }
+
+    /**
+     * @return the number of datagrams received
+     */
+    public long getReceivedDatagrams()
+    {
+        return receivedDatagrams.sum();
+    }
+
+    /**
+     * @return the number of shards that have been routed datagrams, or 0 if there are no shards
+     */
+    public int getActiveShards()
+    {
+        Shard[] shards = this.shards;
+        if (shards == null)
+            return 0;
+        int active = 0;
+        for (Shard shard : shards)
+        {
+            if (shard.datagrams.sum() > 0)
+                ++active;
+        }
+        return active;
+    }
+
+    /**
+     * @return the number of non-empty batches of received datagrams
+     */
+    public long getReceiveBatches()
+    {
+        return receiveBatches.sum();
+    }
+
+    /**
+     * @return the number of datagrams sent
+     */
+    public long getSentDatagrams()
+    {
+        return sentDatagrams.sum();
+    }
+
+    /**
+     * @return the number of writes of batches of datagrams
+     */
+    public long getSendBatches()
+    {
+        return sendBatches.sum();
+    }
+
     public Collection<QuicSession> getQuicSessions()
     {
         return List.copyOf(sessions.values());
@@ -148,6 +257,16 @@ public abstract class QuicConnection extends AbstractConnection
     public void onOpen()
     {
         super.onOpen();
+        if (shardCount > 1)
+        {
+            Shard[] shards = new Shard[shardCount];
+            for (int i = 0; i < shards.length; ++i)
+            {
+                shards[i] = new Shard();
+                LifeCycle.start(shards[i].strategy);
+            }
+            this.shards = shards;
+        }
         LifeCycle.start(strategy);
     }
 
@@ -155,6 +274,16 @@ public abstract class QuicConnection extends AbstractConnection
     public void onClose(Throwable cause)
     {
         LifeCycle.stop(strategy);
+        releaseDatagrams();
+        Shard[] shards = this.shards;
+        if (shards != null)
+        {
+            for (Shard shard : shards)
+            {
+                LifeCycle.stop(shard.strategy);
+                shard.release();
+            }
+        }
         super.onClose(cause);
     }
 
@@ -217,88 +346,46 @@ public abstract class QuicConnection extends AbstractConnection
 
     private Runnable receiveAndProcess()
     {
-        boolean interested = isFillInterested();
-        if (LOG.isDebugEnabled())
-            LOG.debug("receiveAndProcess() fillInterested={}", interested);
-        if (interested)
-            return null;
-
-        ByteBuffer cipherBuffer = byteBufferPool.acquire(getInputBufferSize(), isUseInputDirectByteBuffers());
         try
         {
             while (true)
             {
-                BufferUtil.clear(cipherBuffer);
-                SocketAddress remoteAddress = getEndPoint().receive(cipherBuffer);
-                int fill = remoteAddress == DatagramChannelEndPoint.EOF ? -1 : cipherBuffer.remaining();
-                if (LOG.isDebugEnabled())
-                    LOG.debug("filled cipher buffer with {} byte(s)", fill);
-                // DatagramChannelEndPoint will only return -1 if input is shut down.
-                if (fill < 0)
-                {
-                    byteBufferPool.release(cipherBuffer);
-                    getEndPoint().shutdownOutput();
-                    return null;
-                }
-                if (fill == 0)
-                {
-                    byteBufferPool.release(cipherBuffer);
-                    fillInterested();
-                    return null;
-                }
-
-                if (LOG.isDebugEnabled())
-                    LOG.debug("peer IP address: {}, ciphertext packet size: {}", remoteAddress, cipherBuffer.remaining());
-
-                QuicheConnectionId quicheConnectionId = QuicheConnectionId.fromPacket(cipherBuffer);
-                if (quicheConnectionId == null)
+                Datagram datagram = pollDatagram();
+                if (datagram == null)
                 {
+                    boolean interested = isFillInterested();
                     if (LOG.isDebugEnabled())
-                        LOG.debug("packet contains undecipherable connection ID, dropping it");
-                    continue;
-                }
-                if (LOG.isDebugEnabled())
-                    LOG.debug("packet contains connection ID {}", quicheConnectionId);
+                        LOG.debug("receiveAndProcess() fillInterested={}", interested);
+                    if (interested)
+                        return null;
 
-                QuicSession session = sessions.get(quicheConnectionId);
-                if (session == null)
-                {
-                    if (LOG.isDebugEnabled())
-                        LOG.debug("packet is for unknown session, trying to create a new one");
-                    session = createSession(remoteAddress, cipherBuffer);
-                    if (session != null)
+                    int received = receive();
+                    // DatagramChannelEndPoint will only return EOF if input is shut down.
+                    if (received < 0)
                     {
-                        if (LOG.isDebugEnabled())
-                            LOG.debug("session created");
-                        session.setConnectionId(quicheConnectionId);
-                        session.setIdleTimeout(getEndPoint().getIdleTimeout());
-                        sessions.put(quicheConnectionId, session);
-                        listeners.forEach(session::addEventListener);
-                        LifeCycle.start(session);
-
-                        // Session creation may have generated a task.
-                        Runnable task = session.pollTask();
-                        if (LOG.isDebugEnabled())
-                            LOG.debug("processing creation task {} on {}", task, session);
-                        if (task != null)
-                        {
-                            byteBufferPool.release(cipherBuffer);
-                            return task;
-                        }
+                        getEndPoint().shutdownOutput();
+                        return null;
                     }
-                    else
+                    if (received == 0)
                     {
-                        if (LOG.isDebugEnabled())
-                            LOG.debug("session not created");
+                        fillInterested();
+                        return null;
                     }
+                    Shard[] shards = this.shards;
+                    if (shards != null)
+                        dispatch(shards);
                     continue;
                 }
 
-                Runnable task = process(session, remoteAddress, cipherBuffer);
-                if (task != null)
+                try
+                {
+                    Runnable task = process(datagram);
+                    if (task != null)
+                        return task;
+                }
+                finally
                 {
-                    byteBufferPool.release(cipherBuffer);
-                    return task;
+                    byteBufferPool.release(datagram.cipherBuffer);
                 }
             }
         }
@@ -306,12 +393,198 @@ public abstract class QuicConnection extends AbstractConnection
         {
             if (LOG.isDebugEnabled())
                 LOG.debug("receiveAndProcess() failure", x);
-            byteBufferPool.release(cipherBuffer);
+            clearDatagrams();
             onFailure(x);
             return null;
         }
     }
 
+    private boolean offerDatagram(Datagram datagram)
+    {
+        try (AutoLock l = datagramsLock.lock())
+        {
+            if (datagramsReleased)
+                return false;
+            datagrams.offer(datagram);
+            return true;
+        }
+    }
+
+    private Datagram pollDatagram()
+    {
+        try (AutoLock l = datagramsLock.lock())
+        {
+            return datagrams.poll();
+        }
+    }
+
+    private void clearDatagrams()
+    {
+        Datagram datagram;
+        while ((datagram = pollDatagram()) != null)
+        {
+            byteBufferPool.release(datagram.cipherBuffer);
+        }
+    }
+
+    /**
+     * <p>Releases the datagrams received but not yet processed,
+     * and prevents further datagrams from being queued.</p>
+     */
+    private void releaseDatagrams()
+    {
+        try (AutoLock l = datagramsLock.lock())
+        {
+            datagramsReleased = true;
+        }
+        clearDatagrams();
+    }
+
+    /**
+     * <p>Receives a batch of datagrams, each in its own pooled buffer, and queues them for processing.</p>
+     *
+     * @return the number of datagrams received, or -1 if the input is shut down
+     * @throws IOException if the receive fails
+     */
+    private int receive() throws IOException
+    {
+        int received = 0;
+        while (received < datagramBatchSize)
+        {
+            ByteBuffer cipherBuffer = byteBufferPool.acquire(getInputBufferSize(), isUseInputDirectByteBuffers());
+            SocketAddress remoteAddress;
+            try
+            {
+                BufferUtil.clear(cipherBuffer);
+                remoteAddress = getEndPoint().receive(cipherBuffer);
+            }
+            catch (Throwable x)
+            {
+                byteBufferPool.release(cipherBuffer);
+                throw x;
+            }
+
+            if (remoteAddress == DatagramChannelEndPoint.EOF)
+            {
+                byteBufferPool.release(cipherBuffer);
+                if (received == 0)
+                    return -1;
+                break;
+            }
+            int fill = remoteAddress == null ? 0 : cipherBuffer.remaining();
+            if (LOG.isDebugEnabled())
+                LOG.debug("filled cipher buffer with {} byte(s)", fill);
+            if (fill == 0)
+            {
+                byteBufferPool.release(cipherBuffer);
+                break;
+            }
+
+            if (LOG.isDebugEnabled())
+                LOG.debug("peer IP address: {}, ciphertext packet size: {}", remoteAddress, fill);
+            if (!offerDatagram(new Datagram(remoteAddress, cipherBuffer)))
+            {
+                // The connection has been closed concurrently.
+                byteBufferPool.release(cipherBuffer);
+                return -1;
+            }
+            ++received;
+        }
+
+        if (received > 0)
+        {
+            receivedDatagrams.add(received);
+            receiveBatches.increment();
+        }
+        return received;
+    }
+
+    /**
+     * <p>Routes the received datagrams to the shards, by their QUIC connection ID.</p>
+     *
+     * @param shards the shards to route the datagrams to
+     */
+    private void dispatch(Shard[] shards)
+    {
+        boolean[] dispatch = new boolean[shards.length];
+        Datagram datagram;
+        while ((datagram = pollDatagram()) != null)
+        {
+            QuicheConnectionId quicheConnectionId = QuicheConnectionId.fromPacket(datagram.cipherBuffer);
+            if (quicheConnectionId == null)
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("packet contains undecipherable connection ID, dropping it");
+                byteBufferPool.release(datagram.cipherBuffer);
+                continue;
+            }
+            datagram.connectionId = quicheConnectionId;
+            int index = Math.floorMod(quicheConnectionId.hashCode(), shards.length);
+            if (LOG.isDebugEnabled())
+                LOG.debug("routing packet with connection ID {} to shard {}", quicheConnectionId, index);
+            if (shards[index].offer(datagram))
+                dispatch[index] = true;
+            else
+                byteBufferPool.release(datagram.cipherBuffer);
+        }
+        for (int i = 0; i < shards.length; ++i)
+        {
+            if (dispatch[i])
+                shards[i].strategy.dispatch();
+        }
+    }
+
+    private Runnable process(Datagram datagram) throws IOException
+    {
+        SocketAddress remoteAddress = datagram.remoteAddress;
+        ByteBuffer cipherBuffer = datagram.cipherBuffer;
+        QuicheConnectionId quicheConnectionId = datagram.connectionId;
+        if (quicheConnectionId == null)
+        {
+            quicheConnectionId = QuicheConnectionId.fromPacket(cipherBuffer);
+            if (quicheConnectionId == null)
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("packet contains undecipherable connection ID, dropping it");
+                return null;
+            }
+        }
+        if (LOG.isDebugEnabled())
+            LOG.debug("packet contains connection ID {}", quicheConnectionId);
+
+        QuicSession session = sessions.get(quicheConnectionId);
+        if (session == null)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("packet is for unknown session, trying to create a new one");
+            session = createSession(remoteAddress, cipherBuffer);
+            if (session != null)
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("session created");
+                session.setConnectionId(quicheConnectionId);
+                session.setIdleTimeout(getEndPoint().getIdleTimeout());
+                sessions.put(quicheConnectionId, session);
+                listeners.forEach(session::addEventListener);
+                LifeCycle.start(session);
+
+                // Session creation may have generated a task.
+                Runnable task = session.pollTask();
+                if (LOG.isDebugEnabled())
+                    LOG.debug("processing creation task {} on {}", task, session);
+                return task;
+            }
+            else
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("session not created");
+            }
+            return null;
+        }
+
+        return process(session, remoteAddress, cipherBuffer);
+    }
+
     private Runnable process(QuicSession session, SocketAddress remoteAddress, ByteBuffer cipherBuffer)
     {
         try
@@ -327,7 +600,6 @@ public abstract class QuicConnection extends AbstractConnection
         {
             if (LOG.isDebugEnabled())
                 LOG.debug("process failure for {}", session, x);
-            byteBufferPool.release(cipherBuffer);
             session.onFailure(x);
             return null;
         }
@@ -351,7 +623,7 @@ public abstract class QuicConnection extends AbstractConnection
     {
         private final AutoLock lock = new AutoLock();
         private final ArrayDeque<Entry> queue = new ArrayDeque<>();
-        private Entry entry;
+        private final List<Entry> entries = new ArrayList<>();
 
         public void offer(Callback callback, SocketAddress address, ByteBuffer[] buffers)
         {
@@ -365,35 +637,72 @@ public abstract class QuicConnection extends AbstractConnection
         @Override
         protected Action process()
         {
+            SocketAddress address;
+            ByteBuffer[] buffers;
             try (AutoLock l = lock.lock())
             {
-                entry = queue.poll();
+                Entry entry = queue.poll();
+                if (entry == null)
+                    return Action.IDLE;
+                entries.add(entry);
+                address = entry.address;
+                int count = entry.buffers.length;
+                // Coalesce the following entries for the same peer into a single write.
+                while (true)
+                {
+                    Entry next = queue.peek();
+                    if (next == null || !address.equals(next.address) || count + next.buffers.length > getDatagramBatchSize())
+                        break;
+                    entries.add(queue.poll());
+                    count += next.buffers.length;
+                }
+                if (entries.size() == 1)
+                {
+                    buffers = entry.buffers;
+                }
+                else
+                {
+                    buffers = new ByteBuffer[count];
+                    int index = 0;
+                    for (Entry e : entries)
+                    {
+                        System.arraycopy(e.buffers, 0, buffers, index, e.buffers.length);
+                        index += e.buffers.length;
+                    }
+                }
             }
-            if (entry == null)
-                return Action.IDLE;
 
-            getEndPoint().write(this, entry.address, entry.buffers);
+            sentDatagrams.add(buffers.length);
+            sendBatches.increment();
+            getEndPoint().write(this, address, buffers);
             return Action.SCHEDULED;
         }
 
         @Override
         public void succeeded()
         {
-            entry.callback.succeeded();
+            entries.forEach(entry -> entry.callback.succeeded());
+            entries.clear();
             super.succeeded();
         }
 
         @Override
         public void failed(Throwable x)
         {
-            entry.callback.failed(x);
+            entries.forEach(entry -> entry.callback.failed(x));
+            entries.clear();
             super.failed(x);
         }
 
         @Override
         public InvocationType getInvocationType()
         {
-            return entry.callback.getInvocationType();
+            InvocationType invocationType = InvocationType.NON_BLOCKING;
+            for (Entry entry : entries)
+            {
+                invocationType = Invocable.combine(invocationType, entry.callback.getInvocationType());
+            }
+            return invocationType;
         }
 
         @Override
@@ -417,6 +726,92 @@ public abstract class QuicConnection extends AbstractConnection
         }
     }
 
+    private static class Datagram
+    {
+        private final SocketAddress remoteAddress;
+        private final ByteBuffer cipherBuffer;
+        private QuicheConnectionId connectionId;
+
+        private Datagram(SocketAddress remoteAddress, ByteBuffer cipherBuffer)
+        {
+            this.remoteAddress = remoteAddress;
+            this.cipherBuffer = cipherBuffer;
+        }
+    }
+
+    /**
+     * <p>A subset of the {@link QuicSession}s, whose datagrams are processed
+     * in order by its own {@link ExecutionStrategy}.</p>
+     */
+    private class Shard implements ExecutionStrategy.Producer
+    {
+        private final AutoLock lock = new AutoLock();
+        private final ArrayDeque<Datagram> queue = new ArrayDeque<>();
+        private final LongAdder datagrams = new LongAdder();
+        private final AdaptiveExecutionStrategy strategy = new AdaptiveExecutionStrategy(this, getExecutor());
+        private boolean released;
+
+        private boolean offer(Datagram datagram)
+        {
+            try (AutoLock l = lock.lock())
+            {
+                if (released)
+                    return false;
+                queue.offer(datagram);
+            }
+            datagrams.increment();
+            return true;
+        }
+
+        private Datagram poll()
+        {
+            try (AutoLock l = lock.lock())
+            {
+                return queue.poll();
+            }
+        }
+
+        private void release()
+        {
+            try (AutoLock l = lock.lock())
+            {
+                released = true;
+            }
+            Datagram datagram;
+            while ((datagram = poll()) != null)
+            {
+                byteBufferPool.release(datagram.cipherBuffer);
+            }
+        }
+
+        @Override
+        public Runnable produce()
+        {
+            while (true)
+            {
+                Datagram datagram = poll();
+                if (datagram == null)
+                    return null;
+                try
+                {
+                    Runnable task = process(datagram);
+                    if (task != null)
+                        return task;
+                }
+                catch (Throwable x)
+                {
+                    if (LOG.isDebugEnabled())
+                        LOG.debug("shard process failure", x);
+                    onFailure(x);
+                }
+                finally
+                {
+                    byteBufferPool.release(datagram.cipherBuffer);
+                }
+            }
+        }
+    }
+
     private class FillableCallback implements Callback
     {
         @Override
@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.Executor;
+import java.util.function.ToLongFunction;
 
 import org.eclipse.jetty.io.ByteBufferPool;
 import org.eclipse.jetty.io.Connection;
@@ -33,6 +34,7 @@ import org.eclipse.jetty.io.EndPoint;
 import org.eclipse.jetty.io.ManagedSelector;
 import org.eclipse.jetty.io.SelectorManager;
 import org.eclipse.jetty.quic.common.QuicConfiguration;
+import org.eclipse.jetty.quic.common.QuicConnection;
 import org.eclipse.jetty.quic.common.QuicSession;
 import org.eclipse.jetty.quic.common.QuicSessionContainer;
 import org.eclipse.jetty.quic.common.QuicStreamEndPoint;
@@ -42,6 +44,8 @@ import org.eclipse.jetty.server.AbstractNetworkConnector;
 import org.eclipse.jetty.server.ConnectionFactory;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.util.IO;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 import org.eclipse.jetty.util.thread.Scheduler;
 
@@ -52,8 +56,16 @@ import org.eclipse.jetty.util.thread.Scheduler;
  * managed by a {@link QuicSession} a {@link ConnectionFactory} is used to create a {@link Connection} for the
  * correspondent {@link QuicStreamEndPoint}.</p>
  *
+ * <p>Datagrams are received and sent in batches of up to {@link #getDatagramBatchSize()} datagrams,
+ * and the number of datagrams per batch is reported by {@link #getDatagramsPerReceive()} and
+ * {@link #getDatagramsPerSend()}.</p>
+ * <p>The received datagrams may be routed by their QUIC connection ID to {@link #setShards(int) shards}
+ * that are executed independently, so that the processing of many {@link QuicSession}s
+ * scales across cores; by default, the datagrams are processed by the thread that receives them.</p>
+ *
  * @see QuicConfiguration
  */
+@ManagedObject("QUIC connector using a DatagramChannel")
 public class QuicServerConnector extends AbstractNetworkConnector
 {
     private final QuicConfiguration quicConfiguration = new QuicConfiguration();
@@ -68,6 +80,8 @@ public class QuicServerConnector extends AbstractNetworkConnector
     private int outputBufferSize = 2048;
     private boolean useInputDirectByteBuffers = true;
     private boolean useOutputDirectByteBuffers = true;
+    private int datagramBatchSize = 16;
+    private int shards = -1;
 
     public QuicServerConnector(Server server, SslContextFactory.Server sslContextFactory, ConnectionFactory... factories)
     {
@@ -143,6 +157,85 @@ public class QuicServerConnector extends AbstractNetworkConnector
         this.useOutputDirectByteBuffers = useOutputDirectByteBuffers;
     }
 
+    @ManagedAttribute("The max number of datagrams received or sent in a batch")
+    public int getDatagramBatchSize()
+    {
+        return datagramBatchSize;
+    }
+
+    /**
+     * <p>Sets the max number of datagrams that are received in a batch before being processed,
+     * and that are sent to the same peer in a single write.</p>
+     *
+     * @param datagramBatchSize the max number of datagrams received or sent in a batch
+     */
+    public void setDatagramBatchSize(int datagramBatchSize)
+    {
+        this.datagramBatchSize = datagramBatchSize;
+    }
+
+    @ManagedAttribute("The number of shards that process the received datagrams")
+    public int getShards()
+    {
+        return Math.max(1, shards);
+    }
+
+    /**
+     * <p>Sets the number of shards that process the received datagrams.</p>
+     * <p>Each {@link QuicSession} is assigned to a shard by its QUIC connection ID;
+     * the datagrams of a shard are processed in order, while different shards
+     * are processed in parallel.
+     * A value of 1, the default, processes all the datagrams in the thread that receives them;
+     * a non-positive value is the same as 1.</p>
+     *
+     * @param shards the number of shards that process the received datagrams
+     */
+    public void setShards(int shards)
+    {
+        this.shards = shards;
+    }
+
+    @ManagedAttribute("The number of datagrams received")
+    public long getReceivedDatagrams()
+    {
+        return sum(QuicConnection::getReceivedDatagrams);
+    }
+
+    @ManagedAttribute("The number of datagrams sent")
+    public long getSentDatagrams()
+    {
+        return sum(QuicConnection::getSentDatagrams);
+    }
+
+    @ManagedAttribute("The number of shards that have been routed received datagrams")
+    public long getActiveShards()
+    {
+        return sum(QuicConnection::getActiveShards);
+    }
+
+    @ManagedAttribute("The average number of datagrams received per batch")
+    public double getDatagramsPerReceive()
+    {
+        long batches = sum(QuicConnection::getReceiveBatches);
+        return batches == 0 ? 0 : (double)getReceivedDatagrams() / batches;
+    }
+
+    @ManagedAttribute("The average number of datagrams sent per write")
+    public double getDatagramsPerSend()
+    {
+        long batches = sum(QuicConnection::getSendBatches);
+        return batches == 0 ? 0 : (double)getSentDatagrams() / batches;
+    }
+
+    private long sum(ToLongFunction<QuicConnection> statistic)
+    {
+        return getConnectedEndPoints().stream()
+            .map(EndPoint::getConnection)
+            .filter(QuicConnection.class::isInstance)
+            .mapToLong(connection -> statistic.applyAsLong((QuicConnection)connection))
+            .sum();
+    }
+
     @Override
     public boolean isOpen()
     {
@@ -310,6 +403,8 @@ public class QuicServerConnector extends AbstractNetworkConnector
             connection.setOutputBufferSize(getOutputBufferSize());
             connection.setUseInputDirectByteBuffers(isUseInputDirectByteBuffers());
             connection.setUseOutputDirectByteBuffers(isUseOutputDirectByteBuffers());
+            connection.setDatagramBatchSize(getDatagramBatchSize());
+            connection.setShards(getShards());
             return connection;
         }
 
@@ -0,0 +1,36 @@
+# DO NOT EDIT - See: https://www.eclipse.org/jetty/documentation/current/startup-modules.html
+
+[description]
+Configures the ByteBufferPool used by ServerConnectors whose bucket sizes follow the observed demand.
+
+[tags]
+bytebufferpool
+
+[provides]
+bytebufferpool
+
+[xml]
+etc/jetty-bytebufferpool-adaptive.xml
+
+[ini-template]
+### Server ByteBufferPool Configuration
+## Minimum capacity to pool ByteBuffers
+#jetty.byteBufferPool.minCapacity=0
+
+## Capacity factor between the buckets of ByteBuffers
+#jetty.byteBufferPool.factor=4096
+
+## Maximum capacity to pool ByteBuffers
+#jetty.byteBufferPool.maxCapacity=65536
+
+## Upper bound of the adaptive size of each bucket (-1 for unbounded)
+#jetty.byteBufferPool.maxBucketSize=-1
+
+## Maximum heap memory held idle by the pool (0 for heuristic, -1 for unlimited).
+#jetty.byteBufferPool.maxHeapMemory=0
+
+## Maximum direct memory held idle by the pool (0 for heuristic, -1 for unlimited).
+#jetty.byteBufferPool.maxDirectMemory=0
+
+## Period in ms between resizes of the buckets from the observed demand
+#jetty.byteBufferPool.resizePeriod=5000
@@ -31,6 +31,9 @@ etc/jetty-http.xml
 ## The number of selectors (-1 picks a default value based on number of cores).
 # jetty.http.selectors=-1
 
+## The number of threads dedicated to each selector (0 means selectors use the server thread pool).
+# jetty.http.selectorPartitionThreads=0
+
 ## The ServerSocketChannel accept queue backlog (0 picks the platform default).
 # jetty.http.acceptQueueSize=0
 
@@ -43,6 +46,10 @@ etc/jetty-http.xml
 ## Whether to enable the SO_REUSEPORT socket option.
 # jetty.http.reusePort=false
 
+## The number of server channels bound with SO_REUSEPORT to the same address.
+## Values greater than 1 require SO_REUSEPORT support from the operating system.
+# jetty.http.acceptChannels=1
+
 ## Whether to enable the TCP_NODELAY socket option on accepted sockets.
 # jetty.http.acceptedTcpNoDelay=true
 
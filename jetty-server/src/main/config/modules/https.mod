@@ -20,3 +20,8 @@ http-forwarded
 [xml]
 etc/jetty-https.xml
 
+
+[ini-template]
+## The number of encrypted bytes to accumulate before writing
+## them to the network, or 0 to write each TLS record on its own
+# jetty.ssl.targetWriteSize=0
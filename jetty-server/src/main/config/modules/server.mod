@@ -66,6 +66,9 @@ etc/jetty.xml
 ## Whether to use direct ByteBuffers for reading or writing
 # jetty.httpConfig.useInputDirectByteBuffers=true
 # jetty.httpConfig.useOutputDirectByteBuffers=true
+
+## Whether to handle each request in a new virtual thread (requires virtual threads support)
+# jetty.httpConfig.useVirtualThreads=false
 # end::documentation-http-config[]
 
 # tag::documentation-server-compliance[]
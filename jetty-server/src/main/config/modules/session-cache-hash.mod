@@ -25,3 +25,4 @@ etc/sessions/session-cache-hash.xml
 #jetty.session.removeUnloadableSessions=false
 #jetty.session.flushOnResponseCommit=false
 #jetty.session.invalidateOnShutdown=false
+#jetty.session.expiryWheelTick=0
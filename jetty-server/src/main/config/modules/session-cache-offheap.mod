@@ -0,0 +1,36 @@
+# DO NOT EDIT - See: https://www.eclipse.org/jetty/documentation/current/startup-modules.html
+
+[description]
+Enable a first level session cache that keeps a bounded set of
+recently used sessions on the heap, and keeps the other cached
+sessions serialized in direct memory.
+
+[tags]
+session
+
+[provides]
+session-cache
+
+[depends]
+sessions
+
+[xml]
+etc/sessions/session-cache-offheap.xml
+
+[ini-template]
+#jetty.session.evictionPolicy=-1
+#jetty.session.saveOnInactiveEvict=false
+#jetty.session.saveOnCreate=false
+#jetty.session.removeUnloadableSessions=false
+#jetty.session.flushOnResponseCommit=false
+#jetty.session.invalidateOnShutdown=false
+#jetty.session.expiryWheelTick=0
+
+## Max number of sessions kept on the heap
+#jetty.session.offHeap.maxHotSessions=10000
+
+## Size in bytes of the direct memory segments, bounds the size of a serialized session
+#jetty.session.offHeap.segmentSize=4194304
+
+## Max direct memory in bytes for the sessions off heap, or -1 for no limit
+#jetty.session.offHeap.maxMemory=-1
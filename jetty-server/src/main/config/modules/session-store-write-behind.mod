@@ -0,0 +1,23 @@
+# DO NOT EDIT - See: https://www.eclipse.org/jetty/documentation/current/startup-modules.html
+
+[description]
+Enables asynchronous, batched writes of SessionData to a SessionDataStore.
+
+[tags]
+session
+
+[depend]
+session-store
+
+[xml]
+etc/sessions/session-write-behind-store.xml
+
+[ini-template]
+## Delay in milliseconds before stored sessions are written
+#jetty.session.writeBehind.flushDelay=1000
+
+## Max number of sessions written together
+#jetty.session.writeBehind.maxBatchSize=100
+
+## Max number of queued sessions, beyond which sessions are written synchronously
+#jetty.session.writeBehind.maxPending=10000
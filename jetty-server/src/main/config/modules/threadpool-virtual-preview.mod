@@ -44,4 +44,7 @@ etc/jetty-threadpool-virtual-preview.xml
 
 ## Whether virtual threads inherits the values of inheritable thread locals.
 #jetty.threadPool.virtual.inheritInheritableThreadLocals=true
+
+## Minimum duration (in milliseconds) of a block of a pinned virtual thread to be reported.
+#jetty.threadPool.virtual.pinningThreshold=20
 # end::documentation[]
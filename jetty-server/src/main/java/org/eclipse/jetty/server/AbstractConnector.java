@@ -330,6 +330,14 @@ public abstract class AbstractConnector extends ContainerLifeCycle implements Co
             .map(ConnectionFactory.Configuring.class::cast)
             .forEach(configuring -> configuring.configure(this));
 
+        getConnectionFactories().stream()
+            .filter(HttpConfiguration.ConnectionFactory.class::isInstance)
+            .map(factory -> ((HttpConfiguration.ConnectionFactory)factory).getHttpConfiguration())
+            .filter(HttpConfiguration::isUseVirtualThreads)
+            .filter(configuration -> HttpChannel.newVirtualThreadsExecutor(configuration, getServer().getThreadPool()) == null)
+            .distinct()
+            .forEach(configuration -> LOG.warn("Virtual threads are not supported by the current Java runtime {}, handling requests in the server thread pool for {}", System.getProperty("java.version"), this));
+
         _shutdown = new Graceful.Shutdown(this)
         {
             @Override
@@ -14,19 +14,23 @@
 package org.eclipse.jetty.server;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
 import java.nio.channels.ReadableByteChannel;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.SortedSet;
-import java.util.TreeSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPOutputStream;
 
 import org.eclipse.jetty.http.CompressedContentFormat;
 import org.eclipse.jetty.http.DateGenerator;
@@ -39,19 +43,52 @@ import org.eclipse.jetty.http.PreEncodedHttpField;
 import org.eclipse.jetty.http.PrecompressedHttpContent;
 import org.eclipse.jetty.http.ResourceHttpContent;
 import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.FrequencySketch;
+import org.eclipse.jetty.util.IO;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
 import org.eclipse.jetty.util.resource.Resource;
 import org.eclipse.jetty.util.resource.ResourceFactory;
+import org.eclipse.jetty.util.thread.AutoLock;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * <p>A {@link HttpContent.ContentFactory} that caches the metadata and the content of resources.</p>
+ * <p>When the cache exceeds its limits, contents are evicted with the CLOCK algorithm:
+ * contents are kept in insertion order and each cache hit increments a small reference count
+ * of the content; the oldest content is evicted unless it has been referenced, in which case
+ * its reference count is decremented and it is moved to the end of the order.</p>
+ * <p>When the cache is full, a new content is only admitted if it has been recently requested
+ * at least as often as the content that would be evicted to make room for it (the TinyLFU
+ * admission policy), so that scans of resources requested only once do not evict frequently
+ * requested contents.</p>
+ * <p>If {@link #setCompressCachedContent(boolean) enabled}, cached contents that do not have a
+ * precompressed gzip resource are compressed on first use and the compressed bytes are kept in
+ * the cache, so that they are served as a gzip precompressed content rather than being compressed
+ * again for every response (for example by the {@code GzipHandler}).</p>
+ */
+@ManagedObject("Cache of static content")
 public class CachedContentFactory implements HttpContent.ContentFactory
 {
     private static final Logger LOG = LoggerFactory.getLogger(CachedContentFactory.class);
-    private static final Map<CompressedContentFormat, CachedPrecompressedHttpContent> NO_PRECOMPRESSED = Collections.unmodifiableMap(Collections.emptyMap());
+    private static final Map<CompressedContentFormat, PrecompressedHttpContent> NO_PRECOMPRESSED = Collections.unmodifiableMap(Collections.emptyMap());
+    private static final int MAX_REFERENCES = 3;
+    private static final int MIN_COMPRESS_SIZE = 32;
 
+    private final AutoLock _lock = new AutoLock();
     private final ConcurrentMap<String, CachedHttpContent> _cache;
     private final AtomicInteger _cachedSize;
+    private final AtomicInteger _cachedDirectSize;
     private final AtomicInteger _cachedFiles;
+    private final LongAdder _hits = new LongAdder();
+    private final LongAdder _misses = new LongAdder();
+    private final LongAdder _evictions = new LongAdder();
+    private final LongAdder _compressions = new LongAdder();
+    private final LongAdder _compressionNanos = new LongAdder();
+    private final LongAdder _compressedHits = new LongAdder();
+    private final LongAdder _compressionNanosSaved = new LongAdder();
     private final ResourceFactory _factory;
     private final CachedContentFactory _parent;
     private final MimeTypes _mimeTypes;
@@ -62,6 +99,14 @@ public class CachedContentFactory implements HttpContent.ContentFactory
     private int _maxCachedFileSize = 128 * 1024 * 1024;
     private int _maxCachedFiles = 2048;
     private int _maxCacheSize = 256 * 1024 * 1024;
+    private int _maxDirectCacheSize = -1;
+    private volatile FrequencySketch _sketch = new FrequencySketch(_maxCachedFiles);
+    private MappedContentStore _contentStore;
+    private boolean _compressCachedContent;
+    private int _maxCompressedFileSize = 1024 * 1024;
+    // The CLOCK order of the cached contents, guarded by _lock.
+    private CachedHttpContent _head;
+    private CachedHttpContent _tail;
 
     /**
      * Constructor.
@@ -78,6 +123,7 @@ public class CachedContentFactory implements HttpContent.ContentFactory
         _factory = factory;
         _cache = new ConcurrentHashMap<>();
         _cachedSize = new AtomicInteger();
+        _cachedDirectSize = new AtomicInteger();
         _cachedFiles = new AtomicInteger();
         _mimeTypes = mimeTypes;
         _parent = parent;
@@ -86,16 +132,79 @@ public class CachedContentFactory implements HttpContent.ContentFactory
         _precompressedFormats = precompressedFormats;
     }
 
+    @ManagedAttribute("The size in bytes of the cached heap and direct buffers")
     public int getCachedSize()
     {
         return _cachedSize.get();
     }
 
+    @ManagedAttribute("The size in bytes of the cached direct buffers")
+    public int getCachedDirectSize()
+    {
+        return _cachedDirectSize.get();
+    }
+
+    @ManagedAttribute("The number of cached files")
     public int getCachedFiles()
     {
         return _cachedFiles.get();
     }
 
+    @ManagedAttribute("The number of requests for content that was found in the cache")
+    public long getCacheHits()
+    {
+        return _hits.sum();
+    }
+
+    @ManagedAttribute("The number of requests for content that was not found in the cache")
+    public long getCacheMisses()
+    {
+        return _misses.sum();
+    }
+
+    @ManagedAttribute("The number of contents evicted from the cache to respect its limits")
+    public long getCacheEvictions()
+    {
+        return _evictions.sum();
+    }
+
+    @ManagedAttribute("The number of contents compressed by the cache")
+    public long getCompressions()
+    {
+        return _compressions.sum();
+    }
+
+    @ManagedAttribute("The time in milliseconds spent compressing contents")
+    public long getCompressionTime()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(_compressionNanos.sum());
+    }
+
+    @ManagedAttribute("The number of times a content compressed by the cache was served")
+    public long getCompressedHits()
+    {
+        return _compressedHits.sum();
+    }
+
+    @ManagedAttribute("The estimated time in milliseconds saved by serving contents compressed by the cache rather than compressing them again")
+    public long getCompressionTimeSaved()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(_compressionNanosSaved.sum());
+    }
+
+    @ManagedOperation(value = "Resets the cache statistics", impact = "ACTION")
+    public void resetStats()
+    {
+        _hits.reset();
+        _misses.reset();
+        _evictions.reset();
+        _compressions.reset();
+        _compressionNanos.reset();
+        _compressedHits.reset();
+        _compressionNanosSaved.reset();
+    }
+
+    @ManagedAttribute("The maximum size in bytes of a cached file")
     public int getMaxCachedFileSize()
     {
         return _maxCachedFileSize;
@@ -107,6 +216,7 @@ public class CachedContentFactory implements HttpContent.ContentFactory
         shrinkCache();
     }
 
+    @ManagedAttribute("The maximum size in bytes of the cached buffers")
     public int getMaxCacheSize()
     {
         return _maxCacheSize;
@@ -118,9 +228,102 @@ public class CachedContentFactory implements HttpContent.ContentFactory
         shrinkCache();
     }
 
+    /**
+     * @return the maximum size in bytes of the cached direct buffers, or -1 if direct buffers
+     * are accounted together with heap buffers against {@link #getMaxCacheSize()}.
+     */
+    @ManagedAttribute("The maximum size in bytes of the cached direct buffers, or -1 if shared with the heap buffers")
+    public int getMaxDirectCacheSize()
+    {
+        return _maxDirectCacheSize;
+    }
+
+    /**
+     * <p>Sets a budget for the direct (off-heap) buffers of the cache, separate from
+     * the heap budget.</p>
+     * <p>If negative (the default), the cached direct buffers are accounted together with the
+     * heap buffers against {@link #getMaxCacheSize()}; otherwise {@link #getMaxCacheSize()}
+     * only limits the size of the heap buffers.</p>
+     *
+     * @param maxDirectCacheSize the maximum size in bytes of the cached direct buffers, or -1
+     */
+    public void setMaxDirectCacheSize(int maxDirectCacheSize)
+    {
+        _maxDirectCacheSize = maxDirectCacheSize;
+        shrinkCache();
+    }
+
+    /**
+     * @return the store shared with other factories for mapped and direct buffers, or null
+     */
+    public MappedContentStore getContentStore()
+    {
+        return _contentStore;
+    }
+
+    /**
+     * <p>Sets the store of mapped and direct buffers shared with other factories,
+     * so that a resource served by several factories is held in memory only once.</p>
+     * <p>Must be set before the factory is used.</p>
+     *
+     * @param contentStore the shared store, or null to not share buffers
+     */
+    public void setContentStore(MappedContentStore contentStore)
+    {
+        _contentStore = contentStore;
+    }
+
+    /**
+     * @return whether cached contents without a precompressed gzip resource are compressed on first use
+     */
+    @ManagedAttribute("Whether cached contents without a precompressed gzip resource are compressed on first use")
+    public boolean isCompressCachedContent()
+    {
+        return _compressCachedContent;
+    }
+
+    /**
+     * <p>Sets whether cached contents that do not have a precompressed gzip resource are
+     * compressed on first use, with the compressed bytes kept in the cache and accounted
+     * against {@link #getMaxCacheSize()}.</p>
+     * <p>The compressed content is only offered if {@link CompressedContentFormat#GZIP} is
+     * one of the precompressed formats of the {@link ResourceService}, and only kept if it
+     * is smaller than the content.  It is validated like the content, by its last modified
+     * time and length.</p>
+     *
+     * @param compressCachedContent whether to compress cached contents
+     */
+    public void setCompressCachedContent(boolean compressCachedContent)
+    {
+        _compressCachedContent = compressCachedContent;
+    }
+
+    /**
+     * @return the maximum size in bytes of a cached content compressed on first use
+     */
+    @ManagedAttribute("The maximum size in bytes of a cached content compressed on first use")
+    public int getMaxCompressedFileSize()
+    {
+        return _maxCompressedFileSize;
+    }
+
+    /**
+     * <p>Sets the maximum size of a cached content that is compressed on first use.</p>
+     * <p>The content is compressed by the thread of the request that first uses it,
+     * so larger contents are not compressed to avoid delaying that request.</p>
+     *
+     * @param maxCompressedFileSize the maximum size in bytes of a content to compress
+     * @see #setCompressCachedContent(boolean)
+     */
+    public void setMaxCompressedFileSize(int maxCompressedFileSize)
+    {
+        _maxCompressedFileSize = maxCompressedFileSize;
+    }
+
     /**
      * @return the max number of cached files.
      */
+    @ManagedAttribute("The maximum number of cached files")
     public int getMaxCachedFiles()
     {
         return _maxCachedFiles;
@@ -132,6 +335,7 @@ public class CachedContentFactory implements HttpContent.ContentFactory
     public void setMaxCachedFiles(int maxCachedFiles)
     {
         _maxCachedFiles = maxCachedFiles;
+        _sketch = new FrequencySketch(maxCachedFiles);
         shrinkCache();
     }
 
@@ -168,10 +372,16 @@ public class CachedContentFactory implements HttpContent.ContentFactory
     @Override
     public HttpContent getContent(String pathInContext, int maxBufferSize) throws IOException
     {
+        _sketch.increment(pathInContext);
+
         // Is the content in this cache?
         CachedHttpContent content = _cache.get(pathInContext);
         if (content != null && (content).isValid())
+        {
+            _hits.increment();
             return content;
+        }
+        _misses.increment();
 
         // try loading the content from our factory.
         Resource resource = _factory.getResource(pathInContext);
@@ -214,7 +424,7 @@ public class CachedContentFactory implements HttpContent.ContentFactory
             return new ResourceHttpContent(resource, _mimeTypes.getMimeByExtension(resource.toString()), getMaxCachedFileSize());
 
         // Will it fit in the cache?
-        if (isCacheable(resource))
+        if (isCacheable(resource) && isAdmitted(pathInContext))
         {
             CachedHttpContent content;
 
@@ -240,6 +450,10 @@ public class CachedContentFactory implements HttpContent.ContentFactory
                                 compressedContent.invalidate();
                                 compressedContent = added;
                             }
+                            else
+                            {
+                                link(compressedContent);
+                            }
                         }
                     }
                     if (compressedContent != null)
@@ -257,6 +471,10 @@ public class CachedContentFactory implements HttpContent.ContentFactory
                 content.invalidate();
                 content = added;
             }
+            else
+            {
+                link(content);
+            }
 
             return content;
         }
@@ -288,35 +506,130 @@ public class CachedContentFactory implements HttpContent.ContentFactory
         return new ResourceHttpContent(resource, mt, maxBufferSize);
     }
 
+    /**
+     * @param pathInContext the path of a content to add to the cache
+     * @return whether the content may be added to the cache, possibly evicting another content
+     */
+    private boolean isAdmitted(String pathInContext)
+    {
+        if (!isFull())
+            return true;
+
+        String victim;
+        try (AutoLock l = _lock.lock())
+        {
+            CachedHttpContent content = nextVictim();
+            if (content == null)
+                return true;
+            victim = content.getKey();
+        }
+
+        FrequencySketch sketch = _sketch;
+        boolean admitted = sketch.frequency(pathInContext) >= sketch.frequency(victim);
+        if (LOG.isDebugEnabled())
+            LOG.debug("{} {} over {}", admitted ? "Admitted" : "Rejected", pathInContext, victim);
+        return admitted;
+    }
+
+    private boolean isFull()
+    {
+        if (_cachedFiles.get() >= _maxCachedFiles)
+            return true;
+        int size = _cachedSize.get();
+        if (_maxDirectCacheSize < 0)
+            return size >= _maxCacheSize;
+        int directSize = _cachedDirectSize.get();
+        return size - directSize >= _maxCacheSize || directSize >= _maxDirectCacheSize;
+    }
+
+    private boolean isOverBudget()
+    {
+        if (_cachedFiles.get() > _maxCachedFiles)
+            return true;
+        int size = _cachedSize.get();
+        if (_maxDirectCacheSize < 0)
+            return size > _maxCacheSize;
+        int directSize = _cachedDirectSize.get();
+        return size - directSize > _maxCacheSize || directSize > _maxDirectCacheSize;
+    }
+
     private void shrinkCache()
     {
         // While we need to shrink
-        while (_cache.size() > 0 && (_cachedFiles.get() > _maxCachedFiles || _cachedSize.get() > _maxCacheSize))
+        while (isOverBudget())
         {
-            // Scan the entire cache and generate an ordered list by last accessed time.
-            SortedSet<CachedHttpContent> sorted = new TreeSet<>((c1, c2) ->
+            CachedHttpContent content;
+            try (AutoLock l = _lock.lock())
             {
-                if (c1._lastAccessed < c2._lastAccessed)
-                    return -1;
+                content = nextVictim();
+                if (content == null)
+                    return;
+                unlink(content);
+            }
 
-                if (c1._lastAccessed > c2._lastAccessed)
-                    return 1;
+            if (_cache.remove(content.getKey(), content))
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Evicted {}", content);
+                _evictions.increment();
+                content.invalidate();
+            }
+        }
+    }
 
-                if (c1._contentLengthValue < c2._contentLengthValue)
-                    return -1;
+    /**
+     * @return the next content to evict in CLOCK order, or null if no content is cached
+     */
+    private CachedHttpContent nextVictim()
+    {
+        assert _lock.isHeldByCurrentThread();
+        while (_head != null)
+        {
+            CachedHttpContent content = _head;
+            int references = content._references;
+            if (references == 0 || _cache.get(content.getKey()) != content)
+                return content;
+
+            // Give a second chance to referenced contents.
+            content._references = references - 1;
+            unlink(content);
+            link(content);
+        }
+        return null;
+    }
 
-                return c1._key.compareTo(c2._key);
-            });
-            sorted.addAll(_cache.values());
+    private void link(CachedHttpContent content)
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            content._prev = _tail;
+            content._next = null;
+            if (_tail == null)
+                _head = content;
+            else
+                _tail._next = content;
+            _tail = content;
+        }
+    }
 
-            // Invalidate least recently used first
-            for (CachedHttpContent content : sorted)
-            {
-                if (_cachedFiles.get() <= _maxCachedFiles && _cachedSize.get() <= _maxCacheSize)
-                    break;
-                if (content == _cache.remove(content.getKey()))
-                    content.invalidate();
-            }
+    private void unlink(CachedHttpContent content)
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            // Is it linked?
+            if (content._prev == null && _head != content)
+                return;
+
+            if (content._prev == null)
+                _head = content._next;
+            else
+                content._prev._next = content._next;
+            if (content._next == null)
+                _tail = content._prev;
+            else
+                content._next._prev = content._prev;
+            content._prev = null;
+            content._next = null;
         }
     }
 
@@ -386,11 +699,20 @@ public class CachedContentFactory implements HttpContent.ContentFactory
         private final HttpField _lastModified;
         private final long _lastModifiedValue;
         private final HttpField _etag;
-        private final Map<CompressedContentFormat, CachedPrecompressedHttpContent> _precompressed;
+        private final Map<CompressedContentFormat, PrecompressedHttpContent> _precompressed;
         private final AtomicReference<ByteBuffer> _indirectBuffer = new AtomicReference<>();
         private final AtomicReference<ByteBuffer> _directBuffer = new AtomicReference<>();
         private final AtomicReference<ByteBuffer> _mappedBuffer = new AtomicReference<>();
-        private volatile long _lastAccessed;
+        private final AtomicReference<MappedContentStore.Entry> _storedDirect = new AtomicReference<>();
+        private final AtomicReference<MappedContentStore.Entry> _storedMapped = new AtomicReference<>();
+        private final AtomicBoolean _compressing = new AtomicBoolean();
+        private final AtomicReference<CompressedCachedHttpContent> _compressed = new AtomicReference<>();
+        private volatile boolean _invalidated;
+        private volatile Map<CompressedContentFormat, PrecompressedHttpContent> _variants;
+        private volatile int _references;
+        // The CLOCK order links, guarded by CachedContentFactory._lock.
+        private CachedHttpContent _prev;
+        private CachedHttpContent _next;
 
         CachedHttpContent(String pathInContext, Resource resource, Map<CompressedContentFormat, CachedHttpContent> precompressedResources)
         {
@@ -413,8 +735,6 @@ public class CachedContentFactory implements HttpContent.ContentFactory
             if (_cachedFiles.incrementAndGet() > _maxCachedFiles)
                 shrinkCache();
 
-            _lastAccessed = System.currentTimeMillis();
-
             _etag = CachedContentFactory.this._etags ? new PreEncodedHttpField(HttpHeader.ETAG, resource.getWeakETag()) : null;
 
             if (precompressedResources != null)
@@ -429,6 +749,7 @@ public class CachedContentFactory implements HttpContent.ContentFactory
             {
                 _precompressed = NO_PRECOMPRESSED;
             }
+            _variants = _precompressed;
         }
 
         public String getKey()
@@ -463,7 +784,10 @@ public class CachedContentFactory implements HttpContent.ContentFactory
         {
             if (_lastModifiedValue == _resource.lastModified() && _contentLengthValue == _resource.length())
             {
-                _lastAccessed = System.currentTimeMillis();
+                // Only write when not saturated, to avoid contention on frequently accessed contents.
+                int references = _references;
+                if (references < MAX_REFERENCES)
+                    _references = references + 1;
                 return true;
             }
 
@@ -474,16 +798,35 @@ public class CachedContentFactory implements HttpContent.ContentFactory
 
         protected void invalidate()
         {
+            // Must be set before the compressed content is cleared, see compress().
+            _invalidated = true;
+
             ByteBuffer indirect = _indirectBuffer.getAndSet(null);
             if (indirect != null)
                 _cachedSize.addAndGet(-BufferUtil.length(indirect));
 
             ByteBuffer direct = _directBuffer.getAndSet(null);
             if (direct != null)
-                _cachedSize.addAndGet(-BufferUtil.length(direct));
+            {
+                int length = BufferUtil.length(direct);
+                _cachedSize.addAndGet(-length);
+                _cachedDirectSize.addAndGet(-length);
+            }
 
             _mappedBuffer.getAndSet(null);
 
+            CompressedCachedHttpContent compressed = _compressed.getAndSet(null);
+            if (compressed != null)
+            {
+                _cachedSize.addAndGet(-BufferUtil.length(compressed._buffer));
+                compressed.invalidate();
+            }
+
+            release(_storedDirect);
+            release(_storedMapped);
+
+            unlink(this);
+
             _cachedFiles.decrementAndGet();
             _resource.close();
         }
@@ -563,7 +906,8 @@ public class CachedContentFactory implements HttpContent.ContentFactory
                 if (_indirectBuffer.compareAndSet(null, buffer2))
                 {
                     buffer = buffer2;
-                    if (_cachedSize.addAndGet(BufferUtil.length(buffer)) > _maxCacheSize)
+                    _cachedSize.addAndGet(BufferUtil.length(buffer));
+                    if (isOverBudget())
                         shrinkCache();
                 }
                 else
@@ -582,7 +926,7 @@ public class CachedContentFactory implements HttpContent.ContentFactory
                 buffer = _directBuffer.get();
             if (buffer == null)
             {
-                ByteBuffer mapped = CachedContentFactory.this.getMappedBuffer(_resource);
+                ByteBuffer mapped = _useFileMappedBuffer ? loadBuffer(true) : CachedContentFactory.this.getMappedBuffer(_resource);
                 if (mapped != null)
                 {
                     if (_mappedBuffer.compareAndSet(null, mapped))
@@ -593,13 +937,16 @@ public class CachedContentFactory implements HttpContent.ContentFactory
                 // Since MappedBuffers don't use heap, we don't care about the resource.length
                 else if (_resource.length() < _maxCachedFileSize)
                 {
-                    ByteBuffer direct = CachedContentFactory.this.getDirectBuffer(_resource);
+                    ByteBuffer direct = loadBuffer(false);
                     if (direct != null)
                     {
                         if (_directBuffer.compareAndSet(null, direct))
                         {
                             buffer = direct;
-                            if (_cachedSize.addAndGet(BufferUtil.length(buffer)) > _maxCacheSize)
+                            int length = BufferUtil.length(buffer);
+                            _cachedDirectSize.addAndGet(length);
+                            _cachedSize.addAndGet(length);
+                            if (isOverBudget())
                                 shrinkCache();
                         }
                         else
@@ -617,6 +964,28 @@ public class CachedContentFactory implements HttpContent.ContentFactory
             return buffer == null ? null : buffer.asReadOnlyBuffer();
         }
 
+        private ByteBuffer loadBuffer(boolean mapped)
+        {
+            MappedContentStore store = _contentStore;
+            if (store == null)
+                return mapped ? CachedContentFactory.this.getMappedBuffer(_resource) : CachedContentFactory.this.getDirectBuffer(_resource);
+
+            MappedContentStore.Entry entry = store.acquire(_resource, mapped, mapped ? CachedContentFactory.this::getMappedBuffer : CachedContentFactory.this::getDirectBuffer);
+            if (entry == null)
+                return null;
+            // If loaded concurrently, keep a single reference to the store.
+            if (!(mapped ? _storedMapped : _storedDirect).compareAndSet(null, entry))
+                entry.release();
+            return entry.getBuffer();
+        }
+
+        private void release(AtomicReference<MappedContentStore.Entry> stored)
+        {
+            MappedContentStore.Entry entry = stored.getAndSet(null);
+            if (entry != null)
+                entry.release();
+        }
+
         @Override
         public HttpField getContentLength()
         {
@@ -654,20 +1023,92 @@ public class CachedContentFactory implements HttpContent.ContentFactory
         @Override
         public Map<CompressedContentFormat, ? extends HttpContent> getPrecompressedContents()
         {
-            if (_precompressed.size() == 0)
+            if (_compressCachedContent && !_precompressed.containsKey(CompressedContentFormat.GZIP))
+                compress();
+
+            Map<CompressedContentFormat, PrecompressedHttpContent> variants = _variants;
+            if (variants.size() == 0)
                 return null;
-            Map<CompressedContentFormat, CachedPrecompressedHttpContent> ret = _precompressed;
-            for (Map.Entry<CompressedContentFormat, CachedPrecompressedHttpContent> entry : _precompressed.entrySet())
+            Map<CompressedContentFormat, PrecompressedHttpContent> ret = variants;
+            for (Map.Entry<CompressedContentFormat, PrecompressedHttpContent> entry : variants.entrySet())
             {
-                if (!entry.getValue().isValid())
+                PrecompressedHttpContent content = entry.getValue();
+                if (content instanceof CachedPrecompressedHttpContent && !((CachedPrecompressedHttpContent)content).isValid())
                 {
-                    if (ret == _precompressed)
-                        ret = new HashMap<>(_precompressed);
+                    if (ret == variants)
+                        ret = new HashMap<>(variants);
                     ret.remove(entry.getKey());
                 }
             }
             return ret;
         }
+
+        private void compress()
+        {
+            long length = _contentLengthValue;
+            if (length < MIN_COMPRESS_SIZE || length > Math.min(_maxCachedFileSize, _maxCompressedFileSize) || _invalidated)
+                return;
+
+            // Only the first caller compresses, concurrent callers are served without the compressed variant.
+            if (!_compressing.compareAndSet(false, true))
+                return;
+
+            // Whether compress() must not be attempted again.
+            boolean done = false;
+            try
+            {
+                long begin = System.nanoTime();
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream((int)length / 2);
+                try (InputStream in = _resource.getInputStream();
+                     GZIPOutputStream out = new GZIPOutputStream(bytes))
+                {
+                    IO.copy(in, out);
+                }
+                long nanos = System.nanoTime() - begin;
+                _compressions.increment();
+                _compressionNanos.add(nanos);
+
+                if (bytes.size() >= length)
+                {
+                    if (LOG.isDebugEnabled())
+                        LOG.debug("Not compressible {}", this);
+                    done = true;
+                    return;
+                }
+
+                CompressedCachedHttpContent compressed = new CompressedCachedHttpContent(this, ByteBuffer.wrap(bytes.toByteArray()), nanos);
+                _cachedSize.addAndGet(bytes.size());
+                _compressed.set(compressed);
+                // If invalidate() ran concurrently and did not see the compressed
+                // content, it is not published and its size is not accounted.
+                done = true;
+                if (_invalidated && _compressed.compareAndSet(compressed, null))
+                {
+                    _cachedSize.addAndGet(-bytes.size());
+                    return;
+                }
+
+                Map<CompressedContentFormat, PrecompressedHttpContent> variants = new HashMap<>(_precompressed);
+                variants.put(CompressedContentFormat.GZIP, compressed);
+                _variants = variants;
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Compressed {}", compressed);
+
+                if (isOverBudget())
+                    shrinkCache();
+            }
+            catch (IOException x)
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Unable to compress {}", this, x);
+            }
+            finally
+            {
+                // A failed compression is attempted again by a later request.
+                if (!done)
+                    _compressing.set(false);
+            }
+        }
     }
 
     public class CachedPrecompressedHttpContent extends PrecompressedHttpContent
@@ -712,4 +1153,139 @@ public class CachedContentFactory implements HttpContent.ContentFactory
             return "Cached" + super.toString();
         }
     }
+
+    /**
+     * <p>The gzip compressed variant of a {@link CachedHttpContent} without a precompressed
+     * resource, compressed on first use and held in memory.</p>
+     * <p>The compressed bytes are held in a heap buffer, and copied to a direct buffer
+     * the first time {@link #getDirectBuffer()} is called.</p>
+     */
+    public class CompressedCachedHttpContent extends PrecompressedHttpContent
+    {
+        private final CachedHttpContent _content;
+        private final ByteBuffer _buffer;
+        private final AtomicReference<ByteBuffer> _directBuffer = new AtomicReference<>();
+        private final HttpField _contentLength;
+        private final HttpField _etag;
+        private final long _compressionNanos;
+
+        CompressedCachedHttpContent(CachedHttpContent content, ByteBuffer buffer, long compressionNanos)
+        {
+            // The compressed bytes are held by this content rather than by a precompressed content.
+            super(content, content, CompressedContentFormat.GZIP);
+            _content = content;
+            _buffer = buffer;
+            _contentLength = new PreEncodedHttpField(HttpHeader.CONTENT_LENGTH, Long.toString(buffer.remaining()));
+            _etag = (CachedContentFactory.this._etags) ? new PreEncodedHttpField(HttpHeader.ETAG, _content.getResource().getWeakETag(CompressedContentFormat.GZIP.getEtagSuffix())) : null;
+            _compressionNanos = compressionNanos;
+        }
+
+        @Override
+        public HttpField getETag()
+        {
+            if (_etag != null)
+                return _etag;
+            return super.getETag();
+        }
+
+        @Override
+        public String getETagValue()
+        {
+            if (_etag != null)
+                return _etag.getValue();
+            return super.getETagValue();
+        }
+
+        @Override
+        public HttpField getContentLength()
+        {
+            return _contentLength;
+        }
+
+        @Override
+        public long getContentLengthValue()
+        {
+            return _buffer.remaining();
+        }
+
+        @Override
+        public ByteBuffer getIndirectBuffer()
+        {
+            served();
+            return _buffer.asReadOnlyBuffer();
+        }
+
+        @Override
+        public ByteBuffer getDirectBuffer()
+        {
+            ByteBuffer buffer = _directBuffer.get();
+            if (buffer == null)
+            {
+                ByteBuffer direct = BufferUtil.allocateDirect(_buffer.remaining());
+                BufferUtil.append(direct, _buffer.slice());
+                if (_directBuffer.compareAndSet(null, direct))
+                {
+                    buffer = direct;
+                    int length = BufferUtil.length(buffer);
+                    _cachedDirectSize.addAndGet(length);
+                    _cachedSize.addAndGet(length);
+                    // If invalidate() ran concurrently and did not see
+                    // the direct buffer, its size is not accounted.
+                    if (_content._compressed.get() != this && _directBuffer.compareAndSet(direct, null))
+                    {
+                        _cachedDirectSize.addAndGet(-length);
+                        _cachedSize.addAndGet(-length);
+                    }
+                    else if (isOverBudget())
+                    {
+                        shrinkCache();
+                    }
+                }
+                else
+                {
+                    buffer = _directBuffer.get();
+                    if (buffer == null)
+                        buffer = direct;
+                }
+            }
+            served();
+            return buffer.asReadOnlyBuffer();
+        }
+
+        private void invalidate()
+        {
+            ByteBuffer direct = _directBuffer.getAndSet(null);
+            if (direct != null)
+            {
+                int length = BufferUtil.length(direct);
+                _cachedDirectSize.addAndGet(-length);
+                _cachedSize.addAndGet(-length);
+            }
+        }
+
+        @Override
+        public InputStream getInputStream()
+        {
+            served();
+            return new ByteArrayInputStream(_buffer.array(), _buffer.arrayOffset() + _buffer.position(), _buffer.remaining());
+        }
+
+        @Override
+        public ReadableByteChannel getReadableByteChannel()
+        {
+            return Channels.newChannel(getInputStream());
+        }
+
+        private void served()
+        {
+            _compressedHits.increment();
+            _compressionNanosSaved.add(_compressionNanos);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x{r=%s,l=%d|%d}", getClass().getSimpleName(), hashCode(), _content.getResource(), _content.getContentLengthValue(), getContentLengthValue());
+        }
+    }
 }
@@ -17,11 +17,13 @@ import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.EventListener;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
@@ -54,6 +56,7 @@ import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.HostPort;
 import org.eclipse.jetty.util.SharedBlockingCallback.Blocker;
 import org.eclipse.jetty.util.StringUtil;
+import org.eclipse.jetty.util.VirtualThreads;
 import org.eclipse.jetty.util.thread.Scheduler;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -77,6 +80,7 @@ public abstract class HttpChannel implements Runnable, HttpOutput.Interceptor
     private final AtomicLong _requests = new AtomicLong();
     private final Connector _connector;
     private final Executor _executor;
+    private final Executor _virtualThreadsExecutor;
     private final HttpConfiguration _configuration;
     private final EndPoint _endPoint;
     private final HttpTransport _transport;
@@ -106,6 +110,7 @@ public abstract class HttpChannel implements Runnable, HttpOutput.Interceptor
         _request = new Request(this, newHttpInput(_state));
         _response = new Response(this, newHttpOutput());
         _executor = connector.getServer().getThreadPool();
+        _virtualThreadsExecutor = newVirtualThreadsExecutor(_configuration, _executor);
         _requestLog = connector.getServer().getRequestLog();
         _combinedListener = (connector instanceof AbstractConnector)
             ? ((AbstractConnector)connector).getHttpChannelListeners()
@@ -119,6 +124,18 @@ public abstract class HttpChannel implements Runnable, HttpOutput.Interceptor
                 _state);
     }
 
+    static Executor newVirtualThreadsExecutor(HttpConfiguration configuration, Executor threadPool)
+    {
+        if (!configuration.isUseVirtualThreads())
+            return null;
+        Executor executor = configuration.getVirtualThreadsExecutor();
+        if (executor == null)
+            executor = VirtualThreads.getVirtualThreadsExecutor(threadPool);
+        if (executor == null)
+            executor = VirtualThreads.getDefaultVirtualThreadsExecutor();
+        return executor;
+    }
+
     public boolean isSendError()
     {
         return _state.isSendError();
@@ -457,6 +474,49 @@ public abstract class HttpChannel implements Runnable, HttpOutput.Interceptor
         handle();
     }
 
+    /**
+     * <p>Dispatches the handling of this channel to a new virtual thread,
+     * if {@link HttpConfiguration#isUseVirtualThreads() so configured}.</p>
+     * <p>Transports call this method, rather than {@link #handle()}, from
+     * the I/O thread that parsed the request.</p>
+     *
+     * @return true if the handling has been dispatched, and the caller must not
+     * call {@link #handle()}; false if the caller must call {@link #handle()}
+     */
+    public boolean dispatchToVirtualThread()
+    {
+        Executor executor = _virtualThreadsExecutor;
+        if (executor == null)
+            return false;
+        // Already in a virtual thread, for example one started by the thread pool.
+        if (VirtualThreads.areSupported() && VirtualThreads.isVirtualThread())
+            return false;
+        try
+        {
+            executor.execute(this);
+            return true;
+        }
+        catch (RejectedExecutionException x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Could not dispatch to virtual thread {}", this, x);
+            return false;
+        }
+    }
+
+    /**
+     * <p>Returns the task that starts the handling of a newly received request.</p>
+     * <p>Transports that produce tasks, rather than calling {@link #handle()},
+     * call this method when the request handler must be invoked.</p>
+     *
+     * @return null if the handling has been {@link #dispatchToVirtualThread() dispatched
+     * to a virtual thread}, otherwise this channel, to be run to handle the request
+     */
+    public Runnable newRequestHandlingTask()
+    {
+        return dispatchToVirtualThread() ? null : this;
+    }
+
     /**
      * @return True if the channel is ready to continue handling (ie it is not suspended)
      */
@@ -1132,6 +1192,55 @@ public abstract class HttpChannel implements Runnable, HttpOutput.Interceptor
         sendResponse(null, content, complete, callback);
     }
 
+    /**
+     * @return true if file content can be written to the network by {@link #transferFile(FileChannel, long, long, Callback)}
+     * @see HttpTransport#isFileTransferSupported()
+     */
+    public boolean isFileTransferSupported()
+    {
+        return _transport.isFileTransferSupported();
+    }
+
+    /**
+     * <p>Non-Blocking write of a region of a file, directly from the file to the network.</p>
+     * <p>The response must have been committed with a known content length,
+     * and must be completed by a subsequent call to {@link #write(ByteBuffer, boolean, Callback)}.</p>
+     *
+     * @param file the file to write the content from
+     * @param position the position in the file of the first byte to write
+     * @param length the number of bytes to write
+     * @param callback Callback when complete or failed
+     * @see #isFileTransferSupported()
+     */
+    public void transferFile(FileChannel file, long position, long length, Callback callback)
+    {
+        if (LOG.isDebugEnabled())
+            LOG.debug("transferFile file={} position={} length={} callback={}", file, position, length, callback);
+
+        if (!isCommitted())
+        {
+            callback.failed(new IllegalStateException("not committed"));
+            return;
+        }
+
+        _transport.transferFile(file, position, length, new Callback.Nested(callback)
+        {
+            @Override
+            public void succeeded()
+            {
+                _written += length;
+                super.succeeded();
+            }
+
+            @Override
+            public void failed(Throwable x)
+            {
+                abort(x);
+                super.failed(x);
+            }
+        });
+    }
+
     @Override
     public void resetBuffer()
     {
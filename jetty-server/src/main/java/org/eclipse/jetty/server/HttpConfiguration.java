@@ -18,15 +18,19 @@ import java.net.SocketAddress;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 import org.eclipse.jetty.http.CookieCompliance;
 import org.eclipse.jetty.http.HttpCompliance;
+import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpMethod;
+import org.eclipse.jetty.http.HttpParser;
 import org.eclipse.jetty.http.HttpScheme;
 import org.eclipse.jetty.http.UriCompliance;
 import org.eclipse.jetty.util.HostPort;
 import org.eclipse.jetty.util.Index;
 import org.eclipse.jetty.util.Jetty;
+import org.eclipse.jetty.util.VirtualThreads;
 import org.eclipse.jetty.util.annotation.ManagedAttribute;
 import org.eclipse.jetty.util.annotation.ManagedObject;
 import org.eclipse.jetty.util.component.Dumpable;
@@ -58,6 +62,7 @@ public class HttpConfiguration implements Dumpable
     private int _responseHeaderSize = 8 * 1024;
     private int _headerCacheSize = 1024;
     private boolean _headerCacheCaseSensitive = false;
+    private Index<HttpField> _sharedHeaderCache;
     private int _securePort;
     private long _idleTimeout = -1;
     private String _secureScheme = HttpScheme.HTTPS.asString();
@@ -69,6 +74,8 @@ public class HttpConfiguration implements Dumpable
     private int _maxErrorDispatches = 10;
     private boolean _useInputDirectByteBuffers = true;
     private boolean _useOutputDirectByteBuffers = true;
+    private boolean _useVirtualThreads;
+    private Executor _virtualThreadsExecutor;
     private long _minRequestDataRate;
     private long _minResponseDataRate;
     private HttpCompliance _httpCompliance = HttpCompliance.RFC7230;
@@ -131,6 +138,7 @@ public class HttpConfiguration implements Dumpable
         _responseHeaderSize = config._responseHeaderSize;
         _headerCacheSize = config._headerCacheSize;
         _headerCacheCaseSensitive = config._headerCacheCaseSensitive;
+        _sharedHeaderCache = config._sharedHeaderCache;
         _secureScheme = config._secureScheme;
         _securePort = config._securePort;
         _idleTimeout = config._idleTimeout;
@@ -142,6 +150,8 @@ public class HttpConfiguration implements Dumpable
         _maxErrorDispatches = config._maxErrorDispatches;
         _useInputDirectByteBuffers = config._useInputDirectByteBuffers;
         _useOutputDirectByteBuffers = config._useOutputDirectByteBuffers;
+        _useVirtualThreads = config._useVirtualThreads;
+        _virtualThreadsExecutor = config._virtualThreadsExecutor;
         _minRequestDataRate = config._minRequestDataRate;
         _minResponseDataRate = config._minResponseDataRate;
         _httpCompliance = config._httpCompliance;
@@ -365,6 +375,49 @@ public class HttpConfiguration implements Dumpable
         return _useOutputDirectByteBuffers;
     }
 
+    /**
+     * <p>Sets whether the handling of each request is dispatched to a new virtual thread.</p>
+     * <p>In this mode the I/O threads keep reading and parsing requests without blocking,
+     * while the application is invoked in a virtual thread, where blocking reads of the request
+     * content and blocking writes of the response content park the virtual thread, rather than
+     * holding a platform thread of the server thread pool.</p>
+     * <p>Virtual threads are obtained from the {@link #setVirtualThreadsExecutor(Executor) configured executor},
+     * or else from the virtual threads executor of the server thread pool, or else from
+     * {@link VirtualThreads#getDefaultVirtualThreadsExecutor() the default virtual threads executor}.
+     * If none is available, a warning is logged when the connector starts and requests are
+     * handled by the server thread pool.</p>
+     *
+     * @param useVirtualThreads whether to handle each request in a new virtual thread
+     */
+    public void setUseVirtualThreads(boolean useVirtualThreads)
+    {
+        _useVirtualThreads = useVirtualThreads;
+    }
+
+    @ManagedAttribute("Whether to handle each request in a new virtual thread")
+    public boolean isUseVirtualThreads()
+    {
+        return _useVirtualThreads;
+    }
+
+    /**
+     * @param executor the {@code Executor} that starts a new virtual thread for each task,
+     * used when {@link #setUseVirtualThreads(boolean) virtual threads are used}, or null
+     * to use the virtual threads executor of the server thread pool or the default one
+     */
+    public void setVirtualThreadsExecutor(Executor executor)
+    {
+        _virtualThreadsExecutor = executor;
+    }
+
+    /**
+     * @return the configured {@code Executor} that starts a new virtual thread for each task, or null
+     */
+    public Executor getVirtualThreadsExecutor()
+    {
+        return _virtualThreadsExecutor;
+    }
+
     /**
      * <p>Sets the {@link Customizer}s that are invoked for every
      * request received.</p>
@@ -445,6 +498,31 @@ public class HttpConfiguration implements Dumpable
         this._headerCacheCaseSensitive = headerCacheCaseSensitive;
     }
 
+    /**
+     * @return the header field cache shared by all the connections, or null
+     * @see #setSharedHeaderCache(Index)
+     */
+    public Index<HttpField> getSharedHeaderCache()
+    {
+        return _sharedHeaderCache;
+    }
+
+    /**
+     * <p>Sets a cache of header fields shared by all the connections, typically
+     * with the header values that are common to many clients, for example
+     * the {@code User-Agent} of well known clients.</p>
+     * <p>The cache is looked up after the per connection header field cache,
+     * and must be an immutable {@link Index} keyed by the {@link HttpField#toString()}
+     * of its fields, for example built with {@link Index.Builder#with(Object)}.</p>
+     *
+     * @param sharedHeaderCache the header field cache shared by all the connections, or null
+     * @see HttpParser#setSharedFieldCache(Index)
+     */
+    public void setSharedHeaderCache(Index<HttpField> sharedHeaderCache)
+    {
+        _sharedHeaderCache = sharedHeaderCache;
+    }
+
     /**
      * <p>Sets the TCP/IP port used for CONFIDENTIAL and INTEGRAL redirections.</p>
      *
@@ -769,7 +847,8 @@ public class HttpConfiguration implements Dumpable
             "requestCookieCompliance=" + _requestCookieCompliance,
             "responseCookieCompliance=" + _responseCookieCompliance,
             "notifyRemoteAsyncErrors=" + _notifyRemoteAsyncErrors,
-            "relativeRedirectAllowed=" + _relativeRedirectAllowed
+            "relativeRedirectAllowed=" + _relativeRedirectAllowed,
+            "useVirtualThreads=" + _useVirtualThreads
         );
     }
 
@@ -15,6 +15,7 @@ package org.eclipse.jetty.server;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.WritePendingException;
 import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.atomic.LongAdder;
@@ -36,6 +37,7 @@ import org.eclipse.jetty.io.EndPoint;
 import org.eclipse.jetty.io.EofException;
 import org.eclipse.jetty.io.RetainableByteBuffer;
 import org.eclipse.jetty.io.RetainableByteBufferPool;
+import org.eclipse.jetty.io.SocketChannelEndPoint;
 import org.eclipse.jetty.io.WriteFlusher;
 import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.Callback;
@@ -132,6 +134,7 @@ public class HttpConnection extends AbstractConnection implements Runnable, Http
         HttpParser parser = new HttpParser(newRequestHandler(), getHttpConfiguration().getRequestHeaderSize(), compliance);
         parser.setHeaderCacheSize(getHttpConfiguration().getHeaderCacheSize());
         parser.setHeaderCacheCaseSensitive(getHttpConfiguration().isHeaderCacheCaseSensitive());
+        parser.setSharedFieldCache(getHttpConfiguration().getSharedHeaderCache());
         return parser;
     }
 
@@ -279,6 +282,11 @@ public class HttpConnection extends AbstractConnection implements Runnable, Http
                 // Handle channel event
                 if (handle)
                 {
+                    // The virtual thread completes the request and
+                    // resumes the processing of this connection.
+                    if (_channel.dispatchToVirtualThread())
+                        break;
+
                     boolean suspended = !_channel.handle();
 
                     // We should break iteration if we have suspended or upgraded the connection.
@@ -585,6 +593,47 @@ public class HttpConnection extends AbstractConnection implements Runnable, Http
         }
     }
 
+    @Override
+    public boolean isFileTransferSupported()
+    {
+        // Only cleartext connections may transfer files directly to the socket;
+        // for example, the EndPoint of a TLS connection is not a SocketChannelEndPoint.
+        EndPoint endPoint = getEndPoint();
+        return endPoint instanceof SocketChannelEndPoint && ((SocketChannelEndPoint)endPoint).isFileTransferSupported();
+    }
+
+    @Override
+    public void transferFile(FileChannel file, long position, long length, Callback callback)
+    {
+        if (!isFileTransferSupported())
+        {
+            callback.failed(new UnsupportedOperationException());
+            return;
+        }
+        if (!_generator.isCommitted() || _generator.isChunking())
+        {
+            callback.failed(new IllegalStateException(_generator.toString()));
+            return;
+        }
+
+        // Don't write the content if this is a HEAD response, or any other type of response that should have no content.
+        if (length == 0 || _generator.isNoContent() || HttpMethod.HEAD.is(_channel.getRequest().getMethod()))
+        {
+            callback.succeeded();
+            return;
+        }
+
+        try
+        {
+            bytesOut.add(length);
+            ((SocketChannelEndPoint)getEndPoint()).transferFile(callback, file, position, length);
+        }
+        catch (Throwable x)
+        {
+            callback.failed(x);
+        }
+    }
+
     HttpInput.Content newContent(ByteBuffer c)
     {
         return new Content(c);
@@ -14,10 +14,15 @@
 package org.eclipse.jetty.server;
 
 import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
 
+import org.eclipse.jetty.http.HttpParser;
 import org.eclipse.jetty.http.HttpVersion;
 import org.eclipse.jetty.io.Connection;
 import org.eclipse.jetty.io.EndPoint;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
 import org.eclipse.jetty.util.annotation.Name;
 
 /**
@@ -25,9 +30,14 @@ import org.eclipse.jetty.util.annotation.Name;
  * <p>Accepts connections either directly or via SSL and/or ALPN chained connection factories.  The accepted
  * {@link HttpConnection}s are configured by a {@link HttpConfiguration} instance that is either created by
  * default or passed in to the constructor.
+ * <p>The {@link HttpParser}s of the connections share the counters of the
+ * header field cache statistics exposed by this factory.</p>
  */
+@ManagedObject("HTTP/1.1 connection factory")
 public class HttpConnectionFactory extends AbstractConnectionFactory implements HttpConfiguration.ConnectionFactory
 {
+    private final LongAdder _headerCacheHits = new LongAdder();
+    private final LongAdder _headerCacheMisses = new LongAdder();
     private final HttpConfiguration _config;
     private boolean _recordHttpComplianceViolations;
     private boolean _useInputDirectByteBuffers;
@@ -83,12 +93,49 @@ public class HttpConnectionFactory extends AbstractConnectionFactory implements
         _useOutputDirectByteBuffers = useOutputDirectByteBuffers;
     }
 
+    /**
+     * @return the number of request header lines resolved to a cached field by the connections
+     */
+    @ManagedAttribute("The number of request header lines resolved to a cached field")
+    public long getHeaderCacheHits()
+    {
+        return _headerCacheHits.sum();
+    }
+
+    /**
+     * @return the number of request header lines not resolved to a cached field by the connections
+     */
+    @ManagedAttribute("The number of request header lines not resolved to a cached field")
+    public long getHeaderCacheMisses()
+    {
+        return _headerCacheMisses.sum();
+    }
+
+    /**
+     * @return the ratio of request header lines resolved to a cached field, between 0 and 1
+     */
+    @ManagedAttribute("The ratio of request header lines resolved to a cached field")
+    public double getHeaderCacheHitRatio()
+    {
+        long hits = getHeaderCacheHits();
+        long total = hits + getHeaderCacheMisses();
+        return total == 0 ? 0D : (double)hits / total;
+    }
+
+    @ManagedOperation(value = "Resets the header cache statistics", impact = "ACTION")
+    public void resetHeaderCacheStatistics()
+    {
+        _headerCacheHits.reset();
+        _headerCacheMisses.reset();
+    }
+
     @Override
     public Connection newConnection(Connector connector, EndPoint endPoint)
     {
         HttpConnection connection = new HttpConnection(_config, connector, endPoint, isRecordHttpComplianceViolations());
         connection.setUseInputDirectByteBuffers(isUseInputDirectByteBuffers());
         connection.setUseOutputDirectByteBuffers(isUseOutputDirectByteBuffers());
+        connection.getParser().setHeaderCacheStatistics(_headerCacheHits, _headerCacheMisses);
         return configure(connection, connector, endPoint);
     }
 }
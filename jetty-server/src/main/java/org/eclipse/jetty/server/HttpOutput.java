@@ -17,6 +17,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.ByteBuffer;
 import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.WritePendingException;
 import java.nio.charset.Charset;
@@ -1172,6 +1173,24 @@ public class HttpOutput extends ServletOutputStream implements Runnable
         }
     }
 
+    /**
+     * Blocking send of file content.
+     *
+     * @param file The file to send the content from
+     * @param position The position in the file of the first byte to send
+     * @param length The number of bytes to send
+     * @throws IOException if the send fails
+     * @see #sendContent(FileChannel, long, long, Callback)
+     */
+    public void sendContent(FileChannel file, long position, long length) throws IOException
+    {
+        try (Blocker blocker = _writeBlocker.acquire())
+        {
+            sendContent(file, position, length, blocker);
+            blocker.block();
+        }
+    }
+
     /**
      * Blocking send of HTTP content.
      *
@@ -1250,6 +1269,49 @@ public class HttpOutput extends ServletOutputStream implements Runnable
             new ReadableByteChannelWritingCB(in, callback).iterate();
     }
 
+    /**
+     * <p>Asynchronous send of file content.</p>
+     * <p>If no {@link Interceptor} is set, the response content length is known and the
+     * transport supports it (see {@link HttpChannel#isFileTransferSupported()}), then the
+     * response is committed and the file content is transferred directly from the file to
+     * the network, without being copied through buffers.
+     * Otherwise, the content is read and written as for {@link #sendContent(ReadableByteChannel, Callback)}.</p>
+     * <p>The file will be closed after sending all content.</p>
+     *
+     * @param file The file to send the content from
+     * @param position The position in the file of the first byte to send
+     * @param length The number of bytes to send
+     * @param callback The callback to use to notify success or failure
+     */
+    public void sendContent(FileChannel file, long position, long length, Callback callback)
+    {
+        if (LOG.isDebugEnabled())
+            LOG.debug("sendContent(file={},{},{},{})", file, position, length, callback);
+
+        try
+        {
+            file.position(position);
+        }
+        catch (Throwable x)
+        {
+            IO.close(file);
+            _channel.abort(x);
+            callback.failed(x);
+            return;
+        }
+
+        if (!prepareSendContent(0, callback))
+        {
+            IO.close(file);
+            return;
+        }
+
+        if (_interceptor == _channel && _channel.isFileTransferSupported() && _channel.getResponse().getLongContentLength() == length)
+            new FileTransferCB(file, position, length, callback).iterate();
+        else
+            new ReadableByteChannelWritingCB(file, length, callback).iterate();
+    }
+
     private boolean prepareSendContent(int len, Callback callback)
     {
         try (AutoLock l = _channelState.lock())
@@ -1816,13 +1878,20 @@ public class HttpOutput extends ServletOutputStream implements Runnable
     {
         private final ReadableByteChannel _in;
         private final ByteBuffer _buffer;
+        private long _remaining;
         private boolean _eof;
         private boolean _closed;
 
         private ReadableByteChannelWritingCB(ReadableByteChannel in, Callback callback)
+        {
+            this(in, -1, callback);
+        }
+
+        private ReadableByteChannelWritingCB(ReadableByteChannel in, long length, Callback callback)
         {
             super(callback, true);
             _in = in;
+            _remaining = length;
             _buffer = _channel.getByteBufferPool().acquire(getBufferSize(), _channel.isUseOutputDirectByteBuffers());
         }
 
@@ -1844,8 +1913,10 @@ public class HttpOutput extends ServletOutputStream implements Runnable
                 return Action.SUCCEEDED;
             }
 
-            // Read from stream until buffer full or EOF
+            // Read from stream until buffer full, EOF or length read
             BufferUtil.clearToFill(_buffer);
+            if (_remaining >= 0 && _remaining < _buffer.remaining())
+                _buffer.limit((int)_remaining);
             while (_buffer.hasRemaining() && !_eof)
             {
                 _eof = (_in.read(_buffer)) < 0;
@@ -1853,6 +1924,12 @@ public class HttpOutput extends ServletOutputStream implements Runnable
 
             // write what we have
             BufferUtil.flipToFlush(_buffer, 0);
+            if (_remaining >= 0)
+            {
+                _remaining -= _buffer.remaining();
+                if (_remaining == 0)
+                    _eof = true;
+            }
             _written += _buffer.remaining();
             channelWrite(_buffer, _eof, this);
 
@@ -1868,6 +1945,69 @@ public class HttpOutput extends ServletOutputStream implements Runnable
         }
     }
 
+    /**
+     * An iterating callback that commits the response and then transfers a
+     * region of a file directly to the network with
+     * {@link HttpChannel#transferFile(FileChannel, long, long, Callback)},
+     * before completing the response.
+     */
+    private class FileTransferCB extends NestedChannelWriteCB
+    {
+        private final FileChannel _file;
+        private final long _position;
+        private final long _length;
+        private boolean _committed;
+        private boolean _transferred;
+        private boolean _completed;
+
+        private FileTransferCB(FileChannel file, long position, long length, Callback callback)
+        {
+            super(callback, true);
+            _file = file;
+            _position = position;
+            _length = length;
+        }
+
+        @Override
+        protected Action process() throws Exception
+        {
+            if (!_committed)
+            {
+                // Commit the response, so that the headers are written before the file content.
+                _committed = true;
+                channelWrite(BufferUtil.EMPTY_BUFFER, false, this);
+                return Action.SCHEDULED;
+            }
+
+            if (!_transferred)
+            {
+                _transferred = true;
+                _written += _length;
+                _channel.transferFile(_file, _position, _length, this);
+                return Action.SCHEDULED;
+            }
+
+            if (!_completed)
+            {
+                _completed = true;
+                channelWrite(BufferUtil.EMPTY_BUFFER, true, this);
+                return Action.SCHEDULED;
+            }
+
+            if (LOG.isDebugEnabled())
+                LOG.debug("Transferred {} of {}", _length, this);
+            IO.close(_file);
+            return Action.SUCCEEDED;
+        }
+
+        @Override
+        public void onCompleteFailure(Throwable x)
+        {
+            IO.close(_file);
+            super.onCompleteFailure(x);
+        }
+    }
+
     private static class WriteBlocker extends SharedBlockingCallback
     {
         private final HttpChannel _channel;
@@ -14,6 +14,7 @@
 package org.eclipse.jetty.server;
 
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 
 import org.eclipse.jetty.http.MetaData;
 import org.eclipse.jetty.util.Callback;
@@ -37,6 +38,32 @@ public interface HttpTransport
      */
     void send(MetaData.Request request, MetaData.Response response, ByteBuffer content, boolean lastContent, Callback callback);
 
+    /**
+     * @return true if {@link #transferFile(FileChannel, long, long, Callback)} can write
+     * file content directly to the network, without copying it through buffers.
+     */
+    default boolean isFileTransferSupported()
+    {
+        return false;
+    }
+
+    /**
+     * <p>Asynchronous call to send a region of a file as content of an already
+     * committed response, that must not be chunked.</p>
+     * <p>The response must be completed by a subsequent call to
+     * {@link #send(MetaData.Request, MetaData.Response, ByteBuffer, boolean, Callback)}.</p>
+     *
+     * @param file The file to send the content from.
+     * @param position The position in the file of the first byte to send.
+     * @param length The number of bytes to send.
+     * @param callback The Callback instance that success or failure of the transfer is notified on
+     * @see #isFileTransferSupported()
+     */
+    default void transferFile(FileChannel file, long position, long length, Callback callback)
+    {
+        callback.failed(new UnsupportedOperationException());
+    }
+
     /**
      * @return true if responses can be pushed over this transport
      */
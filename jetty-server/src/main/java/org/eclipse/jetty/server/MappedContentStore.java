@@ -0,0 +1,274 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.resource.Resource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>A server-wide store of the memory mapped and direct buffers of static content.</p>
+ * <p>Buffers are keyed by the canonical location of the resource together with its
+ * last modified time and length, so that the same resource served by several
+ * {@link CachedContentFactory} instances (for example the default servlets of several
+ * web applications) is loaded and held in memory only once.</p>
+ * <p>Buffers are reference counted: each {@link Entry} returned by
+ * {@link #acquire(Resource, boolean, Function)} must be {@link Entry#release() released}
+ * when no longer used, and the buffer is removed from the store when it is no longer
+ * used by any content factory.</p>
+ * <p>A store is shared by adding it as a bean of the {@link Server}, where it is found
+ * by the {@code DefaultServlet} of each context.</p>
+ */
+@ManagedObject("Server-wide store of mapped and direct content buffers")
+public class MappedContentStore
+{
+    private static final Logger LOG = LoggerFactory.getLogger(MappedContentStore.class);
+
+    private final ConcurrentMap<Key, Entry> _entries = new ConcurrentHashMap<>();
+    private final AtomicLong _size = new AtomicLong();
+    private final LongAdder _hits = new LongAdder();
+    private final LongAdder _loads = new LongAdder();
+
+    /**
+     * <p>Acquires the buffer of the given resource, loading it if no other user
+     * of this store currently holds it.</p>
+     *
+     * @param resource the resource to acquire the buffer of
+     * @param mapped whether the buffer is memory mapped, as opposed to a direct buffer
+     * @param load the function to load the buffer of the resource
+     * @return a retained entry that must be released, or null if the buffer could not be loaded
+     */
+    public Entry acquire(Resource resource, boolean mapped, Function<Resource, ByteBuffer> load)
+    {
+        Key key = newKey(resource, mapped);
+        if (key == null)
+        {
+            // Cannot be shared.
+            ByteBuffer buffer = load.apply(resource);
+            return buffer == null ? null : new Entry(null, buffer);
+        }
+
+        while (true)
+        {
+            Entry entry = _entries.get(key);
+            if (entry != null)
+            {
+                if (entry.retain())
+                {
+                    _hits.increment();
+                    return entry;
+                }
+                // Released concurrently.
+                _entries.remove(key, entry);
+                continue;
+            }
+
+            ByteBuffer buffer = load.apply(resource);
+            if (buffer == null)
+                return null;
+
+            entry = new Entry(key, buffer);
+            Entry existing = _entries.putIfAbsent(key, entry);
+            if (existing == null)
+            {
+                _loads.increment();
+                _size.addAndGet(BufferUtil.length(buffer));
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Stored {}", entry);
+                return entry;
+            }
+
+            // Loaded concurrently, use the stored one.
+            if (existing.retain())
+            {
+                _hits.increment();
+                return existing;
+            }
+            _entries.remove(key, existing);
+        }
+    }
+
+    private Key newKey(Resource resource, boolean mapped)
+    {
+        try
+        {
+            String location;
+            File file = resource.getFile();
+            if (file != null)
+            {
+                location = file.toPath().toRealPath().toString();
+            }
+            else
+            {
+                URI uri = resource.getURI();
+                if (uri == null)
+                    return null;
+                location = uri.normalize().toString();
+            }
+            return new Key(location, resource.lastModified(), resource.length(), mapped);
+        }
+        catch (IOException | RuntimeException x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Unable to share {}", resource, x);
+            return null;
+        }
+    }
+
+    @ManagedAttribute("The number of stored buffers")
+    public int getEntries()
+    {
+        return _entries.size();
+    }
+
+    @ManagedAttribute("The size in bytes of the stored buffers")
+    public long getSize()
+    {
+        return _size.get();
+    }
+
+    @ManagedAttribute("The number of acquisitions that shared an already stored buffer")
+    public long getHits()
+    {
+        return _hits.sum();
+    }
+
+    @ManagedAttribute("The number of buffers loaded into the store")
+    public long getLoads()
+    {
+        return _loads.sum();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x{entries=%d,size=%d}", getClass().getSimpleName(), hashCode(), getEntries(), getSize());
+    }
+
+    /**
+     * <p>A reference counted buffer of the store.</p>
+     */
+    public class Entry
+    {
+        private final AtomicInteger _references = new AtomicInteger(1);
+        private final Key _key;
+        private final ByteBuffer _buffer;
+
+        private Entry(Key key, ByteBuffer buffer)
+        {
+            _key = key;
+            _buffer = buffer;
+        }
+
+        /**
+         * @return the shared buffer, that must not be modified
+         */
+        public ByteBuffer getBuffer()
+        {
+            return _buffer;
+        }
+
+        private boolean retain()
+        {
+            while (true)
+            {
+                int references = _references.get();
+                if (references == 0)
+                    return false;
+                if (_references.compareAndSet(references, references + 1))
+                    return true;
+            }
+        }
+
+        /**
+         * <p>Releases this entry, removing its buffer from the store
+         * if it is no longer referenced.</p>
+         */
+        public void release()
+        {
+            int references = _references.decrementAndGet();
+            if (references < 0)
+                throw new IllegalStateException("Released " + this);
+            if (references == 0 && _key != null && _entries.remove(_key, this))
+            {
+                _size.addAndGet(-BufferUtil.length(_buffer));
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Removed {}", this);
+            }
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x{%s,r=%d}", getClass().getSimpleName(), hashCode(), _key, _references.get());
+        }
+    }
+
+    private static class Key
+    {
+        private final String _location;
+        private final long _lastModified;
+        private final long _length;
+        private final boolean _mapped;
+
+        private Key(String location, long lastModified, long length, boolean mapped)
+        {
+            _location = location;
+            _lastModified = lastModified;
+            _length = length;
+            _mapped = mapped;
+        }
+
+        @Override
+        public boolean equals(Object obj)
+        {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key that = (Key)obj;
+            return _lastModified == that._lastModified &&
+                _length == that._length &&
+                _mapped == that._mapped &&
+                _location.equals(that._location);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(_location, _lastModified, _length, _mapped);
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s|%d|%d%s", _location, _lastModified, _length, _mapped ? "|mapped" : "");
+        }
+    }
+}
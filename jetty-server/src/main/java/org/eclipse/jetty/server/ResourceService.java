@@ -13,13 +13,16 @@
 
 package org.eclipse.jetty.server;
 
+import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.InvalidPathException;
+import java.nio.file.StandardOpenOption;
 import java.util.Collection;
 import java.util.Enumeration;
 import java.util.List;
@@ -40,6 +43,7 @@ import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.PreEncodedHttpField;
+import org.eclipse.jetty.http.PrecompressedHttpContent;
 import org.eclipse.jetty.http.QuotedCSV;
 import org.eclipse.jetty.http.QuotedQualityCSV;
 import org.eclipse.jetty.io.WriterOutputStream;
@@ -79,6 +83,7 @@ public class ResourceService
     private int _encodingCacheSize = 100;
     private boolean _pathInfoOnly = false;
     private boolean _etags = false;
+    private boolean _useFileTransfer = false;
     private HttpField _cacheControl;
     private List<String> _gzipEquivalentFileExtensions;
 
@@ -173,6 +178,21 @@ public class ResourceService
         _etags = etags;
     }
 
+    public boolean isUseFileTransfer()
+    {
+        return _useFileTransfer;
+    }
+
+    /**
+     * @param useFileTransfer true if the whole content of file resources should be transferred
+     * directly from the file to the network, when the connection supports it
+     * @see HttpOutput#sendContent(FileChannel, long, long, Callback)
+     */
+    public void setUseFileTransfer(boolean useFileTransfer)
+    {
+        _useFileTransfer = useFileTransfer;
+    }
+
     public HttpField getCacheControl()
     {
         return _cacheControl;
@@ -717,7 +737,7 @@ public class ResourceService
                     final AsyncContext context = request.startAsync();
                     context.setTimeout(0);
 
-                    ((HttpOutput)out).sendContent(content, new Callback()
+                    Callback callback = new Callback()
                     {
                         @Override
                         public void succeeded()
@@ -749,11 +769,20 @@ public class ResourceService
                         {
                             return String.format("ResourceService@%x$CB", ResourceService.this.hashCode());
                         }
-                    });
+                    };
+                    FileChannel file = newFileChannel(content);
+                    if (file != null)
+                        ((HttpOutput)out).sendContent(file, 0, content_length, callback);
+                    else
+                        ((HttpOutput)out).sendContent(content, callback);
                     return false;
                 }
                 // otherwise write content blocking
-                ((HttpOutput)out).sendContent(content);
+                FileChannel file = newFileChannel(content);
+                if (file != null)
+                    ((HttpOutput)out).sendContent(file, 0, content_length);
+                else
+                    ((HttpOutput)out).sendContent(content);
             }
         }
         else
@@ -850,6 +879,33 @@ public class ResourceService
         return true;
     }
 
+    private FileChannel newFileChannel(HttpContent content)
+    {
+        if (!_useFileTransfer)
+            return null;
+        try
+        {
+            // The bytes of a precompressed content are those of the precompressed resource.
+            Resource resource;
+            if (content instanceof PrecompressedHttpContent)
+                resource = ((PrecompressedHttpContent)content).getPrecompressedContent().getResource();
+            else if (content.getContentEncodingValue() == null)
+                resource = content.getResource();
+            else
+                return null;
+            File file = resource.getFile();
+            // Only transfer a file that holds exactly the bytes of the content.
+            if (file != null && file.length() == content.getContentLengthValue())
+                return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        }
+        catch (Throwable x)
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Unable to open FileChannel for content {}", content, x);
+        }
+        return null;
+    }
+
     private static void writeContent(HttpContent content, OutputStream out, long start, long contentLength) throws IOException
     {
         // Is the write for the whole content?
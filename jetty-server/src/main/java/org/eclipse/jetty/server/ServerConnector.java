@@ -25,12 +25,16 @@ import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
 import java.util.EventListener;
+import java.util.List;
 import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
 import org.eclipse.jetty.io.ByteBufferPool;
 import org.eclipse.jetty.io.Connection;
+import org.eclipse.jetty.io.ConnectionStatistics;
 import org.eclipse.jetty.io.EndPoint;
 import org.eclipse.jetty.io.ManagedSelector;
 import org.eclipse.jetty.io.SelectorManager;
@@ -67,13 +71,28 @@ import org.eclipse.jetty.util.thread.Scheduler;
  * which should allow optimal performance even if all the connections used are performing
  * significant non-blocking work in the callback tasks.
  * </p>
+ * <h2>Accept Channels</h2>
+ * <p>
+ * By default the connector listens on a single server channel. If {@link #setAcceptChannels(int)}
+ * is greater than one, the connector opens that number of server channels bound to the same
+ * address with {@code SO_REUSEPORT}, so that the operating system kernel balances the incoming
+ * connections among them. Each channel is accepted by its own acceptor threads (or, for the
+ * channels in excess of the acceptor threads, by a selector), and the connections accepted from
+ * a channel are registered with a dedicated subset of the selectors, so that accepting and
+ * selecting do not contend on a single listening socket.
+ * The number of connections accepted from each channel is recorded by the
+ * {@link ConnectionStatistics} beans of the connector.
+ * </p>
  */
 @ManagedObject("HTTP connector using NIO ByteChannels and Selectors")
 public class ServerConnector extends AbstractNetworkConnector
 {
     private final SelectorManager _manager;
-    private final AtomicReference<Closeable> _acceptor = new AtomicReference<>();
+    private final AtomicReference<List<Closeable>> _acceptor = new AtomicReference<>();
     private volatile ServerSocketChannel _acceptChannel;
+    private volatile AcceptChannel[] _channels;
+    private volatile int _acceptChannels = 1;
+    private volatile List<ConnectionStatistics> _connectionStatistics = List.of();
     private volatile boolean _inheritChannel = false;
     private volatile int _localPort = -1;
     private volatile int _acceptQueueSize = 0;
@@ -224,13 +243,18 @@ public class ServerConnector extends AbstractNetworkConnector
     {
         for (EventListener l : getBeans(SelectorManager.SelectorManagerListener.class))
             _manager.addEventListener(l);
+        _connectionStatistics = List.copyOf(getBeans(ConnectionStatistics.class));
 
         super.doStart();
 
-        if (getAcceptors() == 0)
+        AcceptChannel[] channels = _channels;
+        if (getAcceptors() < channels.length)
         {
-            _acceptChannel.configureBlocking(false);
-            _acceptor.set(_manager.acceptor(_acceptChannel));
+            for (int i = getAcceptors(); i < channels.length; ++i)
+            {
+                channels[i]._channel.configureBlocking(false);
+            }
+            _acceptor.set(newSelectorAcceptors(channels));
         }
     }
 
@@ -238,6 +262,7 @@ public class ServerConnector extends AbstractNetworkConnector
     protected void doStop() throws Exception
     {
         super.doStop();
+        _connectionStatistics = List.of();
         for (EventListener l : getBeans(EventListener.class))
         {
             _manager.removeEventListener(l);
@@ -291,6 +316,7 @@ public class ServerConnector extends AbstractNetworkConnector
             throw new IllegalStateException(getState());
         updateBean(_acceptChannel, acceptChannel);
         _acceptChannel = acceptChannel;
+        _channels = null;
         _localPort = _acceptChannel.socket().getLocalPort();
         if (_localPort <= 0)
             throw new IOException("Server channel not bound");
@@ -308,6 +334,36 @@ public class ServerConnector extends AbstractNetworkConnector
                 throw new IOException("Server channel not bound");
             addBean(_acceptChannel);
         }
+
+        if (_channels == null)
+        {
+            int count = getAcceptChannels();
+            AcceptChannel[] channels = new AcceptChannel[count];
+            channels[0] = new AcceptChannel(0, _acceptChannel);
+            try
+            {
+                for (int i = 1; i < count; ++i)
+                {
+                    ServerSocketChannel channel = openReusePortChannel(_localPort);
+                    channel.configureBlocking(true);
+                    addBean(channel);
+                    channels[i] = new AcceptChannel(i, channel);
+                }
+            }
+            catch (Throwable x)
+            {
+                for (int i = 1; i < count; ++i)
+                {
+                    if (channels[i] != null)
+                    {
+                        removeBean(channels[i]._channel);
+                        IO.close(channels[i]._channel);
+                    }
+                }
+                throw x;
+            }
+            _channels = channels;
+        }
     }
 
     /**
@@ -333,7 +389,7 @@ public class ServerConnector extends AbstractNetworkConnector
             InetSocketAddress bindAddress = getHost() == null ? new InetSocketAddress(getPort()) : new InetSocketAddress(getHost(), getPort());
             serverChannel = ServerSocketChannel.open();
             setSocketOption(serverChannel, StandardSocketOptions.SO_REUSEADDR, getReuseAddress());
-            setSocketOption(serverChannel, StandardSocketOptions.SO_REUSEPORT, isReusePort());
+            setSocketOption(serverChannel, StandardSocketOptions.SO_REUSEPORT, isReusePort() || getAcceptChannels() > 1);
             try
             {
                 serverChannel.bind(bindAddress, getAcceptQueueSize());
@@ -348,6 +404,34 @@ public class ServerConnector extends AbstractNetworkConnector
         return serverChannel;
     }
 
+    /**
+     * <p>Opens an additional server channel bound with {@code SO_REUSEPORT}
+     * to the same address of the primary accept channel.</p>
+     *
+     * @param port the port the primary accept channel is bound to
+     * @return the bound server channel
+     * @throws IOException if the channel cannot be opened, if {@code SO_REUSEPORT}
+     * is not supported, or if the channel cannot be bound
+     * @see #setAcceptChannels(int)
+     */
+    protected ServerSocketChannel openReusePortChannel(int port) throws IOException
+    {
+        InetSocketAddress bindAddress = getHost() == null ? new InetSocketAddress(port) : new InetSocketAddress(getHost(), port);
+        ServerSocketChannel serverChannel = ServerSocketChannel.open();
+        try
+        {
+            setSocketOption(serverChannel, StandardSocketOptions.SO_REUSEADDR, getReuseAddress());
+            serverChannel.setOption(StandardSocketOptions.SO_REUSEPORT, true);
+            serverChannel.bind(bindAddress, getAcceptQueueSize());
+            return serverChannel;
+        }
+        catch (Throwable e)
+        {
+            IO.close(serverChannel);
+            throw new IOException("Failed to bind additional accept channel to " + bindAddress, e);
+        }
+    }
+
     private <T> void setSocketOption(ServerSocketChannel channel, SocketOption<T> option, T value)
     {
         try
@@ -379,8 +463,24 @@ public class ServerConnector extends AbstractNetworkConnector
     {
         super.close();
 
+        AcceptChannel[] channels = _channels;
+        _channels = null;
+        if (channels != null)
+        {
+            for (int i = 1; i < channels.length; ++i)
+            {
+                close(channels[i]._channel);
+            }
+        }
+
         ServerSocketChannel serverChannel = _acceptChannel;
         _acceptChannel = null;
+        close(serverChannel);
+        _localPort = -2;
+    }
+
+    private void close(ServerSocketChannel serverChannel)
+    {
         if (serverChannel != null)
         {
             removeBean(serverChannel);
@@ -397,21 +497,24 @@ public class ServerConnector extends AbstractNetworkConnector
                 }
             }
         }
-        _localPort = -2;
     }
 
     @Override
     public void accept(int acceptorID) throws IOException
     {
-        ServerSocketChannel serverChannel = _acceptChannel;
-        if (serverChannel != null && serverChannel.isOpen())
+        AcceptChannel[] channels = _channels;
+        if (channels == null)
+            return;
+        AcceptChannel acceptChannel = channels[acceptorID % channels.length];
+        ServerSocketChannel serverChannel = acceptChannel._channel;
+        if (serverChannel.isOpen())
         {
             SocketChannel channel = serverChannel.accept();
-            accepted(channel);
+            accepted(channel, acceptChannel, channels.length);
         }
     }
 
-    private void accepted(SocketChannel channel) throws IOException
+    private void accepted(SocketChannel channel, AcceptChannel acceptChannel, int channels) throws IOException
     {
         channel.configureBlocking(false);
         setSocketOption(channel, StandardSocketOptions.TCP_NODELAY, _acceptedTcpNoDelay);
@@ -419,7 +522,67 @@ public class ServerConnector extends AbstractNetworkConnector
             setSocketOption(channel, StandardSocketOptions.SO_RCVBUF, _acceptedReceiveBufferSize);
         if (_acceptedSendBufferSize > -1)
             setSocketOption(channel, StandardSocketOptions.SO_SNDBUF, _acceptedSendBufferSize);
-        _manager.accept(channel);
+
+        for (ConnectionStatistics statistics : _connectionStatistics)
+        {
+            statistics.onAccepted(acceptChannel._name);
+        }
+
+        if (channels == 1)
+            _manager.accept(channel);
+        else
+            _manager.accept(channel, null, acceptChannel.nextSelector(channels, _manager.getSelectorCount()));
+    }
+
+    private AcceptChannel findAcceptChannel(SelectableChannel serverChannel)
+    {
+        AcceptChannel[] channels = _channels;
+        if (channels != null)
+        {
+            for (AcceptChannel channel : channels)
+            {
+                if (channel._channel == serverChannel)
+                    return channel;
+            }
+        }
+        return null;
+    }
+
+    private List<Closeable> newSelectorAcceptors(AcceptChannel[] channels)
+    {
+        List<Closeable> acceptors = new ArrayList<>();
+        for (int i = getAcceptors(); i < channels.length; ++i)
+        {
+            ServerSocketChannel channel = channels[i]._channel;
+            acceptors.add(channels.length == 1 ? _manager.acceptor(channel) : _manager.acceptor(channel, i));
+        }
+        return acceptors;
+    }
+
+    /**
+     * @return the number of server channels bound with {@code SO_REUSEPORT} to the connector address
+     */
+    @ManagedAttribute("The number of server channels accepting connections")
+    public int getAcceptChannels()
+    {
+        return _acceptChannels;
+    }
+
+    /**
+     * <p>Sets the number of server channels bound to the connector address.</p>
+     * <p>When greater than one, the channels are bound with {@code SO_REUSEPORT},
+     * which must be supported by the operating system, so that the kernel balances
+     * the incoming connections among them.</p>
+     *
+     * @param acceptChannels the number of server channels, at least one
+     */
+    public void setAcceptChannels(int acceptChannels)
+    {
+        if (isStarted())
+            throw new IllegalStateException(getState());
+        if (acceptChannels < 1)
+            throw new IllegalArgumentException("Invalid number of accept channels: " + acceptChannels);
+        _acceptChannels = acceptChannels;
     }
 
     @ManagedAttribute("The Selector Manager")
@@ -566,7 +729,8 @@ public class ServerConnector extends AbstractNetworkConnector
     public void setAccepting(boolean accepting)
     {
         super.setAccepting(accepting);
-        if (getAcceptors() > 0)
+        AcceptChannel[] channels = _channels;
+        if (channels == null || getAcceptors() >= channels.length)
             return;
 
         try
@@ -575,16 +739,21 @@ public class ServerConnector extends AbstractNetworkConnector
             {
                 if (_acceptor.get() == null)
                 {
-                    Closeable acceptor = _manager.acceptor(_acceptChannel);
-                    if (!_acceptor.compareAndSet(null, acceptor))
-                        acceptor.close();
+                    List<Closeable> acceptors = newSelectorAcceptors(channels);
+                    if (!_acceptor.compareAndSet(null, acceptors))
+                        acceptors.forEach(IO::close);
                 }
             }
             else
             {
-                Closeable acceptor = _acceptor.get();
-                if (acceptor != null && _acceptor.compareAndSet(acceptor, null))
-                    acceptor.close();
+                List<Closeable> acceptors = _acceptor.getAndSet(null);
+                if (acceptors != null)
+                {
+                    for (Closeable acceptor : acceptors)
+                    {
+                        acceptor.close();
+                    }
+                }
             }
         }
         catch (IOException e)
@@ -603,7 +772,17 @@ public class ServerConnector extends AbstractNetworkConnector
         @Override
         protected void accepted(SelectableChannel channel) throws IOException
         {
-            ServerConnector.this.accepted((SocketChannel)channel);
+            accepted(_acceptChannel, channel);
+        }
+
+        @Override
+        protected void accepted(SelectableChannel server, SelectableChannel channel) throws IOException
+        {
+            AcceptChannel[] channels = _channels;
+            AcceptChannel acceptChannel = findAcceptChannel(server);
+            if (channels == null || acceptChannel == null)
+                throw new IOException("Unknown server channel " + server);
+            ServerConnector.this.accepted((SocketChannel)channel, acceptChannel, channels.length);
         }
 
         @Override
@@ -638,4 +817,32 @@ public class ServerConnector extends AbstractNetworkConnector
             return String.format("SelectorManager@%s", ServerConnector.this);
         }
     }
+
+    private static class AcceptChannel
+    {
+        private final AtomicInteger _selector = new AtomicInteger();
+        private final int _index;
+        private final String _name;
+        private final ServerSocketChannel _channel;
+
+        private AcceptChannel(int index, ServerSocketChannel channel)
+        {
+            _index = index;
+            _name = "acceptChannel-" + index;
+            _channel = channel;
+        }
+
+        /**
+         * <p>Returns the index of the next selector of this channel: channel {@code i}
+         * of {@code n} uses selectors {@code i, i+n, i+2n, ...} in round-robin.</p>
+         */
+        private int nextSelector(int channels, int selectors)
+        {
+            if (selectors <= channels)
+                return _index;
+            int count = (selectors - _index + channels - 1) / channels;
+            int next = Math.floorMod(_selector.getAndIncrement(), count);
+            return _index + next * channels;
+        }
+    }
 }
@@ -16,6 +16,7 @@ package org.eclipse.jetty.server;
 import java.net.InetSocketAddress;
 import java.net.SocketAddress;
 import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.LongAdder;
 import javax.net.ssl.SSLEngine;
 import javax.net.ssl.SSLSession;
 
@@ -27,10 +28,14 @@ import org.eclipse.jetty.io.EndPoint;
 import org.eclipse.jetty.io.RetainableByteBufferPool;
 import org.eclipse.jetty.io.ssl.SslConnection;
 import org.eclipse.jetty.io.ssl.SslHandshakeListener;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
 import org.eclipse.jetty.util.annotation.Name;
 import org.eclipse.jetty.util.component.ContainerLifeCycle;
 import org.eclipse.jetty.util.ssl.SslContextFactory;
 
+@ManagedObject
 public class SslConnectionFactory extends AbstractConnectionFactory implements ConnectionFactory.Detecting, ConnectionFactory.Configuring
 {
     private static final int TLS_ALERT_FRAME_TYPE = 0x15;
@@ -42,6 +47,19 @@ public class SslConnectionFactory extends AbstractConnectionFactory implements C
     private boolean _directBuffersForEncryption = false;
     private boolean _directBuffersForDecryption = false;
     private boolean _ensureSecureRequestCustomizer = true;
+    private int _targetWriteSize;
+    private final LongAdder _encryptedRecords = new LongAdder();
+    private final LongAdder _encryptedFlushes = new LongAdder();
+    private final Connection.Listener _statsListener = new Connection.Listener.Adapter()
+    {
+        @Override
+        public void onClosed(Connection connection)
+        {
+            SslConnection sslConnection = (SslConnection)connection;
+            _encryptedRecords.add(sslConnection.getEncryptedRecords());
+            _encryptedFlushes.add(sslConnection.getEncryptedFlushes());
+        }
+    };
 
     public SslConnectionFactory()
     {
@@ -86,6 +104,62 @@ public class SslConnectionFactory extends AbstractConnectionFactory implements C
         return _directBuffersForEncryption;
     }
 
+    /**
+     * @return the number of encrypted bytes to accumulate before writing them to the network,
+     * or 0 to write each TLS record as soon as it is produced
+     * @see SslConnection#getTargetWriteSize()
+     */
+    @ManagedAttribute("The number of encrypted bytes to accumulate before writing them to the network")
+    public int getTargetWriteSize()
+    {
+        return _targetWriteSize;
+    }
+
+    /**
+     * @param targetWriteSize the number of encrypted bytes to accumulate before writing them to the network,
+     * or 0 to write each TLS record as soon as it is produced
+     * @see SslConnection#setTargetWriteSize(int)
+     */
+    public void setTargetWriteSize(int targetWriteSize)
+    {
+        _targetWriteSize = targetWriteSize;
+    }
+
+    /**
+     * @return the number of TLS records wrapped by the closed connections
+     */
+    @ManagedAttribute(value = "The number of TLS records wrapped by the closed connections", readonly = true)
+    public long getEncryptedRecords()
+    {
+        return _encryptedRecords.sum();
+    }
+
+    /**
+     * @return the number of network flushes of encrypted data performed by the closed connections
+     */
+    @ManagedAttribute(value = "The number of network flushes of encrypted data by the closed connections", readonly = true)
+    public long getEncryptedFlushes()
+    {
+        return _encryptedFlushes.sum();
+    }
+
+    /**
+     * @return the average number of TLS records written per network flush by the closed connections
+     */
+    @ManagedAttribute(value = "The average number of TLS records per network flush by the closed connections", readonly = true)
+    public double getRecordsPerFlush()
+    {
+        long flushes = _encryptedFlushes.sum();
+        return flushes == 0 ? 0.0 : (double)_encryptedRecords.sum() / flushes;
+    }
+
+    @ManagedOperation(value = "Resets the statistics", impact = "ACTION")
+    public void resetStatistics()
+    {
+        _encryptedRecords.reset();
+        _encryptedFlushes.reset();
+    }
+
     public String getNextProtocol()
     {
         return _nextProtocol;
@@ -155,6 +229,8 @@ public class SslConnectionFactory extends AbstractConnectionFactory implements C
         SslConnection sslConnection = newSslConnection(connector, endPoint, engine);
         sslConnection.setRenegotiationAllowed(_sslContextFactory.isRenegotiationAllowed());
         sslConnection.setRenegotiationLimit(_sslContextFactory.getRenegotiationLimit());
+        sslConnection.setTargetWriteSize(getTargetWriteSize());
+        sslConnection.addEventListener(_statsListener);
         configure(sslConnection, connector, endPoint);
 
         ConnectionFactory next = connector.getConnectionFactory(_nextProtocol);
@@ -298,6 +298,14 @@ public class ResourceHandler extends HandlerWrapper implements ResourceFactory,
         return _resourceService.isRedirectWelcome();
     }
 
+    /**
+     * @return If true, the content of file resources is transferred directly from the file to the network.
+     */
+    public boolean isUseFileTransfer()
+    {
+        return _resourceService.isUseFileTransfer();
+    }
+
     /**
      * @param acceptRanges If true, range requests and responses are supported
      */
@@ -389,6 +397,20 @@ public class ResourceHandler extends HandlerWrapper implements ResourceFactory,
         _resourceService.setRedirectWelcome(redirectWelcome);
     }
 
+    /**
+     * <p>When enabled, the content of file resources is transferred directly from the file
+     * to the network, without being copied through buffers, if the connection supports it.</p>
+     * <p>Only cleartext HTTP/1.1 connections support file transfers, and only if no
+     * {@link org.eclipse.jetty.server.HttpOutput.Interceptor} (for example gzip compression)
+     * is active; otherwise the content is sent normally.</p>
+     *
+     * @param useFileTransfer If true, the content of file resources is transferred directly from the file to the network.
+     */
+    public void setUseFileTransfer(boolean useFileTransfer)
+    {
+        _resourceService.setUseFileTransfer(useFileTransfer);
+    }
+
     /**
      * @param resourceBase The base resource as a string.
      */
@@ -13,12 +13,35 @@
 
 package org.eclipse.jetty.server.handler.gzip;
 
+import org.eclipse.jetty.http.CompressedContentFormat;
 import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.util.compression.DeflaterPool;
+import org.eclipse.jetty.util.compression.EncoderPool;
 
 public interface GzipFactory
 {
     DeflaterPool.Entry getDeflaterEntry(Request request, long contentLength);
 
+    /**
+     * <p>Negotiates a content-coding other than {@code gzip} for the response to the given request.</p>
+     *
+     * @param request the request
+     * @param contentLength the response content length, or -1 if unknown
+     * @return the pool of encoders of the negotiated content-coding, or null to use
+     * {@link #getDeflaterEntry(Request, long) gzip} if acceptable
+     */
+    default EncoderPool getEncoderPool(Request request, long contentLength)
+    {
+        return null;
+    }
+
+    /**
+     * @return the formats of the content-codings that may be produced, used to match ETags
+     */
+    default CompressedContentFormat[] getCompressedContentFormats()
+    {
+        return new CompressedContentFormat[]{CompressedContentFormat.GZIP};
+    }
+
     boolean isMimeTypeGzipable(String mimetype);
 }
@@ -14,8 +14,12 @@
 package org.eclipse.jetty.server.handler.gzip;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -34,6 +38,7 @@ import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpMethod;
 import org.eclipse.jetty.http.MimeTypes;
 import org.eclipse.jetty.http.PreEncodedHttpField;
+import org.eclipse.jetty.http.QuotedQualityCSV;
 import org.eclipse.jetty.http.pathmap.PathSpecSet;
 import org.eclipse.jetty.server.HttpOutput;
 import org.eclipse.jetty.server.Request;
@@ -42,8 +47,10 @@ import org.eclipse.jetty.server.handler.HandlerWrapper;
 import org.eclipse.jetty.util.AsciiLowerCaseSet;
 import org.eclipse.jetty.util.IncludeExclude;
 import org.eclipse.jetty.util.StringUtil;
+import org.eclipse.jetty.util.compression.CompressionCodec;
 import org.eclipse.jetty.util.compression.CompressionPool;
 import org.eclipse.jetty.util.compression.DeflaterPool;
+import org.eclipse.jetty.util.compression.EncoderPool;
 import org.eclipse.jetty.util.compression.InflaterPool;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -122,6 +129,13 @@ import org.slf4j.LoggerFactory;
  * Note that the suffix used is determined by {@link CompressedContentFormat#ETAG_SEPARATOR}
  * </p>
  * <p>
+ * Content-codings other than gzip, such as {@code br} or {@code zstd}, are supported by
+ * {@link CompressionCodec}s, by default those discovered with the {@link java.util.ServiceLoader}.
+ * The content-coding of a response is negotiated from the quality values of the
+ * {@code Accept-Encoding} request header, preferring the codecs in their configured
+ * order over gzip when the qualities are equal.
+ * </p>
+ * <p>
  * This implementation relies on an Jetty internal {@link org.eclipse.jetty.server.HttpOutput.Interceptor}
  * mechanism to allow for effective and efficient compression of the response on all Output API usages:
  * </p>
@@ -171,6 +185,10 @@ public class GzipHandler extends HandlerWrapper implements GzipFactory
     private final IncludeExclude<String> _inflatePaths = new IncludeExclude<>(PathSpecSet.class);
     private final IncludeExclude<String> _mimeTypes = new IncludeExclude<>(AsciiLowerCaseSet.class);
     private HttpField _vary = GzipHttpOutputInterceptor.VARY_ACCEPT_ENCODING;
+    private List<CompressionCodec> _compressionCodecs;
+    private final Map<String, EncoderPool> _encoderPools = new HashMap<>();
+    private String[] _preferredEncodings = {GZIP};
+    private CompressedContentFormat[] _compressedContentFormats = {CompressedContentFormat.GZIP};
 
     /**
      * Instantiates a new GzipHandler.
@@ -218,6 +236,26 @@ public class GzipHandler extends HandlerWrapper implements GzipFactory
             addBean(_deflaterPool);
         }
 
+        List<CompressionCodec> codecs = _compressionCodecs == null ? CompressionCodec.getCodecs() : _compressionCodecs;
+        List<String> encodings = new ArrayList<>();
+        List<CompressedContentFormat> formats = new ArrayList<>();
+        for (CompressionCodec codec : codecs)
+        {
+            String encoding = StringUtil.asciiToLowerCase(codec.getEncoding());
+            // Gzip is produced by the GzipCompressionCodec with the Deflaters of the shared DeflaterPool.
+            if (GZIP.equals(encoding) || _encoderPools.containsKey(encoding))
+                continue;
+            EncoderPool pool = new EncoderPool(codec, CompressionPool.DEFAULT_CAPACITY, -1);
+            _encoderPools.put(encoding, pool);
+            addBean(pool);
+            encodings.add(encoding);
+            formats.add(new CompressedContentFormat(encoding, "." + encoding));
+        }
+        encodings.add(GZIP);
+        formats.add(CompressedContentFormat.GZIP);
+        _preferredEncodings = encodings.toArray(new String[0]);
+        _compressedContentFormats = formats.toArray(new CompressedContentFormat[0]);
+
         super.doStart();
     }
 
@@ -231,6 +269,36 @@ public class GzipHandler extends HandlerWrapper implements GzipFactory
 
         removeBean(_deflaterPool);
         _deflaterPool = null;
+
+        for (EncoderPool pool : _encoderPools.values())
+        {
+            removeBean(pool);
+        }
+        _encoderPools.clear();
+        _preferredEncodings = new String[]{GZIP};
+        _compressedContentFormats = new CompressedContentFormat[]{CompressedContentFormat.GZIP};
+    }
+
+    /**
+     * @return the codecs of the content-codings other than gzip, or null to use the
+     * codecs discovered with the {@link java.util.ServiceLoader}
+     */
+    public List<CompressionCodec> getCompressionCodecs()
+    {
+        return _compressionCodecs;
+    }
+
+    /**
+     * <p>Sets the codecs of the content-codings other than gzip that may be used to compress
+     * responses, in order of preference when the {@code Accept-Encoding} qualities are equal.</p>
+     *
+     * @param codecs the codecs to use, or null to use the codecs discovered with the {@link java.util.ServiceLoader}
+     */
+    public void setCompressionCodecs(List<CompressionCodec> codecs)
+    {
+        if (isStarted())
+            throw new IllegalStateException(getState());
+        _compressionCodecs = codecs;
     }
 
     /**
@@ -527,6 +595,46 @@ public class GzipHandler extends HandlerWrapper implements GzipFactory
         return _deflaterPool.acquire();
     }
 
+    @Override
+    public EncoderPool getEncoderPool(Request request, long contentLength)
+    {
+        if (_encoderPools.isEmpty())
+            return null;
+
+        if (contentLength >= 0 && contentLength < _minGzipSize)
+            return null;
+
+        QuotedQualityCSV accepted = null;
+        for (HttpField field : request.getHttpFields())
+        {
+            if (field.getHeader() == HttpHeader.ACCEPT_ENCODING)
+            {
+                if (accepted == null)
+                    accepted = new QuotedQualityCSV(_preferredEncodings);
+                accepted.addValue(field.getValue());
+            }
+        }
+        if (accepted == null)
+            return null;
+
+        for (String encoding : accepted)
+        {
+            EncoderPool pool = _encoderPools.get(StringUtil.asciiToLowerCase(encoding));
+            if (pool != null)
+                return pool;
+            // Use the Deflater if gzip is preferred.
+            if (GZIP.equalsIgnoreCase(encoding) || "*".equals(encoding))
+                return null;
+        }
+        return null;
+    }
+
+    @Override
+    public CompressedContentFormat[] getCompressedContentFormats()
+    {
+        return _compressedContentFormats;
+    }
+
     /**
      * Get the current filter list of excluded HTTP methods
      *
@@ -735,7 +843,11 @@ public class GzipHandler extends HandlerWrapper implements GzipFactory
                     case IF_NONE_MATCH:
                     {
                         String etags = field.getValue();
-                        String etagsNoSuffix = CompressedContentFormat.GZIP.stripSuffixes(etags);
+                        String etagsNoSuffix = etags;
+                        for (CompressedContentFormat format : _compressedContentFormats)
+                        {
+                            etagsNoSuffix = format.stripSuffixes(etagsNoSuffix);
+                        }
                         if (etagsNoSuffix.equals(etags))
                             newFields.add(field);
                         else
@@ -16,9 +16,8 @@ package org.eclipse.jetty.server.handler.gzip;
 import java.nio.ByteBuffer;
 import java.nio.channels.WritePendingException;
 import java.util.concurrent.atomic.AtomicReference;
-import java.util.zip.CRC32;
-import java.util.zip.Deflater;
 
+import org.eclipse.jetty.http.CompressedContentFormat;
 import org.eclipse.jetty.http.HttpField;
 import org.eclipse.jetty.http.HttpFields;
 import org.eclipse.jetty.http.HttpHeader;
@@ -30,7 +29,10 @@ import org.eclipse.jetty.server.Response;
 import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.Callback;
 import org.eclipse.jetty.util.IteratingNestedCallback;
+import org.eclipse.jetty.util.compression.CompressionCodec;
 import org.eclipse.jetty.util.compression.DeflaterPool;
+import org.eclipse.jetty.util.compression.EncoderPool;
+import org.eclipse.jetty.util.compression.GzipCompressionCodec;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,7 +41,7 @@ import static org.eclipse.jetty.http.CompressedContentFormat.GZIP;
 public class GzipHttpOutputInterceptor implements HttpOutput.Interceptor
 {
     public static Logger LOG = LoggerFactory.getLogger(GzipHttpOutputInterceptor.class);
-    private static final byte[] GZIP_HEADER = new byte[]{(byte)0x1f, (byte)0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+    private static final GzipCompressionCodec GZIP_CODEC = new GzipCompressionCodec();
 
     public static final HttpField VARY_ACCEPT_ENCODING = new PreEncodedHttpField(HttpHeader.VARY, HttpHeader.ACCEPT_ENCODING.asString());
 
@@ -49,7 +51,6 @@ public class GzipHttpOutputInterceptor implements HttpOutput.Interceptor
     }
 
     private final AtomicReference<GZState> _state = new AtomicReference<>(GZState.MIGHT_COMPRESS);
-    private final CRC32 _crc = new CRC32();
 
     private final GzipFactory _factory;
     private final HttpOutput.Interceptor _interceptor;
@@ -59,6 +60,8 @@ public class GzipHttpOutputInterceptor implements HttpOutput.Interceptor
     private final boolean _syncFlush;
 
     private DeflaterPool.Entry _deflaterEntry;
+    private EncoderPool.Entry _encoderEntry;
+    private CompressionCodec.Encoder _encoder;
     private ByteBuffer _buffer;
 
     public GzipHttpOutputInterceptor(GzipFactory factory, HttpChannel channel, HttpOutput.Interceptor next, boolean syncFlush)
@@ -114,12 +117,6 @@ public class GzipHttpOutputInterceptor implements HttpOutput.Interceptor
         }
     }
 
-    private void addTrailer()
-    {
-        BufferUtil.putIntLittleEndian(_buffer, (int)_crc.getValue());
-        BufferUtil.putIntLittleEndian(_buffer, _deflaterEntry.get().getTotalIn());
-    }
-
     private void gzip(ByteBuffer content, boolean complete, final Callback callback)
     {
         if (content.hasRemaining() || complete)
@@ -144,9 +141,15 @@ public class GzipHttpOutputInterceptor implements HttpOutput.Interceptor
                 String responseEtag = response.getHttpFields().get(HttpHeader.ETAG);
                 if (requestEtags != null && responseEtag != null)
                 {
-                    String responseEtagGzip = etagGzip(responseEtag);
-                    if (requestEtags.contains(responseEtagGzip))
-                        response.getHttpFields().put(HttpHeader.ETAG, responseEtagGzip);
+                    for (CompressedContentFormat format : _factory.getCompressedContentFormats())
+                    {
+                        String responseEtagCompressed = format.etag(responseEtag);
+                        if (requestEtags.contains(responseEtagCompressed))
+                        {
+                            response.getHttpFields().put(HttpHeader.ETAG, responseEtagCompressed);
+                            break;
+                        }
+                    }
                     if (_vary != null)
                         response.getHttpFields().ensureField(_vary);
                 }
@@ -192,25 +195,37 @@ public class GzipHttpOutputInterceptor implements HttpOutput.Interceptor
             if (contentLength < 0 && complete)
                 contentLength = content.remaining();
 
-            _deflaterEntry = _factory.getDeflaterEntry(_channel.getRequest(), contentLength);
-            if (_deflaterEntry == null)
+            CompressedContentFormat format = GZIP;
+            EncoderPool encoderPool = _factory.getEncoderPool(_channel.getRequest(), contentLength);
+            if (encoderPool != null)
             {
-                LOG.debug("{} exclude no deflater", this);
-                _state.set(GZState.NOT_COMPRESSING);
-                _interceptor.write(content, complete, callback);
-                return;
+                format = getCompressedContentFormat(encoderPool.getCodec().getEncoding());
+                _encoderEntry = encoderPool.acquire();
+                _encoder = _encoderEntry.get();
+            }
+            else
+            {
+                _deflaterEntry = _factory.getDeflaterEntry(_channel.getRequest(), contentLength);
+                if (_deflaterEntry == null)
+                {
+                    LOG.debug("{} exclude no deflater", this);
+                    _state.set(GZState.NOT_COMPRESSING);
+                    _interceptor.write(content, complete, callback);
+                    return;
+                }
+                // The pooled Deflater produces the gzip content-coding through the gzip codec.
+                _encoder = GZIP_CODEC.newEncoder(_deflaterEntry.get());
             }
 
-            fields.put(GZIP.getContentEncoding());
-            _crc.reset();
+            fields.put(format.getContentEncoding());
 
             // Adjust headers
             response.setContentLength(-1);
             String etag = fields.get(HttpHeader.ETAG);
             if (etag != null)
-                fields.put(HttpHeader.ETAG, etagGzip(etag));
+                fields.put(HttpHeader.ETAG, format.etag(etag));
 
-            LOG.debug("{} compressing {}", this, _deflaterEntry);
+            LOG.debug("{} compressing {}", this, _encoder);
             _state.set(GZState.COMPRESSING);
 
             if (BufferUtil.isEmpty(content))
@@ -227,9 +242,14 @@ public class GzipHttpOutputInterceptor implements HttpOutput.Interceptor
             callback.failed(new WritePendingException());
     }
 
-    private String etagGzip(String etag)
+    private CompressedContentFormat getCompressedContentFormat(String encoding)
     {
-        return GZIP.etag(etag);
+        for (CompressedContentFormat format : _factory.getCompressedContentFormats())
+        {
+            if (format.getEncoding().equalsIgnoreCase(encoding))
+                return format;
+        }
+        return new CompressedContentFormat(encoding, "." + encoding);
     }
 
     public void noCompression()
@@ -252,6 +272,21 @@ public class GzipHttpOutputInterceptor implements HttpOutput.Interceptor
         }
     }
 
+    private void release()
+    {
+        _encoder = null;
+        if (_deflaterEntry != null)
+        {
+            _deflaterEntry.release();
+            _deflaterEntry = null;
+        }
+        if (_encoderEntry != null)
+        {
+            _encoderEntry.release();
+            _encoderEntry = null;
+        }
+    }
+
     public boolean mightCompress()
     {
         return _state.get() == GZState.MIGHT_COMPRESS;
@@ -269,32 +304,25 @@ public class GzipHttpOutputInterceptor implements HttpOutput.Interceptor
             _content = content;
             _last = complete;
 
-            _crc.update(_content.slice());
-
-            Deflater deflater = _deflaterEntry.get();
-            deflater.setInput(_content);
+            _encoder.setInput(_content);
             if (_last)
-                deflater.finish();
+                _encoder.finish();
         }
 
         @Override
         protected void onCompleteFailure(Throwable x)
         {
-            if (_deflaterEntry != null)
-            {
-                _deflaterEntry.release();
-                _deflaterEntry = null;
-            }
+            release();
             super.onCompleteFailure(x);
         }
 
         @Override
         protected Action process() throws Exception
         {
-            // If we have no deflator
-            if (_deflaterEntry == null)
+            // If we have no encoder
+            if (_encoder == null)
             {
-                // then the trailer has been generated and written below.
+                // then the end of the compressed content has been generated and written below.
                 // we have finished compressing the entire content, so
                 // cleanup and succeed.
                 if (_buffer != null)
@@ -308,9 +336,8 @@ public class GzipHttpOutputInterceptor implements HttpOutput.Interceptor
             // If we have no buffer
             if (_buffer == null)
             {
-                // allocate a buffer and add the gzip header
+                // allocate a buffer, the encoder produces the framing of its content-coding.
                 _buffer = _channel.getByteBufferPool().acquire(_bufferSize, _channel.isUseOutputDirectByteBuffers());
-                BufferUtil.fill(_buffer, GZIP_HEADER, 0, GZIP_HEADER.length);
             }
             else
             {
@@ -318,43 +345,42 @@ public class GzipHttpOutputInterceptor implements HttpOutput.Interceptor
                 BufferUtil.clear(_buffer);
             }
 
-            // If the deflator is not finished, then compress more data
-            Deflater deflater = _deflaterEntry.get();
-            if (!deflater.finished())
+            // If the encoder is not finished, then compress more data
+            if (!_encoder.finished())
             {
-                if (deflater.needsInput() && !_last)
+                // Without sync flush, wait for more input unless it is the last.
+                if (_encoder.needsInput() && !_last && !_syncFlush)
                     return Action.SUCCEEDED;
 
                 int pos = BufferUtil.flipToFill(_buffer);
-                deflater.deflate(_buffer, _syncFlush ? Deflater.SYNC_FLUSH : Deflater.NO_FLUSH);
+                _encoder.encode(_buffer, _syncFlush);
                 BufferUtil.flipToFlush(_buffer, pos);
-            }
 
-            // If we have finished deflation and there is room for the trailer.
-            if (deflater.finished() && BufferUtil.space(_buffer) >= 8)
-            {
-                // add the trailer and recycle the deflator to flag that we will have had completeSuccess when
-                // the write below completes.
-                addTrailer();
-                _deflaterEntry.release();
-                _deflaterEntry = null;
+                // With sync flush, the input is consumed and flushed when no more bytes are produced.
+                if (_syncFlush && !_last && BufferUtil.isEmpty(_buffer))
+                    return Action.SUCCEEDED;
             }
 
+            // If we have finished encoding, release the encoder to flag
+            // that we will have had completeSuccess when the write below completes.
+            if (_encoder.finished())
+                release();
+
             // write the compressed buffer.
-            _interceptor.write(_buffer, _deflaterEntry == null, this);
+            _interceptor.write(_buffer, _encoder == null, this);
             return Action.SCHEDULED;
         }
 
         @Override
         public String toString()
         {
-            return String.format("%s[content=%s last=%b buffer=%s deflate=%s %s]",
+            return String.format("%s[content=%s last=%b buffer=%s encoder=%s %s]",
                 super.toString(),
                 BufferUtil.toDetailString(_content),
                 _last,
                 BufferUtil.toDetailString(_buffer),
-                _deflaterEntry,
-                _deflaterEntry != null && _deflaterEntry.get().finished() ? "(finished)" : "");
+                _encoder,
+                _encoder != null && _encoder.finished() ? "(finished)" : "");
         }
     }
 }
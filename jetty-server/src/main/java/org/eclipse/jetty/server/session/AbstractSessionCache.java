@@ -101,6 +101,17 @@ public abstract class AbstractSessionCache extends ContainerLifeCycle implements
      */
     protected boolean _invalidateOnShutdown;
 
+    /**
+     * If greater than 0, the tick in milliseconds of the timer wheel that
+     * tracks the inactivity of the sessions, instead of a timer per session.
+     */
+    protected long _expiryWheelTick;
+
+    /**
+     * The timer wheel that tracks the inactivity of the sessions, if any.
+     */
+    protected SessionExpiryWheel _expiryWheel;
+
     /**
      * Create a new Session object from pre-existing session data
      *
@@ -205,6 +216,11 @@ public abstract class AbstractSessionCache extends ContainerLifeCycle implements
             throw new IllegalStateException("No ContextId");
 
         _sessionDataStore.initialize(_context);
+        if (_expiryWheelTick > 0)
+        {
+            _expiryWheel = new SessionExpiryWheel(_handler.getScheduler(), _expiryWheelTick);
+            addBean(_expiryWheel, true);
+        }
         super.doStart();
     }
 
@@ -213,6 +229,47 @@ public abstract class AbstractSessionCache extends ContainerLifeCycle implements
     {
         _sessionDataStore.stop();
         super.doStop();
+        if (_expiryWheel != null)
+        {
+            removeBean(_expiryWheel);
+            _expiryWheel = null;
+        }
+    }
+
+    /**
+     * @return the tick in milliseconds of the timer wheel that tracks the
+     * inactivity of the sessions, or 0 if each session has its own timer
+     */
+    @ManagedAttribute(value = "tick in ms of the session expiry timer wheel, or 0 for a timer per session", readonly = true)
+    public long getExpiryWheelTick()
+    {
+        return _expiryWheelTick;
+    }
+
+    /**
+     * Set the tick of the timer wheel that tracks the inactivity of the sessions.
+     * <p>
+     * By default each session has its own timer, scheduled whenever the last
+     * request leaves the session. With many sessions in the cache, a single
+     * {@link SessionExpiryWheel} is cheaper, at the cost of sessions expiring
+     * or being evicted up to one tick late.
+     *
+     * @param tickMs the tick in milliseconds, or 0 to use a timer per session
+     */
+    public void setExpiryWheelTick(long tickMs)
+    {
+        if (isStarted())
+            throw new IllegalStateException("Session cache started");
+        _expiryWheelTick = Math.max(0, tickMs);
+    }
+
+    /**
+     * @return the timer wheel that tracks the inactivity of the sessions, or null
+     * if each session has its own timer
+     */
+    public SessionExpiryWheel getExpiryWheel()
+    {
+        return _expiryWheel;
     }
 
     /**
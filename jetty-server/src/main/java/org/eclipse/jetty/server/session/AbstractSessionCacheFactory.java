@@ -27,6 +27,7 @@ public abstract class AbstractSessionCacheFactory implements SessionCacheFactory
     boolean _removeUnloadableSessions;
     boolean _flushOnResponseCommit;
     boolean _invalidateOnShutdown;
+    long _expiryWheelTick;
     
     public abstract SessionCache newSessionCache(SessionHandler handler);
 
@@ -40,6 +41,23 @@ public abstract class AbstractSessionCacheFactory implements SessionCacheFactory
         _invalidateOnShutdown = invalidateOnShutdown;
     }
 
+    /**
+     * @return the tick in milliseconds of the session expiry timer wheel, or 0 for a timer per session
+     */
+    public long getExpiryWheelTick()
+    {
+        return _expiryWheelTick;
+    }
+
+    /**
+     * @param expiryWheelTick the tick in milliseconds of the session expiry timer wheel, or 0 for a timer per session
+     * @see AbstractSessionCache#setExpiryWheelTick(long)
+     */
+    public void setExpiryWheelTick(long expiryWheelTick)
+    {
+        _expiryWheelTick = expiryWheelTick;
+    }
+
     /**
      * @return the flushOnResponseCommit
      */
@@ -130,6 +148,8 @@ public abstract class AbstractSessionCacheFactory implements SessionCacheFactory
         cache.setRemoveUnloadableSessions(isRemoveUnloadableSessions());
         cache.setFlushOnResponseCommit(isFlushOnResponseCommit());
         cache.setInvalidateOnShutdown(isInvalidateOnShutdown());
+        if (cache instanceof AbstractSessionCache)
+            ((AbstractSessionCache)cache).setExpiryWheelTick(getExpiryWheelTick());
         return cache;
     }
 }
@@ -13,7 +13,11 @@
 
 package org.eclipse.jetty.server.session;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
@@ -41,6 +45,8 @@ public abstract class AbstractSessionDataStore extends ContainerLifeCycle implem
     protected long _lastExpiryCheckTime = 0; //last time in ms that getExpired was called
     protected long _lastOrphanSweepTime = 0; //last time in ms that we deleted orphaned sessions
     protected int _savePeriodSec = DEFAULT_SAVE_PERIOD_SEC; //time in sec between saves
+    protected SessionDataSerializer _serializer = new JavaSessionDataSerializer(); //converts attributes to and from bytes
+    protected boolean _deltaWrites; //only write attributes that changed
     
     /**
      * Check if a session for the given id exists.
@@ -167,17 +173,7 @@ public abstract class AbstractSessionDataStore extends ContainerLifeCycle implem
             return;
 
         long lastSave = data.getLastSaved();
-        long savePeriodMs = (_savePeriodSec <= 0 ? 0 : TimeUnit.SECONDS.toMillis(_savePeriodSec));
-
-        if (LOG.isDebugEnabled())
-        {
-            LOG.debug("Store: id={}, mdirty={}, dirty={}, lsave={}, period={}, elapsed={}", id, data.isMetaDataDirty(),
-                data.isDirty(), data.getLastSaved(), savePeriodMs, (System.currentTimeMillis() - lastSave));
-        }
-
-        //save session if attribute changed, never been saved or metadata changed (eg expiry time) and save interval exceeded
-        if (data.isDirty() || (lastSave <= 0) ||
-            (data.isMetaDataDirty() && ((System.currentTimeMillis() - lastSave) >= savePeriodMs)))
+        if (isStoreRequired(id, data))
         {
             //set the last saved time to now
             data.setLastSaved(System.currentTimeMillis());
@@ -204,6 +200,114 @@ public abstract class AbstractSessionDataStore extends ContainerLifeCycle implem
         }
     }
 
+    /**
+     * Store the data of several sessions, as if {@link #store(String, SessionData)}
+     * was called for each of them, but letting the implementation write them
+     * together, see {@link #doStoreAll(List, long[])}.
+     *
+     * @param sessions the data of the sessions to store
+     * @throws Exception if the data of some sessions could not be stored
+     */
+    public void storeAll(Collection<SessionData> sessions) throws Exception
+    {
+        if (!isStarted())
+            throw new IllegalStateException("Not started");
+
+        List<SessionData> batch = new ArrayList<>(sessions.size());
+        for (SessionData data : sessions)
+        {
+            if (data != null && isStoreRequired(data.getId(), data))
+                batch.add(data);
+        }
+        if (batch.isEmpty())
+            return;
+
+        //set the last saved time to now, remembering the previous save times
+        long now = System.currentTimeMillis();
+        long[] lastSaves = new long[batch.size()];
+        for (int i = 0; i < lastSaves.length; i++)
+        {
+            lastSaves[i] = batch.get(i).getLastSaved();
+            batch.get(i).setLastSaved(now);
+        }
+
+        final FuturePromise<Void> result = new FuturePromise<>();
+        Runnable r = () ->
+        {
+            try
+            {
+                doStoreAll(batch, lastSaves);
+                result.succeeded(null);
+            }
+            catch (Exception e)
+            {
+                result.failed(e);
+            }
+        };
+        _context.run(r);
+        result.getOrThrow();
+    }
+
+    /**
+     * Store the data of several sessions persistently.
+     * <p>
+     * The data of each session stored must be cleaned, while the data of
+     * each session that could not be stored must have its last saved time
+     * reset to its previous save time. This implementation calls
+     * {@link #doStore(String, SessionData, long)} for each session in turn;
+     * stores that can write several sessions at once should override it.
+     *
+     * @param sessions the data of the sessions to store
+     * @param lastSaveTimes the times of the previous saves of the sessions, or 0 if never saved
+     * @throws Exception if the data of some sessions could not be stored
+     */
+    protected void doStoreAll(List<SessionData> sessions, long[] lastSaveTimes) throws Exception
+    {
+        Exception failure = null;
+        for (int i = 0; i < lastSaveTimes.length; i++)
+        {
+            SessionData data = sessions.get(i);
+            try
+            {
+                doStore(data.getId(), data, lastSaveTimes[i]);
+                data.clean(); //unset all dirty flags
+            }
+            catch (Exception e)
+            {
+                //reset last save time if save failed
+                data.setLastSaved(lastSaveTimes[i]);
+                if (failure == null)
+                    failure = e;
+                else
+                    failure.addSuppressed(e);
+            }
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+    /**
+     * @param id the id of the session
+     * @param data the session data
+     * @return true if the session has never been saved, if an attribute changed
+     * or if the metadata changed and the save period has elapsed
+     */
+    protected boolean isStoreRequired(String id, SessionData data)
+    {
+        long lastSave = data.getLastSaved();
+        long savePeriodMs = (_savePeriodSec <= 0 ? 0 : TimeUnit.SECONDS.toMillis(_savePeriodSec));
+
+        if (LOG.isDebugEnabled())
+        {
+            LOG.debug("Store: id={}, mdirty={}, dirty={}, lsave={}, period={}, elapsed={}", id, data.isMetaDataDirty(),
+                data.isDirty(), data.getLastSaved(), savePeriodMs, (System.currentTimeMillis() - lastSave));
+        }
+
+        //save session if attribute changed, never been saved or metadata changed (eg expiry time) and save interval exceeded
+        return data.isDirty() || (lastSave <= 0) ||
+            (data.isMetaDataDirty() && ((System.currentTimeMillis() - lastSave) >= savePeriodMs));
+    }
+
     @Override
     public boolean exists(String id) throws Exception
     {
@@ -367,6 +471,50 @@ public abstract class AbstractSessionDataStore extends ContainerLifeCycle implem
         _savePeriodSec = savePeriodSec;
     }
 
+    /**
+     * @return the serializer used to convert the session attributes to and from bytes
+     */
+    @ManagedAttribute(value = "serializer of session attributes", readonly = true)
+    public SessionDataSerializer getSessionDataSerializer()
+    {
+        return _serializer;
+    }
+
+    /**
+     * @param serializer the serializer used to convert the session attributes to and from bytes
+     */
+    public void setSessionDataSerializer(SessionDataSerializer serializer)
+    {
+        checkStarted();
+        _serializer = Objects.requireNonNull(serializer);
+    }
+
+    /**
+     * @return true if stores that support it only write the attributes that changed
+     */
+    @ManagedAttribute(value = "only write changed attributes", readonly = true)
+    public boolean isDeltaWrites()
+    {
+        return _deltaWrites;
+    }
+
+    /**
+     * Set whether stores that support it only write the attributes that
+     * changed since the session was last saved. For example, a store that
+     * saves all the attributes together will skip writing them when only the
+     * access time of the session changed.
+     * <p>
+     * Changes are detected by calls to {@code setAttribute()} and
+     * {@code removeAttribute()}: changes made to an attribute value without
+     * calling {@code setAttribute()} again are not written out.
+     *
+     * @param deltaWrites true to only write the attributes that changed
+     */
+    public void setDeltaWrites(boolean deltaWrites)
+    {
+        _deltaWrites = deltaWrites;
+    }
+
     @Override
     public String toString()
     {
@@ -21,6 +21,8 @@ public abstract class AbstractSessionDataStoreFactory implements SessionDataStor
 
     int _gracePeriodSec = AbstractSessionDataStore.DEFAULT_GRACE_PERIOD_SEC;
     int _savePeriodSec = AbstractSessionDataStore.DEFAULT_SAVE_PERIOD_SEC;
+    SessionDataSerializer _sessionDataSerializer;
+    boolean _deltaWrites;
 
     /**
      * @return the gracePeriodSec
@@ -53,4 +55,36 @@ public abstract class AbstractSessionDataStoreFactory implements SessionDataStor
     {
         _savePeriodSec = savePeriodSec;
     }
+
+    /**
+     * @return the serializer of session attributes, or null to use the store default
+     */
+    public SessionDataSerializer getSessionDataSerializer()
+    {
+        return _sessionDataSerializer;
+    }
+
+    /**
+     * @param sessionDataSerializer the serializer of session attributes, or null to use the store default
+     */
+    public void setSessionDataSerializer(SessionDataSerializer sessionDataSerializer)
+    {
+        _sessionDataSerializer = sessionDataSerializer;
+    }
+
+    /**
+     * @return true if stores that support it only write the attributes that changed
+     */
+    public boolean isDeltaWrites()
+    {
+        return _deltaWrites;
+    }
+
+    /**
+     * @param deltaWrites true if stores that support it only write the attributes that changed
+     */
+    public void setDeltaWrites(boolean deltaWrites)
+    {
+        _deltaWrites = deltaWrites;
+    }
 }
@@ -0,0 +1,277 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server.session;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.PushbackInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.jetty.util.ClassLoadingObjectInputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * BinarySessionDataSerializer
+ *
+ * A compact {@link SessionDataSerializer} that writes each attribute as its name,
+ * a type tag and a length-prefixed value. Strings, boxed primitives and byte arrays
+ * are written directly; other values are written with java serialization, each in
+ * its own length-prefixed block.
+ * <p>
+ * As each attribute value is serialized independently, the serialized form of the
+ * values can be reused by subsequent saves until the attribute is set or removed,
+ * see {@link #setReuseSerializedAttributes(boolean)}.
+ * <p>
+ * Attributes written by {@link JavaSessionDataSerializer} can still be read, so that
+ * existing sessions can be loaded after switching to this serializer.
+ */
+public class BinarySessionDataSerializer implements SessionDataSerializer
+{
+    private static final Logger LOG = LoggerFactory.getLogger(BinarySessionDataSerializer.class);
+
+    static final int MAGIC = 0x4A534431; // "JSD1"
+    private static final byte OBJECT = 0;
+    private static final byte STRING = 1;
+    private static final byte INTEGER = 2;
+    private static final byte LONG = 3;
+    private static final byte BOOLEAN = 4;
+    private static final byte DOUBLE = 5;
+    private static final byte BYTES = 6;
+
+    private final JavaSessionDataSerializer _javaSerializer = new JavaSessionDataSerializer();
+    private boolean _reuseSerializedAttributes;
+
+    /**
+     * @return true if the serialized form of attribute values is reused until the attribute is set or removed
+     */
+    public boolean isReuseSerializedAttributes()
+    {
+        return _reuseSerializedAttributes;
+    }
+
+    /**
+     * Set whether the serialized form of attribute values that are not strings, boxed
+     * primitives or byte arrays is remembered and reused by subsequent saves, until
+     * the attribute is set or removed.
+     * <p>
+     * This avoids re-serializing large attribute values that did not change, at the
+     * cost of keeping their serialized form in memory. Changes made to an attribute
+     * value without calling {@code setAttribute()} again are not saved.
+     *
+     * @param reuseSerializedAttributes true to reuse the serialized form of attribute values
+     */
+    public void setReuseSerializedAttributes(boolean reuseSerializedAttributes)
+    {
+        _reuseSerializedAttributes = reuseSerializedAttributes;
+    }
+
+    @Override
+    public void serializeAttributes(SessionData data, OutputStream out) throws IOException
+    {
+        DataOutputStream dos = new DataOutputStream(out);
+        dos.writeInt(MAGIC);
+        List<Map.Entry<String, Object>> entries = new ArrayList<>(data._attributes.entrySet());
+        dos.writeInt(entries.size());
+        for (Map.Entry<String, Object> entry : entries)
+        {
+            String name = entry.getKey();
+            Object value = entry.getValue();
+            dos.writeUTF(name);
+
+            if (value instanceof String)
+            {
+                dos.writeByte(STRING);
+                writeBytes(dos, ((String)value).getBytes(StandardCharsets.UTF_8));
+            }
+            else if (value instanceof Integer)
+            {
+                dos.writeByte(INTEGER);
+                dos.writeInt((Integer)value);
+            }
+            else if (value instanceof Long)
+            {
+                dos.writeByte(LONG);
+                dos.writeLong((Long)value);
+            }
+            else if (value instanceof Boolean)
+            {
+                dos.writeByte(BOOLEAN);
+                dos.writeBoolean((Boolean)value);
+            }
+            else if (value instanceof Double)
+            {
+                dos.writeByte(DOUBLE);
+                dos.writeDouble((Double)value);
+            }
+            else if (value instanceof byte[])
+            {
+                dos.writeByte(BYTES);
+                writeBytes(dos, (byte[])value);
+            }
+            else
+            {
+                byte[] serialized = _reuseSerializedAttributes ? data.getSerializedAttribute(name) : null;
+                if (serialized == null)
+                {
+                    serialized = serializeObject(value);
+                    if (_reuseSerializedAttributes)
+                        data.putSerializedAttribute(name, serialized);
+                }
+                else if (LOG.isDebugEnabled())
+                {
+                    LOG.debug("Reusing serialized attribute {} for {}", name, data.getId());
+                }
+                dos.write(serialized);
+            }
+        }
+        dos.flush();
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException
+    {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] serializeObject(Object value) throws IOException
+    {
+        boolean isServerLoader = !SessionData.isContextLoaderClass(value.getClass());
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream oos = new ObjectOutputStream(bytes))
+        {
+            oos.writeObject(value);
+        }
+        return encodeObject(isServerLoader, bytes.toByteArray());
+    }
+
+    private static byte[] encodeObject(boolean isServerLoader, byte[] bytes) throws IOException
+    {
+        ByteArrayOutputStream record = new ByteArrayOutputStream(bytes.length + 6);
+        DataOutputStream out = new DataOutputStream(record);
+        out.writeByte(OBJECT);
+        out.writeBoolean(isServerLoader);
+        writeBytes(out, bytes);
+        return record.toByteArray();
+    }
+
+    @Override
+    public void deserializeAttributes(SessionData data, InputStream in) throws IOException, ClassNotFoundException
+    {
+        PushbackInputStream pushback = new PushbackInputStream(in, 4);
+        byte[] magic = new byte[4];
+        int read = readMagic(pushback, magic);
+        if (read < 4 || ((magic[0] & 0xFF) << 24 | (magic[1] & 0xFF) << 16 | (magic[2] & 0xFF) << 8 | (magic[3] & 0xFF)) != MAGIC)
+        {
+            // Not written by this serializer, assume java serialization.
+            if (read > 0)
+                pushback.unread(magic, 0, read);
+            _javaSerializer.deserializeAttributes(data, pushback);
+            return;
+        }
+
+        DataInputStream dis = new DataInputStream(pushback);
+        int entries = dis.readInt();
+        Map<String, Object> attributes = new ConcurrentHashMap<>();
+        Map<String, byte[]> serialized = _reuseSerializedAttributes ? new ConcurrentHashMap<>() : null;
+        ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+        ClassLoader serverLoader = SessionData.class.getClassLoader();
+        for (int i = 0; i < entries; i++)
+        {
+            String name = dis.readUTF();
+            byte type = dis.readByte();
+            Object value;
+            switch (type)
+            {
+                case STRING:
+                    value = new String(readBytes(dis), StandardCharsets.UTF_8);
+                    break;
+                case INTEGER:
+                    value = dis.readInt();
+                    break;
+                case LONG:
+                    value = dis.readLong();
+                    break;
+                case BOOLEAN:
+                    value = dis.readBoolean();
+                    break;
+                case DOUBLE:
+                    value = dis.readDouble();
+                    break;
+                case BYTES:
+                    value = readBytes(dis);
+                    break;
+                case OBJECT:
+                {
+                    boolean isServerLoader = dis.readBoolean();
+                    byte[] bytes = readBytes(dis);
+                    try (ClassLoadingObjectInputStream ois = new ClassLoadingObjectInputStream(new ByteArrayInputStream(bytes)))
+                    {
+                        value = ois.readObject(isServerLoader ? serverLoader : contextLoader);
+                    }
+                    if (serialized != null)
+                        serialized.put(name, encodeObject(isServerLoader, bytes));
+                    break;
+                }
+                default:
+                    throw new IOException("Unknown type " + type + " for attribute " + name);
+            }
+            attributes.put(name, value);
+        }
+
+        data._attributes = attributes;
+        data.clearSerializedAttributes();
+        if (serialized != null)
+            serialized.forEach(data::putSerializedAttribute);
+    }
+
+    private static int readMagic(InputStream in, byte[] magic) throws IOException
+    {
+        int read = 0;
+        while (read < magic.length)
+        {
+            int r = in.read(magic, read, magic.length - read);
+            if (r < 0)
+                break;
+            read += r;
+        }
+        return read;
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException
+    {
+        int length = in.readInt();
+        if (length < 0)
+            throw new IOException("Invalid length " + length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[reuseSerializedAttributes=%b]", getClass().getSimpleName(), hashCode(), _reuseSerializedAttributes);
+    }
+}
@@ -63,6 +63,9 @@ public class FileSessionDataStoreFactory extends AbstractSessionDataStoreFactory
         fsds.setStoreDir(getStoreDir());
         fsds.setGracePeriodSec(getGracePeriodSec());
         fsds.setSavePeriodSec(getSavePeriodSec());
+        if (getSessionDataSerializer() != null)
+            fsds.setSessionDataSerializer(getSessionDataSerializer());
+        fsds.setDeltaWrites(isDeltaWrites());
         return fsds;
     }
 }
@@ -16,7 +16,6 @@ package org.eclipse.jetty.server.session;
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
-import java.io.ObjectOutputStream;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
@@ -24,9 +23,9 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
-import org.eclipse.jetty.util.ClassLoadingObjectInputStream;
 import org.eclipse.jetty.util.StringUtil;
 import org.eclipse.jetty.util.annotation.ManagedAttribute;
 import org.eclipse.jetty.util.annotation.ManagedObject;
@@ -312,14 +311,19 @@ public class JDBCSessionDataStore extends AbstractSessionDataStore
                 " values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
         }
 
-        public PreparedStatement getUpdateSessionStatement(Connection connection, String id, SessionContext context)
-            throws SQLException
+        public String getUpdateSessionStatementAsString()
         {
-            String s = "update " + getSchemaTableName() +
+            return "update " + getSchemaTableName() +
                 " set " + getLastNodeColumn() + " = ?, " + getAccessTimeColumn() + " = ?, " +
                 getLastAccessTimeColumn() + " = ?, " + getLastSavedTimeColumn() + " = ?, " + getExpiryTimeColumn() + " = ?, " +
                 getMaxIntervalColumn() + " = ?, " + getMapColumn() + " = ? where " + getIdColumn() + " = ? and " + getContextPathColumn() +
                 " = ? and " + getVirtualHostColumn() + " = ?";
+        }
+
+        public PreparedStatement getUpdateSessionStatement(Connection connection, String id, SessionContext context)
+            throws SQLException
+        {
+            String s = getUpdateSessionStatementAsString();
 
             String cp = context.getCanonicalContextPath();
             if (_dbAdaptor.isEmptyStringNull() && StringUtil.isBlank(cp))
@@ -332,6 +336,31 @@ public class JDBCSessionDataStore extends AbstractSessionDataStore
             return statement;
         }
 
+        public String getUpdateSessionMetaDataStatementAsString()
+        {
+            return "update " + getSchemaTableName() +
+                " set " + getLastNodeColumn() + " = ?, " + getAccessTimeColumn() + " = ?, " +
+                getLastAccessTimeColumn() + " = ?, " + getLastSavedTimeColumn() + " = ?, " + getExpiryTimeColumn() + " = ?, " +
+                getMaxIntervalColumn() + " = ? where " + getIdColumn() + " = ? and " + getContextPathColumn() +
+                " = ? and " + getVirtualHostColumn() + " = ?";
+        }
+
+        public PreparedStatement getUpdateSessionMetaDataStatement(Connection connection, String id, SessionContext context)
+            throws SQLException
+        {
+            String s = getUpdateSessionMetaDataStatementAsString();
+
+            String cp = context.getCanonicalContextPath();
+            if (_dbAdaptor.isEmptyStringNull() && StringUtil.isBlank(cp))
+                cp = NULL_CONTEXT_PATH;
+
+            PreparedStatement statement = connection.prepareStatement(s);
+            statement.setString(7, id);
+            statement.setString(8, cp);
+            statement.setString(9, context.getVhost());
+            return statement;
+        }
+
         public PreparedStatement getExpiredSessionsStatement(Connection connection, String canonicalContextPath, String vhost, long expiry)
             throws SQLException
         {
@@ -662,10 +691,9 @@ public class JDBCSessionDataStore extends AbstractSessionDataStore
                 data.setContextPath(_context.getCanonicalContextPath());
                 data.setVhost(_context.getVhost());
 
-                try (InputStream is = _dbAdaptor.getBlobInputStream(result, _sessionTableSchema.getMapColumn());
-                     ClassLoadingObjectInputStream ois = new ClassLoadingObjectInputStream(is))
+                try (InputStream is = _dbAdaptor.getBlobInputStream(result, _sessionTableSchema.getMapColumn()))
                 {
-                    SessionData.deserializeAttributes(data, ois);
+                    getSessionDataSerializer().deserializeAttributes(data, is);
                 }
                 catch (Exception e)
                 {
@@ -713,6 +741,114 @@ public class JDBCSessionDataStore extends AbstractSessionDataStore
         }
     }
 
+    /**
+     * Store the sessions with JDBC batches in a single transaction:
+     * either all the sessions are stored, or none is.
+     */
+    @Override
+    protected void doStoreAll(List<SessionData> sessions, long[] lastSaveTimes) throws Exception
+    {
+        String cp = _context.getCanonicalContextPath();
+        if (_dbAdaptor.isEmptyStringNull() && StringUtil.isBlank(cp))
+            cp = NULL_CONTEXT_PATH;
+        String vhost = _context.getVhost();
+
+        try (Connection connection = _dbAdaptor.getConnection())
+        {
+            connection.setAutoCommit(false);
+            try (PreparedStatement insert = connection.prepareStatement(_sessionTableSchema.getInsertSessionStatementAsString());
+                 PreparedStatement update = connection.prepareStatement(_sessionTableSchema.getUpdateSessionStatementAsString());
+                 PreparedStatement updateMetaData = connection.prepareStatement(_sessionTableSchema.getUpdateSessionMetaDataStatementAsString()))
+            {
+                int inserts = 0;
+                int updates = 0;
+                int metaDataUpdates = 0;
+                for (int i = 0; i < sessions.size(); i++)
+                {
+                    SessionData data = sessions.get(i);
+                    if (lastSaveTimes[i] <= 0)
+                    {
+                        insert.setString(1, data.getId()); //session id
+                        insert.setString(2, cp); //context path
+                        insert.setString(3, vhost); //first vhost
+                        insert.setString(4, data.getLastNode()); //my node id
+                        insert.setLong(5, data.getAccessed()); //accessTime
+                        insert.setLong(6, data.getLastAccessed()); //lastAccessTime
+                        insert.setLong(7, data.getCreated()); //time created
+                        insert.setLong(8, data.getCookieSet()); //time cookie was set
+                        insert.setLong(9, data.getLastSaved()); //last saved time
+                        insert.setLong(10, data.getExpiry());
+                        insert.setLong(11, data.getMaxInactiveMs());
+                        setAttributes(insert, 12, data);
+                        insert.addBatch();
+                        inserts++;
+                    }
+                    else
+                    {
+                        boolean metaDataOnly = isDeltaWrites() && !data.isAttributesDirty();
+                        PreparedStatement statement = metaDataOnly ? updateMetaData : update;
+                        statement.setString(1, data.getLastNode()); //should be my node id
+                        statement.setLong(2, data.getAccessed()); //accessTime
+                        statement.setLong(3, data.getLastAccessed()); //lastAccessTime
+                        statement.setLong(4, data.getLastSaved()); //last saved time
+                        statement.setLong(5, data.getExpiry());
+                        statement.setLong(6, data.getMaxInactiveMs());
+                        int next = 7;
+                        if (!metaDataOnly)
+                            setAttributes(statement, next++, data);
+                        statement.setString(next++, data.getId());
+                        statement.setString(next++, cp);
+                        statement.setString(next, vhost);
+                        statement.addBatch();
+                        if (metaDataOnly)
+                            metaDataUpdates++;
+                        else
+                            updates++;
+                    }
+                }
+
+                if (inserts > 0)
+                    insert.executeBatch();
+                if (updates > 0)
+                    update.executeBatch();
+                if (metaDataUpdates > 0)
+                    updateMetaData.executeBatch();
+                connection.commit();
+                for (SessionData data : sessions)
+                {
+                    data.clean(); //unset all dirty flags
+                }
+
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Stored sessions inserts={} updates={} metaDataUpdates={}", inserts, updates, metaDataUpdates);
+            }
+            catch (Exception e)
+            {
+                connection.rollback();
+                throw e;
+            }
+        }
+        catch (Exception e)
+        {
+            //reset last save times as none was saved
+            for (int i = 0; i < lastSaveTimes.length; i++)
+            {
+                sessions.get(i).setLastSaved(lastSaveTimes[i]);
+            }
+            throw e;
+        }
+    }
+
+    private void setAttributes(PreparedStatement statement, int index, SessionData data) throws Exception
+    {
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream())
+        {
+            getSessionDataSerializer().serializeAttributes(data, baos);
+            byte[] bytes = baos.toByteArray();
+            statement.setBinaryStream(index, new ByteArrayInputStream(bytes), bytes.length); //attribute map as blob
+        }
+    }
+
     protected void doInsert(String id, SessionData data)
         throws Exception
     {
@@ -741,10 +877,9 @@ public class JDBCSessionDataStore extends AbstractSessionDataStore
                 statement.setLong(10, data.getExpiry());
                 statement.setLong(11, data.getMaxInactiveMs());
 
-                try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                     ObjectOutputStream oos = new ObjectOutputStream(baos))
+                try (ByteArrayOutputStream baos = new ByteArrayOutputStream())
                 {
-                    SessionData.serializeAttributes(data, oos);
+                    getSessionDataSerializer().serializeAttributes(data, baos);
                     byte[] bytes = baos.toByteArray();
                     ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
                     statement.setBinaryStream(12, bais, bytes.length); //attribute map as blob
@@ -760,6 +895,12 @@ public class JDBCSessionDataStore extends AbstractSessionDataStore
     protected void doUpdate(String id, SessionData data)
         throws Exception
     {
+        if (isDeltaWrites() && !data.isAttributesDirty())
+        {
+            doUpdateMetaData(id, data);
+            return;
+        }
+
         try (Connection connection = _dbAdaptor.getConnection())
         {
             connection.setAutoCommit(true);
@@ -772,10 +913,9 @@ public class JDBCSessionDataStore extends AbstractSessionDataStore
                 statement.setLong(5, data.getExpiry());
                 statement.setLong(6, data.getMaxInactiveMs());
 
-                try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                     ObjectOutputStream oos = new ObjectOutputStream(baos))
+                try (ByteArrayOutputStream baos = new ByteArrayOutputStream())
                 {
-                    SessionData.serializeAttributes(data, oos);
+                    getSessionDataSerializer().serializeAttributes(data, baos);
                     byte[] bytes = baos.toByteArray();
                     try (ByteArrayInputStream bais = new ByteArrayInputStream(bytes))
                     {
@@ -791,6 +931,35 @@ public class JDBCSessionDataStore extends AbstractSessionDataStore
         }
     }
 
+    /**
+     * Update the session without writing its attributes, because none changed.
+     *
+     * @param id the id of the session
+     * @param data the session data
+     * @throws Exception if the session could not be updated
+     */
+    protected void doUpdateMetaData(String id, SessionData data)
+        throws Exception
+    {
+        try (Connection connection = _dbAdaptor.getConnection())
+        {
+            connection.setAutoCommit(true);
+            try (PreparedStatement statement = _sessionTableSchema.getUpdateSessionMetaDataStatement(connection, data.getId(), _context))
+            {
+                statement.setString(1, data.getLastNode()); //should be my node id
+                statement.setLong(2, data.getAccessed()); //accessTime
+                statement.setLong(3, data.getLastAccessed()); //lastAccessTime
+                statement.setLong(4, data.getLastSaved()); //last saved time
+                statement.setLong(5, data.getExpiry());
+                statement.setLong(6, data.getMaxInactiveMs());
+                statement.executeUpdate();
+
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Updated session metadata {}", data);
+            }
+        }
+    }
+
     @Override
     public Set<String> doCheckExpired(Set<String> candidates, long time)
     {
@@ -37,6 +37,9 @@ public class JDBCSessionDataStoreFactory extends AbstractSessionDataStoreFactory
         ds.setSessionTableSchema(_schema);
         ds.setGracePeriodSec(getGracePeriodSec());
         ds.setSavePeriodSec(getSavePeriodSec());
+        if (getSessionDataSerializer() != null)
+            ds.setSessionDataSerializer(getSessionDataSerializer());
+        ds.setDeltaWrites(isDeltaWrites());
         return ds;
     }
 
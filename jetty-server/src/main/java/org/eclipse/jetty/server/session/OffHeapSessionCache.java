@@ -0,0 +1,586 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server.session;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.thread.AutoLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * OffHeapSessionCache
+ *
+ * A session cache that keeps a bounded hot set of {@link Session} objects on the heap,
+ * like {@link DefaultSessionCache}, and keeps the other cached sessions serialized
+ * outside of the heap, either in direct memory or in memory mapped files.
+ * <p>
+ * When a request leaves a session and there are more than {@link #getMaxHotSessions()}
+ * sessions on the heap, the least recently used idle sessions are demoted: their
+ * {@link SessionData} is serialized off heap and their {@link Session} object is
+ * dropped. A demoted session is promoted back to the heap the next time it is
+ * accessed, without going to the {@link SessionDataStore}. Sessions idle for longer
+ * than the eviction policy are demoted instead of being evicted. Demoted sessions
+ * are expired by this cache when the {@link HouseKeeper} scavenges.
+ * <p>
+ * The attributes are serialized with the {@link SessionDataSerializer} of the
+ * {@link SessionDataStore}, if it has one, so the same constraints on attribute
+ * values apply, and {@link javax.servlet.http.HttpSessionActivationListener}s
+ * are notified when sessions are demoted and promoted.
+ * Sessions that cannot be demoted, because their {@link SessionData} is of a
+ * store specific type or because there is no more room off heap, are evicted
+ * to the {@link SessionDataStore}, unless it is a {@link NullSessionDataStore}
+ * in which case they remain on the heap.
+ */
+@ManagedObject
+public class OffHeapSessionCache extends DefaultSessionCache
+{
+    private static final Logger LOG = LoggerFactory.getLogger(OffHeapSessionCache.class);
+
+    private final AutoLock _lock = new AutoLock();
+    private final Map<String, Boolean> _recentlyUsed = new LinkedHashMap<>(16, 0.75F, true);
+    private final LongAdder _demotions = new LongAdder();
+    private final LongAdder _promotions = new LongAdder();
+    private final LongAdder _evictions = new LongAdder();
+    private int _maxHotSessions = 10000;
+    private int _segmentSize = 4 * 1024 * 1024;
+    private long _maxOffHeapMemory = -1;
+    private Path _storageDirectory;
+    private OffHeapSessionStorage _storage;
+
+    /**
+     * @param handler The SessionHandler related to this SessionCache
+     */
+    public OffHeapSessionCache(SessionHandler handler)
+    {
+        super(handler);
+    }
+
+    /**
+     * @return the max number of sessions kept on the heap
+     */
+    @ManagedAttribute(value = "max sessions kept on the heap", readonly = true)
+    public int getMaxHotSessions()
+    {
+        return _maxHotSessions;
+    }
+
+    /**
+     * @param maxHotSessions the max number of sessions kept on the heap
+     */
+    public void setMaxHotSessions(int maxHotSessions)
+    {
+        _maxHotSessions = maxHotSessions;
+    }
+
+    /**
+     * @return the size in bytes of the segments of off heap memory, which bounds the size of a serialized session
+     */
+    @ManagedAttribute(value = "size of the off heap segments", readonly = true)
+    public int getSegmentSize()
+    {
+        return _segmentSize;
+    }
+
+    /**
+     * @param segmentSize the size in bytes of the segments of off heap memory
+     */
+    public void setSegmentSize(int segmentSize)
+    {
+        checkNotStarted();
+        _segmentSize = segmentSize;
+    }
+
+    /**
+     * @return the max off heap memory in bytes, or -1 for no limit
+     */
+    @ManagedAttribute(value = "max off heap memory", readonly = true)
+    public long getMaxOffHeapMemory()
+    {
+        return _maxOffHeapMemory;
+    }
+
+    /**
+     * @param maxOffHeapMemory the max off heap memory in bytes, or -1 for no limit
+     */
+    public void setMaxOffHeapMemory(long maxOffHeapMemory)
+    {
+        checkNotStarted();
+        _maxOffHeapMemory = maxOffHeapMemory;
+    }
+
+    /**
+     * @return the directory where the off heap segments are memory mapped, or null if they are allocated from direct memory
+     */
+    @ManagedAttribute(value = "directory of the memory mapped segments", readonly = true)
+    public Path getStorageDirectory()
+    {
+        return _storageDirectory;
+    }
+
+    /**
+     * @param storageDirectory the directory where the off heap segments are memory mapped, or null to allocate them from direct memory
+     */
+    public void setStorageDirectory(Path storageDirectory)
+    {
+        checkNotStarted();
+        _storageDirectory = storageDirectory;
+    }
+
+    @ManagedAttribute(value = "current sessions off heap", readonly = true)
+    public long getOffHeapSessions()
+    {
+        OffHeapSessionStorage storage = _storage;
+        return storage == null ? 0 : storage.size();
+    }
+
+    @ManagedAttribute(value = "off heap memory allocated", readonly = true)
+    public long getOffHeapMemory()
+    {
+        OffHeapSessionStorage storage = _storage;
+        return storage == null ? 0 : storage.getMemory();
+    }
+
+    @ManagedAttribute(value = "off heap memory used by sessions", readonly = true)
+    public long getOffHeapUsedMemory()
+    {
+        OffHeapSessionStorage storage = _storage;
+        return storage == null ? 0 : storage.getUsedMemory();
+    }
+
+    @ManagedAttribute(value = "compactions of off heap segments", readonly = true)
+    public long getOffHeapCompactions()
+    {
+        OffHeapSessionStorage storage = _storage;
+        return storage == null ? 0 : storage.getCompactions();
+    }
+
+    @ManagedAttribute(value = "sessions moved off heap", readonly = true)
+    public long getDemotions()
+    {
+        return _demotions.sum();
+    }
+
+    @ManagedAttribute(value = "sessions moved back to the heap", readonly = true)
+    public long getPromotions()
+    {
+        return _promotions.sum();
+    }
+
+    @ManagedAttribute(value = "sessions evicted because they could not be moved off heap", readonly = true)
+    public long getEvictions()
+    {
+        return _evictions.sum();
+    }
+
+    @Override
+    @ManagedOperation(value = "reset statistics", impact = "ACTION")
+    public void resetStats()
+    {
+        super.resetStats();
+        _demotions.reset();
+        _promotions.reset();
+        _evictions.reset();
+    }
+
+    private void checkNotStarted()
+    {
+        if (isStarted())
+            throw new IllegalStateException(this + " started");
+    }
+
+    @Override
+    protected void doStart() throws Exception
+    {
+        _storage = new OffHeapSessionStorage(_segmentSize, _maxOffHeapMemory, _storageDirectory);
+        super.doStart();
+    }
+
+    @Override
+    protected void doStop() throws Exception
+    {
+        super.doStop();
+        _storage.clear();
+        try (AutoLock l = _lock.lock())
+        {
+            _recentlyUsed.clear();
+        }
+    }
+
+    @Override
+    protected Session getAndEnter(String id, boolean enter) throws Exception
+    {
+        Session session = super.getAndEnter(id, enter);
+        // The session may have been demoted between being found and being locked.
+        if (session == null && _storage.contains(id))
+            session = super.getAndEnter(id, enter);
+        return session;
+    }
+
+    @Override
+    public Session doPutIfAbsent(String id, Session session)
+    {
+        Session s = super.doPutIfAbsent(id, session);
+        if (s == null)
+            touch(id);
+        return s;
+    }
+
+    @Override
+    protected Session doComputeIfAbsent(String id, Function<String, Session> mappingFunction)
+    {
+        Session session = super.doComputeIfAbsent(id, k ->
+        {
+            Session s = promote(k);
+            return s == null ? mappingFunction.apply(k) : s;
+        });
+        if (session != null)
+            touch(id);
+        return session;
+    }
+
+    @Override
+    public Session doDelete(String id)
+    {
+        _storage.remove(id);
+        try (AutoLock l = _lock.lock())
+        {
+            _recentlyUsed.remove(id);
+        }
+        return super.doDelete(id);
+    }
+
+    @Override
+    public boolean exists(String id) throws Exception
+    {
+        return _storage.contains(id) || super.exists(id);
+    }
+
+    @Override
+    public boolean contains(String id) throws Exception
+    {
+        return super.contains(id) || _storage.contains(id);
+    }
+
+    @Override
+    public void release(String id, Session session) throws Exception
+    {
+        super.release(id, session);
+        if (getSessionsCurrent() > _maxHotSessions)
+            demoteLeastRecentlyUsed();
+    }
+
+    @Override
+    public Set<String> checkExpiration(Set<String> candidates)
+    {
+        Set<String> expired = super.checkExpiration(candidates);
+        if (!isStarted())
+            return expired;
+        Set<String> offHeapExpired = _storage.getExpired(System.currentTimeMillis());
+        if (offHeapExpired.isEmpty())
+            return expired;
+        if (expired != null)
+            offHeapExpired.addAll(expired);
+        return offHeapExpired;
+    }
+
+    @Override
+    public void checkInactiveSession(Session session)
+    {
+        if (session == null)
+            return;
+
+        try (AutoLock l = session.lock())
+        {
+            if (getEvictionPolicy() > 0 && session.isIdleLongerThan(getEvictionPolicy()) && demote(session))
+                return;
+        }
+        super.checkInactiveSession(session);
+    }
+
+    @Override
+    public void shutdown()
+    {
+        super.shutdown();
+
+        // Bring the off heap sessions back a batch at a time, so that they are
+        // invalidated or stored like the sessions on the heap.
+        int loop = 100;
+        while (_storage.size() > 0 && loop-- > 0)
+        {
+            Iterator<String> ids = _storage.getIds().iterator();
+            while (ids.hasNext())
+            {
+                for (int i = 0; i < Math.max(1, _maxHotSessions) && ids.hasNext(); ++i)
+                {
+                    String id = ids.next();
+                    try
+                    {
+                        getAndEnter(id, false);
+                    }
+                    catch (Exception e)
+                    {
+                        LOG.warn("Unable to restore off heap session {}", id, e);
+                        _storage.remove(id);
+                    }
+                }
+                super.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Demote the least recently used idle sessions until at most
+     * {@link #getMaxHotSessions()} sessions remain on the heap.
+     */
+    protected void demoteLeastRecentlyUsed()
+    {
+        int attempts;
+        try (AutoLock l = _lock.lock())
+        {
+            attempts = _recentlyUsed.size();
+        }
+
+        while (attempts-- > 0 && getSessionsCurrent() > _maxHotSessions)
+        {
+            String id;
+            try (AutoLock l = _lock.lock())
+            {
+                Iterator<String> iterator = _recentlyUsed.keySet().iterator();
+                if (!iterator.hasNext())
+                    return;
+                id = iterator.next();
+                iterator.remove();
+            }
+
+            Session session = doGet(id);
+            if (session == null)
+                continue;
+
+            boolean retained;
+            try (AutoLock l = session.lock())
+            {
+                retained = !demote(session) && !evict(session) && session.isResident();
+            }
+            // Sessions in use go back at the most recently used end.
+            if (retained)
+                touch(id);
+        }
+    }
+
+    /**
+     * Move a session off heap, if it is idle.
+     * Must be called with the session lock held.
+     *
+     * @param session the session to demote
+     * @return true if the session was moved off heap
+     */
+    private boolean demote(Session session)
+    {
+        if (!session.isResident() || !session.isValid() || session.getRequests() > 0)
+            return false;
+
+        // Store specific session data may hold more than can be serialized here.
+        SessionData data = session.getSessionData();
+        if (data.getClass() != SessionData.class)
+            return false;
+
+        String id = session.getId();
+        session.willPassivate();
+        try
+        {
+            if (_storage.put(id, serialize(data), data.getExpiry()))
+            {
+                super.doDelete(id);
+                session.setResident(false);
+                _demotions.increment();
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Demoted session {} off heap", id);
+                return true;
+            }
+        }
+        catch (Exception e)
+        {
+            LOG.warn("Unable to demote session {}", id, e);
+        }
+        session.didActivate();
+        return false;
+    }
+
+    /**
+     * Evict an idle session that could not be demoted, if the
+     * {@link SessionDataStore} holds its data.
+     * Must be called with the session lock held.
+     *
+     * @param session the session to evict
+     * @return true if the session was evicted
+     */
+    private boolean evict(Session session)
+    {
+        if (_sessionDataStore instanceof NullSessionDataStore)
+            return false;
+        if (!session.isResident() || !session.isValid() || session.getRequests() > 0)
+            return false;
+
+        // The data was stored when the last request left the session.
+        if (LOG.isDebugEnabled())
+            LOG.debug("Evicting session {} that cannot be demoted", session.getId());
+        doDelete(session.getId());
+        session.setResident(false);
+        _evictions.increment();
+        return true;
+    }
+
+    /**
+     * Move a session from off heap back to the heap.
+     *
+     * @param id the session id
+     * @return the promoted session, not yet in the cache, or null if the session is not off heap
+     */
+    private Session promote(String id)
+    {
+        byte[] bytes = _storage.take(id);
+        if (bytes == null)
+            return null;
+
+        try
+        {
+            SessionData data = deserialize(id, bytes);
+            Session session = newSession(data);
+            try (AutoLock l = session.lock())
+            {
+                session.setResident(true);
+                session.didActivate();
+            }
+            _promotions.increment();
+            if (LOG.isDebugEnabled())
+                LOG.debug("Promoted session {} from off heap", id);
+            return session;
+        }
+        catch (Exception e)
+        {
+            LOG.warn("Unable to promote session {}", id, e);
+            return null;
+        }
+    }
+
+    private void touch(String id)
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            _recentlyUsed.put(id, Boolean.TRUE);
+        }
+    }
+
+    private SessionDataSerializer getSessionDataSerializer()
+    {
+        if (_sessionDataStore instanceof AbstractSessionDataStore)
+            return ((AbstractSessionDataStore)_sessionDataStore).getSessionDataSerializer();
+        return new JavaSessionDataSerializer();
+    }
+
+    private byte[] serialize(SessionData data) throws Exception
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(data.getCreated());
+        out.writeLong(data.getAccessed());
+        out.writeLong(data.getLastAccessed());
+        out.writeLong(data.getMaxInactiveMs());
+        out.writeLong(data.getCookieSet());
+        out.writeLong(data.getExpiry());
+        out.writeLong(data.getLastSaved());
+        out.writeBoolean(data.isDirty());
+        out.writeBoolean(data.isMetaDataDirty());
+        out.writeUTF(data.getLastNode() == null ? "" : data.getLastNode());
+
+        // Run in the context so attribute classes are recorded against the right classloader.
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        _context.run(() ->
+        {
+            try
+            {
+                getSessionDataSerializer().serializeAttributes(data, out);
+            }
+            catch (Exception e)
+            {
+                failure.set(e);
+            }
+        });
+        if (failure.get() != null)
+            throw failure.get();
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private SessionData deserialize(String id, byte[] bytes) throws Exception
+    {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+        long created = in.readLong();
+        long accessed = in.readLong();
+        long lastAccessed = in.readLong();
+        long maxInactiveMs = in.readLong();
+        SessionData data = _sessionDataStore.newSessionData(id, created, accessed, lastAccessed, maxInactiveMs);
+        data.setContextPath(_context.getCanonicalContextPath());
+        data.setVhost(_context.getVhost());
+        data.setCookieSet(in.readLong());
+        data.setExpiry(in.readLong());
+        data.setLastSaved(in.readLong());
+        boolean dirty = in.readBoolean();
+        boolean metaDataDirty = in.readBoolean();
+        String lastNode = in.readUTF();
+        data.setLastNode(lastNode.isEmpty() ? null : lastNode);
+
+        // Run in the context so attribute classes are loaded by the right classloader.
+        AtomicReference<Exception> failure = new AtomicReference<>();
+        _context.run(() ->
+        {
+            try
+            {
+                getSessionDataSerializer().deserializeAttributes(data, in);
+            }
+            catch (Exception e)
+            {
+                failure.set(e);
+            }
+        });
+        if (failure.get() != null)
+            throw failure.get();
+        data.setDirty(dirty);
+        data.setMetaDataDirty(metaDataDirty);
+        return data;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s[maxHot=%d,%s]", super.toString(), _maxHotSessions, _storage);
+    }
+}
@@ -0,0 +1,104 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server.session;
+
+import java.nio.file.Path;
+
+/**
+ * OffHeapSessionCacheFactory
+ *
+ * Factory for creating new OffHeapSessionCaches.
+ */
+public class OffHeapSessionCacheFactory extends AbstractSessionCacheFactory
+{
+    int _maxHotSessions = 10000;
+    int _segmentSize = 4 * 1024 * 1024;
+    long _maxOffHeapMemory = -1;
+    Path _storageDirectory;
+
+    /**
+     * @return the max number of sessions kept on the heap
+     */
+    public int getMaxHotSessions()
+    {
+        return _maxHotSessions;
+    }
+
+    /**
+     * @param maxHotSessions the max number of sessions kept on the heap
+     */
+    public void setMaxHotSessions(int maxHotSessions)
+    {
+        _maxHotSessions = maxHotSessions;
+    }
+
+    /**
+     * @return the size in bytes of the segments of off heap memory
+     */
+    public int getSegmentSize()
+    {
+        return _segmentSize;
+    }
+
+    /**
+     * @param segmentSize the size in bytes of the segments of off heap memory
+     */
+    public void setSegmentSize(int segmentSize)
+    {
+        _segmentSize = segmentSize;
+    }
+
+    /**
+     * @return the max off heap memory in bytes, or -1 for no limit
+     */
+    public long getMaxOffHeapMemory()
+    {
+        return _maxOffHeapMemory;
+    }
+
+    /**
+     * @param maxOffHeapMemory the max off heap memory in bytes, or -1 for no limit
+     */
+    public void setMaxOffHeapMemory(long maxOffHeapMemory)
+    {
+        _maxOffHeapMemory = maxOffHeapMemory;
+    }
+
+    /**
+     * @return the directory where the off heap segments are memory mapped, or null to use direct memory
+     */
+    public Path getStorageDirectory()
+    {
+        return _storageDirectory;
+    }
+
+    /**
+     * @param storageDirectory the directory where the off heap segments are memory mapped, or null to use direct memory
+     */
+    public void setStorageDirectory(Path storageDirectory)
+    {
+        _storageDirectory = storageDirectory;
+    }
+
+    @Override
+    public SessionCache newSessionCache(SessionHandler handler)
+    {
+        OffHeapSessionCache cache = new OffHeapSessionCache(handler);
+        cache.setMaxHotSessions(getMaxHotSessions());
+        cache.setSegmentSize(getSegmentSize());
+        cache.setMaxOffHeapMemory(getMaxOffHeapMemory());
+        cache.setStorageDirectory(getStorageDirectory());
+        return cache;
+    }
+}
@@ -0,0 +1,434 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server.session;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+
+import org.eclipse.jetty.util.thread.AutoLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * OffHeapSessionStorage
+ *
+ * Keeps serialized sessions, keyed by session id, outside of the java heap.
+ * <p>
+ * Records are appended to fixed size segments, allocated either from direct
+ * memory or by mapping temporary files in a directory. Only a small index entry
+ * per session remains on the heap. Replaced or removed records leave holes in
+ * their segment: a segment whose records are all gone is reused, and when no
+ * memory is left the emptiest segment is compacted in place. The index entries of
+ * the sessions that can expire are also ordered by expiry, so that expired sessions
+ * are found without visiting the sessions that have not expired.
+ */
+class OffHeapSessionStorage
+{
+    private static final Logger LOG = LoggerFactory.getLogger(OffHeapSessionStorage.class);
+    private static final int HEADER_SIZE = 4 + 2;
+
+    private final AutoLock _lock = new AutoLock();
+    private final Map<String, Entry> _index = new HashMap<>();
+    private final NavigableSet<Entry> _expiries = new TreeSet<>(Comparator.comparingLong((Entry entry) -> entry._expiry).thenComparing(entry -> entry._id));
+    private final List<Segment> _segments = new ArrayList<>();
+    private final Deque<Segment> _free = new ArrayDeque<>();
+    private final int _segmentSize;
+    private final long _maxMemory;
+    private final Path _directory;
+    private Segment _current;
+    private long _usedMemory;
+    private long _compactions;
+
+    /**
+     * @param segmentSize the size in bytes of each segment, which bounds the size of a record
+     * @param maxMemory the max memory of all the segments, or -1 for no limit
+     * @param directory the directory where segments are mapped, or null to use direct memory
+     */
+    OffHeapSessionStorage(int segmentSize, long maxMemory, Path directory)
+    {
+        if (segmentSize <= HEADER_SIZE)
+            throw new IllegalArgumentException("Segment size too small: " + segmentSize);
+        _segmentSize = segmentSize;
+        _maxMemory = maxMemory;
+        _directory = directory;
+    }
+
+    /**
+     * Store a record, replacing any previous record for the same id.
+     *
+     * @param id the session id
+     * @param payload the serialized session
+     * @param expiry the expiry time of the session, or 0 if it never expires
+     * @return true if the record was stored, false if there was no room for it,
+     * in which case any previous record for the id is kept
+     */
+    boolean put(String id, byte[] payload, long expiry)
+    {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        int length = HEADER_SIZE + idBytes.length + payload.length;
+        if (idBytes.length > Short.MAX_VALUE || length > _segmentSize)
+            return false;
+
+        try (AutoLock l = _lock.lock())
+        {
+            Segment segment = segmentFor(length);
+            if (segment == null)
+                return false;
+
+            ByteBuffer buffer = segment._buffer;
+            int offset = segment._position;
+            buffer.position(offset);
+            buffer.putInt(length);
+            buffer.putShort((short)idBytes.length);
+            buffer.put(idBytes);
+            buffer.put(payload);
+            segment._position += length;
+            segment._live += length;
+            _usedMemory += length;
+            Entry entry = new Entry(id, segment, offset, length, expiry);
+            // The previous record is released only once the new one is written.
+            Entry previous = _index.put(id, entry);
+            if (previous != null)
+                release(previous);
+            if (expiry > 0)
+                _expiries.add(entry);
+            return true;
+        }
+    }
+
+    /**
+     * @param id the session id
+     * @return a copy of the record payload, or null if there is no record for the id
+     */
+    byte[] get(String id)
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            Entry entry = _index.get(id);
+            return entry == null ? null : payload(id, entry);
+        }
+    }
+
+    /**
+     * Remove a record and return its payload.
+     *
+     * @param id the session id
+     * @return the record payload, or null if there was no record for the id
+     */
+    byte[] take(String id)
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            Entry entry = _index.remove(id);
+            if (entry == null)
+                return null;
+            byte[] payload = payload(id, entry);
+            release(entry);
+            return payload;
+        }
+    }
+
+    /**
+     * @param id the session id
+     * @return true if a record was removed
+     */
+    boolean remove(String id)
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            Entry entry = _index.remove(id);
+            if (entry == null)
+                return false;
+            release(entry);
+            return true;
+        }
+    }
+
+    boolean contains(String id)
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return _index.containsKey(id);
+        }
+    }
+
+    /**
+     * @return a snapshot of the ids of the stored records
+     */
+    Set<String> getIds()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return new HashSet<>(_index.keySet());
+        }
+    }
+
+    /**
+     * @param now the current time
+     * @return the ids of the stored records that have expired at the given time
+     */
+    Set<String> getExpired(long now)
+    {
+        Set<String> expired = new HashSet<>();
+        try (AutoLock l = _lock.lock())
+        {
+            for (Entry entry : _expiries)
+            {
+                if (entry._expiry > now)
+                    break;
+                expired.add(entry._id);
+            }
+        }
+        return expired;
+    }
+
+    int size()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return _index.size();
+        }
+    }
+
+    int getSegmentCount()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return _segments.size();
+        }
+    }
+
+    long getMemory()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return (long)_segments.size() * _segmentSize;
+        }
+    }
+
+    long getUsedMemory()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return _usedMemory;
+        }
+    }
+
+    long getCompactions()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return _compactions;
+        }
+    }
+
+    /**
+     * Remove all the records and drop all the segments.
+     */
+    void clear()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            _index.clear();
+            _expiries.clear();
+            _segments.clear();
+            _free.clear();
+            _current = null;
+            _usedMemory = 0;
+        }
+    }
+
+    private byte[] payload(String id, Entry entry)
+    {
+        ByteBuffer buffer = entry._segment._buffer;
+        int skip = HEADER_SIZE + buffer.getShort(entry._offset + 4);
+        byte[] payload = new byte[entry._length - skip];
+        buffer.position(entry._offset + skip);
+        buffer.get(payload);
+        return payload;
+    }
+
+    private void release(Entry entry)
+    {
+        if (entry._expiry > 0)
+            _expiries.remove(entry);
+        Segment segment = entry._segment;
+        segment._live -= entry._length;
+        _usedMemory -= entry._length;
+        if (segment._live == 0)
+        {
+            segment._position = 0;
+            if (segment != _current)
+                _free.offer(segment);
+        }
+    }
+
+    private Segment segmentFor(int length)
+    {
+        if (_current != null && _segmentSize - _current._position >= length)
+            return _current;
+
+        // The current segment is full, move to an empty one.
+        Segment segment = _free.poll();
+        if (segment == null)
+            segment = allocate();
+        if (segment == null)
+            segment = compact(length);
+        if (segment != null)
+            _current = segment;
+        return segment;
+    }
+
+    private Segment allocate()
+    {
+        if (_maxMemory >= 0 && (long)(_segments.size() + 1) * _segmentSize > _maxMemory)
+            return null;
+
+        ByteBuffer buffer = null;
+        if (_directory != null)
+        {
+            try
+            {
+                buffer = map(_directory);
+            }
+            catch (IOException x)
+            {
+                LOG.warn("Could not map session segment in {}, allocating it from direct memory", _directory, x);
+            }
+        }
+        if (buffer == null)
+            buffer = ByteBuffer.allocateDirect(_segmentSize);
+        Segment segment = new Segment(buffer);
+        _segments.add(segment);
+        return segment;
+    }
+
+    private ByteBuffer map(Path directory) throws IOException
+    {
+        Path file = Files.createTempFile(directory, "sessions-", ".bin");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            // The mapping remains valid after the channel is closed and the file deleted.
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, _segmentSize);
+        }
+        finally
+        {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Compact the segment with the fewest live bytes, if doing so leaves room for a record.
+     *
+     * @param length the length of the record to make room for
+     * @return the compacted segment, or null if no segment has enough room
+     */
+    private Segment compact(int length)
+    {
+        Segment emptiest = null;
+        for (Segment segment : _segments)
+        {
+            if (emptiest == null || segment._live < emptiest._live)
+                emptiest = segment;
+        }
+        if (emptiest == null || _segmentSize - emptiest._live < length)
+            return null;
+
+        ByteBuffer buffer = emptiest._buffer;
+        byte[] copy = new byte[emptiest._live];
+        int copied = 0;
+        int offset = 0;
+        while (offset < emptiest._position)
+        {
+            int recordLength = buffer.getInt(offset);
+            byte[] idBytes = new byte[buffer.getShort(offset + 4)];
+            buffer.position(offset + HEADER_SIZE);
+            buffer.get(idBytes);
+            Entry entry = _index.get(new String(idBytes, StandardCharsets.UTF_8));
+            if (entry != null && entry._segment == emptiest && entry._offset == offset)
+            {
+                buffer.position(offset);
+                buffer.get(copy, copied, recordLength);
+                entry._offset = copied;
+                copied += recordLength;
+            }
+            offset += recordLength;
+        }
+
+        buffer.position(0);
+        buffer.put(copy, 0, copied);
+        emptiest._position = copied;
+        _free.remove(emptiest);
+        _compactions++;
+        if (LOG.isDebugEnabled())
+            LOG.debug("Compacted session segment from {} to {} bytes", offset, copied);
+        return emptiest;
+    }
+
+    @Override
+    public String toString()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return String.format("%s@%x[sessions=%d,segments=%d,used=%d,mapped=%b]",
+                getClass().getSimpleName(), hashCode(), _index.size(), _segments.size(), _usedMemory, _directory != null);
+        }
+    }
+
+    private static class Segment
+    {
+        private final ByteBuffer _buffer;
+        private int _position;
+        private int _live;
+
+        private Segment(ByteBuffer buffer)
+        {
+            _buffer = buffer;
+        }
+    }
+
+    private static class Entry
+    {
+        private final String _id;
+        private final Segment _segment;
+        private final int _length;
+        private final long _expiry;
+        private int _offset;
+
+        private Entry(String id, Segment segment, int offset, int length, long expiry)
+        {
+            _id = id;
+            _segment = segment;
+            _offset = offset;
+            _length = length;
+            _expiry = expiry;
+        }
+    }
+}
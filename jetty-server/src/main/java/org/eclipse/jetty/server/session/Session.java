@@ -104,33 +104,55 @@ public class Session implements SessionHandler.SessionIf
      */
     public class SessionInactivityTimer
     {
+        /**
+         * The timer of this session, or null if the timeout is tracked
+         * by the {@link SessionExpiryWheel} of the session cache.
+         */
         protected final CyclicTimeout _timer;
+        private final SessionExpiryWheel _wheel;
+        private final SessionExpiryWheel.Timeout _timeout;
 
         public SessionInactivityTimer()
         {
-            _timer = new CyclicTimeout((getSessionHandler().getScheduler()))
+            SessionCache cache = getSessionHandler().getSessionCache();
+            _wheel = cache instanceof AbstractSessionCache ? ((AbstractSessionCache)cache).getExpiryWheel() : null;
+            if (_wheel != null)
             {
-                @Override
-                public void onTimeoutExpired()
+                _timer = null;
+                _timeout = new SessionExpiryWheel.Timeout(this::onTimeoutExpired);
+            }
+            else
+            {
+                _timeout = null;
+                _timer = new CyclicTimeout((getSessionHandler().getScheduler()))
                 {
-                    if (LOG.isDebugEnabled())
-                        LOG.debug("Timer expired for session {}", getId());
-                    long now = System.currentTimeMillis();
-                    //handle what to do with the session after the timer expired
-                    getSessionHandler().sessionInactivityTimerExpired(Session.this, now);
-                    try (AutoLock l = Session.this.lock())
+                    @Override
+                    public void onTimeoutExpired()
                     {
-                        //grab the lock and check what happened to the session: if it didn't get evicted and
-                        //it hasn't expired, we need to reset the timer
-                        if (Session.this.isResident() && Session.this.getRequests() <= 0 && Session.this.isValid() &&
-                            !Session.this.isExpiredAt(now))
-                        {
-                            //session wasn't expired or evicted, we need to reset the timer
-                            SessionInactivityTimer.this.schedule(Session.this.calculateInactivityTimeout(now));
-                        }
+                        SessionInactivityTimer.this.onTimeoutExpired();
                     }
+                };
+            }
+        }
+
+        private void onTimeoutExpired()
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Timer expired for session {}", getId());
+            long now = System.currentTimeMillis();
+            //handle what to do with the session after the timer expired
+            getSessionHandler().sessionInactivityTimerExpired(Session.this, now);
+            try (AutoLock l = Session.this.lock())
+            {
+                //grab the lock and check what happened to the session: if it didn't get evicted and
+                //it hasn't expired, we need to reset the timer
+                if (Session.this.isResident() && Session.this.getRequests() <= 0 && Session.this.isValid() &&
+                    !Session.this.isExpiredAt(now))
+                {
+                    //session wasn't expired or evicted, we need to reset the timer
+                    SessionInactivityTimer.this.schedule(Session.this.calculateInactivityTimeout(now));
                 }
-            };
+            }
         }
 
         /**
@@ -143,7 +165,10 @@ public class Session implements SessionHandler.SessionIf
             {
                 if (LOG.isDebugEnabled())
                     LOG.debug("(Re)starting timer for session {} at {}ms", getId(), time);
-                _timer.schedule(time, TimeUnit.MILLISECONDS);
+                if (_wheel != null)
+                    _wheel.schedule(_timeout, time);
+                else
+                    _timer.schedule(time, TimeUnit.MILLISECONDS);
             }
             else
             {
@@ -154,14 +179,20 @@ public class Session implements SessionHandler.SessionIf
 
         public void cancel()
         {
-            _timer.cancel();
+            if (_wheel != null)
+                _wheel.cancel(_timeout);
+            else
+                _timer.cancel();
             if (LOG.isDebugEnabled())
                 LOG.debug("Cancelled timer for session {}", getId());
         }
 
         public void destroy()
         {
-            _timer.destroy();
+            if (_wheel != null)
+                _wheel.cancel(_timeout);
+            else
+                _timer.destroy();
             if (LOG.isDebugEnabled())
                 LOG.debug("Destroyed timer for session {}", getId());
         }
@@ -54,6 +54,9 @@ public class SessionData implements Serializable
     protected boolean _dirty;
     protected long _lastSaved; //time in msec since last save
     protected boolean _metaDataDirty; //non-attribute data has changed
+    protected Set<String> _dirtyAttributes = ConcurrentHashMap.newKeySet(); //names of attributes changed since last save
+    protected boolean _allAttributesDirty; //every attribute must be considered changed
+    private transient Map<String, byte[]> _serializedAttributes; //cache of serialized attribute values
 
     /**
      * Serialize the attribute map of the session.
@@ -75,37 +78,8 @@ public class SessionData implements Serializable
             out.writeUTF(entry.getKey());
 
             Class<?> clazz = entry.getValue().getClass();
-            ClassLoader loader = clazz.getClassLoader();
-            ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
-            
-            boolean isContextLoader;
-
-            if (loader == contextLoader) //is it the context classloader?
-                isContextLoader = true;
-            else if (contextLoader == null) //not context classloader
-                isContextLoader = false;
-            else if (contextLoader instanceof ClassVisibilityChecker)
-            {
-                //Clazz not loaded by context classloader, but ask if loadable by context classloader,
-                //because preferable to use context classloader if possible (eg for deep structures).
-                ClassVisibilityChecker checker = (ClassVisibilityChecker)(contextLoader);
-                isContextLoader = (checker.isSystemClass(clazz) && !(checker.isServerClass(clazz)));
-            }
-            else
-            {
-                //Class wasn't loaded by context classloader, but try loading from context loader,
-                //because preferable to use context classloader if possible (eg for deep structures).
-                try
-                {
-                    Class<?> result = contextLoader.loadClass(clazz.getName());
-                    isContextLoader = (result == clazz); //only if TTCL loaded this instance of the class
-                }
-                catch (Throwable e)
-                {
-                    isContextLoader = false; //TCCL can't see the class
-                }
-            }
-            
+            boolean isContextLoader = isContextLoaderClass(clazz);
+
             if (LOG.isDebugEnabled())
                 LOG.debug("Attribute {} class={} isServerLoader={}", entry.getKey(), clazz.getName(), (!isContextLoader));
             out.writeBoolean(!isContextLoader);
@@ -113,6 +87,44 @@ public class SessionData implements Serializable
         }
     }
 
+    /**
+     * Determine whether the class of an attribute value should be loaded by the
+     * context classloader (ie the webapp classloader) rather than by the container
+     * classloader when the value is deserialized.
+     *
+     * @param clazz the class of the attribute value
+     * @return true if the context classloader should be used to load the class
+     */
+    static boolean isContextLoaderClass(Class<?> clazz)
+    {
+        ClassLoader loader = clazz.getClassLoader();
+        ClassLoader contextLoader = Thread.currentThread().getContextClassLoader();
+
+        if (loader == contextLoader) //is it the context classloader?
+            return true;
+        if (contextLoader == null) //not context classloader
+            return false;
+        if (contextLoader instanceof ClassVisibilityChecker)
+        {
+            //Clazz not loaded by context classloader, but ask if loadable by context classloader,
+            //because preferable to use context classloader if possible (eg for deep structures).
+            ClassVisibilityChecker checker = (ClassVisibilityChecker)(contextLoader);
+            return (checker.isSystemClass(clazz) && !(checker.isServerClass(clazz)));
+        }
+
+        //Class wasn't loaded by context classloader, but try loading from context loader,
+        //because preferable to use context classloader if possible (eg for deep structures).
+        try
+        {
+            Class<?> result = contextLoader.loadClass(clazz.getName());
+            return (result == clazz); //only if TTCL loaded this instance of the class
+        }
+        catch (Throwable e)
+        {
+            return false; //TCCL can't see the class
+        }
+    }
+
     /**
      * De-serialize the attribute map of a session.
      *
@@ -227,14 +239,115 @@ public class SessionData implements Serializable
         return _dirty;
     }
 
+    /**
+     * Set whether the session needs to be written out.
+     * Setting the session dirty marks every attribute as changed,
+     * while setting it not dirty forgets all the changed attributes.
+     *
+     * @param dirty true if the session needs to be written out
+     */
     public void setDirty(boolean dirty)
     {
         _dirty = dirty;
+        _allAttributesDirty = dirty;
+        if (!dirty)
+            _dirtyAttributes.clear();
     }
 
+    /**
+     * Mark the session as needing to be written out
+     * because the named attribute has changed.
+     *
+     * @param name the name of the attribute that changed
+     */
     public void setDirty(String name)
     {
-        setDirty(true);
+        _dirty = true;
+        _dirtyAttributes.add(name);
+        if (_serializedAttributes != null)
+            _serializedAttributes.remove(name);
+    }
+
+    /**
+     * @return the names of the attributes that have been set or removed since
+     * the session was last written out
+     * @see #isAllAttributesDirty()
+     */
+    public Set<String> getDirtyAttributes()
+    {
+        return Collections.unmodifiableSet(_dirtyAttributes);
+    }
+
+    /**
+     * @return true if every attribute must be considered changed since the session
+     * was last written out, regardless of {@link #getDirtyAttributes()}
+     */
+    public boolean isAllAttributesDirty()
+    {
+        return _allAttributesDirty;
+    }
+
+    /**
+     * @return true if attributes have changed since the session was last written out
+     */
+    public boolean isAttributesDirty()
+    {
+        return _allAttributesDirty || !_dirtyAttributes.isEmpty();
+    }
+
+    /**
+     * Get the cached serialized form of an attribute value, as
+     * remembered by a {@link SessionDataSerializer}. The cached form is
+     * discarded whenever the attribute is set or removed.
+     *
+     * @param name the name of the attribute
+     * @return the serialized attribute value, or null if not cached
+     */
+    byte[] getSerializedAttribute(String name)
+    {
+        Map<String, byte[]> serialized = _serializedAttributes;
+        return serialized == null ? null : serialized.get(name);
+    }
+
+    void putSerializedAttribute(String name, byte[] bytes)
+    {
+        if (_serializedAttributes == null)
+            _serializedAttributes = new ConcurrentHashMap<>();
+        _serializedAttributes.put(name, bytes);
+    }
+
+    void clearSerializedAttributes()
+    {
+        if (_serializedAttributes != null)
+            _serializedAttributes.clear();
+    }
+
+    /**
+     * Copy the cached serialized forms of the attribute values of another
+     * data of the same session, which must have the same attribute values.
+     *
+     * @param data the session data to copy the cached serialized forms from
+     */
+    void copySerializedAttributes(SessionData data)
+    {
+        clearSerializedAttributes();
+        Map<String, byte[]> serialized = data._serializedAttributes;
+        if (serialized != null)
+            serialized.forEach(this::putSerializedAttribute);
+    }
+
+    /**
+     * Add the changes recorded by the dirty flags of another data of
+     * the same session to the changes recorded by this session data.
+     *
+     * @param data the session data to merge the dirty flags from
+     */
+    void mergeDirtyState(SessionData data)
+    {
+        _dirty |= data._dirty;
+        _metaDataDirty |= data._metaDataDirty;
+        _allAttributesDirty |= data._allAttributesDirty;
+        _dirtyAttributes.addAll(data._dirtyAttributes);
     }
 
     /**
@@ -292,6 +405,7 @@ public class SessionData implements Serializable
     public void putAllAttributes(Map<String, Object> attributes)
     {
         _attributes.putAll(attributes);
+        clearSerializedAttributes();
     }
 
     /**
@@ -300,6 +414,7 @@ public class SessionData implements Serializable
     public void clearAllAttributes()
     {
         _attributes.clear();
+        clearSerializedAttributes();
     }
 
     /**
@@ -483,6 +598,7 @@ public class SessionData implements Serializable
         _lastNode = in.readUTF(); //last managing node
         _expiry = in.readLong();
         _maxInactiveMs = in.readLong();
+        _dirtyAttributes = ConcurrentHashMap.newKeySet();
         deserializeAttributes(this, in);
     }
 
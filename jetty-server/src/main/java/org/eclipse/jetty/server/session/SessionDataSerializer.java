@@ -0,0 +1,49 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server.session;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * SessionDataSerializer
+ *
+ * Converts the attributes of a {@link SessionData} to and from bytes, so that
+ * a {@link SessionDataStore} can persist them.
+ *
+ * @see JavaSessionDataSerializer
+ * @see BinarySessionDataSerializer
+ */
+public interface SessionDataSerializer
+{
+    /**
+     * Write the attributes of the session to the stream.
+     *
+     * @param data the SessionData whose attributes are written
+     * @param out the stream to write to, which is not closed
+     * @throws IOException if the attributes cannot be written
+     */
+    void serializeAttributes(SessionData data, OutputStream out) throws IOException;
+
+    /**
+     * Read the attributes of the session from the stream.
+     *
+     * @param data the SessionData whose attributes are read
+     * @param in the stream to read from, which is not closed
+     * @throws IOException if the attributes cannot be read
+     * @throws ClassNotFoundException if the class of an attribute value cannot be loaded
+     */
+    void deserializeAttributes(SessionData data, InputStream in) throws IOException, ClassNotFoundException;
+}
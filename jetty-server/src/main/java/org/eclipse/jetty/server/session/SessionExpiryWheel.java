@@ -0,0 +1,372 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server.session;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.util.NanoTime;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.eclipse.jetty.util.thread.AutoLock;
+import org.eclipse.jetty.util.thread.Scheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * SessionExpiryWheel
+ *
+ * A hierarchical timing wheel that tracks the inactivity timeouts of many sessions
+ * with a single scheduled task, rather than a scheduled task per session.
+ * <p>
+ * Time is divided in ticks of {@link #getTick()} milliseconds. The wheel has
+ * {@value #LEVELS} levels of {@value #SLOTS} slots: the slots of the first level
+ * hold the timeouts that expire within the next {@value #SLOTS} ticks, one slot
+ * per tick, while each slot of the next levels covers {@value #SLOTS} times more
+ * ticks than a slot of the previous level. When the first level wraps around, the
+ * next slot of the second level is cascaded into the first level, and so on.
+ * <p>
+ * Scheduling or cancelling a timeout, as done whenever a session is accessed, is
+ * O(1), and each tick only visits the timeouts that expire or that are cascaded,
+ * so the cost of expiry is proportional to the number of sessions that expire
+ * rather than to the number of sessions. Timeouts expire at most one tick late,
+ * and never early.
+ */
+@ManagedObject
+public class SessionExpiryWheel extends AbstractLifeCycle implements Runnable
+{
+    private static final Logger LOG = LoggerFactory.getLogger(SessionExpiryWheel.class);
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long RANGE = 1L << (SLOT_BITS * LEVELS);
+
+    private final AutoLock _lock = new AutoLock();
+    private final Timeout[] _slots = new Timeout[LEVELS * SLOTS];
+    private final Scheduler _scheduler;
+    private final long _tickMs;
+    private final long _tickNanos;
+    private final LongAdder _ticks = new LongAdder();
+    private final LongAdder _expired = new LongAdder();
+    private final LongAdder _cascaded = new LongAdder();
+    private final LongAdder _tickNanosTotal = new LongAdder();
+    private long _origin;
+    private long _currentTick; //the next tick to process
+    private int _size;
+    private long _tickNanosMax;
+    private Scheduler.Task _task;
+
+    /**
+     * @param scheduler the scheduler used to run the ticks
+     * @param tickMs the duration of a tick in milliseconds
+     */
+    public SessionExpiryWheel(Scheduler scheduler, long tickMs)
+    {
+        if (tickMs <= 0)
+            throw new IllegalArgumentException("Invalid tick " + tickMs);
+        _scheduler = scheduler;
+        _tickMs = tickMs;
+        _tickNanos = TimeUnit.MILLISECONDS.toNanos(tickMs);
+    }
+
+    /**
+     * @return the duration of a tick in milliseconds
+     */
+    @ManagedAttribute(value = "duration of a tick in ms", readonly = true)
+    public long getTick()
+    {
+        return _tickMs;
+    }
+
+    @ManagedAttribute(value = "number of scheduled timeouts", readonly = true)
+    public int getSize()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return _size;
+        }
+    }
+
+    @ManagedAttribute(value = "number of ticks processed", readonly = true)
+    public long getTicks()
+    {
+        return _ticks.sum();
+    }
+
+    @ManagedAttribute(value = "number of timeouts expired", readonly = true)
+    public long getExpired()
+    {
+        return _expired.sum();
+    }
+
+    @ManagedAttribute(value = "number of timeouts cascaded to a lower level", readonly = true)
+    public long getCascaded()
+    {
+        return _cascaded.sum();
+    }
+
+    @ManagedAttribute(value = "total time spent processing ticks (in us)", readonly = true)
+    public long getTickTimeTotal()
+    {
+        return TimeUnit.NANOSECONDS.toMicros(_tickNanosTotal.sum());
+    }
+
+    @ManagedAttribute(value = "max time spent processing a tick (in us)", readonly = true)
+    public long getTickTimeMax()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return TimeUnit.NANOSECONDS.toMicros(_tickNanosMax);
+        }
+    }
+
+    @ManagedOperation(value = "reset statistics", impact = "ACTION")
+    public void resetStatistics()
+    {
+        _ticks.reset();
+        _expired.reset();
+        _cascaded.reset();
+        _tickNanosTotal.reset();
+        try (AutoLock l = _lock.lock())
+        {
+            _tickNanosMax = 0;
+        }
+    }
+
+    @Override
+    protected void doStart() throws Exception
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            _origin = NanoTime.now();
+            _currentTick = 0;
+            _task = _scheduler.schedule(this, _tickMs, TimeUnit.MILLISECONDS);
+        }
+        super.doStart();
+    }
+
+    @Override
+    protected void doStop() throws Exception
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            if (_task != null)
+                _task.cancel();
+            _task = null;
+            for (int i = 0; i < _slots.length; i++)
+            {
+                Timeout timeout = _slots[i];
+                _slots[i] = null;
+                while (timeout != null)
+                {
+                    Timeout next = timeout._next;
+                    timeout._prev = timeout._next = null;
+                    timeout._slot = -1;
+                    timeout = next;
+                }
+            }
+            _size = 0;
+        }
+        super.doStop();
+    }
+
+    /**
+     * Schedule a timeout, replacing any previous schedule of it.
+     *
+     * @param timeout the timeout to schedule
+     * @param delayMs the delay in milliseconds after which the timeout expires
+     */
+    public void schedule(Timeout timeout, long delayMs)
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            if (timeout._slot >= 0)
+                unlink(timeout);
+            long delayNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(0, delayMs));
+            long nanos = NanoTime.since(_origin) + delayNanos;
+            //round up so the timeout never expires early
+            long tick = (nanos + _tickNanos - 1) / _tickNanos;
+            timeout._tick = Math.max(_currentTick, tick);
+            insert(timeout);
+        }
+    }
+
+    /**
+     * Cancel a timeout, if it is scheduled.
+     *
+     * @param timeout the timeout to cancel
+     */
+    public void cancel(Timeout timeout)
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            if (timeout._slot >= 0)
+                unlink(timeout);
+        }
+    }
+
+    @Override
+    public void run()
+    {
+        List<Timeout> expired = new ArrayList<>();
+        long start = NanoTime.now();
+        try (AutoLock l = _lock.lock())
+        {
+            long nowTick = NanoTime.elapsed(_origin, start) / _tickNanos;
+            while (_currentTick <= nowTick)
+            {
+                tick(expired);
+                _currentTick++;
+                _ticks.increment();
+            }
+            if (isRunning())
+                _task = _scheduler.schedule(this, _tickMs, TimeUnit.MILLISECONDS);
+        }
+
+        //run the expired timeouts outside of the lock, as they may schedule again
+        for (Timeout timeout : expired)
+        {
+            try
+            {
+                timeout._task.run();
+            }
+            catch (Throwable x)
+            {
+                LOG.warn("Unable to expire {}", timeout, x);
+            }
+        }
+        _expired.add(expired.size());
+
+        long elapsed = NanoTime.since(start);
+        _tickNanosTotal.add(elapsed);
+        try (AutoLock l = _lock.lock())
+        {
+            _tickNanosMax = Math.max(_tickNanosMax, elapsed);
+        }
+        if (LOG.isDebugEnabled())
+            LOG.debug("Expired {} timeouts in {}ns {}", expired.size(), elapsed, this);
+    }
+
+    private void tick(List<Timeout> expired)
+    {
+        long tick = _currentTick;
+        int index = (int)(tick & SLOT_MASK);
+
+        //cascade the next slot of each level when the level below wraps around
+        for (int level = 1; level < LEVELS && index == 0; level++)
+        {
+            index = (int)((tick >> (SLOT_BITS * level)) & SLOT_MASK);
+            cascade(level * SLOTS + index);
+        }
+
+        int slot = (int)(tick & SLOT_MASK);
+        Timeout timeout = _slots[slot];
+        while (timeout != null)
+        {
+            Timeout next = timeout._next;
+            unlink(timeout);
+            if (timeout._tick <= tick)
+                expired.add(timeout);
+            else
+                insert(timeout);
+            timeout = next;
+        }
+    }
+
+    private void cascade(int slot)
+    {
+        Timeout timeout = _slots[slot];
+        while (timeout != null)
+        {
+            Timeout next = timeout._next;
+            unlink(timeout);
+            insert(timeout);
+            _cascaded.increment();
+            timeout = next;
+        }
+    }
+
+    private void insert(Timeout timeout)
+    {
+        long delta = timeout._tick - _currentTick;
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1))))
+        {
+            level++;
+        }
+        //timeouts beyond the range of the wheel are cascaded until they are in range
+        long tick = delta < RANGE ? timeout._tick : _currentTick + RANGE - 1;
+        int slot = level * SLOTS + (int)((tick >> (SLOT_BITS * level)) & SLOT_MASK);
+
+        Timeout head = _slots[slot];
+        timeout._prev = null;
+        timeout._next = head;
+        if (head != null)
+            head._prev = timeout;
+        _slots[slot] = timeout;
+        timeout._slot = slot;
+        _size++;
+    }
+
+    private void unlink(Timeout timeout)
+    {
+        if (timeout._prev == null)
+            _slots[timeout._slot] = timeout._next;
+        else
+            timeout._prev._next = timeout._next;
+        if (timeout._next != null)
+            timeout._next._prev = timeout._prev;
+        timeout._prev = timeout._next = null;
+        timeout._slot = -1;
+        _size--;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[tick=%dms,size=%d]", getClass().getSimpleName(), hashCode(), _tickMs, getSize());
+    }
+
+    /**
+     * A timeout that can be scheduled in a {@link SessionExpiryWheel}.
+     */
+    public static class Timeout
+    {
+        private final Runnable _task;
+        private Timeout _prev;
+        private Timeout _next;
+        private int _slot = -1;
+        private long _tick;
+
+        /**
+         * @param task the task to run when the timeout expires
+         */
+        public Timeout(Runnable task)
+        {
+            _task = task;
+        }
+
+        @Override
+        public String toString()
+        {
+            return String.format("%s@%x[%s]", getClass().getSimpleName(), hashCode(), _task);
+        }
+    }
+}
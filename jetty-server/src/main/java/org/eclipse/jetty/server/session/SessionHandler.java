@@ -25,6 +25,7 @@ import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import javax.servlet.DispatcherType;
 import javax.servlet.ServletException;
@@ -49,6 +50,7 @@ import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.SessionIdManager;
 import org.eclipse.jetty.server.handler.ContextHandler;
 import org.eclipse.jetty.server.handler.ScopedHandler;
+import org.eclipse.jetty.util.NanoTime;
 import org.eclipse.jetty.util.StringUtil;
 import org.eclipse.jetty.util.annotation.ManagedAttribute;
 import org.eclipse.jetty.util.annotation.ManagedObject;
@@ -180,6 +182,8 @@ public class SessionHandler extends ScopedHandler
     protected SessionCache _sessionCache;
     protected final SampleStatistic _sessionTimeStats = new SampleStatistic();
     protected final CounterStatistic _sessionsCreatedStats = new CounterStatistic();
+    protected final SampleStatistic _scavengeTimeStats = new SampleStatistic();
+    protected final CounterStatistic _sessionsScavengedStats = new CounterStatistic();
     public Set<SessionTrackingMode> _sessionTrackingModes;
 
     protected boolean _usingURLs;
@@ -789,6 +793,8 @@ public class SessionHandler extends ScopedHandler
     {
         _sessionsCreatedStats.reset();
         _sessionTimeStats.reset();
+        _scavengeTimeStats.reset();
+        _sessionsScavengedStats.reset();
     }
 
     /**
@@ -1073,6 +1079,51 @@ public class SessionHandler extends ScopedHandler
         return _sessionTimeStats.getStdDev();
     }
 
+    /**
+     * @return maximum time spent in a scavenge
+     */
+    @ManagedAttribute("maximum time spent in a scavenge (in us)")
+    public long getScavengeTimeMax()
+    {
+        return _scavengeTimeStats.getMax();
+    }
+
+    /**
+     * @return mean time spent in a scavenge
+     */
+    @ManagedAttribute("mean time spent in a scavenge (in us)")
+    public double getScavengeTimeMean()
+    {
+        return _scavengeTimeStats.getMean();
+    }
+
+    /**
+     * @return total time spent scavenging
+     */
+    @ManagedAttribute("total time spent scavenging (in us)")
+    public long getScavengeTimeTotal()
+    {
+        return _scavengeTimeStats.getTotal();
+    }
+
+    /**
+     * @return number of scavenges
+     */
+    @ManagedAttribute("number of scavenges")
+    public long getScavenges()
+    {
+        return _scavengeTimeStats.getCount();
+    }
+
+    /**
+     * @return number of sessions expired by scavenges
+     */
+    @ManagedAttribute("number of sessions expired by scavenges")
+    public long getSessionsScavenged()
+    {
+        return _sessionsScavengedStats.getTotal();
+    }
+
     /**
      * @return True if absolute URLs are check for remoteness before being session encoded.
      */
@@ -1208,6 +1259,7 @@ public class SessionHandler extends ScopedHandler
 
         if (LOG.isDebugEnabled())
             LOG.debug("{} scavenging sessions", this);
+        long start = NanoTime.now();
         //Get a snapshot of the candidates as they are now. Others that
         //arrive during this processing will be dealt with on 
         //subsequent call to scavenge
@@ -1219,6 +1271,7 @@ public class SessionHandler extends ScopedHandler
         try
         {
             candidates = _sessionCache.checkExpiration(candidates);
+            _sessionsScavengedStats.add(candidates.size());
             for (String id : candidates)
             {
                 try
@@ -1237,6 +1290,10 @@ public class SessionHandler extends ScopedHandler
                 candidates.stream().map(Objects::toString).collect(Collectors.joining(", ", "[", "]")),
                 e);
         }
+        finally
+        {
+            _scavengeTimeStats.record(TimeUnit.NANOSECONDS.toMicros(NanoTime.since(start)));
+        }
     }
 
     /**
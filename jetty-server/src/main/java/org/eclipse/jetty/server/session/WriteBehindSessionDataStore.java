@@ -0,0 +1,665 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server.session;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.annotation.ManagedOperation;
+import org.eclipse.jetty.util.component.ContainerLifeCycle;
+import org.eclipse.jetty.util.thread.AutoLock;
+import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
+import org.eclipse.jetty.util.thread.Scheduler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * WriteBehindSessionDataStore
+ *
+ * A SessionDataStore that delegates to a pluggable SessionDataStore, but that
+ * does not write the session data when {@link #store(String, SessionData)} is
+ * called. Instead, the session data is queued and written later by a scheduled
+ * task, so that the latency of the delegate store is not added to the requests.
+ * <p>
+ * Repeated stores of the same session before it is written are coalesced into
+ * a single write of its latest state. Queued sessions are written in batches of
+ * up to {@link #getMaxBatchSize()} sessions, using
+ * {@link AbstractSessionDataStore#storeAll(java.util.Collection)} when the
+ * delegate supports it. When {@link #getMaxPending()} sessions are queued,
+ * further stores are written synchronously. Queued sessions are written before
+ * they are loaded or deleted, and all of them are written when this store is stopped.
+ * A session stored while this store is stopping is written synchronously, together
+ * with its queued state if any, so that its queued state does not overwrite it.
+ * <p>
+ * When a session is stored, which happens while the session is locked, a copy
+ * of its data is queued and the session data itself is marked as saved, so the
+ * delegate store only ever writes these copies and never modifies the data of a
+ * live session. The attribute values of the copy are serialized and deserialized
+ * while the session is locked, so later changes to the session are only written
+ * by a later store of the session.
+ * <p>
+ * A session data that failed to be written is queued again, merged with any newer
+ * state of the session queued meanwhile, unless the session was deleted meanwhile.
+ * If queued sessions cannot be written when this store is stopped, they remain
+ * queued and {@link #stop()} fails.
+ */
+@ManagedObject
+public class WriteBehindSessionDataStore extends ContainerLifeCycle implements SessionDataStore
+{
+    private static final Logger LOG = LoggerFactory.getLogger(WriteBehindSessionDataStore.class);
+
+    public static final long DEFAULT_FLUSH_DELAY_MS = 1000;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 100;
+    public static final int DEFAULT_MAX_PENDING = 10000;
+
+    private final AutoLock _lock = new AutoLock();
+    private final AutoLock _flushLock = new AutoLock();
+    private final Map<String, SessionData> _pending = new LinkedHashMap<>();
+    private final Set<String> _flushing = new HashSet<>();
+    private final Set<String> _deleted = new HashSet<>();
+    private final LongAdder _stores = new LongAdder();
+    private final LongAdder _coalesced = new LongAdder();
+    private final LongAdder _synchronousStores = new LongAdder();
+    private final LongAdder _batches = new LongAdder();
+    private final LongAdder _written = new LongAdder();
+    private final LongAdder _failures = new LongAdder();
+    protected SessionDataStore _store;
+    private long _flushDelayMs = DEFAULT_FLUSH_DELAY_MS;
+    private int _maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private int _maxPending = DEFAULT_MAX_PENDING;
+    private Scheduler _scheduler;
+    private Scheduler.Task _task;
+    private boolean _queueing;
+
+    /**
+     * @param store the actual store for the session data
+     */
+    public WriteBehindSessionDataStore(SessionDataStore store)
+    {
+        _store = store;
+        addBean(_store, true);
+    }
+
+    /**
+     * @return the delegate session store
+     */
+    public SessionDataStore getSessionStore()
+    {
+        return _store;
+    }
+
+    /**
+     * @return the delay in milliseconds between a session being stored and it being written
+     */
+    @ManagedAttribute(value = "delay in ms before queued sessions are written", readonly = true)
+    public long getFlushDelay()
+    {
+        return _flushDelayMs;
+    }
+
+    /**
+     * @param flushDelayMs the delay in milliseconds between a session being stored and it being written
+     */
+    public void setFlushDelay(long flushDelayMs)
+    {
+        _flushDelayMs = Math.max(0, flushDelayMs);
+    }
+
+    /**
+     * @return the max number of sessions written together
+     */
+    @ManagedAttribute(value = "max number of sessions written together", readonly = true)
+    public int getMaxBatchSize()
+    {
+        return _maxBatchSize;
+    }
+
+    /**
+     * @param maxBatchSize the max number of sessions written together
+     */
+    public void setMaxBatchSize(int maxBatchSize)
+    {
+        if (maxBatchSize <= 0)
+            throw new IllegalArgumentException("Invalid max batch size " + maxBatchSize);
+        _maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * @return the max number of queued sessions, beyond which sessions are written synchronously
+     */
+    @ManagedAttribute(value = "max number of queued sessions", readonly = true)
+    public int getMaxPending()
+    {
+        return _maxPending;
+    }
+
+    /**
+     * @param maxPending the max number of queued sessions, beyond which sessions are written synchronously
+     */
+    public void setMaxPending(int maxPending)
+    {
+        if (maxPending <= 0)
+            throw new IllegalArgumentException("Invalid max pending " + maxPending);
+        _maxPending = maxPending;
+    }
+
+    @ManagedAttribute(value = "number of queued sessions", readonly = true)
+    public int getPending()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return _pending.size();
+        }
+    }
+
+    @ManagedAttribute(value = "number of stores", readonly = true)
+    public long getStores()
+    {
+        return _stores.sum();
+    }
+
+    @ManagedAttribute(value = "number of stores coalesced with a queued store", readonly = true)
+    public long getCoalescedStores()
+    {
+        return _coalesced.sum();
+    }
+
+    @ManagedAttribute(value = "number of stores written synchronously", readonly = true)
+    public long getSynchronousStores()
+    {
+        return _synchronousStores.sum();
+    }
+
+    @ManagedAttribute(value = "number of batches written", readonly = true)
+    public long getBatches()
+    {
+        return _batches.sum();
+    }
+
+    @ManagedAttribute(value = "number of sessions written in batches", readonly = true)
+    public long getBatchedStores()
+    {
+        return _written.sum();
+    }
+
+    @ManagedAttribute(value = "number of batches that failed to be written", readonly = true)
+    public long getFailures()
+    {
+        return _failures.sum();
+    }
+
+    @ManagedOperation(value = "reset statistics", impact = "ACTION")
+    public void resetStatistics()
+    {
+        _stores.reset();
+        _coalesced.reset();
+        _synchronousStores.reset();
+        _batches.reset();
+        _written.reset();
+        _failures.reset();
+    }
+
+    @Override
+    protected void doStart() throws Exception
+    {
+        super.doStart();
+        _scheduler = new ScheduledExecutorScheduler(String.format("Session-WriteBehind-%x", hashCode()), false);
+        _scheduler.start();
+        try (AutoLock l = _lock.lock())
+        {
+            _queueing = true;
+        }
+    }
+
+    @Override
+    protected void doStop() throws Exception
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            _queueing = false;
+            if (_task != null)
+                _task.cancel();
+            _task = null;
+        }
+
+        //write all the queued sessions before stopping the delegate store
+        Exception failure = null;
+        try
+        {
+            flush();
+        }
+        catch (Exception e)
+        {
+            failure = e;
+        }
+        _scheduler.stop();
+        _scheduler = null;
+        super.doStop();
+        if (failure != null)
+            throw failure;
+    }
+
+    @Override
+    public void store(String id, SessionData data) throws Exception
+    {
+        if (data == null)
+            return;
+
+        _stores.increment();
+        if (_store instanceof AbstractSessionDataStore && !((AbstractSessionDataStore)_store).isStoreRequired(id, data))
+            return;
+
+        //the caller holds the lock of the session, so take a copy of its current state to be written later
+        SessionData snapshot = snapshot(data);
+        boolean queued = false;
+        SessionData unwritten;
+        try (AutoLock l = _lock.lock())
+        {
+            if (_queueing && (_pending.containsKey(id) || _pending.size() < _maxPending))
+            {
+                unwritten = _pending.put(id, snapshot);
+                if (_task == null)
+                    _task = _scheduler.schedule(this::flushTask, _flushDelayMs, TimeUnit.MILLISECONDS);
+                queued = true;
+            }
+            else
+            {
+                //the older queued state must not be written after this newer state
+                unwritten = _pending.remove(id);
+            }
+        }
+
+        if (unwritten != null)
+        {
+            //the older state was not written, so its changes must be written with the newer state
+            merge(snapshot, unwritten);
+            if (queued)
+                _coalesced.increment();
+        }
+
+        if (queued)
+        {
+            //the changes are now recorded by the queued copy
+            data.setLastSaved(System.currentTimeMillis());
+            data.clean();
+        }
+        else if (unwritten == null)
+        {
+            //the backlog is full, or we are stopping
+            _synchronousStores.increment();
+            flush(id);
+            _store.store(id, data);
+        }
+        else
+        {
+            //we are stopping, and the session was queued: write the merged copy
+            _synchronousStores.increment();
+            waitForFlushing(id);
+            try
+            {
+                _store.store(id, snapshot);
+            }
+            catch (Exception e)
+            {
+                //the queued copy was removed, so the changes it recorded must not be lost
+                requeue(Collections.singletonList(snapshot));
+                throw e;
+            }
+            data.setLastSaved(System.currentTimeMillis());
+            data.clean();
+        }
+    }
+
+    @Override
+    public SessionData load(String id) throws Exception
+    {
+        //the delegate store must see the latest state of the session
+        flush(id);
+        return _store.load(id);
+    }
+
+    @Override
+    public boolean delete(String id) throws Exception
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            _pending.remove(id);
+            //a batch being written must not queue the session again if it fails
+            if (_flushing.contains(id))
+                _deleted.add(id);
+        }
+        waitForFlushing(id);
+        return _store.delete(id);
+    }
+
+    @Override
+    public boolean exists(String id) throws Exception
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            if (_pending.containsKey(id))
+                return true;
+        }
+        waitForFlushing(id);
+        return _store.exists(id);
+    }
+
+    @Override
+    public Set<String> getExpired(Set<String> candidates)
+    {
+        Set<String> expired = _store.getExpired(candidates);
+        //sessions not yet written may have a later expiry than the one in the delegate store
+        try (AutoLock l = _lock.lock())
+        {
+            expired.removeIf(id -> _pending.containsKey(id) || _flushing.contains(id));
+        }
+        return expired;
+    }
+
+    /**
+     * Write the queued data of a session, if any, to the delegate store.
+     *
+     * @param id the id of the session
+     * @throws Exception if the session data could not be written
+     */
+    public void flush(String id) throws Exception
+    {
+        boolean pending;
+        try (AutoLock l = _lock.lock())
+        {
+            pending = _pending.containsKey(id);
+        }
+        if (!pending)
+        {
+            waitForFlushing(id);
+            //a batch that failed to be written queues the session again
+            try (AutoLock l = _lock.lock())
+            {
+                pending = _pending.containsKey(id);
+            }
+            if (!pending)
+                return;
+        }
+
+        try (AutoLock f = _flushLock.lock())
+        {
+            SessionData data;
+            try (AutoLock l = _lock.lock())
+            {
+                data = _pending.remove(id);
+                if (data == null)
+                    return;
+                _flushing.add(id);
+            }
+
+            try
+            {
+                _store.store(id, data);
+            }
+            catch (Exception e)
+            {
+                //the live session data is already marked as saved, so the queued copy must not be lost
+                requeue(Collections.singletonList(data));
+                throw e;
+            }
+            finally
+            {
+                endFlushing();
+            }
+        }
+    }
+
+    /**
+     * Write all the queued sessions to the delegate store.
+     *
+     * @throws Exception if a batch of sessions could not be written, in which case its sessions remain queued
+     */
+    @ManagedOperation(value = "write all the queued sessions", impact = "ACTION")
+    public void flush() throws Exception
+    {
+        while (flushBatch())
+        {
+            if (LOG.isDebugEnabled())
+                LOG.debug("Flushed batch {}", this);
+        }
+    }
+
+    private void flushTask()
+    {
+        try
+        {
+            while (isQueueing() && flushBatch())
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Flushed batch {}", this);
+            }
+        }
+        catch (Exception e)
+        {
+            LOG.warn("Unable to write queued sessions", e);
+        }
+        finally
+        {
+            try (AutoLock l = _lock.lock())
+            {
+                //sessions remain queued if they were stored meanwhile or failed to be written
+                if (_queueing && !_pending.isEmpty())
+                    _task = _scheduler.schedule(this::flushTask, _flushDelayMs, TimeUnit.MILLISECONDS);
+                else
+                    _task = null;
+            }
+        }
+    }
+
+    private boolean isQueueing()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            return _queueing;
+        }
+    }
+
+    /**
+     * @return true if a batch was written, false if there was nothing to write
+     * @throws Exception if the batch could not be written, in which case its sessions are queued again
+     */
+    private boolean flushBatch() throws Exception
+    {
+        try (AutoLock f = _flushLock.lock())
+        {
+            List<SessionData> batch = new ArrayList<>();
+            try (AutoLock l = _lock.lock())
+            {
+                Iterator<Map.Entry<String, SessionData>> iterator = _pending.entrySet().iterator();
+                while (iterator.hasNext() && batch.size() < _maxBatchSize)
+                {
+                    Map.Entry<String, SessionData> entry = iterator.next();
+                    iterator.remove();
+                    _flushing.add(entry.getKey());
+                    batch.add(entry.getValue());
+                }
+            }
+            if (batch.isEmpty())
+                return false;
+
+            try
+            {
+                write(batch);
+                _batches.increment();
+                _written.add(batch.size());
+            }
+            catch (Exception e)
+            {
+                _failures.increment();
+                requeue(batch);
+                throw e;
+            }
+            finally
+            {
+                endFlushing();
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Queue again session data that failed to be written, merged with any newer
+     * state that was queued meanwhile, unless the session was deleted meanwhile.
+     *
+     * @param failed the session data that failed to be written
+     */
+    private void requeue(Collection<SessionData> failed)
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            for (SessionData data : failed)
+            {
+                if (_deleted.contains(data.getId()))
+                    continue;
+                SessionData newer = _pending.putIfAbsent(data.getId(), data);
+                if (newer != null)
+                    merge(newer, data);
+            }
+            if (_queueing && _task == null && !_pending.isEmpty())
+                _task = _scheduler.schedule(this::flushTask, _flushDelayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void endFlushing()
+    {
+        try (AutoLock l = _lock.lock())
+        {
+            _flushing.clear();
+            _deleted.clear();
+        }
+    }
+
+    private void write(List<SessionData> batch) throws Exception
+    {
+        if (_store instanceof AbstractSessionDataStore)
+        {
+            ((AbstractSessionDataStore)_store).storeAll(batch);
+            return;
+        }
+
+        Exception failure = null;
+        for (SessionData data : batch)
+        {
+            try
+            {
+                _store.store(data.getId(), data);
+            }
+            catch (Exception e)
+            {
+                if (failure == null)
+                    failure = e;
+                else
+                    failure.addSuppressed(e);
+            }
+        }
+        if (failure != null)
+            throw failure;
+    }
+
+    /**
+     * @param data the data of a live session, which must be locked
+     * @return a copy of the session data, with copies of the attribute values and the same dirty state
+     * @throws Exception if the attribute values cannot be copied
+     */
+    private SessionData snapshot(SessionData data) throws Exception
+    {
+        SessionData snapshot = _store.newSessionData(data.getId(), data.getCreated(), data.getAccessed(), data.getLastAccessed(), data.getMaxInactiveMs());
+        snapshot.copy(data);
+        //copy the attribute values through serialization, as they may be changed after the session is unlocked
+        SessionDataSerializer serializer = _store instanceof AbstractSessionDataStore
+            ? ((AbstractSessionDataStore)_store).getSessionDataSerializer()
+            : new JavaSessionDataSerializer();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        serializer.serializeAttributes(data, bytes);
+        serializer.deserializeAttributes(snapshot, new ByteArrayInputStream(bytes.toByteArray()));
+        snapshot.copySerializedAttributes(data);
+        snapshot.clean();
+        snapshot.mergeDirtyState(data);
+        return snapshot;
+    }
+
+    /**
+     * Merge into a queued copy of a session data the changes of an older copy that was not written.
+     *
+     * @param newer the newer copy of the session data
+     * @param older the older copy of the session data
+     */
+    private static void merge(SessionData newer, SessionData older)
+    {
+        newer.mergeDirtyState(older);
+        newer.setLastSaved(Math.min(newer.getLastSaved(), older.getLastSaved()));
+    }
+
+    private void waitForFlushing(String id)
+    {
+        boolean flushing;
+        try (AutoLock l = _lock.lock())
+        {
+            flushing = _flushing.contains(id);
+        }
+        if (flushing)
+        {
+            //wait for the batch being written to complete
+            try (AutoLock f = _flushLock.lock())
+            {
+                if (LOG.isDebugEnabled())
+                    LOG.debug("Waited for batch containing {}", id);
+            }
+        }
+    }
+
+    @Override
+    public boolean isPassivating()
+    {
+        return _store.isPassivating();
+    }
+
+    @Override
+    public void initialize(SessionContext context) throws Exception
+    {
+        //pass through
+        _store.initialize(context);
+    }
+
+    @Override
+    public SessionData newSessionData(String id, long created, long accessed, long lastAccessed, long maxInactiveMs)
+    {
+        return _store.newSessionData(id, created, accessed, lastAccessed, maxInactiveMs);
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[pending=%d,flushDelay=%d,maxBatchSize=%d,maxPending=%d]",
+            getClass().getSimpleName(), hashCode(), getPending(), _flushDelayMs, _maxBatchSize, _maxPending);
+    }
+}
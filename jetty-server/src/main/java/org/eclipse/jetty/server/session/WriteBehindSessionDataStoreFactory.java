@@ -0,0 +1,106 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server.session;
+
+/**
+ * WriteBehindSessionDataStoreFactory
+ */
+public class WriteBehindSessionDataStoreFactory extends AbstractSessionDataStoreFactory
+{
+    /**
+     * The factory for the SessionDataStore that will store session data.
+     */
+    protected SessionDataStoreFactory _sessionStoreFactory;
+
+    protected long _flushDelayMs = WriteBehindSessionDataStore.DEFAULT_FLUSH_DELAY_MS;
+
+    protected int _maxBatchSize = WriteBehindSessionDataStore.DEFAULT_MAX_BATCH_SIZE;
+
+    protected int _maxPending = WriteBehindSessionDataStore.DEFAULT_MAX_PENDING;
+
+    /**
+     * @param factory The factory for the actual SessionDataStore that the
+     * WriteBehindSessionDataStore will delegate to
+     */
+    public void setSessionStoreFactory(SessionDataStoreFactory factory)
+    {
+        _sessionStoreFactory = factory;
+    }
+
+    /**
+     * @return the factory for the actual SessionDataStore
+     */
+    public SessionDataStoreFactory getSessionStoreFactory()
+    {
+        return _sessionStoreFactory;
+    }
+
+    /**
+     * @return the delay in milliseconds between a session being stored and it being written
+     */
+    public long getFlushDelay()
+    {
+        return _flushDelayMs;
+    }
+
+    /**
+     * @param flushDelayMs the delay in milliseconds between a session being stored and it being written
+     */
+    public void setFlushDelay(long flushDelayMs)
+    {
+        _flushDelayMs = flushDelayMs;
+    }
+
+    /**
+     * @return the max number of sessions written together
+     */
+    public int getMaxBatchSize()
+    {
+        return _maxBatchSize;
+    }
+
+    /**
+     * @param maxBatchSize the max number of sessions written together
+     */
+    public void setMaxBatchSize(int maxBatchSize)
+    {
+        _maxBatchSize = maxBatchSize;
+    }
+
+    /**
+     * @return the max number of queued sessions, beyond which sessions are written synchronously
+     */
+    public int getMaxPending()
+    {
+        return _maxPending;
+    }
+
+    /**
+     * @param maxPending the max number of queued sessions, beyond which sessions are written synchronously
+     */
+    public void setMaxPending(int maxPending)
+    {
+        _maxPending = maxPending;
+    }
+
+    @Override
+    public SessionDataStore getSessionDataStore(SessionHandler handler) throws Exception
+    {
+        WriteBehindSessionDataStore store = new WriteBehindSessionDataStore(_sessionStoreFactory.getSessionDataStore(handler));
+        store.setFlushDelay(getFlushDelay());
+        store.setMaxBatchSize(getMaxBatchSize());
+        store.setMaxPending(getMaxPending());
+        return store;
+    }
+}
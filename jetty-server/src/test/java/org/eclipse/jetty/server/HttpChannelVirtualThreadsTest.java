@@ -0,0 +1,164 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+import javax.servlet.AsyncContext;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.eclipse.jetty.http.HttpStatus;
+import org.eclipse.jetty.http.HttpTester;
+import org.eclipse.jetty.server.handler.AbstractHandler;
+import org.eclipse.jetty.util.IO;
+import org.eclipse.jetty.util.VirtualThreads;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+public class HttpChannelVirtualThreadsTest
+{
+    private Server _server;
+    private LocalConnector _connector;
+
+    @BeforeEach
+    public void prepare()
+    {
+        _server = new Server();
+        HttpConfiguration config = new HttpConfiguration();
+        config.setUseVirtualThreads(true);
+        _connector = new LocalConnector(_server, new HttpConnectionFactory(config));
+        _server.addConnector(_connector);
+    }
+
+    @AfterEach
+    public void dispose() throws Exception
+    {
+        _server.stop();
+    }
+
+    private static boolean isVirtualThread()
+    {
+        return VirtualThreads.areSupported() && VirtualThreads.isVirtualThread();
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_19)
+    public void testBlockingRequestsHandledInVirtualThreads() throws Exception
+    {
+        // Java 19 and 20 also require --enable-preview.
+        assumeTrue(VirtualThreads.areSupported());
+
+        _server.setHandler(new AbstractHandler()
+        {
+            @Override
+            public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException
+            {
+                baseRequest.setHandled(true);
+                // Blocking read and write.
+                String content = IO.toString(request.getInputStream(), StandardCharsets.UTF_8);
+                response.getOutputStream().print(isVirtualThread() + "|" + content);
+            }
+        });
+        _server.start();
+
+        // Pipelined requests on the same connection.
+        String requests =
+            "POST /one HTTP/1.1\r\n" +
+            "Host: localhost\r\n" +
+            "Content-Length: 3\r\n" +
+            "\r\n" +
+            "one" +
+            "POST /two HTTP/1.1\r\n" +
+            "Host: localhost\r\n" +
+            "Content-Length: 3\r\n" +
+            "Connection: close\r\n" +
+            "\r\n" +
+            "two";
+        LocalConnector.LocalEndPoint endPoint = _connector.executeRequest(requests);
+
+        HttpTester.Response response1 = HttpTester.parseResponse(endPoint.getResponse(false, 5, TimeUnit.SECONDS));
+        assertEquals(HttpStatus.OK_200, response1.getStatus());
+        assertEquals("true|one", response1.getContent());
+
+        HttpTester.Response response2 = HttpTester.parseResponse(endPoint.getResponse(false, 5, TimeUnit.SECONDS));
+        assertEquals(HttpStatus.OK_200, response2.getStatus());
+        assertEquals("true|two", response2.getContent());
+    }
+
+    @Test
+    @EnabledForJreRange(min = JRE.JAVA_19)
+    public void testAsyncDispatchHandledInThreadPool() throws Exception
+    {
+        // Java 19 and 20 also require --enable-preview.
+        assumeTrue(VirtualThreads.areSupported());
+
+        _server.setHandler(new AbstractHandler()
+        {
+            @Override
+            public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException
+            {
+                baseRequest.setHandled(true);
+                if (request.getAttribute("virtual") == null)
+                {
+                    request.setAttribute("virtual", isVirtualThread());
+                    AsyncContext asyncContext = request.startAsync();
+                    new Thread(asyncContext::dispatch).start();
+                }
+                else
+                {
+                    response.getWriter().print(request.getAttribute("virtual") + "|" + isVirtualThread());
+                }
+            }
+        });
+        _server.start();
+
+        String response = _connector.getResponse("GET / HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n", 5, TimeUnit.SECONDS);
+        HttpTester.Response httpResponse = HttpTester.parseResponse(response);
+        assertEquals(HttpStatus.OK_200, httpResponse.getStatus());
+        // Only the handling of the request received by the
+        // connection is dispatched to a virtual thread.
+        assertEquals("true|false", httpResponse.getContent());
+    }
+
+    @Test
+    @EnabledForJreRange(max = JRE.JAVA_18)
+    public void testUseVirtualThreadsNotSupportedFallsBackToThreadPool() throws Exception
+    {
+        _server.setHandler(new AbstractHandler()
+        {
+            @Override
+            public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException
+            {
+                baseRequest.setHandled(true);
+                response.getWriter().print(Thread.currentThread().getName());
+            }
+        });
+        _server.start();
+
+        String response = _connector.getResponse("GET / HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n", 5, TimeUnit.SECONDS);
+        HttpTester.Response httpResponse = HttpTester.parseResponse(response);
+        assertEquals(HttpStatus.OK_200, httpResponse.getStatus());
+        assertThat(httpResponse.getContent(), startsWith("qtp"));
+    }
+}
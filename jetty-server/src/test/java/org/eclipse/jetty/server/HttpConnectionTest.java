@@ -65,6 +65,7 @@ import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.lessThanOrEqualTo;
 import static org.hamcrest.Matchers.not;
@@ -105,6 +106,65 @@ public class HttpConnectionTest
         server.join();
     }
 
+    @Test
+    public void testHeaderCacheStatistics() throws Exception
+    {
+        HttpConnectionFactory http = connector.getConnectionFactory(HttpConnectionFactory.class);
+        String request = "GET /R1 HTTP/1.1\r\n" +
+            "Host: localhost\r\n" +
+            "X-Trace: 0123456789abcdef\r\n" +
+            "\r\n";
+        LocalEndPoint endPoint = connector.executeRequest(request + request + request +
+            "GET /R2 HTTP/1.1\r\n" +
+            "Host: localhost\r\n" +
+            "Connection: close\r\n" +
+            "\r\n");
+        for (int i = 0; i < 4; ++i)
+        {
+            HttpTester.Response response = HttpTester.parseResponse(endPoint.getResponse(false, 5, TimeUnit.SECONDS));
+            assertEquals(HttpStatus.OK_200, response.getStatus());
+        }
+        endPoint.waitUntilClosed();
+
+        // Host is cached from the second request, X-Trace is learnt at the second request.
+        assertThat(http.getHeaderCacheHits(), greaterThanOrEqualTo(4L));
+        assertThat(http.getHeaderCacheMisses(), greaterThan(0L));
+        assertThat(http.getHeaderCacheHitRatio(), greaterThan(0D));
+    }
+
+    @Test
+    public void testHeaderCacheStatisticsOfOpenConnection() throws Exception
+    {
+        HttpConnectionFactory http = connector.getConnectionFactory(HttpConnectionFactory.class);
+        String request = "GET /R1 HTTP/1.1\r\n" +
+            "Host: localhost\r\n" +
+            "X-Trace: 0123456789abcdef\r\n" +
+            "\r\n";
+        LocalEndPoint endPoint = connector.executeRequest(request + request + request);
+        for (int i = 0; i < 3; ++i)
+        {
+            HttpTester.Response response = HttpTester.parseResponse(endPoint.getResponse(false, 5, TimeUnit.SECONDS));
+            assertEquals(HttpStatus.OK_200, response.getStatus());
+        }
+
+        // The statistics of the connection are available before it is closed.
+        assertThat(http.getHeaderCacheHits(), greaterThanOrEqualTo(3L));
+        assertThat(http.getHeaderCacheMisses(), greaterThan(0L));
+
+        // Resetting the statistics discards the counts of the open connection so far.
+        http.resetHeaderCacheStatistics();
+        assertEquals(0L, http.getHeaderCacheHits());
+        assertEquals(0L, http.getHeaderCacheMisses());
+
+        endPoint.addInputAndExecute(BufferUtil.toBuffer(request.replace("\r\n\r\n", "\r\nConnection: close\r\n\r\n")));
+        HttpTester.Response response = HttpTester.parseResponse(endPoint.getResponse(false, 5, TimeUnit.SECONDS));
+        assertEquals(HttpStatus.OK_200, response.getStatus());
+        endPoint.waitUntilClosed();
+        // Only the header lines of the last request are counted.
+        assertThat(http.getHeaderCacheHits(), greaterThanOrEqualTo(2L));
+        assertThat(http.getHeaderCacheHits() + http.getHeaderCacheMisses(), lessThanOrEqualTo(3L));
+    }
+
     @Test
     public void testFragmentedChunk() throws Exception
     {
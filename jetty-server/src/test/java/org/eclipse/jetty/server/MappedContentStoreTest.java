@@ -0,0 +1,142 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import org.eclipse.jetty.http.CompressedContentFormat;
+import org.eclipse.jetty.http.HttpContent;
+import org.eclipse.jetty.http.MimeTypes;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDir;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDirExtension;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.resource.PathResource;
+import org.eclipse.jetty.util.resource.Resource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+@ExtendWith(WorkDirExtension.class)
+public class MappedContentStoreTest
+{
+    public WorkDir workDir;
+
+    @ParameterizedTest
+    @ValueSource(booleans = {true, false})
+    public void testSharedBetweenFactories(boolean mapped) throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        Files.writeString(dir.resolve("shared.txt"), "shared content", UTF_8);
+
+        MappedContentStore store = new MappedContentStore();
+        CachedContentFactory cache1 = newCachedContentFactory(new PathResource(dir), mapped, store);
+        CachedContentFactory cache2 = newCachedContentFactory(new PathResource(dir), mapped, store);
+
+        HttpContent content1 = cache1.getContent("shared.txt", 4096);
+        assertEquals("shared content", BufferUtil.toString(content1.getDirectBuffer()));
+        HttpContent content2 = cache2.getContent("/shared.txt", 4096);
+        assertEquals("shared content", BufferUtil.toString(content2.getDirectBuffer()));
+        // Loading again does not acquire again.
+        content2.getDirectBuffer();
+
+        assertEquals(1, store.getEntries());
+        assertEquals(1, store.getLoads());
+        assertEquals(1, store.getHits());
+        assertEquals(14, store.getSize());
+
+        cache1.flushCache();
+        assertEquals(1, store.getEntries());
+        cache2.flushCache();
+        assertEquals(0, store.getEntries());
+        assertEquals(0, store.getSize());
+    }
+
+    @Test
+    public void testModifiedResourceNotShared() throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        Path file = dir.resolve("file.txt");
+        Files.writeString(file, "version 1", UTF_8);
+
+        MappedContentStore store = new MappedContentStore();
+        CachedContentFactory cache1 = newCachedContentFactory(new PathResource(dir), false, store);
+        CachedContentFactory cache2 = newCachedContentFactory(new PathResource(dir), false, store);
+
+        HttpContent content1 = cache1.getContent("file.txt", 4096);
+        assertEquals("version 1", BufferUtil.toString(content1.getDirectBuffer()));
+
+        Files.writeString(file, "version 2", UTF_8);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(Files.getLastModifiedTime(file).toMillis() + 2000));
+
+        HttpContent content2 = cache2.getContent("file.txt", 4096);
+        assertEquals("version 2", BufferUtil.toString(content2.getDirectBuffer()));
+        assertEquals(2, store.getEntries());
+        assertEquals(0, store.getHits());
+
+        // The stale content is removed from the first cache and released.
+        HttpContent content3 = cache1.getContent("file.txt", 4096);
+        assertEquals("version 2", BufferUtil.toString(content3.getDirectBuffer()));
+        assertEquals(1, store.getEntries());
+        assertEquals(1, store.getHits());
+    }
+
+    @Test
+    public void testAcquireRelease() throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        Path file = dir.resolve("file.txt");
+        Files.writeString(file, "content", UTF_8);
+        Resource resource = new PathResource(file);
+
+        MappedContentStore store = new MappedContentStore();
+        MappedContentStore.Entry entry1 = store.acquire(resource, false, r -> BufferUtil.toBuffer("content"));
+        MappedContentStore.Entry entry2 = store.acquire(resource, false, r ->
+        {
+            throw new AssertionError("must not load");
+        });
+        assertNotNull(entry1);
+        assertSame(entry1, entry2);
+        ByteBuffer buffer = entry1.getBuffer();
+
+        entry1.release();
+        assertEquals(1, store.getEntries());
+        entry2.release();
+        assertEquals(0, store.getEntries());
+
+        MappedContentStore.Entry entry3 = store.acquire(resource, false, r -> BufferUtil.toBuffer("content"));
+        assertNotNull(entry3);
+        assertEquals(buffer, entry3.getBuffer());
+        entry3.release();
+
+        assertNull(store.acquire(resource, false, r -> null));
+        assertEquals(0, store.getEntries());
+    }
+
+    private static CachedContentFactory newCachedContentFactory(Resource base, boolean mapped, MappedContentStore store)
+    {
+        CachedContentFactory cache = new CachedContentFactory(null, base, new MimeTypes(), mapped, false, CompressedContentFormat.NONE);
+        cache.setContentStore(store);
+        return cache;
+    }
+}
@@ -18,6 +18,7 @@ import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
@@ -38,6 +39,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 
 import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.hamcrest.CoreMatchers.instanceOf;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.not;
 import static org.hamcrest.CoreMatchers.nullValue;
@@ -342,6 +344,163 @@ public class ResourceCacheTest
         cache.flushCache();
     }
 
+    @Test
+    public void testCacheStatistics() throws Exception
+    {
+        String[] names = createSizedFiles(workDir.getEmptyPathDir(), 10);
+        Resource directory = new PathResource(workDir.getPath());
+        CachedContentFactory cache = new CachedContentFactory(null, directory, new MimeTypes(), false, false, CompressedContentFormat.NONE);
+        cache.setMaxCachedFiles(2);
+
+        cache.getContent(names[1], 4096);
+        cache.getContent(names[1], 4096);
+        cache.getContent(names[2], 4096);
+        cache.getContent(names[2], 4096);
+        cache.getContent(names[2], 4096);
+        assertEquals(3, cache.getCacheHits());
+        assertEquals(2, cache.getCacheMisses());
+        assertEquals(0, cache.getCacheEvictions());
+
+        // Requested as often as the least frequently requested content, so it is admitted.
+        cache.getContent(names[3], 4096);
+        cache.getContent(names[3], 4096);
+        assertEquals(1, cache.getCacheEvictions());
+        assertEquals(2, cache.getCachedFiles());
+
+        cache.resetStats();
+        assertEquals(0, cache.getCacheHits());
+        assertEquals(0, cache.getCacheMisses());
+        assertEquals(0, cache.getCacheEvictions());
+    }
+
+    @Test
+    public void testScanResistance() throws Exception
+    {
+        String[] names = createSizedFiles(workDir.getEmptyPathDir(), 10);
+        Resource directory = new PathResource(workDir.getPath());
+        CachedContentFactory cache = new CachedContentFactory(null, directory, new MimeTypes(), false, false, CompressedContentFormat.NONE);
+        cache.setMaxCachedFiles(2);
+
+        for (int i = 0; i < 5; i++)
+        {
+            cache.getContent(names[1], 4096).getIndirectBuffer();
+            cache.getContent(names[2], 4096).getIndirectBuffer();
+        }
+        assertEquals(2, cache.getCachedFiles());
+        assertEquals(30, cache.getCachedSize());
+
+        // A scan of contents requested only once must not evict the frequently requested contents.
+        for (int i = 3; i < names.length; i++)
+        {
+            HttpContent content = cache.getContent(names[i], 4096);
+            assertThat(content, instanceOf(ResourceHttpContent.class));
+            assertEquals(i * 10, BufferUtil.length(content.getIndirectBuffer()));
+        }
+        assertEquals(0, cache.getCacheEvictions());
+        assertEquals(2, cache.getCachedFiles());
+        assertEquals(30, cache.getCachedSize());
+
+        long hits = cache.getCacheHits();
+        cache.getContent(names[1], 4096);
+        cache.getContent(names[2], 4096);
+        assertEquals(hits + 2, cache.getCacheHits());
+    }
+
+    @Test
+    public void testMaxDirectCacheSize() throws Exception
+    {
+        String[] names = createSizedFiles(workDir.getEmptyPathDir(), 10);
+        Resource directory = new PathResource(workDir.getPath());
+        CachedContentFactory cache = new CachedContentFactory(null, directory, new MimeTypes(), false, false, CompressedContentFormat.NONE);
+        cache.setMaxCacheSize(100);
+        cache.setMaxDirectCacheSize(100);
+
+        HttpContent content = cache.getContent(names[8], 4096);
+        content.getDirectBuffer();
+        content.getIndirectBuffer();
+        // The heap and direct buffers are accounted separately.
+        assertEquals(160, cache.getCachedSize());
+        assertEquals(80, cache.getCachedDirectSize());
+        assertEquals(1, cache.getCachedFiles());
+
+        // Exceeding the direct budget evicts.
+        content = cache.getContent(names[5], 4096);
+        content.getDirectBuffer();
+        assertEquals(50, cache.getCachedSize());
+        assertEquals(50, cache.getCachedDirectSize());
+        assertEquals(1, cache.getCachedFiles());
+        assertEquals(1, cache.getCacheEvictions());
+
+        cache.flushCache();
+        assertEquals(0, cache.getCachedSize());
+        assertEquals(0, cache.getCachedDirectSize());
+        assertEquals(0, cache.getCachedFiles());
+    }
+
+    @Test
+    public void testCompressCachedContent() throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        makeFile(dir.resolve("small.txt"), "Hello Text ".repeat(100));
+        makeFile(dir.resolve("large.txt"), "Hello Text ".repeat(1000));
+        Resource directory = new PathResource(dir);
+        CachedContentFactory cache = new CachedContentFactory(null, directory, new MimeTypes(), false, false, new CompressedContentFormat[]{CompressedContentFormat.GZIP});
+        cache.setCompressCachedContent(true);
+        cache.setMaxCompressedFileSize(2000);
+
+        HttpContent content = cache.getContent("small.txt", 4096);
+        HttpContent compressed = content.getPrecompressedContents().get(CompressedContentFormat.GZIP);
+        assertThat(compressed, instanceOf(CachedContentFactory.CompressedCachedHttpContent.class));
+        assertEquals(compressed.getContentLengthValue(), cache.getCachedSize());
+
+        // The compressed bytes are copied once to a direct buffer, which is accounted.
+        ByteBuffer direct = compressed.getDirectBuffer();
+        assertTrue(direct.isDirect());
+        assertEquals(compressed.getIndirectBuffer(), direct);
+        assertEquals(direct, compressed.getDirectBuffer());
+        assertEquals(2 * compressed.getContentLengthValue(), cache.getCachedSize());
+        assertEquals(compressed.getContentLengthValue(), cache.getCachedDirectSize());
+
+        // Contents larger than the maximum compressed file size are not compressed.
+        content = cache.getContent("large.txt", 4096);
+        assertThat(content.getPrecompressedContents(), nullValue());
+        assertEquals(1, cache.getCompressions());
+
+        cache.flushCache();
+        assertEquals(0, cache.getCachedSize());
+        assertEquals(0, cache.getCachedDirectSize());
+
+        // A content invalidated before it is compressed is not compressed, nor accounted.
+        CachedContentFactory.CachedHttpContent cached = (CachedContentFactory.CachedHttpContent)cache.getContent("small.txt", 4096);
+        cached.invalidate();
+        assertThat(cached.getPrecompressedContents(), nullValue());
+        assertEquals(0, cache.getCachedSize());
+    }
+
+    @Test
+    public void testCompressCachedContentAgainAfterFailure() throws Exception
+    {
+        Path dir = workDir.getEmptyPathDir();
+        Path file = dir.resolve("file.txt");
+        makeFile(file, "Hello Text ".repeat(100));
+        Resource directory = new PathResource(dir);
+        CachedContentFactory cache = new CachedContentFactory(null, directory, new MimeTypes(), false, false, new CompressedContentFormat[]{CompressedContentFormat.GZIP});
+        cache.setCompressCachedContent(true);
+
+        HttpContent content = cache.getContent("file.txt", 4096);
+
+        // The file cannot be read, so the content is not compressed.
+        Files.delete(file);
+        assertThat(content.getPrecompressedContents(), nullValue());
+        assertEquals(0, cache.getCompressions());
+
+        // The compression is attempted again.
+        makeFile(file, "Hello Text ".repeat(100));
+        HttpContent compressed = content.getPrecompressedContents().get(CompressedContentFormat.GZIP);
+        assertThat(compressed, instanceOf(CachedContentFactory.CompressedCachedHttpContent.class));
+        assertEquals(1, cache.getCompressions());
+    }
+
     @Test
     public void testNoextension() throws Exception
     {
@@ -356,6 +515,18 @@ public class ResourceCacheTest
         assertEquals(getContent(cache, "four"), "4 - four (no extension)");
     }
 
+    private String[] createSizedFiles(Path basePath, int count) throws IOException
+    {
+        String[] names = new String[count];
+        for (int i = 0; i < count; i++)
+        {
+            Path file = basePath.resolve("R-" + i + ".txt");
+            makeFile(file, " ".repeat(i * 10));
+            names[i] = file.getFileName().toString();
+        }
+        return names;
+    }
+
     static String getContent(CachedContentFactory rc, String path) throws Exception
     {
         HttpContent content = rc.getContent(path, rc.getMaxCachedFileSize());
@@ -28,6 +28,9 @@ import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 import java.nio.charset.StandardCharsets;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.atomic.AtomicLong;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
@@ -36,6 +39,7 @@ import javax.servlet.http.HttpServletResponse;
 import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.http.HttpTester;
+import org.eclipse.jetty.io.ConnectionStatistics;
 import org.eclipse.jetty.io.EndPoint;
 import org.eclipse.jetty.io.SocketChannelEndPoint;
 import org.eclipse.jetty.logging.StacklessLogging;
@@ -43,6 +47,7 @@ import org.eclipse.jetty.server.handler.AbstractHandler;
 import org.eclipse.jetty.server.handler.DefaultHandler;
 import org.eclipse.jetty.server.handler.HandlerList;
 import org.eclipse.jetty.util.IO;
+import org.eclipse.jetty.util.thread.QueuedThreadPool;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.condition.DisabledOnOs;
@@ -51,10 +56,12 @@ import org.junit.jupiter.api.condition.OS;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.everyItem;
 import static org.hamcrest.Matchers.greaterThan;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
@@ -269,6 +276,99 @@ public class ServerConnectorTest
         }
     }
 
+    @Test
+    public void testPartitionedSelectors() throws Exception
+    {
+        QueuedThreadPool threadPool = new QueuedThreadPool();
+        threadPool.setName("shared");
+        Server server = new Server(threadPool);
+        ServerConnector connector = new ServerConnector(server, 1, 2);
+        connector.getSelectorManager().setPartitionThreads(4);
+        connector.setPort(0);
+        server.addConnector(connector);
+
+        server.setHandler(new AbstractHandler()
+        {
+            @Override
+            public void handle(String target, Request baseRequest, HttpServletRequest request, HttpServletResponse response) throws IOException
+            {
+                baseRequest.setHandled(true);
+                response.setContentType("text/plain");
+                response.getWriter().print(Thread.currentThread().getName());
+            }
+        });
+
+        try
+        {
+            server.start();
+
+            Set<String> partitions = new HashSet<>();
+            for (int i = 0; i < 4; i++)
+            {
+                try (Socket client = new Socket("localhost", connector.getLocalPort()))
+                {
+                    String request = "GET / HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n";
+                    client.getOutputStream().write(request.getBytes(StandardCharsets.UTF_8));
+                    HttpTester.Response response = HttpTester.parseResponse(client.getInputStream());
+                    assertNotNull(response);
+                    assertEquals(HttpStatus.OK_200, response.getStatus());
+                    String thread = response.getContent();
+                    assertThat(thread, startsWith("shared-partition-"));
+                    partitions.add(thread.substring(0, thread.lastIndexOf('-')));
+                }
+            }
+            // Connections are distributed across the partitions.
+            assertEquals(2, partitions.size());
+        }
+        finally
+        {
+            server.stop();
+        }
+    }
+
+    @Test
+    @DisabledOnOs(value = OS.WINDOWS, disabledReason = "SO_REUSEPORT load balancing not supported")
+    public void testReusePortAcceptChannels() throws Exception
+    {
+        Server server = new Server();
+        // One acceptor thread for the first channel, the other channel is accepted by a selector.
+        ServerConnector connector = new ServerConnector(server, 1, 4);
+        connector.setAcceptChannels(2);
+        connector.setPort(0);
+        ConnectionStatistics statistics = new ConnectionStatistics();
+        connector.addBean(statistics);
+        server.addConnector(connector);
+        server.setHandler(new DefaultHandler());
+
+        try
+        {
+            server.start();
+            assertEquals(2, connector.getBeans(ServerSocketChannel.class).size());
+
+            int connections = 20;
+            for (int i = 0; i < connections; i++)
+            {
+                try (Socket client = new Socket("localhost", connector.getLocalPort()))
+                {
+                    String request = "GET / HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n";
+                    client.getOutputStream().write(request.getBytes(StandardCharsets.UTF_8));
+                    HttpTester.Response response = HttpTester.parseResponse(client.getInputStream());
+                    assertNotNull(response);
+                    assertEquals(HttpStatus.NOT_FOUND_404, response.getStatus());
+                }
+            }
+
+            Map<String, Long> accepted = statistics.getAcceptedConnections();
+            assertThat(accepted.keySet(), everyItem(startsWith("acceptChannel-")));
+            assertEquals(connections, accepted.values().stream().mapToLong(Long::longValue).sum());
+        }
+        finally
+        {
+            server.stop();
+        }
+        assertEquals(0, connector.getBeans(ServerSocketChannel.class).size());
+    }
+
     @Test
     public void testAddFirstConnectionFactory()
     {
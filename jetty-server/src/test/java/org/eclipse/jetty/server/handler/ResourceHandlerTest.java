@@ -17,21 +17,35 @@ import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.net.Socket;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
 
+import org.eclipse.jetty.http.CompressedContentFormat;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.http.HttpTester;
+import org.eclipse.jetty.io.Connection;
+import org.eclipse.jetty.io.ConnectionStatistics;
+import org.eclipse.jetty.io.EndPoint;
 import org.eclipse.jetty.server.Connector;
+import org.eclipse.jetty.server.HttpChannel;
 import org.eclipse.jetty.server.HttpConfiguration;
+import org.eclipse.jetty.server.HttpConnection;
 import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.LocalConnector;
+import org.eclipse.jetty.server.Request;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.ServerConnector;
+import org.eclipse.jetty.toolchain.test.FS;
 import org.eclipse.jetty.toolchain.test.MavenTestingUtils;
 import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.IO;
@@ -41,6 +55,7 @@ import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import static org.eclipse.jetty.http.HttpHeader.CONTENT_ENCODING;
 import static org.eclipse.jetty.http.HttpHeader.CONTENT_LENGTH;
 import static org.eclipse.jetty.http.HttpHeader.CONTENT_TYPE;
 import static org.eclipse.jetty.http.HttpHeader.LAST_MODIFIED;
@@ -51,7 +66,9 @@ import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.equalTo;
 import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * Resource Handler test
@@ -268,6 +285,162 @@ public class ResourceHandlerTest
         }
     }
 
+    @Test
+    public void testFileTransfer() throws Exception
+    {
+        File bigger = MavenTestingUtils.getTargetFile("test-classes/simple/bigger.txt");
+        String expected = IO.toString(new FileInputStream(bigger), StandardCharsets.UTF_8);
+        try
+        {
+            _resourceHandler.setUseFileTransfer(true);
+            try (Socket socket = new Socket("localhost", _connector.getLocalPort()))
+            {
+                OutputStream out = socket.getOutputStream();
+                HttpTester.Input input = HttpTester.from(socket.getInputStream());
+
+                // Two requests on the same connection, to verify that it is still usable after a transfer.
+                for (int i = 0; i < 2; i++)
+                {
+                    out.write("GET /resource/bigger.txt HTTP/1.1\r\nHost: localhost\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                    out.flush();
+                    HttpTester.Response response = HttpTester.parseResponse(input);
+                    assertThat(response.getStatus(), equalTo(200));
+                    assertThat(response.get(CONTENT_LENGTH), equalTo(Long.toString(bigger.length())));
+                    assertThat(response.getContent(), equalTo(expected));
+                }
+            }
+
+            try (Socket socket = new Socket("localhost", _connector.getLocalPort()))
+            {
+                socket.getOutputStream().write("HEAD /resource/bigger.txt HTTP/1.0\r\n\r\n".getBytes(StandardCharsets.ISO_8859_1));
+                String response = IO.toString(socket.getInputStream());
+                assertThat(response, startsWith("HTTP/1.1 200 OK"));
+                assertThat(response, containsString("Content-Length: " + bigger.length()));
+                assertThat(response, endsWith("\r\n\r\n"));
+            }
+        }
+        finally
+        {
+            _resourceHandler.setUseFileTransfer(false);
+        }
+    }
+
+    @Test
+    public void testFileTransferPrecompressed() throws Exception
+    {
+        Path dir = MavenTestingUtils.getTargetTestingPath("testFileTransferPrecompressed");
+        FS.ensureEmpty(dir);
+        File bigger = MavenTestingUtils.getTargetFile("test-classes/simple/bigger.txt");
+        Files.copy(bigger.toPath(), dir.resolve("bigger.txt"));
+        File gzip = dir.resolve("bigger.txt.gz").toFile();
+        try (InputStream in = new FileInputStream(bigger);
+             OutputStream out = new GZIPOutputStream(new FileOutputStream(gzip)))
+        {
+            IO.copy(in, out);
+        }
+        byte[] expected = Files.readAllBytes(gzip.toPath());
+
+        Server server = new Server();
+        // Counts the bytes reported as flushed to the connection, including the transferred ones.
+        AtomicLong flushed = new AtomicLong();
+        HttpConnectionFactory connectionFactory = new HttpConnectionFactory()
+        {
+            @Override
+            public Connection newConnection(Connector connector, EndPoint endPoint)
+            {
+                HttpConnection connection = new HttpConnection(getHttpConfiguration(), connector, endPoint, isRecordHttpComplianceViolations())
+                {
+                    @Override
+                    public void onFlushed(long bytes) throws IOException
+                    {
+                        flushed.addAndGet(bytes);
+                        super.onFlushed(bytes);
+                    }
+                };
+                return configure(connection, connector, endPoint);
+            }
+        };
+        ServerConnector connector = new ServerConnector(server, connectionFactory);
+        ConnectionStatistics statistics = new ConnectionStatistics();
+        connector.addBean(statistics);
+        // Added after the statistics, so they are recorded when the connection is closed.
+        CountDownLatch closeLatch = new CountDownLatch(1);
+        connector.addBean(new Connection.Listener.Adapter()
+        {
+            @Override
+            public void onClosed(Connection connection)
+            {
+                closeLatch.countDown();
+            }
+        });
+        // Counts the response content written through buffers rather than transferred from the file.
+        AtomicLong written = new AtomicLong();
+        connector.addBean(new HttpChannel.Listener()
+        {
+            @Override
+            public void onResponseContent(Request request, ByteBuffer content)
+            {
+                written.addAndGet(content.remaining());
+            }
+        });
+        server.addConnector(connector);
+        ResourceHandler resourceHandler = new ResourceHandler();
+        resourceHandler.setResourceBase(dir.toString());
+        resourceHandler.setPrecompressedFormats(new CompressedContentFormat[]{CompressedContentFormat.GZIP});
+        resourceHandler.setUseFileTransfer(true);
+        ContextHandler contextHandler = new ContextHandler("/resource");
+        contextHandler.setHandler(resourceHandler);
+        server.setHandler(contextHandler);
+        server.start();
+        try (Socket socket = new Socket("localhost", connector.getLocalPort()))
+        {
+            socket.getOutputStream().write(("GET /resource/bigger.txt HTTP/1.1\r\n" +
+                "Host: localhost\r\n" +
+                "Accept-Encoding: gzip\r\n" +
+                "Connection: close\r\n" +
+                "\r\n").getBytes(StandardCharsets.ISO_8859_1));
+            byte[] bytes = IO.readBytes(socket.getInputStream());
+            HttpTester.Response response = HttpTester.parseResponse(ByteBuffer.wrap(bytes));
+            assertThat(response.getStatus(), equalTo(200));
+            assertThat(response.get(CONTENT_ENCODING), equalTo("gzip"));
+            assertThat(response.get(CONTENT_LENGTH), equalTo(Long.toString(gzip.length())));
+            assertArrayEquals(expected, response.getContentBytes());
+            assertThat(written.get(), equalTo(0L));
+
+            // The transferred bytes are accounted like the bytes written through buffers.
+            // The server closes the connection when the client has closed its side.
+            socket.close();
+            assertTrue(closeLatch.await(5, TimeUnit.SECONDS));
+            assertThat(flushed.get(), equalTo((long)bytes.length));
+            assertThat(statistics.getSentBytes(), equalTo((long)bytes.length));
+        }
+        finally
+        {
+            server.stop();
+        }
+    }
+
+    @Test
+    public void testFileTransferNotSupported() throws Exception
+    {
+        File bigger = MavenTestingUtils.getTargetFile("test-classes/simple/bigger.txt");
+        String expected = IO.toString(new FileInputStream(bigger), StandardCharsets.UTF_8);
+        try
+        {
+            _resourceHandler.setUseFileTransfer(true);
+            // The LocalConnector EndPoint cannot transfer files, so the content is copied.
+            HttpTester.Response response = HttpTester.parseResponse(
+                _local.getResponse("GET /resource/bigger.txt HTTP/1.0\r\n\r\n"));
+            assertThat(response.getStatus(), equalTo(200));
+            assertThat(response.get(CONTENT_LENGTH), equalTo(Long.toString(bigger.length())));
+            assertThat(response.getContent(), equalTo(expected));
+        }
+        finally
+        {
+            _resourceHandler.setUseFileTransfer(false);
+        }
+    }
+
     @Test
     public void testWelcome() throws Exception
     {
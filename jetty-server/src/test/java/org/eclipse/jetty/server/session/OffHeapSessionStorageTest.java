@@ -0,0 +1,153 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server.session;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OffHeapSessionStorageTest
+{
+    private static byte[] payload(int length, int value)
+    {
+        byte[] payload = new byte[length];
+        Arrays.fill(payload, (byte)value);
+        return payload;
+    }
+
+    @Test
+    public void testPutGetTake()
+    {
+        OffHeapSessionStorage storage = new OffHeapSessionStorage(1024, -1, null);
+
+        assertTrue(storage.put("a", payload(100, 1), 0));
+        assertTrue(storage.put("b", payload(200, 2), 0));
+        assertEquals(2, storage.size());
+        assertEquals(1, storage.getSegmentCount());
+        assertEquals(6 + 1 + 100 + 6 + 1 + 200, storage.getUsedMemory());
+        assertArrayEquals(payload(100, 1), storage.get("a"));
+        assertTrue(storage.contains("a"));
+
+        // Replacing a record frees the previous one.
+        assertTrue(storage.put("a", payload(50, 3), 0));
+        assertEquals(6 + 1 + 50 + 6 + 1 + 200, storage.getUsedMemory());
+        assertArrayEquals(payload(50, 3), storage.take("a"));
+        assertFalse(storage.contains("a"));
+        assertNull(storage.take("a"));
+        assertTrue(storage.remove("b"));
+        assertFalse(storage.remove("b"));
+        assertEquals(0, storage.getUsedMemory());
+
+        // Records larger than a segment cannot be stored.
+        assertFalse(storage.put("c", payload(1024, 4), 0));
+    }
+
+    @Test
+    public void testSegmentsAreReused()
+    {
+        OffHeapSessionStorage storage = new OffHeapSessionStorage(64, -1, null);
+
+        // Each record is 27 bytes, so two records fit in a segment.
+        for (String id : new String[]{"a", "b", "c", "d", "e"})
+        {
+            assertTrue(storage.put(id, payload(20, id.charAt(0)), 0));
+        }
+        assertEquals(3, storage.getSegmentCount());
+
+        // Emptied segments are reused rather than allocating more.
+        storage.remove("a");
+        storage.remove("b");
+        assertTrue(storage.put("f", payload(20, 'f'), 0));
+        assertTrue(storage.put("g", payload(20, 'g'), 0));
+        assertEquals(3, storage.getSegmentCount());
+        assertEquals(0, storage.getCompactions());
+        assertArrayEquals(payload(20, 'g'), storage.get("g"));
+    }
+
+    @Test
+    public void testReplaceWithoutRoomKeepsPreviousRecord()
+    {
+        OffHeapSessionStorage storage = new OffHeapSessionStorage(64, 64, null);
+
+        assertTrue(storage.put("a", payload(20, 'a'), 0));
+        assertTrue(storage.put("b", payload(20, 'b'), 0));
+
+        // The new record does not fit while the previous one is still live.
+        assertFalse(storage.put("a", payload(20, 'x'), 0));
+        assertTrue(storage.contains("a"));
+        assertArrayEquals(payload(20, 'a'), storage.get("a"));
+        assertArrayEquals(payload(20, 'b'), storage.get("b"));
+        assertEquals(2 * 27, storage.getUsedMemory());
+    }
+
+    @Test
+    public void testCompactionWhenFull()
+    {
+        OffHeapSessionStorage storage = new OffHeapSessionStorage(64, 128, null);
+
+        for (String id : new String[]{"a", "b", "c", "d"})
+        {
+            assertTrue(storage.put(id, payload(20, id.charAt(0)), 0));
+        }
+        assertEquals(2, storage.getSegmentCount());
+        assertFalse(storage.put("e", payload(20, 'e'), 0));
+
+        // The hole left by the removed record is reclaimed by compacting its segment.
+        storage.remove("a");
+        assertTrue(storage.put("e", payload(20, 'e'), 0));
+        assertEquals(1, storage.getCompactions());
+        assertEquals(2, storage.getSegmentCount());
+        for (String id : new String[]{"b", "c", "d", "e"})
+        {
+            assertArrayEquals(payload(20, id.charAt(0)), storage.get(id));
+        }
+        assertEquals(128, storage.getMemory());
+
+        storage.clear();
+        assertEquals(0, storage.size());
+        assertEquals(0, storage.getMemory());
+    }
+
+    @Test
+    public void testExpired()
+    {
+        OffHeapSessionStorage storage = new OffHeapSessionStorage(1024, -1, null);
+        storage.put("a", payload(10, 1), 100);
+        storage.put("b", payload(10, 2), 200);
+        storage.put("c", payload(10, 3), 0);
+
+        assertEquals(Collections.emptySet(), storage.getExpired(99));
+        assertEquals(Collections.singleton("a"), storage.getExpired(150));
+        assertEquals(2, storage.getExpired(Long.MAX_VALUE).size());
+
+        // Replaced and removed records are not expired with their previous expiry.
+        storage.put("a", payload(10, 4), 300);
+        storage.put("d", payload(10, 5), 300);
+        assertEquals(Collections.emptySet(), storage.getExpired(150));
+        storage.remove("b");
+        assertEquals(Set.of("a", "d"), storage.getExpired(300));
+        storage.take("d");
+        assertEquals(Collections.singleton("a"), storage.getExpired(Long.MAX_VALUE));
+        storage.clear();
+        assertEquals(Collections.emptySet(), storage.getExpired(Long.MAX_VALUE));
+    }
+}
@@ -0,0 +1,156 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server.session;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SessionDataSerializerTest
+{
+    private static SessionData newSessionData()
+    {
+        SessionData data = new SessionData("1234", "/test", "0.0.0.0", 100, 200, 200, -1);
+        data.setAttribute("string", "value");
+        data.setAttribute("int", 42);
+        data.setAttribute("long", 42L);
+        data.setAttribute("boolean", true);
+        data.setAttribute("double", 4.2);
+        data.setAttribute("bytes", new byte[]{1, 2, 3});
+        data.setAttribute("list", new ArrayList<>(Arrays.asList("a", "b")));
+        return data;
+    }
+
+    private static byte[] serialize(SessionDataSerializer serializer, SessionData data) throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        serializer.serializeAttributes(data, out);
+        return out.toByteArray();
+    }
+
+    private static SessionData deserialize(SessionDataSerializer serializer, byte[] bytes) throws Exception
+    {
+        SessionData data = new SessionData("1234", "/test", "0.0.0.0", 100, 200, 200, -1);
+        serializer.deserializeAttributes(data, new ByteArrayInputStream(bytes));
+        return data;
+    }
+
+    private static void assertAttributes(SessionData data)
+    {
+        assertEquals(7, data.getKeys().size());
+        assertEquals("value", data.getAttribute("string"));
+        assertEquals(42, data.getAttribute("int"));
+        assertEquals(42L, data.getAttribute("long"));
+        assertEquals(true, data.getAttribute("boolean"));
+        assertEquals(4.2, data.getAttribute("double"));
+        assertArrayEquals(new byte[]{1, 2, 3}, (byte[])data.getAttribute("bytes"));
+        assertEquals(Arrays.asList("a", "b"), data.getAttribute("list"));
+    }
+
+    @Test
+    public void testJavaRoundTrip() throws Exception
+    {
+        JavaSessionDataSerializer serializer = new JavaSessionDataSerializer();
+        assertAttributes(deserialize(serializer, serialize(serializer, newSessionData())));
+    }
+
+    @Test
+    public void testBinaryRoundTrip() throws Exception
+    {
+        BinarySessionDataSerializer serializer = new BinarySessionDataSerializer();
+        byte[] binary = serialize(serializer, newSessionData());
+        assertAttributes(deserialize(serializer, binary));
+
+        byte[] java = serialize(new JavaSessionDataSerializer(), newSessionData());
+        assertTrue(binary.length < java.length);
+    }
+
+    @Test
+    public void testBinaryReadsJavaFormat() throws Exception
+    {
+        byte[] java = serialize(new JavaSessionDataSerializer(), newSessionData());
+        assertAttributes(deserialize(new BinarySessionDataSerializer(), java));
+    }
+
+    @Test
+    public void testDirtyAttributes()
+    {
+        SessionData data = newSessionData();
+        assertTrue(data.isDirty());
+        assertThat(data.getDirtyAttributes(), containsInAnyOrder("string", "int", "long", "boolean", "double", "bytes", "list"));
+
+        data.clean();
+        assertFalse(data.isDirty());
+        assertFalse(data.isAttributesDirty());
+        assertThat(data.getDirtyAttributes(), empty());
+
+        data.setAttribute("string", "other");
+        data.setAttribute("list", null);
+        assertTrue(data.isDirty());
+        assertTrue(data.isAttributesDirty());
+        assertFalse(data.isAllAttributesDirty());
+        assertThat(data.getDirtyAttributes(), containsInAnyOrder("string", "list"));
+
+        data.clean();
+        data.setDirty(true);
+        assertTrue(data.isAllAttributesDirty());
+        assertTrue(data.isAttributesDirty());
+    }
+
+    @Test
+    public void testReuseSerializedAttributes() throws Exception
+    {
+        BinarySessionDataSerializer serializer = new BinarySessionDataSerializer();
+        serializer.setReuseSerializedAttributes(true);
+        SessionData data = newSessionData();
+
+        byte[] bytes1 = serialize(serializer, data);
+        byte[] cached = data.getSerializedAttribute("list");
+        assertNotNull(cached);
+        assertNull(data.getSerializedAttribute("string"));
+
+        // An unchanged attribute reuses its serialized form.
+        byte[] bytes2 = serialize(serializer, data);
+        assertSame(cached, data.getSerializedAttribute("list"));
+        assertArrayEquals(bytes1, bytes2);
+
+        // Setting the attribute discards its serialized form.
+        List<String> list = new ArrayList<>(Arrays.asList("c"));
+        data.setAttribute("list", list);
+        assertNull(data.getSerializedAttribute("list"));
+        serialize(serializer, data);
+        assertNotSame(cached, data.getSerializedAttribute("list"));
+
+        // Loaded attributes remember their serialized form.
+        SessionData loaded = deserialize(serializer, serialize(serializer, data));
+        assertEquals(list, loaded.getAttribute("list"));
+        assertArrayEquals(data.getSerializedAttribute("list"), loaded.getSerializedAttribute("list"));
+    }
+}
@@ -0,0 +1,133 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server.session;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.jetty.util.NanoTime;
+import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SessionExpiryWheelTest
+{
+    private ScheduledExecutorScheduler _scheduler;
+    private SessionExpiryWheel _wheel;
+
+    @BeforeEach
+    public void before() throws Exception
+    {
+        _scheduler = new ScheduledExecutorScheduler();
+        _scheduler.start();
+        _wheel = new SessionExpiryWheel(_scheduler, 5);
+        _wheel.start();
+    }
+
+    @AfterEach
+    public void after() throws Exception
+    {
+        _wheel.stop();
+        _scheduler.stop();
+    }
+
+    @Test
+    public void testTimeoutExpiresNotEarly() throws Exception
+    {
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicLong expired = new AtomicLong();
+        long start = NanoTime.now();
+        _wheel.schedule(new SessionExpiryWheel.Timeout(() ->
+        {
+            expired.set(NanoTime.millisSince(start));
+            latch.countDown();
+        }), 50);
+        assertEquals(1, _wheel.getSize());
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertThat(expired.get(), greaterThanOrEqualTo(50L));
+        assertEquals(0, _wheel.getSize());
+    }
+
+    @Test
+    public void testTimeoutIsCascaded() throws Exception
+    {
+        // 5ms * 64 slots = 320ms, so this timeout starts in the second level.
+        CountDownLatch latch = new CountDownLatch(1);
+        AtomicLong expired = new AtomicLong();
+        long start = NanoTime.now();
+        _wheel.schedule(new SessionExpiryWheel.Timeout(() ->
+        {
+            expired.set(NanoTime.millisSince(start));
+            latch.countDown();
+        }), 500);
+
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertThat(expired.get(), greaterThanOrEqualTo(500L));
+        assertThat(_wheel.getCascaded(), greaterThan(0L));
+    }
+
+    @Test
+    public void testCancelAndReschedule() throws Exception
+    {
+        AtomicInteger count = new AtomicInteger();
+        SessionExpiryWheel.Timeout cancelled = new SessionExpiryWheel.Timeout(count::incrementAndGet);
+        _wheel.schedule(cancelled, 20);
+        _wheel.cancel(cancelled);
+        assertEquals(0, _wheel.getSize());
+
+        CountDownLatch latch = new CountDownLatch(1);
+        SessionExpiryWheel.Timeout rescheduled = new SessionExpiryWheel.Timeout(latch::countDown);
+        _wheel.schedule(rescheduled, 20);
+        _wheel.schedule(rescheduled, TimeUnit.HOURS.toMillis(1));
+        assertEquals(1, _wheel.getSize());
+        assertFalse(latch.await(200, TimeUnit.MILLISECONDS));
+        _wheel.schedule(rescheduled, 0);
+        assertTrue(latch.await(5, TimeUnit.SECONDS));
+        assertEquals(0, count.get());
+    }
+
+    @Test
+    public void testManyTimeouts() throws Exception
+    {
+        int count = 10_000;
+        CountDownLatch latch = new CountDownLatch(count);
+        for (int i = 0; i < count; i++)
+        {
+            _wheel.schedule(new SessionExpiryWheel.Timeout(latch::countDown), i % 1000);
+        }
+        assertTrue(latch.await(10, TimeUnit.SECONDS));
+        assertEquals(0, _wheel.getSize());
+    }
+
+    @Test
+    public void testStopClearsTimeouts() throws Exception
+    {
+        _wheel.schedule(new SessionExpiryWheel.Timeout(() -> {}), TimeUnit.DAYS.toMillis(1000));
+        _wheel.schedule(new SessionExpiryWheel.Timeout(() -> {}), 1000);
+        assertEquals(2, _wheel.getSize());
+        _wheel.stop();
+        assertEquals(0, _wheel.getSize());
+    }
+}
@@ -15,6 +15,7 @@ package org.eclipse.jetty.servlet;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
 import java.util.StringTokenizer;
@@ -31,9 +32,11 @@ import org.eclipse.jetty.http.HttpHeader;
 import org.eclipse.jetty.http.MimeTypes;
 import org.eclipse.jetty.http.PreEncodedHttpField;
 import org.eclipse.jetty.server.CachedContentFactory;
+import org.eclipse.jetty.server.MappedContentStore;
 import org.eclipse.jetty.server.ResourceContentFactory;
 import org.eclipse.jetty.server.ResourceService;
 import org.eclipse.jetty.server.ResourceService.WelcomeFactory;
+import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.handler.ContextHandler;
 import org.eclipse.jetty.server.handler.ResourceHandler;
 import org.eclipse.jetty.util.URIUtil;
@@ -102,6 +105,19 @@ import org.slf4j.LoggerFactory;
  *  maxCacheSize      The maximum total size of the cache or 0 for no cache.
  *  maxCachedFileSize The maximum size of a file to cache
  *  maxCachedFiles    The maximum number of files to cache
+ *  compressCachedContent
+ *                    If set to true, cached content that does not have a precompressed gzip
+ *                    resource is compressed on first use and the compressed content is kept
+ *                    in the cache, so that it is not compressed again for every response.
+ *                    Implies gzip precompressed content. Default is false.
+ *  maxCompressedFileSize
+ *                    The maximum size of a cached content compressed on first use.
+ *                    Larger contents are not compressed. Default is 1MB.
+ *  maxDirectCacheSize
+ *                    The maximum total size of the direct buffers of the cache, or -1 (the
+ *                    default) for direct buffers to be included in maxCacheSize.
+ *                    If a MappedContentStore is a bean of the Server, the mapped and direct
+ *                    buffers of the cache are shared with the caches of other contexts.
  *
  *  useFileMappedBuffer
  *                    If set to true, it will use mapped file buffer to serve static content
@@ -110,6 +126,12 @@ import org.slf4j.LoggerFactory;
  *                    This is set to false by default by this class, but may be overridden
  *                    by eg webdefault.xml
  *
+ *  useFileTransfer   If set to true, the content of file resources will be transferred
+ *                    directly from the file to the network, without being copied through
+ *                    buffers, when the connection supports it (cleartext HTTP/1.1 only) and
+ *                    the response is not otherwise transformed (for example by gzip).
+ *                    Default is false.
+ *
  *  cacheControl      If set, all static content will have this value set as the cache-control
  *                    header.
  *
@@ -172,8 +194,16 @@ public class DefaultServlet extends HttpServlet implements ResourceFactory, Welc
         _resourceService.setDirAllowed(getInitBoolean("dirAllowed", _resourceService.isDirAllowed()));
         _resourceService.setRedirectWelcome(getInitBoolean("redirectWelcome", _resourceService.isRedirectWelcome()));
         _resourceService.setPrecompressedFormats(parsePrecompressedFormats(getInitParameter("precompressed"), getInitBoolean("gzip"), _resourceService.getPrecompressedFormats()));
+        boolean compressCachedContent = getInitBoolean("compressCachedContent", false);
+        if (compressCachedContent && !Arrays.asList(_resourceService.getPrecompressedFormats()).contains(CompressedContentFormat.GZIP))
+        {
+            List<CompressedContentFormat> formats = new ArrayList<>(Arrays.asList(_resourceService.getPrecompressedFormats()));
+            formats.add(CompressedContentFormat.GZIP);
+            _resourceService.setPrecompressedFormats(formats.toArray(new CompressedContentFormat[0]));
+        }
         _resourceService.setPathInfoOnly(getInitBoolean("pathInfoOnly", _resourceService.isPathInfoOnly()));
         _resourceService.setEtags(getInitBoolean("etags", _resourceService.isEtags()));
+        _resourceService.setUseFileTransfer(getInitBoolean("useFileTransfer", _resourceService.isUseFileTransfer()));
 
         if ("exact".equals(getInitParameter("welcomeServlets")))
         {
@@ -240,9 +270,11 @@ public class DefaultServlet extends HttpServlet implements ResourceFactory, Welc
         int maxCacheSize = getInitInt("maxCacheSize", -2);
         int maxCachedFileSize = getInitInt("maxCachedFileSize", -2);
         int maxCachedFiles = getInitInt("maxCachedFiles", -2);
+        int maxDirectCacheSize = getInitInt("maxDirectCacheSize", -2);
+        int maxCompressedFileSize = getInitInt("maxCompressedFileSize", -2);
         if (resourceCache != null)
         {
-            if (maxCacheSize != -1 || maxCachedFileSize != -2 || maxCachedFiles != -2)
+            if (maxCacheSize != -1 || maxCachedFileSize != -2 || maxCachedFiles != -2 || maxDirectCacheSize != -2)
                 LOG.debug("ignoring resource cache configuration, using resourceCache attribute");
             if (_relativeResourceBase != null || _resourceBase != null)
                 throw new UnavailableException("resourceCache specified with resource bases");
@@ -260,6 +292,15 @@ public class DefaultServlet extends HttpServlet implements ResourceFactory, Welc
                     _cache.setMaxCachedFileSize(maxCachedFileSize);
                 if (maxCachedFiles >= -1)
                     _cache.setMaxCachedFiles(maxCachedFiles);
+                if (maxDirectCacheSize >= -1)
+                    _cache.setMaxDirectCacheSize(maxDirectCacheSize);
+                _cache.setCompressCachedContent(compressCachedContent);
+                if (maxCompressedFileSize >= 0)
+                    _cache.setMaxCompressedFileSize(maxCompressedFileSize);
+                Server server = _contextHandler.getServer();
+                if (server != null)
+                    _cache.setContentStore(server.getBean(MappedContentStore.class));
+                _contextHandler.addBean(_cache);
                 _servletContext.setAttribute(resourceCache == null ? "resourceCache" : resourceCache, _cache);
             }
         }
@@ -486,7 +527,10 @@ public class DefaultServlet extends HttpServlet implements ResourceFactory, Welc
     public void destroy()
     {
         if (_cache != null)
+        {
             _cache.flushCache();
+            _contextHandler.removeBean(_cache);
+        }
         super.destroy();
     }
 
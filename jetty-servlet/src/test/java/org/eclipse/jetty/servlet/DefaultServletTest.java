@@ -13,6 +13,7 @@
 
 package org.eclipse.jetty.servlet;
 
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
@@ -29,6 +30,7 @@ import java.util.function.Consumer;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
 import javax.servlet.DispatcherType;
 import javax.servlet.Filter;
 import javax.servlet.FilterChain;
@@ -49,6 +51,7 @@ import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.http.HttpTester;
 import org.eclipse.jetty.logging.StacklessLogging;
 import org.eclipse.jetty.server.AllowedResourceAliasChecker;
+import org.eclipse.jetty.server.CachedContentFactory;
 import org.eclipse.jetty.server.HttpConfiguration;
 import org.eclipse.jetty.server.LocalConnector;
 import org.eclipse.jetty.server.ResourceContentFactory;
@@ -59,6 +62,8 @@ import org.eclipse.jetty.toolchain.test.FS;
 import org.eclipse.jetty.toolchain.test.MavenTestingUtils;
 import org.eclipse.jetty.toolchain.test.jupiter.WorkDir;
 import org.eclipse.jetty.toolchain.test.jupiter.WorkDirExtension;
+import org.eclipse.jetty.util.BufferUtil;
+import org.eclipse.jetty.util.IO;
 import org.eclipse.jetty.util.TypeUtil;
 import org.eclipse.jetty.util.resource.PathResource;
 import org.junit.jupiter.api.AfterEach;
@@ -80,6 +85,7 @@ import static org.hamcrest.Matchers.anyOf;
 import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.endsWith;
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.nullValue;
@@ -1718,6 +1724,49 @@ public class DefaultServletTest
         assertThat(response, containsHeaderValue(HttpHeader.ETAG, etag));
     }
 
+    @Test
+    public void testCompressCachedContent() throws Exception
+    {
+        FS.ensureDirExists(docRoot);
+        String text = "Hello Text 0 ".repeat(100);
+        createFile(docRoot.resolve("data0.txt"), text);
+
+        ServletHolder defholder = context.addServlet(DefaultServlet.class, "/");
+        defholder.setInitParameter("etags", "true");
+        defholder.setInitParameter("compressCachedContent", "true");
+        defholder.setInitParameter("maxCachedFiles", "1024");
+        defholder.setInitParameter("maxCachedFileSize", "200000000");
+        defholder.setInitParameter("maxCacheSize", "256000000");
+
+        String rawResponse = connector.getResponse("GET /context/data0.txt HTTP/1.0\r\nHost:localhost:8080\r\n\r\n");
+        HttpTester.Response response = HttpTester.parseResponse(rawResponse);
+        assertThat(response.toString(), response.getStatus(), is(HttpStatus.OK_200));
+        assertThat(response, containsHeaderValue(HttpHeader.CONTENT_LENGTH, Integer.toString(text.length())));
+        assertThat(response, containsHeaderValue(HttpHeader.VARY, "Accept-Encoding"));
+        assertThat(response, not(containsHeader(HttpHeader.CONTENT_ENCODING)));
+        assertThat(response.getContent(), is(text));
+        String etag = response.get(HttpHeader.ETAG);
+        String etagGzip = etag.replaceFirst("([^\"]*)\"(.*)\"", "$1\"$2--gzip\"");
+
+        for (int i = 0; i < 2; i++)
+        {
+            ByteBuffer rawBytes = connector.getResponse(BufferUtil.toBuffer("GET /context/data0.txt HTTP/1.0\r\nHost:localhost:8080\r\nAccept-Encoding:gzip\r\n\r\n"));
+            response = HttpTester.parseResponse(rawBytes);
+            assertThat(response.toString(), response.getStatus(), is(HttpStatus.OK_200));
+            assertThat(response, containsHeaderValue(HttpHeader.CONTENT_ENCODING, "gzip"));
+            assertThat(response, containsHeaderValue(HttpHeader.ETAG, etagGzip));
+            assertThat(response.getContentBytes().length, lessThan(text.length()));
+            try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentBytes())))
+            {
+                assertThat(IO.toString(in, UTF_8), is(text));
+            }
+        }
+
+        CachedContentFactory cache = (CachedContentFactory)context.getServletContext().getAttribute("resourceCache");
+        assertThat(cache.getCompressions(), is(1L));
+        assertThat(cache.getCompressedHits(), is(2L));
+    }
+
     @Test
     public void testBrotli() throws Exception
     {
@@ -17,14 +17,23 @@ import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.io.PrintWriter;
 import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.EnumSet;
 import java.util.Enumeration;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
 import javax.servlet.AsyncContext;
 import javax.servlet.DispatcherType;
 import javax.servlet.Filter;
@@ -43,12 +52,14 @@ import org.eclipse.jetty.http.CompressedContentFormat;
 import org.eclipse.jetty.http.HttpStatus;
 import org.eclipse.jetty.http.HttpTester;
 import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.server.HttpConnectionFactory;
 import org.eclipse.jetty.server.HttpOutput;
 import org.eclipse.jetty.server.LocalConnector;
 import org.eclipse.jetty.server.Server;
 import org.eclipse.jetty.server.handler.gzip.GzipHandler;
 import org.eclipse.jetty.util.BufferUtil;
 import org.eclipse.jetty.util.IO;
+import org.eclipse.jetty.util.compression.CompressionCodec;
 import org.hamcrest.Matchers;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -62,6 +73,7 @@ import static org.hamcrest.Matchers.equalToIgnoringCase;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.not;
 import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 public class GzipHandlerTest
@@ -953,6 +965,216 @@ public class GzipHandlerTest
         assertThat(response.get("Vary"), is("Accept-Encoding"));
     }
 
+    @Test
+    public void testCompressionCodecNegotiation() throws Exception
+    {
+        _server.stop();
+        gzipHandler.setCompressionCodecs(List.of(new DeflateCompressionCodec()));
+        _server.start();
+
+        HttpTester.Request request = HttpTester.newRequest();
+        request.setMethod("GET");
+        request.setURI("/ctx/content");
+        request.setVersion("HTTP/1.0");
+        request.setHeader("Host", "tester");
+        request.setHeader("Accept-Encoding", "gzip;q=0.5, deflate");
+
+        HttpTester.Response response = HttpTester.parseResponse(_connector.getResponse(request.generate()));
+
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.get("Content-Encoding"), is("deflate"));
+        assertThat(response.getCSV("Vary", false), contains("Accept-Encoding"));
+        String etagDeflate = String.format("W/\"%x%sdeflate\"", __content.hashCode(), CompressedContentFormat.ETAG_SEPARATOR);
+        assertThat(response.get("ETag"), is(etagDeflate));
+        InputStream testIn = new InflaterInputStream(new ByteArrayInputStream(response.getContentBytes()));
+        assertEquals(__content, IO.toString(testIn, StandardCharsets.UTF_8));
+
+        // Gzip is preferred by the client.
+        request.setHeader("Accept-Encoding", "gzip, deflate;q=0.5");
+        response = HttpTester.parseResponse(_connector.getResponse(request.generate()));
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.get("Content-Encoding"), is("gzip"));
+        assertThat(response.get("ETag"), is(__contentETagGzip));
+
+        // Codecs are preferred to gzip for equal qualities.
+        request.setHeader("Accept-Encoding", "gzip, deflate");
+        response = HttpTester.parseResponse(_connector.getResponse(request.generate()));
+        assertThat(response.get("Content-Encoding"), is("deflate"));
+
+        // The ETag of the deflated content is recognized.
+        request.setHeader("If-None-Match", etagDeflate);
+        response = HttpTester.parseResponse(_connector.getResponse(request.generate()));
+        assertThat(response.getStatus(), is(304));
+        assertThat(response.get("ETag"), is(etagDeflate));
+    }
+
+    @Test
+    public void testSyncFlush() throws Exception
+    {
+        // Compresses to more than the output buffer size, so the flush needs several writes.
+        byte[] data = new byte[16 * 1024];
+        Random random = new Random(data.length);
+        for (int i = 0; i < data.length; i++)
+        {
+            data[i] = (byte)('a' + random.nextInt(26));
+        }
+        CountDownLatch flushed = new CountDownLatch(1);
+        _server.stop();
+        _connector.getConnectionFactory(HttpConnectionFactory.class).getHttpConfiguration().setOutputBufferSize(1024);
+        gzipHandler.setSyncFlush(true);
+        context.addServlet(new ServletHolder(new HttpServlet()
+        {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse response) throws IOException
+            {
+                response.setContentType("text/plain");
+                ServletOutputStream out = response.getOutputStream();
+                out.write(data);
+                out.flush();
+                try
+                {
+                    flushed.await(5, TimeUnit.SECONDS);
+                }
+                catch (InterruptedException x)
+                {
+                    throw new InterruptedIOException();
+                }
+                out.write(data);
+            }
+        }), "/flush");
+        _server.start();
+
+        LocalConnector.LocalEndPoint endPoint = _connector.executeRequest("GET /ctx/flush HTTP/1.0\r\nHost: tester\r\nAccept-Encoding: gzip\r\n\r\n");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try
+        {
+            // The flushed content must be decompressible before more content is written.
+            byte[] inflated = new byte[0];
+            long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (inflated.length < data.length && System.nanoTime() < end)
+            {
+                ByteBuffer buffer = endPoint.waitForOutput(1, TimeUnit.SECONDS);
+                if (buffer != null)
+                    output.write(BufferUtil.toArray(buffer));
+                inflated = inflateResponseContent(output.toByteArray());
+            }
+            assertArrayEquals(data, inflated);
+        }
+        finally
+        {
+            flushed.countDown();
+        }
+
+        endPoint.waitUntilClosed();
+        output.write(BufferUtil.toArray(endPoint.takeOutput()));
+        HttpTester.Response response = HttpTester.parseResponse(ByteBuffer.wrap(output.toByteArray()));
+        assertThat(response.getStatus(), is(200));
+        assertThat(response.get("Content-Encoding"), is("gzip"));
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(data);
+        expected.write(data);
+        InputStream testIn = new GZIPInputStream(new ByteArrayInputStream(response.getContentBytes()));
+        assertArrayEquals(expected.toByteArray(), IO.readBytes(testIn));
+    }
+
+    /**
+     * Inflates the gzip content of a partial HTTP/1.0 response, as far as it has been received.
+     */
+    private static byte[] inflateResponseContent(byte[] response) throws DataFormatException
+    {
+        String head = new String(response, StandardCharsets.ISO_8859_1);
+        // Skip the headers and the 10 bytes of the gzip header.
+        int offset = head.indexOf("\r\n\r\n");
+        if (offset < 0 || response.length < offset + 4 + 10)
+            return new byte[0];
+        offset += 4 + 10;
+        Inflater inflater = new Inflater(true);
+        try
+        {
+            inflater.setInput(response, offset, response.length - offset);
+            ByteArrayOutputStream inflated = new ByteArrayOutputStream();
+            byte[] buffer = new byte[1024];
+            int length;
+            while ((length = inflater.inflate(buffer)) > 0)
+            {
+                inflated.write(buffer, 0, length);
+            }
+            return inflated.toByteArray();
+        }
+        finally
+        {
+            inflater.end();
+        }
+    }
+
+    /**
+     * The {@code deflate} content-coding (the zlib format of RFC 1950).
+     */
+    public static class DeflateCompressionCodec implements CompressionCodec
+    {
+        @Override
+        public String getEncoding()
+        {
+            return "deflate";
+        }
+
+        @Override
+        public Encoder newEncoder(int compressionLevel)
+        {
+            Deflater deflater = new Deflater(compressionLevel);
+            return new Encoder()
+            {
+                @Override
+                public void setInput(ByteBuffer input)
+                {
+                    deflater.setInput(input);
+                }
+
+                @Override
+                public void finish()
+                {
+                    deflater.finish();
+                }
+
+                @Override
+                public boolean needsInput()
+                {
+                    return deflater.needsInput();
+                }
+
+                @Override
+                public boolean finished()
+                {
+                    return deflater.finished();
+                }
+
+                @Override
+                public int encode(ByteBuffer output, boolean flush)
+                {
+                    return deflater.deflate(output, flush ? Deflater.SYNC_FLUSH : Deflater.NO_FLUSH);
+                }
+
+                @Override
+                public void reset()
+                {
+                    deflater.reset();
+                }
+
+                @Override
+                public void end()
+                {
+                    deflater.end();
+                }
+            };
+        }
+
+        @Override
+        public Decoder newDecoder()
+        {
+            throw new UnsupportedOperationException();
+        }
+    }
+
     public static class CheckFilter implements Filter
     {
         @Override
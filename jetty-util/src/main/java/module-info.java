@@ -39,5 +39,9 @@ module org.eclipse.jetty.util
     exports org.eclipse.jetty.util.thread;
     exports org.eclipse.jetty.util.thread.strategy;
 
+    uses org.eclipse.jetty.util.compression.CompressionCodec;
     uses org.eclipse.jetty.util.security.CredentialProvider;
+
+    provides org.eclipse.jetty.util.compression.CompressionCodec with
+        org.eclipse.jetty.util.compression.GzipCompressionCodec;
 }
@@ -0,0 +1,138 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * <p>A probabilistic estimator of how frequently keys have been recently seen.</p>
+ * <p>This is a Count-Min sketch with 4 rows of small saturating counters, as used
+ * by the TinyLFU cache admission policy: the frequency of a key is estimated by
+ * the minimum of its counters, so it may be overestimated but never underestimated
+ * (besides aging).  Once the number of recorded increments reaches 10 times the
+ * sketch width, all the counters are halved, so that the estimated frequencies
+ * reflect recent history.</p>
+ * <p>Updates are lock-free and an increment may be lost under contention,
+ * which only affects the accuracy of the estimate.  Counters of frequently
+ * seen keys saturate and are then only read, so they do not cause contention.</p>
+ */
+public class FrequencySketch
+{
+    /**
+     * The maximum frequency estimated by a sketch.
+     */
+    public static final int MAX_FREQUENCY = 15;
+
+    private static final int[] SEEDS = {0x97CB3127, 0xB7E15163, 0x9E3779B9, 0x7F4A7C15};
+    private static final int MAX_WIDTH = 1 << 24;
+
+    private final AtomicIntegerArray _counters;
+    private final AtomicInteger _size = new AtomicInteger();
+    private final int _width;
+    private final int _sampleSize;
+
+    /**
+     * @param maxEntries the expected maximum number of distinct keys whose frequency is tracked
+     */
+    public FrequencySketch(int maxEntries)
+    {
+        int width = 16;
+        while (width < maxEntries && width < MAX_WIDTH)
+        {
+            width <<= 1;
+        }
+        _width = width;
+        _sampleSize = 10 * width;
+        _counters = new AtomicIntegerArray(SEEDS.length * width);
+    }
+
+    /**
+     * Records an occurrence of the given key.
+     *
+     * @param key the key to record
+     */
+    public void increment(Object key)
+    {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int i = 0; i < SEEDS.length; i++)
+        {
+            int index = indexOf(hash, i);
+            int count = _counters.get(index);
+            if (count < MAX_FREQUENCY)
+                added |= _counters.compareAndSet(index, count, count + 1);
+        }
+
+        if (added && _size.incrementAndGet() == _sampleSize)
+            reset();
+    }
+
+    /**
+     * @param key the key to estimate the frequency of
+     * @return the estimated recent frequency of the key, between 0 and {@link #MAX_FREQUENCY}
+     */
+    public int frequency(Object key)
+    {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_FREQUENCY;
+        for (int i = 0; i < SEEDS.length; i++)
+        {
+            frequency = Math.min(frequency, _counters.get(indexOf(hash, i)));
+        }
+        return frequency;
+    }
+
+    /**
+     * Forgets all recorded occurrences.
+     */
+    public void clear()
+    {
+        for (int i = 0; i < _counters.length(); i++)
+        {
+            _counters.set(i, 0);
+        }
+        _size.set(0);
+    }
+
+    private void reset()
+    {
+        for (int i = 0; i < _counters.length(); i++)
+        {
+            _counters.set(i, _counters.get(i) >>> 1);
+        }
+        _size.addAndGet(-_sampleSize / 2);
+    }
+
+    private int indexOf(int hash, int row)
+    {
+        int h = hash * SEEDS[row];
+        h += h >>> 16;
+        return row * _width + (h & (_width - 1));
+    }
+
+    private static int spread(int hash)
+    {
+        hash ^= hash >>> 17;
+        hash *= 0xED5AD4BB;
+        hash ^= hash >>> 11;
+        return hash;
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x{width=%d,size=%d}", getClass().getSimpleName(), hashCode(), _width, _size.get());
+    }
+}
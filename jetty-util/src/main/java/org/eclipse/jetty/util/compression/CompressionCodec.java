@@ -0,0 +1,147 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.compression;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.ServiceLoader;
+import java.util.stream.Collectors;
+
+import org.eclipse.jetty.util.TypeUtil;
+
+/**
+ * <p>A compression algorithm for an HTTP content-coding, such as {@code gzip},
+ * {@code br} or {@code zstd}.</p>
+ * <p>Codecs are service providers discovered with {@link ServiceLoader}, so that
+ * implementations of content-codings that depend on third party libraries can be
+ * added to the class-path (or module-path) and used by both servers and clients.
+ * The {@code gzip} codec is always available, see {@link GzipCompressionCodec}.</p>
+ * <p>{@link Encoder}s and {@link Decoder}s are stateful and not thread-safe, and
+ * may be pooled with an {@link EncoderPool}.</p>
+ */
+public interface CompressionCodec
+{
+    /**
+     * @return the codecs available as {@link ServiceLoader} service providers
+     */
+    static List<CompressionCodec> getCodecs()
+    {
+        return TypeUtil.serviceStream(ServiceLoader.load(CompressionCodec.class)).collect(Collectors.toList());
+    }
+
+    /**
+     * @return the content-coding name, in lower case, as used in the
+     * {@code Accept-Encoding} and {@code Content-Encoding} HTTP headers
+     */
+    String getEncoding();
+
+    /**
+     * @param compressionLevel the codec specific compression level, or -1 for the codec default
+     * @return a new encoder, that must be {@link Encoder#end() ended} when no longer used
+     */
+    Encoder newEncoder(int compressionLevel);
+
+    /**
+     * @return a new decoder, that must be {@link Decoder#end() ended} when no longer used
+     */
+    Decoder newDecoder();
+
+    /**
+     * <p>Compresses a stream of bytes, including any framing of the content-coding.</p>
+     * <p>The usage is similar to {@link java.util.zip.Deflater}: input is provided with
+     * {@link #setInput(ByteBuffer)} when {@link #needsInput()}, {@link #finish()} is called
+     * after the last input, and {@link #encode(ByteBuffer, boolean)} is called until the
+     * encoder is {@link #finished()}.</p>
+     */
+    interface Encoder
+    {
+        /**
+         * <p>Sets the input to compress.</p>
+         * <p>The buffer position is advanced as the input is consumed by
+         * {@link #encode(ByteBuffer, boolean)}, and the buffer must not
+         * be modified until the encoder {@link #needsInput() needs input}.</p>
+         *
+         * @param input the bytes to compress
+         */
+        void setInput(ByteBuffer input);
+
+        /**
+         * <p>Indicates that the current input is the last input.</p>
+         */
+        void finish();
+
+        /**
+         * @return whether the input has been consumed and more input is needed
+         */
+        boolean needsInput();
+
+        /**
+         * @return whether the end of the compressed stream has been produced
+         */
+        boolean finished();
+
+        /**
+         * <p>Produces compressed bytes.</p>
+         *
+         * @param output the buffer, in fill mode, to write the compressed bytes to
+         * @param flush whether all the input consumed so far must be flushed to the output
+         * @return the number of compressed bytes written
+         */
+        int encode(ByteBuffer output, boolean flush);
+
+        /**
+         * <p>Resets this encoder so that it can be reused for a new stream.</p>
+         */
+        void reset();
+
+        /**
+         * <p>Releases the resources of this encoder.</p>
+         */
+        void end();
+    }
+
+    /**
+     * <p>Decompresses a stream of bytes, including any framing of the content-coding.</p>
+     */
+    interface Decoder
+    {
+        /**
+         * <p>Decompresses the given input.</p>
+         * <p>The input position is advanced past the consumed bytes. Input that is not
+         * consumed because the output is full must be passed again to the next call.</p>
+         *
+         * @param input the compressed bytes
+         * @param output the buffer, in fill mode, to write the decompressed bytes to
+         * @return the number of decompressed bytes written
+         * @throws IOException if the compressed bytes are not valid
+         */
+        int decode(ByteBuffer input, ByteBuffer output) throws IOException;
+
+        /**
+         * @return whether the end of the compressed stream has been decoded
+         */
+        boolean finished();
+
+        /**
+         * <p>Resets this decoder so that it can be reused for a new stream.</p>
+         */
+        void reset();
+
+        /**
+         * <p>Releases the resources of this decoder.</p>
+         */
+        void end();
+    }
+}
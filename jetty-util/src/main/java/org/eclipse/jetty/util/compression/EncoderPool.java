@@ -0,0 +1,69 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.compression;
+
+/**
+ * <p>A pool of {@link CompressionCodec.Encoder}s of a {@link CompressionCodec}.</p>
+ */
+public class EncoderPool extends CompressionPool<CompressionCodec.Encoder>
+{
+    private final CompressionCodec _codec;
+    private final int _compressionLevel;
+
+    /**
+     * <p>Creates a pool of {@link CompressionCodec.Encoder}s.</p>
+     * <p>With a capacity of zero, the encoders are not pooled: they are created
+     * when acquired and ended when released. With a negative capacity, the
+     * number of pooled encoders is not limited.</p>
+     *
+     * @param codec the codec of the encoders
+     * @param capacity maximum number of Encoders which can be contained in the pool
+     * @param compressionLevel the codec specific compression level for new Encoder objects, or -1 for the default
+     */
+    public EncoderPool(CompressionCodec codec, int capacity, int compressionLevel)
+    {
+        super(capacity);
+        _codec = codec;
+        _compressionLevel = compressionLevel;
+    }
+
+    public CompressionCodec getCodec()
+    {
+        return _codec;
+    }
+
+    @Override
+    protected CompressionCodec.Encoder newPooled()
+    {
+        return _codec.newEncoder(_compressionLevel);
+    }
+
+    @Override
+    protected void end(CompressionCodec.Encoder encoder)
+    {
+        encoder.end();
+    }
+
+    @Override
+    protected void reset(CompressionCodec.Encoder encoder)
+    {
+        encoder.reset();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s[%s]", super.toString(), _codec.getEncoding());
+    }
+}
@@ -0,0 +1,392 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.compression;
+
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * <p>The {@code gzip} content-coding (RFC 1952), implemented with {@link Deflater} and {@link Inflater}.</p>
+ * <p>This codec is always available as a {@link java.util.ServiceLoader} service provider.</p>
+ */
+public class GzipCompressionCodec implements CompressionCodec
+{
+    public static final String ENCODING = "gzip";
+
+    private static final byte[] GZIP_HEADER = new byte[]{(byte)0x1f, (byte)0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, 0};
+    private static final int HEADER_LENGTH = 10;
+    private static final int TRAILER_LENGTH = 8;
+    private static final int FHCRC = 0x02;
+    private static final int FEXTRA = 0x04;
+    private static final int FNAME = 0x08;
+    private static final int FCOMMENT = 0x10;
+
+    @Override
+    public String getEncoding()
+    {
+        return ENCODING;
+    }
+
+    @Override
+    public CompressionCodec.Encoder newEncoder(int compressionLevel)
+    {
+        return new Encoder(new Deflater(compressionLevel, true), true);
+    }
+
+    /**
+     * <p>Creates an encoder that compresses with the given {@link Deflater}, for example
+     * one acquired from a {@link DeflaterPool}.</p>
+     * <p>The deflater must produce raw deflate data, without zlib header and trailer
+     * (see {@link Deflater#Deflater(int, boolean)}), and it is not ended when the
+     * encoder is {@link CompressionCodec.Encoder#end() ended}.</p>
+     *
+     * @param deflater the deflater to compress with
+     * @return a new encoder
+     */
+    public CompressionCodec.Encoder newEncoder(Deflater deflater)
+    {
+        return new Encoder(deflater, false);
+    }
+
+    @Override
+    public CompressionCodec.Decoder newDecoder()
+    {
+        return new Decoder();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x[%s]", getClass().getSimpleName(), hashCode(), ENCODING);
+    }
+
+    private static class Encoder implements CompressionCodec.Encoder
+    {
+        private final CRC32 _crc = new CRC32();
+        private final Deflater _deflater;
+        private final boolean _endDeflater;
+        private boolean _header;
+        private boolean _trailer;
+
+        private Encoder(Deflater deflater, boolean endDeflater)
+        {
+            _deflater = deflater;
+            _endDeflater = endDeflater;
+        }
+
+        @Override
+        public void setInput(ByteBuffer input)
+        {
+            _crc.update(input.slice());
+            _deflater.setInput(input);
+        }
+
+        @Override
+        public void finish()
+        {
+            _deflater.finish();
+        }
+
+        @Override
+        public boolean needsInput()
+        {
+            return _deflater.needsInput();
+        }
+
+        @Override
+        public boolean finished()
+        {
+            return _trailer;
+        }
+
+        @Override
+        public int encode(ByteBuffer output, boolean flush)
+        {
+            int position = output.position();
+
+            if (!_header)
+            {
+                if (output.remaining() < HEADER_LENGTH)
+                    return 0;
+                output.put(GZIP_HEADER);
+                _header = true;
+            }
+
+            if (!_deflater.finished())
+                _deflater.deflate(output, flush ? Deflater.SYNC_FLUSH : Deflater.NO_FLUSH);
+
+            if (_deflater.finished() && !_trailer && output.remaining() >= TRAILER_LENGTH)
+            {
+                putIntLittleEndian(output, (int)_crc.getValue());
+                putIntLittleEndian(output, _deflater.getTotalIn());
+                _trailer = true;
+            }
+
+            return output.position() - position;
+        }
+
+        private static void putIntLittleEndian(ByteBuffer buffer, int value)
+        {
+            buffer.put((byte)value);
+            buffer.put((byte)(value >>> 8));
+            buffer.put((byte)(value >>> 16));
+            buffer.put((byte)(value >>> 24));
+        }
+
+        @Override
+        public void reset()
+        {
+            _deflater.reset();
+            _crc.reset();
+            _header = false;
+            _trailer = false;
+        }
+
+        @Override
+        public void end()
+        {
+            if (_endDeflater)
+                _deflater.end();
+        }
+    }
+
+    private enum State
+    {
+        HEADER, EXTRA_LENGTH, EXTRA, NAME, COMMENT, HCRC, DATA, TRAILER, FINISHED
+    }
+
+    private static class Decoder implements CompressionCodec.Decoder
+    {
+        private final CRC32 _crc = new CRC32();
+        private final Inflater _inflater = new Inflater(true);
+        private State _state = State.HEADER;
+        private int _flags;
+        private int _size;
+        private long _value;
+
+        @Override
+        public int decode(ByteBuffer input, ByteBuffer output) throws ZipException
+        {
+            int position = output.position();
+            while (true)
+            {
+                switch (_state)
+                {
+                    case DATA:
+                    {
+                        if (_inflater.needsInput())
+                        {
+                            if (!input.hasRemaining())
+                                return output.position() - position;
+                            _inflater.setInput(input);
+                        }
+                        if (!output.hasRemaining())
+                            return output.position() - position;
+
+                        int start = output.position();
+                        int inflated;
+                        try
+                        {
+                            inflated = _inflater.inflate(output);
+                        }
+                        catch (DataFormatException x)
+                        {
+                            throw (ZipException)new ZipException(x.getMessage()).initCause(x);
+                        }
+                        ByteBuffer decoded = output.duplicate();
+                        decoded.position(start).limit(start + inflated);
+                        _crc.update(decoded);
+
+                        if (_inflater.finished())
+                        {
+                            begin(State.TRAILER);
+                        }
+                        else if (inflated == 0 && _inflater.needsDictionary())
+                        {
+                            throw new ZipException("Invalid gzip dictionary");
+                        }
+                        break;
+                    }
+
+                    case FINISHED:
+                    {
+                        if (!input.hasRemaining())
+                            return output.position() - position;
+                        // A concatenated gzip member.
+                        reset();
+                        break;
+                    }
+
+                    default:
+                    {
+                        if (!input.hasRemaining())
+                            return output.position() - position;
+                        parse(input.get() & 0xFF);
+                        break;
+                    }
+                }
+            }
+        }
+
+        private void parse(int b) throws ZipException
+        {
+            switch (_state)
+            {
+                case HEADER:
+                {
+                    switch (_size++)
+                    {
+                        case 0:
+                            if (b != 0x1F)
+                                throw new ZipException("Invalid gzip bytes");
+                            break;
+                        case 1:
+                            if (b != 0x8B)
+                                throw new ZipException("Invalid gzip bytes");
+                            break;
+                        case 2:
+                            if (b != Deflater.DEFLATED)
+                                throw new ZipException("Invalid gzip compression method");
+                            break;
+                        case 3:
+                            _flags = b;
+                            break;
+                        default:
+                            // Skip MTIME, XFL and OS.
+                            break;
+                    }
+                    if (_size == HEADER_LENGTH)
+                        nextHeaderField();
+                    break;
+                }
+                case EXTRA_LENGTH:
+                {
+                    _value += (long)b << (8 * _size++);
+                    if (_size == 2)
+                    {
+                        long length = _value;
+                        if (length == 0)
+                        {
+                            nextHeaderField();
+                        }
+                        else
+                        {
+                            begin(State.EXTRA);
+                            _value = length;
+                        }
+                    }
+                    break;
+                }
+                case EXTRA:
+                {
+                    if (++_size == _value)
+                        nextHeaderField();
+                    break;
+                }
+                case NAME:
+                case COMMENT:
+                {
+                    if (b == 0)
+                        nextHeaderField();
+                    break;
+                }
+                case HCRC:
+                {
+                    if (++_size == 2)
+                        nextHeaderField();
+                    break;
+                }
+                case TRAILER:
+                {
+                    _value += (long)b << (8 * (_size % 4));
+                    if (++_size == 4)
+                    {
+                        if (_value != _crc.getValue())
+                            throw new ZipException("Invalid gzip CRC");
+                        _value = 0;
+                    }
+                    else if (_size == TRAILER_LENGTH)
+                    {
+                        if (_value != (_inflater.getBytesWritten() & 0xFFFFFFFFL))
+                            throw new ZipException("Invalid gzip size");
+                        begin(State.FINISHED);
+                    }
+                    break;
+                }
+                default:
+                    throw new IllegalStateException(_state.toString());
+            }
+        }
+
+        private void nextHeaderField()
+        {
+            if ((_flags & FEXTRA) != 0)
+            {
+                _flags &= ~FEXTRA;
+                begin(State.EXTRA_LENGTH);
+            }
+            else if ((_flags & FNAME) != 0)
+            {
+                _flags &= ~FNAME;
+                begin(State.NAME);
+            }
+            else if ((_flags & FCOMMENT) != 0)
+            {
+                _flags &= ~FCOMMENT;
+                begin(State.COMMENT);
+            }
+            else if ((_flags & FHCRC) != 0)
+            {
+                _flags &= ~FHCRC;
+                begin(State.HCRC);
+            }
+            else
+            {
+                begin(State.DATA);
+            }
+        }
+
+        private void begin(State state)
+        {
+            _state = state;
+            _size = 0;
+            _value = 0;
+        }
+
+        @Override
+        public boolean finished()
+        {
+            return _state == State.FINISHED;
+        }
+
+        @Override
+        public void reset()
+        {
+            _inflater.reset();
+            _crc.reset();
+            _flags = 0;
+            begin(State.HEADER);
+        }
+
+        @Override
+        public void end()
+        {
+            _inflater.end();
+        }
+    }
+}
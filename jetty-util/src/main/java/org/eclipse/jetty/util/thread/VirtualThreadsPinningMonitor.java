@@ -0,0 +1,151 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.thread;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+import org.eclipse.jetty.util.VirtualThreads;
+import org.eclipse.jetty.util.annotation.ManagedAttribute;
+import org.eclipse.jetty.util.annotation.ManagedObject;
+import org.eclipse.jetty.util.component.AbstractLifeCycle;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * <p>Reports virtual threads that block while pinned to their carrier thread.</p>
+ * <p>A virtual thread that blocks while pinned (for example, while holding a monitor
+ * in a {@code synchronized} block, or while in a native frame) does not release its
+ * carrier thread, so that a few pinned virtual threads may prevent all the other virtual
+ * threads from running.</p>
+ * <p>This monitor listens to the {@code jdk.VirtualThreadPinned} events of the
+ * JDK Flight Recorder, counts them and logs them with their stack trace.
+ * If the runtime does not support virtual threads or the JDK Flight Recorder
+ * event streaming, this monitor does nothing.</p>
+ */
+@ManagedObject("Reports virtual threads pinned to their carrier thread")
+public class VirtualThreadsPinningMonitor extends AbstractLifeCycle
+{
+    private static final Logger LOG = LoggerFactory.getLogger(VirtualThreadsPinningMonitor.class);
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    private final LongAdder _pinned = new LongAdder();
+    private long _threshold = 20;
+    private AutoCloseable _stream;
+
+    /**
+     * @return the minimum duration in milliseconds of a pinned block to be reported
+     */
+    @ManagedAttribute("The minimum duration in ms of a pinned block to be reported")
+    public long getThreshold()
+    {
+        return _threshold;
+    }
+
+    /**
+     * @param threshold the minimum duration in milliseconds of a pinned block to be reported
+     */
+    public void setThreshold(long threshold)
+    {
+        if (isStarted())
+            throw new IllegalStateException(getState());
+        _threshold = threshold;
+    }
+
+    /**
+     * @return whether pinned virtual threads are being monitored
+     */
+    @ManagedAttribute("Whether pinned virtual threads are monitored")
+    public boolean isMonitoring()
+    {
+        return _stream != null;
+    }
+
+    /**
+     * @return the number of times virtual threads blocked while pinned
+     */
+    @ManagedAttribute("The number of times virtual threads blocked while pinned")
+    public long getPinnedCount()
+    {
+        return _pinned.sum();
+    }
+
+    @Override
+    protected void doStart() throws Exception
+    {
+        _pinned.reset();
+        if (VirtualThreads.areSupported())
+            _stream = newRecordingStream();
+        super.doStart();
+    }
+
+    private AutoCloseable newRecordingStream()
+    {
+        // The JDK Flight Recorder event streaming API is not available in Java 11.
+        try
+        {
+            Class<?> streamClass = Class.forName("jdk.jfr.consumer.RecordingStream");
+            Class<?> settingsClass = Class.forName("jdk.jfr.EventSettings");
+            Object stream = streamClass.getConstructor().newInstance();
+            try
+            {
+                Object settings = streamClass.getMethod("enable", String.class).invoke(stream, PINNED_EVENT);
+                settingsClass.getMethod("withThreshold", Duration.class).invoke(settings, Duration.ofMillis(getThreshold()));
+                settingsClass.getMethod("withStackTrace").invoke(settings);
+                Consumer<Object> onPinned = this::onPinned;
+                streamClass.getMethod("onEvent", String.class, Consumer.class).invoke(stream, PINNED_EVENT, onPinned);
+                streamClass.getMethod("startAsync").invoke(stream);
+                return (AutoCloseable)stream;
+            }
+            catch (Throwable x)
+            {
+                ((AutoCloseable)stream).close();
+                throw x;
+            }
+        }
+        catch (Throwable x)
+        {
+            LOG.warn("Unable to monitor pinned virtual threads", x);
+            return null;
+        }
+    }
+
+    /**
+     * <p>Invoked when a virtual thread blocked while pinned.</p>
+     *
+     * @param event the JDK Flight Recorder event
+     */
+    protected void onPinned(Object event)
+    {
+        _pinned.increment();
+        LOG.warn("Virtual thread pinned {}", event);
+    }
+
+    @Override
+    protected void doStop() throws Exception
+    {
+        super.doStop();
+        AutoCloseable stream = _stream;
+        _stream = null;
+        if (stream != null)
+            stream.close();
+    }
+
+    @Override
+    public String toString()
+    {
+        return String.format("%s@%x{%s,threshold=%dms,pinned=%d}", getClass().getSimpleName(), hashCode(), getState(), getThreshold(), getPinnedCount());
+    }
+}
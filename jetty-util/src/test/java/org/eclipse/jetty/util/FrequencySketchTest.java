@@ -0,0 +1,75 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class FrequencySketchTest
+{
+    @Test
+    public void testIncrement()
+    {
+        FrequencySketch sketch = new FrequencySketch(64);
+        assertEquals(0, sketch.frequency("key"));
+
+        for (int i = 1; i <= 5; i++)
+        {
+            sketch.increment("key");
+            assertThat(sketch.frequency("key"), greaterThanOrEqualTo(i));
+        }
+
+        sketch.clear();
+        assertEquals(0, sketch.frequency("key"));
+    }
+
+    @Test
+    public void testSaturation()
+    {
+        FrequencySketch sketch = new FrequencySketch(64);
+        for (int i = 0; i < 2 * FrequencySketch.MAX_FREQUENCY; i++)
+        {
+            sketch.increment("key");
+        }
+        assertEquals(FrequencySketch.MAX_FREQUENCY, sketch.frequency("key"));
+    }
+
+    @Test
+    public void testAging()
+    {
+        FrequencySketch sketch = new FrequencySketch(16);
+        for (int i = 0; i < 8; i++)
+        {
+            sketch.increment("hot");
+        }
+        assertThat(sketch.frequency("hot"), greaterThanOrEqualTo(8));
+
+        // Frequencies only decrease when the counters are halved,
+        // which must happen after enough other keys have been seen.
+        boolean aged = false;
+        int frequency = sketch.frequency("hot");
+        for (int i = 0; i < 100 * 16 && !aged; i++)
+        {
+            sketch.increment("cold-" + i);
+            int current = sketch.frequency("hot");
+            aged = current < frequency;
+            frequency = current;
+        }
+        assertTrue(aged);
+    }
+}
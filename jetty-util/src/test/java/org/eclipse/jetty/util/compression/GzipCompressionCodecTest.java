@@ -0,0 +1,237 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.util.compression;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipException;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class GzipCompressionCodecTest
+{
+    private final GzipCompressionCodec codec = new GzipCompressionCodec();
+
+    @Test
+    public void testServiceLoader()
+    {
+        assertThat(CompressionCodec.getCodecs().stream().map(CompressionCodec::getEncoding).collect(Collectors.toList()), hasItem("gzip"));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {16, 1024, 8192})
+    public void testEncodeReadByGZIPInputStream(int chunkSize) throws Exception
+    {
+        byte[] data = newData(100_000);
+        byte[] encoded = encode(data, chunkSize);
+
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(encoded)))
+        {
+            assertArrayEquals(data, input.readAllBytes());
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 7, 1024, 8192})
+    public void testDecodeWrittenByGZIPOutputStream(int chunkSize) throws Exception
+    {
+        byte[] data = newData(100_000);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream output = new GZIPOutputStream(bytes))
+        {
+            output.write(data);
+        }
+
+        assertArrayEquals(data, decode(bytes.toByteArray(), chunkSize));
+    }
+
+    @Test
+    public void testDecodeOptionalHeaderFields() throws Exception
+    {
+        byte[] data = newData(1000);
+        byte[] deflated = encode(data, 1024);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        // FHCRC, FEXTRA, FNAME and FCOMMENT.
+        bytes.write(new byte[]{(byte)0x1f, (byte)0x8b, 8, 0x1E, 0, 0, 0, 0, 0, 0});
+        bytes.write(new byte[]{3, 0, 'x', 'y', 'z'});
+        bytes.write(new byte[]{'n', 'a', 'm', 'e', 0});
+        bytes.write(new byte[]{'c', 'o', 'm', 'm', 'e', 'n', 't', 0});
+        bytes.write(new byte[]{0, 0});
+        bytes.write(deflated, 10, deflated.length - 10);
+
+        assertArrayEquals(data, decode(bytes.toByteArray(), 3));
+    }
+
+    @Test
+    public void testDecodeConcatenatedMembers() throws Exception
+    {
+        byte[] data1 = newData(500);
+        byte[] data2 = newData(700);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        bytes.write(encode(data1, 64));
+        bytes.write(encode(data2, 64));
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        expected.write(data1);
+        expected.write(data2);
+        assertArrayEquals(expected.toByteArray(), decode(bytes.toByteArray(), 100));
+    }
+
+    @Test
+    public void testDecodeInvalidCRC()
+    {
+        byte[] encoded = encode(newData(1000), 1024);
+        encoded[encoded.length - 8] ^= 0xFF;
+        assertThrows(ZipException.class, () -> decode(encoded, 1024));
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception
+    {
+        byte[] data = newData(50_000);
+        assertArrayEquals(data, decode(encode(data, 333), 77));
+        assertArrayEquals(new byte[0], decode(encode(new byte[0], 64), 64));
+    }
+
+    @Test
+    public void testEncoderReset() throws Exception
+    {
+        EncoderPool pool = new EncoderPool(codec, 1, -1);
+        byte[] data = newData(1000);
+        for (int i = 0; i < 3; i++)
+        {
+            EncoderPool.Entry entry = pool.acquire();
+            byte[] encoded = encode(entry.get(), data, 128);
+            entry.release();
+            try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(encoded)))
+            {
+                assertArrayEquals(data, input.readAllBytes());
+            }
+        }
+    }
+
+    @Test
+    public void testEncoderWithPooledDeflater() throws Exception
+    {
+        DeflaterPool pool = new DeflaterPool(1, Deflater.DEFAULT_COMPRESSION, true);
+        byte[] data = newData(1000);
+        for (int i = 0; i < 3; i++)
+        {
+            // The encoder must not end the pooled deflater, which is reused.
+            DeflaterPool.Entry entry = pool.acquire();
+            CompressionCodec.Encoder encoder = codec.newEncoder(entry.get());
+            byte[] encoded = encode(encoder, data, 128);
+            encoder.end();
+            entry.release();
+            try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(encoded)))
+            {
+                assertArrayEquals(data, input.readAllBytes());
+            }
+        }
+    }
+
+    private static byte[] newData(int length)
+    {
+        // Compressible, but not trivially.
+        Random random = new Random(length);
+        byte[] data = new byte[length];
+        for (int i = 0; i < length; i++)
+        {
+            data[i] = (byte)('a' + random.nextInt(8));
+        }
+        return data;
+    }
+
+    private byte[] encode(byte[] data, int chunkSize)
+    {
+        CompressionCodec.Encoder encoder = codec.newEncoder(-1);
+        try
+        {
+            return encode(encoder, data, chunkSize);
+        }
+        finally
+        {
+            encoder.end();
+        }
+    }
+
+    private static byte[] encode(CompressionCodec.Encoder encoder, byte[] data, int chunkSize)
+    {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        ByteBuffer output = ByteBuffer.allocate(chunkSize);
+        int offset = 0;
+        while (!encoder.finished())
+        {
+            if (encoder.needsInput() && offset < data.length)
+            {
+                int length = Math.min(chunkSize, data.length - offset);
+                encoder.setInput(ByteBuffer.wrap(data, offset, length));
+                offset += length;
+                if (offset == data.length)
+                    encoder.finish();
+            }
+            else if (encoder.needsInput() && data.length == 0)
+            {
+                encoder.finish();
+            }
+            output.clear();
+            encoder.encode(output, false);
+            output.flip();
+            result.write(output.array(), 0, output.limit());
+        }
+        return result.toByteArray();
+    }
+
+    private byte[] decode(byte[] encoded, int chunkSize) throws Exception
+    {
+        CompressionCodec.Decoder decoder = codec.newDecoder();
+        try
+        {
+            ByteArrayOutputStream result = new ByteArrayOutputStream();
+            ByteBuffer output = ByteBuffer.allocate(chunkSize);
+            for (int offset = 0; offset < encoded.length; offset += chunkSize)
+            {
+                ByteBuffer input = ByteBuffer.wrap(encoded, offset, Math.min(chunkSize, encoded.length - offset));
+                while (true)
+                {
+                    output.clear();
+                    int decoded = decoder.decode(input, output);
+                    result.write(output.array(), 0, decoded);
+                    if (decoded == 0 && !input.hasRemaining())
+                        break;
+                }
+            }
+            assertTrue(decoder.finished());
+            return result.toByteArray();
+        }
+        finally
+        {
+            decoder.end();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http2.jmh;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpURI;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http2.HTTP2Session;
+import org.eclipse.jetty.http2.IStream;
+import org.eclipse.jetty.http2.SimpleFlowControlStrategy;
+import org.eclipse.jetty.http2.api.Session;
+import org.eclipse.jetty.http2.api.Stream;
+import org.eclipse.jetty.http2.frames.DataFrame;
+import org.eclipse.jetty.http2.frames.HeadersFrame;
+import org.eclipse.jetty.http2.frames.PushPromiseFrame;
+import org.eclipse.jetty.http2.generator.Generator;
+import org.eclipse.jetty.io.ArrayByteBufferPool;
+import org.eclipse.jetty.io.ByteArrayEndPoint;
+import org.eclipse.jetty.util.Callback;
+import org.eclipse.jetty.util.FuturePromise;
+import org.eclipse.jetty.util.thread.ScheduledExecutorScheduler;
+import org.eclipse.jetty.util.thread.Scheduler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>Drives a single {@link HTTP2Session} with many streams written concurrently
+ * by several threads, to measure the contention on the session flusher.</p>
+ * <p>Each benchmark thread owns a subset of the streams, and at each invocation
+ * writes a DATA frame on each of its streams and waits for all of them to be written.
+ * The session writes to an endpoint that discards the bytes, and the flow control
+ * windows are replenished as the frames are written.</p>
+ */
+@State(Scope.Benchmark)
+@Threads(8)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class HTTP2FlusherBenchmark
+{
+    private static final int DATA_LENGTH = 1024;
+
+    @Param({"16", "256"})
+    public int streams;
+
+    private final AtomicInteger threads = new AtomicInteger();
+    private Scheduler scheduler;
+    private HTTP2Session session;
+    private IStream[] sessionStreams;
+
+    @Setup(Level.Trial)
+    public void setupTrial(BenchmarkParams params) throws Exception
+    {
+        if (streams < params.getThreads())
+            throw new IllegalStateException("Not enough streams for " + params.getThreads() + " threads");
+
+        scheduler = new ScheduledExecutorScheduler();
+        scheduler.start();
+        Generator generator = new Generator(new ArrayByteBufferPool());
+        session = new HTTP2Session(scheduler, new DiscardEndPoint(), generator, new Session.Listener.Adapter(), new SimpleFlowControlStrategy(), 1)
+        {
+            @Override
+            public void onHeaders(HeadersFrame frame)
+            {
+            }
+
+            @Override
+            public void onPushPromise(PushPromiseFrame frame)
+            {
+            }
+        };
+        session.start();
+        session.updateSendWindow(Integer.MAX_VALUE / 2);
+
+        sessionStreams = new IStream[streams];
+        for (int i = 0; i < streams; ++i)
+        {
+            MetaData.Request request = new MetaData.Request("POST", HttpURI.from("http://localhost/" + i), HttpVersion.HTTP_2, HttpFields.EMPTY);
+            FuturePromise<Stream> promise = new FuturePromise<>();
+            session.newStream(new HeadersFrame(request, null, false), promise, new Stream.Listener.Adapter());
+            IStream stream = (IStream)promise.get(5, TimeUnit.SECONDS);
+            stream.updateSendWindow(Integer.MAX_VALUE / 2);
+            sessionStreams[i] = stream;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void teardownTrial() throws Exception
+    {
+        session.stop();
+        scheduler.stop();
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadState
+    {
+        private final ByteBuffer data = ByteBuffer.allocateDirect(DATA_LENGTH);
+        private IStream[] streams;
+
+        @Setup(Level.Trial)
+        public void setupTrial(HTTP2FlusherBenchmark benchmark, BenchmarkParams params)
+        {
+            int threads = params.getThreads();
+            int index = benchmark.threads.getAndIncrement();
+            int count = (benchmark.streams - index + threads - 1) / threads;
+            streams = new IStream[count];
+            for (int i = 0; i < count; ++i)
+            {
+                streams[i] = benchmark.sessionStreams[index + i * threads];
+            }
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public void writeData(ThreadState state) throws Exception
+    {
+        IStream[] streams = state.streams;
+        CompletableFuture<Void> complete = new CompletableFuture<>();
+        AtomicInteger pending = new AtomicInteger(streams.length);
+        for (IStream stream : streams)
+        {
+            stream.data(new DataFrame(stream.getId(), state.data.slice(), false), new Callback()
+            {
+                @Override
+                public void succeeded()
+                {
+                    // Replenish the flow control windows, as the remote peer would do.
+                    stream.updateSendWindow(DATA_LENGTH);
+                    session.updateSendWindow(DATA_LENGTH);
+                    if (pending.decrementAndGet() == 0)
+                        complete.complete(null);
+                }
+
+                @Override
+                public void failed(Throwable x)
+                {
+                    complete.completeExceptionally(x);
+                }
+            });
+        }
+        complete.get(5, TimeUnit.SECONDS);
+    }
+
+    private static class DiscardEndPoint extends ByteArrayEndPoint
+    {
+        @Override
+        public boolean flush(ByteBuffer... buffers)
+        {
+            for (ByteBuffer buffer : buffers)
+            {
+                buffer.position(buffer.limit());
+            }
+            return true;
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+            .include(HTTP2FlusherBenchmark.class.getSimpleName())
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
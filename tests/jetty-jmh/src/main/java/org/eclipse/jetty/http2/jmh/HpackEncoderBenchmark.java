@@ -0,0 +1,120 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.http2.jmh;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.http.DateGenerator;
+import org.eclipse.jetty.http.HttpFields;
+import org.eclipse.jetty.http.HttpHeader;
+import org.eclipse.jetty.http.HttpVersion;
+import org.eclipse.jetty.http.MetaData;
+import org.eclipse.jetty.http2.hpack.HpackEncoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * <p>Measures the throughput of {@link HpackEncoder} encoding a stream of responses
+ * of a single connection, with a mix of repeated and unique header values.</p>
+ * <p>The {@code policy} parameter compares the default indexing strategy with one that
+ * does not index the unique values and indexes the repeated ones, and the
+ * {@code huffmanCacheSize} parameter compares encoding with and without the cache
+ * of Huffman encoded values.</p>
+ */
+@State(Scope.Thread)
+@Warmup(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 1000, timeUnit = TimeUnit.MILLISECONDS)
+public class HpackEncoderBenchmark
+{
+    private static final String[] CONTENT_TYPES = {"text/html;charset=utf-8", "application/json", "image/png", "text/css", "application/javascript"};
+    private static final int RESPONSES = 1024;
+
+    @Param({"DEFAULT", "TUNED"})
+    public String policy;
+
+    @Param({"0", "64"})
+    public int huffmanCacheSize;
+
+    private final ByteBuffer buffer = ByteBuffer.allocate(16 * 1024);
+    private MetaData.Response[] responses;
+    private HpackEncoder encoder;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setupTrial()
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long now = System.currentTimeMillis();
+        responses = new MetaData.Response[RESPONSES];
+        for (int i = 0; i < RESPONSES; ++i)
+        {
+            HttpFields.Mutable fields = HttpFields.build()
+                .add(HttpHeader.SERVER, "Jetty(10.0.x)")
+                .add(HttpHeader.DATE, DateGenerator.formatDate(now + (i / 64) * 1000L))
+                .add(HttpHeader.CONTENT_TYPE, CONTENT_TYPES[random.nextInt(CONTENT_TYPES.length)])
+                .add(HttpHeader.CONTENT_LENGTH, Integer.toString(random.nextInt(100_000)))
+                .add(HttpHeader.CACHE_CONTROL, "max-age=3600, public")
+                .add(HttpHeader.ETAG, "W/\"" + Integer.toHexString(random.nextInt(32)) + "\"")
+                .add(HttpHeader.LAST_MODIFIED, DateGenerator.formatDate(now - random.nextInt(8) * 86_400_000L))
+                .add(HttpHeader.VARY, "Accept-Encoding")
+                .add("x-request-id", Long.toHexString(random.nextLong()))
+                .add("x-frame-options", "SAMEORIGIN");
+            responses[i] = new MetaData.Response(HttpVersion.HTTP_2, 200, fields);
+        }
+
+        encoder = new HpackEncoder();
+        encoder.setHuffmanCacheSize(huffmanCacheSize);
+        if ("TUNED".equals(policy))
+        {
+            encoder.setIndexing("x-request-id", HpackEncoder.Indexing.NOT_INDEXED);
+            encoder.setIndexing(HttpHeader.CONTENT_LENGTH.asString(), HpackEncoder.Indexing.NOT_INDEXED);
+            encoder.setIndexing(HttpHeader.ETAG.asString(), HpackEncoder.Indexing.INDEXED);
+            encoder.setIndexing(HttpHeader.LAST_MODIFIED.asString(), HpackEncoder.Indexing.INDEXED);
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public int encode() throws Exception
+    {
+        MetaData.Response response = responses[index++ & (RESPONSES - 1)];
+        buffer.clear();
+        encoder.encode(buffer, response);
+        return buffer.position();
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+            .include(HpackEncoderBenchmark.class.getSimpleName())
+            .forks(1)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
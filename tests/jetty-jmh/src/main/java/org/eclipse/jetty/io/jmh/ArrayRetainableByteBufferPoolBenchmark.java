@@ -0,0 +1,110 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.io.jmh;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.io.ArrayRetainableByteBufferPool;
+import org.eclipse.jetty.io.RetainableByteBuffer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+@State(Scope.Benchmark)
+@Threads(4)
+@Warmup(iterations = 7, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 7, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public class ArrayRetainableByteBufferPoolBenchmark
+{
+    @Param({"0", "16"})
+    int threadCacheSize;
+
+    @Param({"true", "false"})
+    boolean direct;
+
+    ArrayRetainableByteBufferPool pool;
+
+    @Setup(Level.Trial)
+    public void setupTrial()
+    {
+        pool = new ArrayRetainableByteBufferPool(0, 1024, 65536, Integer.MAX_VALUE, -1, -1);
+        pool.setThreadCacheSize(threadCacheSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDownTrial()
+    {
+        pool.clear();
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public void testAcquireRelease()
+    {
+        RetainableByteBuffer buffer = pool.acquire(4096, direct);
+        buffer.release();
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public void testAcquireReleaseRandomSizes()
+    {
+        int size = 1 + ThreadLocalRandom.current().nextInt(65536);
+        RetainableByteBuffer buffer = pool.acquire(size, direct);
+        buffer.release();
+    }
+
+    @Benchmark
+    @BenchmarkMode({Mode.Throughput})
+    public void testAcquireReleaseBurst()
+    {
+        // Like a selector thread reading from several connections before releasing their buffers.
+        RetainableByteBuffer[] buffers = new RetainableByteBuffer[8];
+        for (int i = 0; i < buffers.length; ++i)
+        {
+            buffers[i] = pool.acquire(16384, direct);
+        }
+        for (RetainableByteBuffer buffer : buffers)
+        {
+            buffer.release();
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        Options opt = new OptionsBuilder()
+            .include(ArrayRetainableByteBufferPoolBenchmark.class.getSimpleName())
+            .warmupIterations(5)
+            .measurementIterations(5)
+            .forks(1)
+            .threads(8)
+            .build();
+
+        new Runner(opt).run();
+    }
+}
@@ -13,11 +13,21 @@
 
 package org.eclipse.jetty.server.session;
 
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.eclipse.jetty.servlet.ServletContextHandler;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.testcontainers.junit.jupiter.Testcontainers;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
 /**
  * JDBCSessionDataStoreTest
  */
@@ -69,6 +79,109 @@ public class JDBCSessionDataStoreTest extends AbstractSessionDataStoreTest
         super.testCleanOrphans();
     }
 
+    @Test
+    public void testStoreAll() throws Exception
+    {
+        JDBCSessionDataStore store = newStoreAllSessionDataStore();
+        try
+        {
+            SessionData data1 = newStoreAllSessionData(store, "sa1");
+            SessionData data2 = newStoreAllSessionData(store, "sa2");
+            store.storeAll(Arrays.asList(data1, data2));
+            assertFalse(data1.isDirty());
+            assertFalse(data2.isDirty());
+            assertTrue(data1.getLastSaved() > 0);
+            assertTrue(JdbcTestHelper.existsInSessionTable("sa1", false));
+            assertTrue(JdbcTestHelper.existsInSessionTable("sa2", false));
+
+            //a session with changed attributes, a session with only changed metadata, and a new session
+            data1.setAttribute("a", "changed");
+            data2.setAccessed(data2.getAccessed() + 1000);
+            data2.setMetaDataDirty(true);
+            //not marked as dirty, so must not be written with delta writes
+            data2.putAllAttributes(Collections.singletonMap("a", "unsaved"));
+            SessionData data3 = newStoreAllSessionData(store, "sa3");
+            store.storeAll(Arrays.asList(data1, data2, data3));
+            assertFalse(data1.isDirty());
+            assertFalse(data2.isMetaDataDirty());
+            assertFalse(data3.isDirty());
+
+            SessionData loaded1 = store.load("sa1");
+            assertNotNull(loaded1);
+            assertEquals("changed", loaded1.getAttribute("a"));
+            SessionData loaded2 = store.load("sa2");
+            assertNotNull(loaded2);
+            assertEquals(data2.getAccessed(), loaded2.getAccessed());
+            assertEquals("sa2", loaded2.getAttribute("a"));
+            SessionData loaded3 = store.load("sa3");
+            assertNotNull(loaded3);
+            assertEquals("sa3", loaded3.getAttribute("a"));
+        }
+        finally
+        {
+            store.stop();
+        }
+    }
+
+    @Test
+    public void testStoreAllFailureRollsBack() throws Exception
+    {
+        JDBCSessionDataStore store = newStoreAllSessionDataStore();
+        try
+        {
+            SessionData data1 = newStoreAllSessionData(store, "sa1");
+            store.store("sa1", data1);
+            long lastSaved = data1.getLastSaved();
+
+            data1.setAttribute("a", "changed");
+            SessionData data2 = newStoreAllSessionData(store, "sa2");
+            //a new session with the same id as a stored session cannot be inserted
+            SessionData duplicate = newStoreAllSessionData(store, "sa1");
+            assertThrows(Exception.class, () -> store.storeAll(Arrays.asList(data1, data2, duplicate)));
+
+            //nothing was written, and all the sessions must be written again
+            assertTrue(data1.isDirty());
+            assertTrue(data2.isDirty());
+            assertEquals(lastSaved, data1.getLastSaved());
+            assertEquals(0, data2.getLastSaved());
+            assertFalse(JdbcTestHelper.existsInSessionTable("sa2", false));
+            SessionData loaded1 = store.load("sa1");
+            assertNotNull(loaded1);
+            assertEquals("sa1", loaded1.getAttribute("a"));
+
+            store.storeAll(Arrays.asList(data1, data2));
+            assertFalse(data1.isDirty());
+            assertFalse(data2.isDirty());
+            assertEquals("changed", store.load("sa1").getAttribute("a"));
+            assertTrue(JdbcTestHelper.existsInSessionTable("sa2", false));
+        }
+        finally
+        {
+            store.stop();
+        }
+    }
+
+    private JDBCSessionDataStore newStoreAllSessionDataStore() throws Exception
+    {
+        ServletContextHandler context = new ServletContextHandler(ServletContextHandler.SESSIONS);
+        context.setContextPath("/test");
+        JDBCSessionDataStoreFactory factory = (JDBCSessionDataStoreFactory)createSessionDataStoreFactory();
+        factory.setGracePeriodSec(GRACE_PERIOD_SEC);
+        factory.setDeltaWrites(true);
+        JDBCSessionDataStore store = (JDBCSessionDataStore)factory.getSessionDataStore(context.getSessionHandler());
+        store.initialize(new SessionContext("foo", context.getServletContext()));
+        store.start();
+        return store;
+    }
+
+    private static SessionData newStoreAllSessionData(SessionDataStore store, String id)
+    {
+        long now = System.currentTimeMillis();
+        SessionData data = store.newSessionData(id, now, now, now - 1, -1); //never expires
+        data.setAttribute("a", id);
+        return data;
+    }
+
     @Override
     public boolean checkSessionExists(SessionData data) throws Exception
     {
@@ -156,6 +156,62 @@ public class IdleSessionTest
         }
     }
 
+    @Test
+    public void testSessionIdleWithExpiryWheel() throws Exception
+    {
+        String contextPath = "";
+        String servletMapping = "/server";
+        int inactivePeriod = 4;
+        int scavengePeriod = 1;
+        int evictionSec = 1; //evict from cache if idle for 1 sec
+
+        DefaultSessionCacheFactory cacheFactory = new DefaultSessionCacheFactory();
+        cacheFactory.setEvictionPolicy(evictionSec);
+        cacheFactory.setExpiryWheelTick(100);
+        SessionDataStoreFactory storeFactory = new TestSessionDataStoreFactory();
+
+        _server1 = new TestServer(0, inactivePeriod, scavengePeriod, cacheFactory, storeFactory);
+        ServletHolder holder = new ServletHolder(_servlet);
+        ServletContextHandler contextHandler = _server1.addContext(contextPath);
+        contextHandler.addServlet(holder, servletMapping);
+        _server1.start();
+        int port1 = _server1.getPort();
+
+        try (StacklessLogging stackless = new StacklessLogging(IdleSessionTest.class.getPackage()))
+        {
+            HttpClient client = new HttpClient();
+            client.start();
+            String url = "http://localhost:" + port1 + contextPath + servletMapping;
+            AbstractSessionCache cache = (AbstractSessionCache)contextHandler.getSessionHandler().getSessionCache();
+            SessionExpiryWheel wheel = cache.getExpiryWheel();
+            assertNotNull(wheel);
+
+            //make a request to set up a session on the server
+            ContentResponse response = client.GET(url + "?action=init");
+            assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+            String sessionCookie = response.getHeaders().get("Set-Cookie");
+            assertNotNull(sessionCookie);
+            String id = TestServer.extractSessionId(sessionCookie);
+            assertTrue(cache.contains(id));
+
+            //wait until the session should be evicted by the wheel
+            pause(evictionSec * 2);
+            assertFalse(cache.contains(id));
+            assertTrue(cache.getSessionDataStore().exists(id));
+            assertEquals(0, wheel.getSize());
+            assertTrue(wheel.getExpired() > 0);
+
+            //make another request to reactivate the session
+            response = client.newRequest(url + "?action=test").send();
+            assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+            assertTrue(cache.contains(id));
+        }
+        finally
+        {
+            _server1.stop();
+        }
+    }
+
     @Test
     public void testNullSessionCache() throws Exception
     {
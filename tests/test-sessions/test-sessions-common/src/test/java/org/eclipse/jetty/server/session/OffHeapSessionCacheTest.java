@@ -0,0 +1,322 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server.session;
+
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+import javax.servlet.http.HttpSessionActivationListener;
+import javax.servlet.http.HttpSessionEvent;
+
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDir;
+import org.eclipse.jetty.toolchain.test.jupiter.WorkDirExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * OffHeapSessionCacheTest
+ */
+@ExtendWith(WorkDirExtension.class)
+public class OffHeapSessionCacheTest extends AbstractSessionCacheTest
+{
+    public WorkDir workDir;
+
+    public static class SerializableActivationListener implements HttpSessionActivationListener, Serializable
+    {
+        private static final long serialVersionUID = 1L;
+        public static final AtomicInteger passivateCalls = new AtomicInteger();
+        public static final AtomicInteger activateCalls = new AtomicInteger();
+
+        @Override
+        public void sessionWillPassivate(HttpSessionEvent se)
+        {
+            passivateCalls.incrementAndGet();
+        }
+
+        @Override
+        public void sessionDidActivate(HttpSessionEvent se)
+        {
+            activateCalls.incrementAndGet();
+        }
+    }
+
+    @BeforeEach
+    public void resetListener()
+    {
+        SerializableActivationListener.passivateCalls.set(0);
+        SerializableActivationListener.activateCalls.set(0);
+    }
+
+    @Override
+    public AbstractSessionCacheFactory newSessionCacheFactory(int evictionPolicy, boolean saveOnCreate,
+                                                              boolean saveOnInactiveEvict, boolean removeUnloadableSessions,
+                                                              boolean flushOnResponseCommit)
+    {
+        OffHeapSessionCacheFactory factory = new OffHeapSessionCacheFactory();
+        factory.setEvictionPolicy(evictionPolicy);
+        factory.setSaveOnCreate(saveOnCreate);
+        factory.setSaveOnInactiveEvict(saveOnInactiveEvict);
+        factory.setRemoveUnloadableSessions(removeUnloadableSessions);
+        factory.setFlushOnResponseCommit(flushOnResponseCommit);
+        return factory;
+    }
+
+    @Override
+    public void checkSessionBeforeShutdown(String id,
+                                           SessionDataStore store,
+                                           SessionCache cache,
+                                           TestSessionActivationListener activationListener,
+                                           TestHttpSessionListener sessionListener) throws Exception
+    {
+        assertTrue(store.exists(id));
+        assertTrue(cache.contains(id));
+        assertFalse(sessionListener.destroyedSessions.contains(id));
+        assertEquals(1, activationListener.passivateCalls);
+        assertEquals(1, activationListener.activateCalls);
+    }
+
+    @Override
+    public void checkSessionAfterShutdown(String id,
+                                          SessionDataStore store,
+                                          SessionCache cache,
+                                          TestSessionActivationListener activationListener,
+                                          TestHttpSessionListener sessionListener) throws Exception
+    {
+        if (cache.isInvalidateOnShutdown())
+        {
+            assertFalse(store.exists(id));
+            assertFalse(cache.contains(id));
+            assertTrue(sessionListener.destroyedSessions.contains(id));
+        }
+        else
+        {
+            assertTrue(store.exists(id));
+            assertFalse(cache.contains(id));
+            assertEquals(2, activationListener.passivateCalls);
+            assertEquals(1, activationListener.activateCalls); //no re-activate on shutdown
+        }
+    }
+
+    private OffHeapSessionCache newCache(ServletContextHandler context, SessionDataStore store, int maxHotSessions, long maxOffHeapMemory, Path directory)
+    {
+        OffHeapSessionCacheFactory factory = (OffHeapSessionCacheFactory)newSessionCacheFactory(SessionCache.NEVER_EVICT, false, false, false, false);
+        factory.setMaxHotSessions(maxHotSessions);
+        factory.setSegmentSize(4096);
+        factory.setMaxOffHeapMemory(maxOffHeapMemory);
+        factory.setStorageDirectory(directory);
+        OffHeapSessionCache cache = (OffHeapSessionCache)factory.getSessionCache(context.getSessionHandler());
+        cache.setSessionDataStore(store);
+        context.getSessionHandler().setSessionCache(cache);
+        return cache;
+    }
+
+    private static ServletContextHandler newContext()
+    {
+        ServletContextHandler context = new ServletContextHandler(ServletContextHandler.SESSIONS);
+        context.setContextPath("/test");
+        Server server = new Server();
+        server.setHandler(context);
+        return context;
+    }
+
+    private Session addAndRelease(SessionCache cache, SessionDataStore store, String id) throws Exception
+    {
+        Session session = createUnExpiredSession(cache, store, id);
+        cache.add(id, session);
+        session.setAttribute("name", id);
+        session.setAttribute("listener", new SerializableActivationListener());
+        cache.release(id, session);
+        return session;
+    }
+
+    @Test
+    public void testDemoteAndPromote() throws Exception
+    {
+        ServletContextHandler context = newContext();
+        OffHeapSessionCache cache = newCache(context, new NullSessionDataStore(), 1, -1, null);
+        context.start();
+
+        Session session1 = addAndRelease(cache, cache.getSessionDataStore(), "1");
+        long created = session1.getCreationTime();
+        long expiry = session1.getSessionData().getExpiry();
+        addAndRelease(cache, cache.getSessionDataStore(), "2");
+        addAndRelease(cache, cache.getSessionDataStore(), "3");
+
+        // Only the most recently used session remains on the heap.
+        assertEquals(1, cache.getSessionsCurrent());
+        assertEquals(2, cache.getOffHeapSessions());
+        assertEquals(2, cache.getDemotions());
+        assertEquals(2, SerializableActivationListener.passivateCalls.get());
+        assertTrue(cache.getOffHeapUsedMemory() > 0);
+        assertFalse(session1.isResident());
+        for (String id : new String[]{"1", "2", "3"})
+        {
+            assertTrue(cache.contains(id));
+            assertTrue(cache.exists(id));
+        }
+
+        // Accessing a demoted session brings it back without the store.
+        Session promoted = cache.get("1");
+        assertNotNull(promoted);
+        assertNotSame(session1, promoted);
+        assertEquals(created, promoted.getCreationTime());
+        assertEquals(expiry, promoted.getSessionData().getExpiry());
+        assertEquals("1", promoted.getAttribute("name"));
+        assertTrue(promoted.isValid());
+        assertTrue(promoted.isResident());
+        assertEquals(1, cache.getPromotions());
+        assertEquals(1, SerializableActivationListener.activateCalls.get());
+
+        // Releasing it demotes the least recently used session instead.
+        cache.release("1", promoted);
+        assertEquals(1, cache.getSessionsCurrent());
+        assertEquals(2, cache.getOffHeapSessions());
+        assertTrue(promoted.isResident());
+
+        // Deleting a demoted session removes it from off heap.
+        assertNotNull(cache.delete("2"));
+        assertFalse(cache.contains("2"));
+        assertEquals(1, cache.getOffHeapSessions());
+
+        context.stop();
+        assertEquals(0, cache.getOffHeapMemory());
+    }
+
+    @Test
+    public void testDemotedSessionExpiration() throws Exception
+    {
+        ServletContextHandler context = newContext();
+        OffHeapSessionCache cache = newCache(context, new NullSessionDataStore(), 0, -1, null);
+        context.start();
+
+        long now = System.currentTimeMillis();
+        SessionData data = cache.getSessionDataStore().newSessionData("1234", now, now, now, 200);
+        Session session = cache.newSession(data);
+        cache.add("1234", session);
+        cache.release("1234", session);
+        assertEquals(1, cache.getOffHeapSessions());
+        assertTrue(cache.checkExpiration(Collections.emptySet()).isEmpty());
+
+        Thread.sleep(300);
+        Set<String> expired = cache.checkExpiration(Collections.emptySet());
+        assertEquals(Collections.singleton("1234"), expired);
+
+        // Expiring the session promotes it so that it can be invalidated.
+        context.getSessionHandler().invalidate("1234");
+        assertFalse(cache.contains("1234"));
+        assertEquals(0, cache.getOffHeapSessions());
+    }
+
+    @Test
+    public void testEvictWhenOffHeapMemoryIsFull() throws Exception
+    {
+        ServletContextHandler context = newContext();
+        TestSessionDataStore store = new TestSessionDataStore();
+        OffHeapSessionCache cache = newCache(context, store, 0, 0, null);
+        context.start();
+
+        addAndRelease(cache, store, "1234");
+        assertEquals(0, cache.getSessionsCurrent());
+        assertEquals(0, cache.getOffHeapSessions());
+        assertEquals(1, cache.getEvictions());
+        assertFalse(cache.contains("1234"));
+        assertTrue(store.exists("1234"));
+
+        // The evicted session is loaded from the store.
+        Session session = cache.get("1234");
+        assertEquals("1234", session.getAttribute("name"));
+        assertEquals(0, cache.getPromotions());
+    }
+
+    @Test
+    public void testKeepOnHeapWhenNothingToEvictTo() throws Exception
+    {
+        ServletContextHandler context = newContext();
+        OffHeapSessionCache cache = newCache(context, new NullSessionDataStore(), 0, 0, null);
+        context.start();
+
+        addAndRelease(cache, cache.getSessionDataStore(), "1234");
+        assertEquals(1, cache.getSessionsCurrent());
+        assertEquals(0, cache.getEvictions());
+        assertTrue(cache.contains("1234"));
+    }
+
+    @Test
+    public void testMappedStorage() throws Exception
+    {
+        Path directory = workDir.getEmptyPathDir();
+        ServletContextHandler context = newContext();
+        OffHeapSessionCache cache = newCache(context, new NullSessionDataStore(), 0, -1, directory);
+        context.start();
+
+        for (int i = 0; i < 100; ++i)
+        {
+            addAndRelease(cache, cache.getSessionDataStore(), "session" + i);
+        }
+        assertEquals(0, cache.getSessionsCurrent());
+        assertEquals(100, cache.getOffHeapSessions());
+        assertTrue(cache.getOffHeapMemory() > 4096);
+
+        // The mapped files are deleted once mapped.
+        try (Stream<Path> files = Files.list(directory))
+        {
+            assertEquals(0, files.count());
+        }
+
+        for (int i = 0; i < 100; ++i)
+        {
+            Session session = cache.get("session" + i);
+            assertEquals("session" + i, session.getAttribute("name"));
+            cache.release(session.getId(), session);
+        }
+        assertEquals(100, cache.getPromotions());
+        assertEquals(200, cache.getDemotions());
+    }
+
+    @Test
+    public void testInvalidateDemotedSessionsOnShutdown() throws Exception
+    {
+        ServletContextHandler context = newContext();
+        TestSessionDataStore store = new TestSessionDataStore();
+        OffHeapSessionCache cache = newCache(context, store, 1, -1, null);
+        cache.setInvalidateOnShutdown(true);
+        TestHttpSessionListener listener = new TestHttpSessionListener();
+        context.getSessionHandler().addEventListener(listener);
+        context.start();
+
+        addAndRelease(cache, store, "1");
+        addAndRelease(cache, store, "2");
+        assertEquals(1, cache.getOffHeapSessions());
+
+        context.stop();
+        assertTrue(listener.destroyedSessions.contains("1"));
+        assertTrue(listener.destroyedSessions.contains("2"));
+        assertFalse(store.exists("1"));
+        assertFalse(store.exists("2"));
+    }
+}
@@ -0,0 +1,443 @@
+//
+// ========================================================================
+// Copyright (c) 1995 Mort Bay Consulting Pty Ltd and others.
+//
+// This program and the accompanying materials are made available under the
+// terms of the Eclipse Public License v. 2.0 which is available at
+// https://www.eclipse.org/legal/epl-2.0, or the Apache License, Version 2.0
+// which is available at https://www.apache.org/licenses/LICENSE-2.0.
+//
+// SPDX-License-Identifier: EPL-2.0 OR Apache-2.0
+// ========================================================================
+//
+
+package org.eclipse.jetty.server.session;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jetty.servlet.ServletContextHandler;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * WriteBehindSessionDataStoreTest
+ */
+public class WriteBehindSessionDataStoreTest
+{
+    public static class BatchingSessionDataStore extends TestSessionDataStore
+    {
+        public List<Integer> _batches = new CopyOnWriteArrayList<>();
+        public volatile boolean _fail;
+        public volatile CountDownLatch _entered;
+        public volatile CountDownLatch _blocked;
+        public volatile boolean _nextStoreFails;
+
+        @Override
+        public void doStore(String id, SessionData data, long lastSaveTime) throws Exception
+        {
+            if (_nextStoreFails)
+            {
+                _nextStoreFails = false;
+                throw new IllegalStateException("Testing store");
+            }
+            super.doStore(id, data, lastSaveTime);
+        }
+
+        @Override
+        protected void doStoreAll(List<SessionData> sessions, long[] lastSaveTimes) throws Exception
+        {
+            if (_blocked != null)
+            {
+                _entered.countDown();
+                assertTrue(_blocked.await(5, TimeUnit.SECONDS));
+            }
+            if (_fail)
+            {
+                for (int i = 0; i < lastSaveTimes.length; i++)
+                {
+                    sessions.get(i).setLastSaved(lastSaveTimes[i]);
+                }
+                throw new IllegalStateException("Testing store");
+            }
+            _batches.add(sessions.size());
+            super.doStoreAll(sessions, lastSaveTimes);
+        }
+    }
+
+    private static WriteBehindSessionDataStore newStore(BatchingSessionDataStore delegate) throws Exception
+    {
+        ServletContextHandler context = new ServletContextHandler(ServletContextHandler.SESSIONS);
+        context.setContextPath("/test");
+        WriteBehindSessionDataStore store = new WriteBehindSessionDataStore(delegate);
+        store.initialize(new SessionContext("foo", context.getServletContext()));
+        return store;
+    }
+
+    private static SessionData newSessionData(SessionDataStore store, String id)
+    {
+        long now = System.currentTimeMillis();
+        SessionData data = store.newSessionData(id, now, now, now, -1);
+        data.setAttribute("a", id);
+        return data;
+    }
+
+    private static Thread startFlush(WriteBehindSessionDataStore store)
+    {
+        Thread flusher = new Thread(() ->
+        {
+            try
+            {
+                store.flush();
+            }
+            catch (Exception e)
+            {
+                //the test checks the queued sessions
+            }
+        });
+        flusher.start();
+        return flusher;
+    }
+
+    @Test
+    public void testStoresAreCoalescedAndBatched() throws Exception
+    {
+        BatchingSessionDataStore delegate = new BatchingSessionDataStore();
+        WriteBehindSessionDataStore store = newStore(delegate);
+        store.setFlushDelay(100);
+        store.setMaxBatchSize(2);
+        store.start();
+
+        SessionData data1 = newSessionData(store, "1");
+        store.store("1", data1);
+        data1.setAttribute("b", "1");
+        store.store("1", data1);
+        store.store("2", newSessionData(store, "2"));
+        store.store("3", newSessionData(store, "3"));
+        assertEquals(0, delegate._numSaves.get());
+        assertEquals(3, store.getPending());
+        assertEquals(1, store.getCoalescedStores());
+
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (delegate._numSaves.get() < 3 && System.nanoTime() < end)
+        {
+            Thread.sleep(10);
+        }
+        assertEquals(3, delegate._numSaves.get());
+        assertEquals(0, store.getPending());
+        assertEquals(List.of(2, 1), delegate._batches);
+        assertEquals(2, store.getBatches());
+        assertEquals(3, store.getBatchedStores());
+        assertFalse(data1.isDirty());
+        assertTrue(data1.getLastSaved() > 0);
+        assertEquals("1", delegate._map.get("1").getAttribute("b"));
+        store.stop();
+    }
+
+    @Test
+    public void testAttributeChangedWhileWriting() throws Exception
+    {
+        BatchingSessionDataStore delegate = new BatchingSessionDataStore();
+        delegate._entered = new CountDownLatch(1);
+        delegate._blocked = new CountDownLatch(1);
+        WriteBehindSessionDataStore store = newStore(delegate);
+        store.setFlushDelay(TimeUnit.HOURS.toMillis(1));
+        store.start();
+
+        SessionData data = newSessionData(store, "1");
+        store.store("1", data);
+        long lastSaved = data.getLastSaved();
+        assertFalse(data.isDirty());
+
+        Thread flusher = startFlush(store);
+        assertTrue(delegate._entered.await(5, TimeUnit.SECONDS));
+
+        //change the session while its previous state is being written
+        data.setAttribute("a", "changed");
+        delegate._blocked.countDown();
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(flusher.isAlive());
+
+        //the write must not have cleaned the change, nor touched the live session data
+        assertEquals(1, delegate._numSaves.get());
+        assertNotSame(data, delegate._map.get("1"));
+        assertEquals("1", delegate._map.get("1").getAttribute("a"));
+        assertTrue(data.isDirty());
+        assertTrue(data.getDirtyAttributes().contains("a"));
+        assertEquals(lastSaved, data.getLastSaved());
+
+        delegate._blocked = null;
+        store.store("1", data);
+        store.flush();
+        assertEquals(2, delegate._numSaves.get());
+        assertEquals("changed", delegate._map.get("1").getAttribute("a"));
+        assertFalse(data.isDirty());
+        store.stop();
+    }
+
+    @Test
+    public void testLoadAndDeleteWritePendingSession() throws Exception
+    {
+        BatchingSessionDataStore delegate = new BatchingSessionDataStore();
+        WriteBehindSessionDataStore store = newStore(delegate);
+        store.setFlushDelay(TimeUnit.HOURS.toMillis(1));
+        store.start();
+
+        store.store("1", newSessionData(store, "1"));
+        assertTrue(store.exists("1"));
+        SessionData loaded = store.load("1");
+        assertNotNull(loaded);
+        assertEquals("1", loaded.getAttribute("a"));
+        assertEquals(0, store.getPending());
+
+        store.store("2", newSessionData(store, "2"));
+        store.delete("2");
+        assertFalse(store.exists("2"));
+        assertEquals(1, delegate._numSaves.get());
+        assertEquals(0, store.getPending());
+        store.stop();
+    }
+
+    @Test
+    public void testFlushOnStop() throws Exception
+    {
+        BatchingSessionDataStore delegate = new BatchingSessionDataStore();
+        WriteBehindSessionDataStore store = newStore(delegate);
+        store.setFlushDelay(TimeUnit.HOURS.toMillis(1));
+        store.start();
+
+        for (int i = 0; i < 10; i++)
+        {
+            store.store(String.valueOf(i), newSessionData(store, String.valueOf(i)));
+        }
+        assertEquals(0, delegate._numSaves.get());
+
+        store.stop();
+        assertEquals(10, delegate._numSaves.get());
+        assertEquals(Collections.singletonList(10), delegate._batches);
+    }
+
+    @Test
+    public void testMaxPendingStoresSynchronously() throws Exception
+    {
+        BatchingSessionDataStore delegate = new BatchingSessionDataStore();
+        WriteBehindSessionDataStore store = newStore(delegate);
+        store.setFlushDelay(TimeUnit.HOURS.toMillis(1));
+        store.setMaxPending(2);
+        store.start();
+
+        store.store("1", newSessionData(store, "1"));
+        store.store("2", newSessionData(store, "2"));
+        store.store("3", newSessionData(store, "3"));
+        assertEquals(2, store.getPending());
+        assertEquals(1, delegate._numSaves.get());
+        assertEquals(1, store.getSynchronousStores());
+        store.stop();
+    }
+
+    @Test
+    public void testStoreWhileStoppingIsNotOverwritten() throws Exception
+    {
+        BatchingSessionDataStore delegate = new BatchingSessionDataStore();
+        delegate._entered = new CountDownLatch(1);
+        delegate._blocked = new CountDownLatch(1);
+        WriteBehindSessionDataStore store = newStore(delegate);
+        store.setFlushDelay(TimeUnit.HOURS.toMillis(1));
+        store.setMaxBatchSize(1);
+        store.start();
+
+        store.store("1", newSessionData(store, "1"));
+        SessionData data = newSessionData(store, "2");
+        store.store("2", data);
+
+        //stop the store, blocking the write of the first batch
+        Thread stopper = new Thread(() ->
+        {
+            try
+            {
+                store.stop();
+            }
+            catch (Exception e)
+            {
+                //the test checks the written sessions
+            }
+        });
+        stopper.start();
+        assertTrue(delegate._entered.await(5, TimeUnit.SECONDS));
+
+        //store a newer state of a queued session while stopping, which is written synchronously
+        data.setAttribute("a", "changed");
+        store.store("2", data);
+        assertEquals(1, store.getSynchronousStores());
+        assertEquals(0, store.getPending());
+        assertFalse(data.isDirty());
+
+        delegate._blocked.countDown();
+        stopper.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(stopper.isAlive());
+
+        //the older queued state must not have overwritten the newer one
+        assertEquals(List.of(1), delegate._batches);
+        assertEquals("changed", delegate._map.get("2").getAttribute("a"));
+    }
+
+    @Test
+    public void testFailedBatchIsQueuedAgain() throws Exception
+    {
+        BatchingSessionDataStore delegate = new BatchingSessionDataStore();
+        WriteBehindSessionDataStore store = newStore(delegate);
+        store.setFlushDelay(TimeUnit.HOURS.toMillis(1));
+        store.start();
+
+        SessionData data = newSessionData(store, "1");
+        store.store("1", data);
+        delegate._fail = true;
+        assertThrows(IllegalStateException.class, store::flush);
+        assertEquals(1, store.getFailures());
+        assertEquals(1, store.getPending());
+
+        //a newer state stored meanwhile is merged with the failed one
+        data.setAttribute("b", "1");
+        store.store("1", data);
+        assertEquals(1, store.getPending());
+
+        delegate._fail = false;
+        store.flush();
+        assertEquals(0, store.getPending());
+        assertEquals(1, delegate._numSaves.get());
+        SessionData written = delegate._map.get("1");
+        assertEquals("1", written.getAttribute("a"));
+        assertEquals("1", written.getAttribute("b"));
+        assertFalse(written.isDirty());
+        store.stop();
+    }
+
+    @Test
+    public void testAttributeValueChangedAfterStore() throws Exception
+    {
+        BatchingSessionDataStore delegate = new BatchingSessionDataStore();
+        WriteBehindSessionDataStore store = newStore(delegate);
+        store.setFlushDelay(TimeUnit.HOURS.toMillis(1));
+        store.start();
+
+        SessionData data = newSessionData(store, "1");
+        ArrayList<String> list = new ArrayList<>();
+        list.add("stored");
+        data.setAttribute("list", list);
+        store.store("1", data);
+
+        //change the state of the attribute value after the session was stored
+        list.add("changed");
+        store.flush();
+
+        assertEquals(List.of("stored"), delegate._map.get("1").getAttribute("list"));
+        store.stop();
+    }
+
+    @Test
+    public void testFailedFlushOfSessionIsQueuedAgain() throws Exception
+    {
+        BatchingSessionDataStore delegate = new BatchingSessionDataStore();
+        WriteBehindSessionDataStore store = newStore(delegate);
+        store.setFlushDelay(TimeUnit.HOURS.toMillis(1));
+        store.start();
+
+        store.store("1", newSessionData(store, "1"));
+        delegate._nextStoreFails = true;
+        assertThrows(Exception.class, () -> store.load("1"));
+        assertEquals(1, store.getPending());
+        assertEquals(0, delegate._numSaves.get());
+
+        SessionData loaded = store.load("1");
+        assertNotNull(loaded);
+        assertEquals("1", loaded.getAttribute("a"));
+        assertEquals(0, store.getPending());
+        store.stop();
+    }
+
+    @Test
+    public void testSessionDeletedWhileFailingBatchIsNotQueuedAgain() throws Exception
+    {
+        BatchingSessionDataStore delegate = new BatchingSessionDataStore();
+        delegate._entered = new CountDownLatch(1);
+        delegate._blocked = new CountDownLatch(1);
+        delegate._fail = true;
+        WriteBehindSessionDataStore store = newStore(delegate);
+        store.setFlushDelay(TimeUnit.HOURS.toMillis(1));
+        store.start();
+
+        store.store("1", newSessionData(store, "1"));
+        store.store("2", newSessionData(store, "2"));
+        Thread flusher = startFlush(store);
+        assertTrue(delegate._entered.await(5, TimeUnit.SECONDS));
+
+        //delete a session while the batch containing it is being written
+        CountDownLatch deleted = new CountDownLatch(1);
+        Thread deleter = new Thread(() ->
+        {
+            try
+            {
+                store.delete("1");
+                deleted.countDown();
+            }
+            catch (Exception e)
+            {
+                //the latch is not counted down
+            }
+        });
+        deleter.start();
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (deleter.getState() != Thread.State.WAITING && System.nanoTime() < end)
+        {
+            Thread.sleep(10);
+        }
+
+        delegate._blocked.countDown();
+        flusher.join(TimeUnit.SECONDS.toMillis(5));
+        assertFalse(flusher.isAlive());
+        assertTrue(deleted.await(5, TimeUnit.SECONDS));
+
+        //only the session that was not deleted is queued again
+        assertEquals(1, store.getPending());
+        assertFalse(store.exists("1"));
+        assertTrue(store.exists("2"));
+
+        delegate._blocked = null;
+        delegate._fail = false;
+        store.stop();
+        assertFalse(delegate._map.containsKey("1"));
+        assertTrue(delegate._map.containsKey("2"));
+    }
+
+    @Test
+    public void testStopFailsWhenQueuedSessionsCannotBeWritten() throws Exception
+    {
+        BatchingSessionDataStore delegate = new BatchingSessionDataStore();
+        WriteBehindSessionDataStore store = newStore(delegate);
+        store.setFlushDelay(TimeUnit.HOURS.toMillis(1));
+        store.start();
+
+        store.store("1", newSessionData(store, "1"));
+        delegate._fail = true;
+        assertThrows(IllegalStateException.class, store::stop);
+        //the session is not lost, and is written when the store is started again
+        assertEquals(1, store.getPending());
+
+        delegate._fail = false;
+        store.start();
+        store.flush();
+        assertEquals(0, store.getPending());
+        assertEquals(1, delegate._numSaves.get());
+        store.stop();
+    }
+}